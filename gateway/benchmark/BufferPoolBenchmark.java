@@ -0,0 +1,99 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.gateway.transaccioneswompi.domain.WompiWebhookEvent;
+import com.gateway.transaccioneswompi.infrastructure.buffers.BufferPool;
+import com.gateway.transaccioneswompi.infrastructure.buffers.PooledBuffer;
+import com.gateway.transaccioneswompi.infrastructure.dto.WompiWebhookRequest;
+import com.gateway.transaccioneswompi.infrastructure.mappers.RawJsonModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * BENCHMARK - Bytes asignados por webhook: byte[] nuevo vs BufferPool
+ *
+ * Mide cuánta memoria del heap se asigna por operación (lo que después
+ * limpia el GC del young-gen) en los dos lugares donde se usa el pool:
+ * - Entrada: leer el cuerpo del webhook (antes: StreamUtils.copyToByteArray,
+ *   lo que hacía @RequestBody byte[]) y parsearlo con Jackson
+ * - Salida: serializar el evento a JSON para Seguru (antes: writeValueAsBytes)
+ *
+ * Uso (desde gateway, después de mvn compile):
+ *   mvn -q dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp "target/classes:$(cat target/cp.txt)" benchmark/BufferPoolBenchmark.java
+ */
+public class BufferPoolBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 200_000;
+    private static final int ITERATIONS = 500_000;
+
+    private static final byte[] WEBHOOK = ("{\"event\":\"transaction.updated\",\"data\":{\"transaction\":{"
+            + "\"id\":\"1234-1610641025-49201\",\"created_at\":\"2024-03-01T10:15:30.123Z\","
+            + "\"finalized_at\":\"2024-03-01T10:16:00Z\",\"amount_in_cents\":4490000,"
+            + "\"reference\":\"MZQ3X2DE2SMX\",\"customer_email\":\"juan.perez@example.com\",\"currency\":\"COP\","
+            + "\"payment_method_type\":\"NEQUI\",\"status\":\"APPROVED\",\"shipping_address\":null,"
+            + "\"payment_link_id\":null,\"redirect_url\":\"https://reservas.example.com/pagos/resultado\","
+            + "\"payment_source_id\":null,\"billing_data\":null}},"
+            + "\"signature\":{\"properties\":[\"transaction.id\",\"transaction.status\",\"transaction.amount_in_cents\"],"
+            + "\"checksum\":\"3476DDA50F64CD7CBD160689640506FEBEA93239BC524FC0469B2C68A3CC8BD0\"},"
+            + "\"timestamp\":1530291411,\"sent_at\":\"2024-03-01T10:16:01Z\",\"environment\":\"prod\"}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    public static void main(String[] args) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .registerModule(new RawJsonModule());
+        BufferPool pool = new BufferPool(new SimpleMeterRegistry(), 16384, 16);
+        WompiWebhookEvent event = objectMapper.readValue(WEBHOOK, WompiWebhookEvent.class);
+
+        System.out.println("| Etapa | Variante | Bytes asignados por op | ns por op |");
+        System.out.println("|-------|----------|------------------------|-----------|");
+        report("Entrada", "byte[] nuevo", () -> {
+            byte[] body = StreamUtils.copyToByteArray(new ByteArrayInputStream(WEBHOOK));
+            return objectMapper.readValue(body, WompiWebhookRequest.class);
+        });
+        report("Entrada", "BufferPool", () -> {
+            try (PooledBuffer buffer = pool.acquire()) {
+                buffer.readFrom(new ByteArrayInputStream(WEBHOOK), 65536);
+                return objectMapper.readValue(buffer.array(), 0, buffer.length(), WompiWebhookRequest.class);
+            }
+        });
+        report("Salida", "writeValueAsBytes", () -> objectMapper.writeValueAsBytes(event));
+        report("Salida", "BufferPool", () -> {
+            try (PooledBuffer buffer = pool.acquire()) {
+                objectMapper.writeValue(buffer.outputStream(), event);
+                return buffer.length();
+            }
+        });
+    }
+
+    private static void report(String stage, String variant, Callable task) throws Exception {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        Object sink = null;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink = task.call();
+        }
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink = task.call();
+        }
+        double nanos = (System.nanoTime() - start) / (double) ITERATIONS;
+        double bytes = (threads.getThreadAllocatedBytes(thread) - allocatedBefore) / (double) ITERATIONS;
+        if (sink == null) {
+            throw new IllegalStateException();
+        }
+        System.out.printf("| %s | %s | %.0f | %.0f |%n", stage, variant, bytes, nanos);
+    }
+
+    @FunctionalInterface
+    private interface Callable {
+        Object call() throws Exception;
+    }
+}
@@ -0,0 +1,112 @@
+import com.gateway.transaccioneswompi.infrastructure.compression.PooledGzip;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * BENCHMARK - Costo y beneficio de comprimir los envíos a Seguru
+ *
+ * Para webhooks de distintos tamaños mide cuánto se achica el cuerpo con
+ * GZIP (PooledGzip, el mismo compresor del gateway) y cuánta CPU cuesta, y
+ * lo compara con el tiempo de transferencia que se ahorra según el ancho
+ * de banda hacia Seguru. Si la ganancia neta es positiva, conviene activar
+ * external.api.<destino>.compression.enabled.
+ *
+ * Uso (desde gateway, después de mvn compile):
+ *   java -cp target/classes benchmark/CompressionBenchmark.java
+ *   java -cp target/classes benchmark/CompressionBenchmark.java 1 9   (niveles a comparar)
+ */
+public class CompressionBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 20_000;
+    private static final int ITERATIONS = 50_000;
+    // Anchos de banda a comparar (Mbit/s): enlace entre regiones y red local
+    private static final int[] BANDWIDTHS_MBPS = {10, 100, 1000};
+
+    public static void main(String[] args) throws Exception {
+        int[] levels = args.length > 0 ? new int[args.length] : new int[] {1, 6};
+        for (int i = 0; i < args.length; i++) {
+            levels[i] = Integer.parseInt(args[i]);
+        }
+
+        StringBuilder header = new StringBuilder("| Nivel | Ítems | Original (B) | GZIP (B) | Razón | Comprimir (µs) | Descomprimir (µs) |");
+        StringBuilder separator = new StringBuilder("|-------|-------|--------------|----------|-------|----------------|-------------------|");
+        for (int mbps : BANDWIDTHS_MBPS) {
+            header.append(" Ganancia a ").append(mbps).append(" Mbit/s (µs) |");
+            separator.append("------------------|");
+        }
+        System.out.println(header);
+        System.out.println(separator);
+
+        for (int level : levels) {
+            PooledGzip gzip = new PooledGzip(level, 1);
+            for (int items : new int[] {0, 5, 20, 100}) {
+                byte[] payload = webhook(items);
+                byte[] compressed = gzip.compress(payload);
+
+                for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                    gzip.compress(payload);
+                    gunzip(compressed);
+                }
+                double compressMicros = time(() -> gzip.compress(payload));
+                double decompressMicros = time(() -> gunzip(compressed));
+
+                StringBuilder row = new StringBuilder(String.format("| %d | %d | %d | %d | %.2f | %.1f | %.1f |",
+                        level, items, payload.length, compressed.length,
+                        (double) compressed.length / payload.length, compressMicros, decompressMicros));
+                for (int mbps : BANDWIDTHS_MBPS) {
+                    // Bytes ahorrados en el cable vs CPU de comprimir (nosotros) y descomprimir (Seguru)
+                    double savedMicros = (payload.length - compressed.length) * 8.0 / mbps;
+                    row.append(String.format(" %.0f |", savedMicros - compressMicros - decompressMicros));
+                }
+                System.out.println(row);
+            }
+        }
+    }
+
+    private static double time(ThrowingRunnable task) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            task.run();
+        }
+        return (System.nanoTime() - start) / 1000.0 / ITERATIONS;
+    }
+
+    private static byte[] gunzip(byte[] data) throws Exception {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return in.readAllBytes();
+        }
+    }
+
+    /**
+     * Webhook de Wompi con datos de facturación (items ítems) y firma
+     */
+    private static byte[] webhook(int items) {
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < items; i++) {
+            if (i > 0) {
+                lines.append(',');
+            }
+            lines.append(String.format("{\"sku\":\"RES-%05d\",\"description\":\"Noche hotel habitación doble %d\","
+                    + "\"quantity\":%d,\"unit_price_in_cents\":%d,\"tax_in_cents\":%d}",
+                    1000 + i, i, 1 + i % 3, 25_000_000 + i * 1_000, 4_750_000 + i * 190));
+        }
+        String json = "{\"event\":\"transaction.updated\",\"data\":{\"transaction\":{"
+                + "\"id\":\"1234-1610641025-49201\",\"amount_in_cents\":4490000,\"reference\":\"MZQ3X2DE2SMX\","
+                + "\"customer_email\":\"juan.perez@example.com\",\"currency\":\"COP\",\"payment_method_type\":\"NEQUI\","
+                + "\"redirect_url\":\"https://reservas.example.com/pagos/resultado\",\"status\":\"APPROVED\","
+                + "\"shipping_address\":null,\"payment_link_id\":null,\"payment_source_id\":null,"
+                + "\"billing_data\":{\"legal_id_type\":\"CC\",\"legal_id\":\"1020304050\",\"full_name\":\"Juan Pérez\","
+                + "\"phone_number\":\"+573001234567\",\"address\":\"Calle 123 # 45-67, Bogotá\",\"items\":[" + lines + "]}}},"
+                + "\"environment\":\"prod\",\"signature\":{\"properties\":[\"transaction.id\",\"transaction.status\","
+                + "\"transaction.amount_in_cents\"],\"checksum\":\"3476DDA50F64CD7CBD160689640506FEBEA93239BC524FC0469B2C68A3CC8BD0\"},"
+                + "\"timestamp\":1530291411,\"sent_at\":\"2018-07-20T16:45:05.000Z\"}";
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @FunctionalInterface
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,98 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.gateway.transaccioneswompi.domain.WompiWebhookEvent;
+import com.gateway.transaccioneswompi.infrastructure.mappers.EventBinaryCodec;
+import com.gateway.transaccioneswompi.infrastructure.mappers.RawJsonModule;
+
+import java.util.function.Supplier;
+
+/**
+ * BENCHMARK - Codec binario vs JSON para guardar eventos
+ *
+ * Compara tamaño y velocidad de codificar/decodificar un WompiWebhookEvent
+ * con EventBinaryCodec (lo que se guarda en webhook_event, dead_letter y
+ * forward_work) contra Jackson (el formato anterior).
+ *
+ * Uso (desde gateway, después de mvn compile):
+ *   mvn -q dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp "target/classes:$(cat target/cp.txt)" benchmark/EventCodecBenchmark.java
+ */
+public class EventCodecBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 200_000;
+    private static final int ITERATIONS = 500_000;
+
+    private static final String PAYMENT = "{\"event\":\"transaction.updated\",\"data\":{\"transaction\":{"
+            + "\"id\":\"1234-1610641025-49201\",\"created_at\":\"2024-03-01T10:15:30.123Z\","
+            + "\"finalized_at\":\"2024-03-01T10:16:00Z\",\"amount_in_cents\":4490000,"
+            + "\"reference\":\"MZQ3X2DE2SMX\",\"customer_email\":\"juan.perez@example.com\",\"currency\":\"COP\","
+            + "\"payment_method_type\":\"NEQUI\",\"status\":\"APPROVED\",\"shipping_address\":null,"
+            + "\"payment_link_id\":null,\"redirect_url\":\"https://reservas.example.com/pagos/resultado\","
+            + "\"payment_source_id\":null,\"billing_data\":null}},"
+            + "\"signature\":{\"properties\":[\"transaction.id\",\"transaction.status\",\"transaction.amount_in_cents\"],"
+            + "\"checksum\":\"3476DDA50F64CD7CBD160689640506FEBEA93239BC524FC0469B2C68A3CC8BD0\"},"
+            + "\"timestamp\":1530291411,\"sent_at\":\"2024-03-01T10:16:01Z\",\"environment\":\"prod\"}";
+
+    private static final String PAYOUT = "{\"event\":\"payout.updated\",\"data\":{\"transaction\":{"
+            + "\"id\":\"po-9f8e7d6c\",\"amount_in_cents\":1500000,\"reference\":\"LIQ-2024-03-0001\",\"status\":\"FAILED\","
+            + "\"payout_id\":\"P-9f8e7d6c\",\"payee\":{\"name\":\"Ana Gómez\",\"document\":\"52123456\","
+            + "\"bank\":\"Bancolombia\",\"account_type\":\"SAVINGS\",\"account_number\":\"12345678901\","
+            + "\"email\":\"ana.gomez@example.com\"},\"failure_reason\":{\"code\":\"C02\",\"message\":\"Cuenta inválida\"},"
+            + "\"applied_at\":\"2024-03-02T00:00:00Z\"}},\"timestamp\":1709337600,\"sent_at\":\"2024-03-02T00:00:01Z\","
+            + "\"environment\":\"prod\"}";
+
+    public static void main(String[] args) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .registerModule(new RawJsonModule());
+        EventBinaryCodec codec = new EventBinaryCodec(objectMapper);
+
+        System.out.println("| Evento | Formato | Tamaño (B) | Codificar (ns) | Decodificar (ns) |");
+        System.out.println("|--------|---------|------------|----------------|------------------|");
+        for (String[] sample : new String[][] {{"Pago", PAYMENT}, {"Payout", PAYOUT}}) {
+            WompiWebhookEvent event = objectMapper.readValue(sample[1], WompiWebhookEvent.class);
+            byte[] json = objectMapper.writeValueAsBytes(event);
+            byte[] binary = codec.encode(event);
+
+            report(sample[0], "JSON", json.length,
+                    () -> unchecked(() -> objectMapper.writeValueAsBytes(event)),
+                    () -> unchecked(() -> objectMapper.readValue(json, WompiWebhookEvent.class)));
+            report(sample[0], "Binario v1", binary.length,
+                    () -> codec.encode(event),
+                    () -> unchecked(() -> codec.decode(binary)));
+        }
+    }
+
+    private static void report(String name, String format, int size, Supplier<Object> encode, Supplier<Object> decode) {
+        System.out.printf("| %s | %s | %d | %.0f | %.0f |%n", name, format, size, time(encode), time(decode));
+    }
+
+    private static double time(Supplier<Object> task) {
+        Object sink = null;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink = task.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink = task.get();
+        }
+        double nanos = (System.nanoTime() - start) / (double) ITERATIONS;
+        if (sink == null) {
+            throw new IllegalStateException();
+        }
+        return nanos;
+    }
+
+    private static Object unchecked(Callable task) {
+        try {
+            return task.call();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Callable {
+        Object call() throws Exception;
+    }
+}
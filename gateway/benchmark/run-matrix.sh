@@ -0,0 +1,68 @@
+#!/bin/sh
+# ==========================================
+# MATRIZ DE BENCHMARK POR PERFIL DE JVM
+# ==========================================
+# Corre la misma carga contra el gateway con cada perfil de GC
+# (balanced = G1, latency = ZGC, throughput = Parallel) y escribe una tabla
+# con throughput, p99 y la pausa máxima del GC en results/results.md.
+#
+# Uso (desde gateway/benchmark):
+#   ./run-matrix.sh
+#   PROFILES="balanced latency" DURATION=120s CONNECTIONS=128 ./run-matrix.sh
+#
+# Requiere Docker con compose v2 y curl.
+
+set -e
+
+cd "$(dirname "$0")"
+
+PROFILES="${PROFILES:-balanced latency throughput}"
+WARMUP="${WARMUP:-30s}"
+DURATION="${DURATION:-60s}"
+THREADS="${THREADS:-4}"
+CONNECTIONS="${CONNECTIONS:-64}"
+COMPOSE="docker compose -f docker-compose.bench.yml"
+RESULTS=results/results.md
+
+mkdir -p results
+{
+    echo "| Perfil | GC | Req/s | p50 | p99 | Respuestas no-2xx | Pausa máx. GC (s) |"
+    echo "|--------|----|-------|-----|-----|-------------------|-------------------|"
+} > "$RESULTS"
+
+$COMPOSE build gateway
+
+for profile in $PROFILES; do
+    echo "=== Perfil $profile ==="
+    GATEWAY_JVM_PROFILE=$profile $COMPOSE up -d gateway stub-reservas stub-aliados
+
+    # Esperar a que el gateway esté listo
+    until curl -sf http://localhost:3001/actuator/health > /dev/null; do
+        sleep 1
+    done
+
+    # Calentamiento: el JIT compila los caminos calientes (no se mide)
+    $COMPOSE run --rm wrk -t"$THREADS" -c"$CONNECTIONS" -d"$WARMUP" \
+        -s /scripts/webhook.lua http://gateway:3001 > /dev/null
+
+    $COMPOSE run --rm wrk -t"$THREADS" -c"$CONNECTIONS" -d"$DURATION" --latency \
+        -s /scripts/webhook.lua http://gateway:3001 | tee "results/wrk-$profile.txt"
+
+    $COMPOSE logs gateway > "results/gateway-$profile.log"
+    curl -s http://localhost:3001/actuator/metrics/jvm.gc.pause > "results/gc-$profile.json"
+
+    rps=$(awk '/Requests\/sec/ {print $2}' "results/wrk-$profile.txt")
+    p50=$(awk '$1 == "50%" {print $2}' "results/wrk-$profile.txt")
+    p99=$(awk '$1 == "99%" {print $2}' "results/wrk-$profile.txt")
+    non2xx=$(awk '/Non-2xx/ {print $5}' "results/wrk-$profile.txt")
+    # MAX de Micrometer: la pausa más larga de los últimos minutos
+    gc=$(grep -o '"statistic":"MAX","value":[0-9.E-]*' "results/gc-$profile.json" | sed 's/.*://')
+    collector=$(grep -o 'Using [A-Za-z0-9 ]*' "results/gateway-$profile.log" | head -1 | sed 's/Using //')
+
+    echo "| $profile | ${collector:-?} | $rps | $p50 | $p99 | ${non2xx:-0} | ${gc:-?} |" >> "$RESULTS"
+
+    $COMPOSE down
+done
+
+echo
+cat "$RESULTS"
@@ -0,0 +1,36 @@
+"""
+Destino de prueba para el benchmark: simula Reservas / Aliados de Seguru.
+
+Responde 200 {"success": true} después de STUB_DELAY_MS milisegundos
+(la latencia típica de Seguru), para medir el gateway y no el destino.
+Solo usa la librería estándar de Python.
+"""
+import json
+import os
+import time
+from http.server import BaseHTTPRequestHandler, ThreadingHTTPServer
+
+DELAY_SECONDS = int(os.environ.get("STUB_DELAY_MS", "20")) / 1000.0
+PORT = int(os.environ.get("STUB_PORT", "8080"))
+BODY = json.dumps({"success": True, "message": "Recibido por el stub"}).encode("utf-8")
+
+
+class Handler(BaseHTTPRequestHandler):
+    protocol_version = "HTTP/1.1"
+
+    def do_POST(self):
+        self.rfile.read(int(self.headers.get("Content-Length", "0")))
+        time.sleep(DELAY_SECONDS)
+        self.send_response(200)
+        self.send_header("Content-Type", "application/json")
+        self.send_header("Content-Length", str(len(BODY)))
+        self.end_headers()
+        self.wfile.write(BODY)
+
+    def log_message(self, format, *args):
+        pass
+
+
+if __name__ == "__main__":
+    ThreadingHTTPServer.daemon_threads = True
+    ThreadingHTTPServer(("0.0.0.0", PORT), Handler).serve_forever()
@@ -0,0 +1,43 @@
+-- Genera webhooks de Wompi con un ID de transacción distinto en cada petición
+-- (si se repitiera, la cola los combinaría y el benchmark mediría menos trabajo).
+-- Uso: wrk -s webhook.lua ...
+
+local counter = 0
+local statuses = { "APPROVED", "DECLINED", "PENDING" }
+
+wrk.method = "POST"
+wrk.headers["Content-Type"] = "application/json"
+
+function setup(thread)
+    counter = counter + 1
+    thread:set("prefix", "bench-" .. counter .. "-")
+end
+
+local sequence = 0
+
+request = function()
+    sequence = sequence + 1
+    local status = statuses[(sequence % #statuses) + 1]
+    local body = string.format([[{
+  "event": "transaction.updated",
+  "data": { "transaction": {
+    "id": "%s%d",
+    "created_at": "2024-01-15T10:00:00.000Z",
+    "finalized_at": "2024-01-15T10:00:05.000Z",
+    "amount_in_cents": 4490000,
+    "reference": "REF-%s%d",
+    "customer_email": "cliente@example.com",
+    "currency": "COP",
+    "payment_method_type": "CARD",
+    "status": "%s",
+    "shipping_address": { "address_line_1": "Calle 1 # 2-3", "city": "Bogotá" },
+    "redirect_url": "https://example.com/resultado",
+    "payment_link_id": null
+  } },
+  "environment": "test",
+  "signature": { "properties": ["transaction.id", "transaction.status"], "checksum": "abc123" },
+  "timestamp": %d,
+  "sent_at": "2024-01-15T10:00:06.000Z"
+}]], prefix, sequence, prefix, sequence, status, 1705312806 + sequence)
+    return wrk.format(nil, "/api-gateway/wompi/update-transaction", nil, body)
+end
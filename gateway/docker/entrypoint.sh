@@ -0,0 +1,68 @@
+#!/bin/sh
+# ==========================================
+# ARRANQUE DEL GATEWAY EN EL CONTENEDOR
+# ==========================================
+# Arma las opciones de la JVM según el perfil elegido y la memoria del
+# contenedor, y reemplaza este shell por Java (exec) para que SIGTERM le llegue.
+#
+# Variables:
+#   GATEWAY_JVM_PROFILE   Recolector de basura (GC):
+#                         balanced   → G1 (por defecto): pausas cortas y buen rendimiento
+#                         latency    → ZGC: pausas de ~1 ms, usa algo más de CPU y memoria
+#                         throughput → Parallel: máximo rendimiento, pausas más largas
+#   GATEWAY_HEAP_PERCENT  Heap máximo como % de la memoria del contenedor (por defecto 70).
+#                         El resto queda para metaspace, hilos, buffers y el journal (mmap)
+#   GATEWAY_GC_LOG        true: imprime cada pausa del GC en la salida (para correlacionar
+#                         con los timeouts de Wompi)
+#   GATEWAY_JVM_DRY_RUN   true: solo imprime el comando, no arranca (para revisar)
+#   JAVA_OPTS             Opciones extra; van al final, así pueden sobrescribir todo lo anterior
+#
+# IMPORTANTE: el % se calcula sobre el límite de memoria del contenedor
+# (mem_limit en docker-compose.yml). Sin límite, la JVM ve toda la memoria del equipo.
+
+set -e
+
+PROFILE="${GATEWAY_JVM_PROFILE:-balanced}"
+HEAP_PERCENT="${GATEWAY_HEAP_PERCENT:-70}"
+
+case "$PROFILE" in
+    balanced)
+        GC_OPTS="-XX:+UseG1GC -XX:MaxGCPauseMillis=100"
+        ;;
+    latency)
+        GC_OPTS="-XX:+UseZGC"
+        ;;
+    throughput)
+        GC_OPTS="-XX:+UseParallelGC"
+        ;;
+    *)
+        echo "GATEWAY_JVM_PROFILE inválido: '$PROFILE' (use balanced, latency o throughput)" >&2
+        exit 1
+        ;;
+esac
+
+# Heap fijo (inicial = máximo): evita pausas por crecer el heap durante un pico
+MEMORY_OPTS="-XX:InitialRAMPercentage=$HEAP_PERCENT -XX:MaxRAMPercentage=$HEAP_PERCENT"
+
+# Si se acaba la memoria, mejor reiniciar el contenedor que seguir a medias
+OTHER_OPTS="-XX:+ExitOnOutOfMemoryError"
+
+if [ "$GATEWAY_GC_LOG" = "true" ]; then
+    OTHER_OPTS="$OTHER_OPTS -Xlog:gc:stdout:time,uptime"
+fi
+
+# AppCDS (ver Dockerfile): si el archivo no existe o no sirve, la JVM lo ignora
+if [ -f app.jsa ]; then
+    OTHER_OPTS="$OTHER_OPTS -XX:SharedArchiveFile=app.jsa"
+fi
+
+set -- java $GC_OPTS $MEMORY_OPTS $OTHER_OPTS $JAVA_OPTS \
+    -Dspring.aot.enabled=true -cp "$(cat classpath)" com.gateway.App "$@"
+
+if [ "$GATEWAY_JVM_DRY_RUN" = "true" ]; then
+    echo "$@"
+    exit 0
+fi
+
+echo "Perfil de JVM: $PROFILE (heap $HEAP_PERCENT% de la memoria del contenedor)"
+exec "$@"
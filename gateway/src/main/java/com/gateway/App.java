@@ -1,9 +1,12 @@
 package com.gateway;
 
+import com.gateway.transaccioneswompi.infrastructure.config.GatewayRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(GatewayRuntimeHints.class)
 public class App {
     public static void main(String[] args) {
         SpringApplication.run(App.class, args);
@@ -0,0 +1,336 @@
+package com.gateway.transaccioneswompi.app.cluster;
+
+import com.gateway.transaccioneswompi.app.forwarding.ForwardingQueue;
+import com.gateway.transaccioneswompi.domain.WompiWebhookEvent;
+import com.gateway.transaccioneswompi.domain.ports.ForwardWorkPort;
+import com.gateway.transaccioneswompi.domain.ports.ForwardWorkPort.PendingWork;
+import com.gateway.transaccioneswompi.domain.ports.PartitionLeasePort;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MODO CLÚSTER - Reparto del reenvío entre réplicas (Application Layer)
+ *
+ * Con varias réplicas detrás del balanceador, cada webhook llega a una
+ * réplica cualquiera. En modo clúster esa réplica no lo reenvía: lo guarda
+ * en la tabla de trabajo pendiente (ForwardWorkPort), en la partición
+ * hash(ID de transacción) % partitions, y responde 200 a Wompi.
+ *
+ * Cada partición tiene un solo dueño a la vez (PartitionLeasePort):
+ * - Coordinador: cada heartbeat-interval-ms la réplica envía su latido,
+ *   renueva sus particiones y toma o suelta particiones hasta quedar con
+ *   su parte justa (particiones / réplicas vivas, redondeado hacia arriba)
+ * - Lector: cada poll-interval-ms lee lo pendiente de SUS particiones y lo
+ *   pasa a la ForwardingQueue local. La fila se borra solo cuando el evento
+ *   quedó a salvo (entregado o guardado en dead letters); si la cola lo
+ *   rechaza o el dead letter falló, se vuelve a leer
+ *
+ * Al rebalancear, una partición sobrante deja de leerse pero se sigue
+ * renovando hasta que terminan sus filas en vuelo; recién ahí se suelta.
+ * Así la réplica que la toma no envía lo mismo en paralelo (y fuera de orden).
+ *
+ * Si una réplica se cae, sus arriendos vencen (lease-ttl-ms) y las demás
+ * toman sus particiones. Un evento que dos réplicas alcancen a leer durante
+ * el cambio de dueño se envía una sola vez (ForwardDeduplicator).
+ *
+ * Como todas las transacciones de una partición las drena la misma réplica,
+ * se mantiene el orden por transacción de la cola local.
+ *
+ * IMPORTANTE: solo escala con una base de datos compartida (la H2 por
+ * defecto es en memoria, una por réplica) y con los relojes sincronizados.
+ */
+@Component
+public class ClusterForwarder implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterForwarder.class);
+
+    private final ForwardWorkPort work;
+    private final PartitionLeasePort leases;
+    private final ForwardingQueue forwardingQueue;
+
+    private final boolean enabled;
+    private final String nodeId;
+    private final int partitions;
+    private final Duration leaseTtl;
+    private final long heartbeatIntervalMillis;
+    private final long pollIntervalMillis;
+    private final int batchSize;
+    private final int maxQueueBacklog;
+
+    // Particiones propias → último id leído (lo ya pasado a la cola no se vuelve a leer)
+    private final Map<Integer, Long> held = new ConcurrentHashMap<>();
+    // Particiones a soltar: ya no se leen, se sueltan cuando no les queda nada en vuelo
+    private final Set<Integer> releasing = ConcurrentHashMap.newKeySet();
+    // Filas en la cola local esperando su resultado → su partición
+    private final Map<Long, Integer> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter enqueued;
+    private final Counter completed;
+    private final Counter retried;
+    private final Counter acquired;
+    private final Counter lost;
+
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+
+    public ClusterForwarder(
+            ForwardWorkPort work,
+            PartitionLeasePort leases,
+            ForwardingQueue forwardingQueue,
+            MeterRegistry meterRegistry,
+            @Value("${gateway.cluster.enabled:false}") boolean enabled,
+            @Value("${gateway.instance-id:gateway}") String nodeId,
+            @Value("${gateway.cluster.partitions:64}") int partitions,
+            @Value("${gateway.cluster.lease-ttl-ms:15000}") long leaseTtlMillis,
+            @Value("${gateway.cluster.heartbeat-interval-ms:5000}") long heartbeatIntervalMillis,
+            @Value("${gateway.cluster.poll-interval-ms:200}") long pollIntervalMillis,
+            @Value("${gateway.cluster.batch-size:100}") int batchSize,
+            @Value("${gateway.cluster.max-queue-backlog:500}") int maxQueueBacklog) {
+        this.work = work;
+        this.leases = leases;
+        this.forwardingQueue = forwardingQueue;
+        this.enabled = enabled;
+        this.nodeId = nodeId;
+        this.partitions = Math.max(1, partitions);
+        this.leaseTtl = Duration.ofMillis(leaseTtlMillis);
+        this.heartbeatIntervalMillis = heartbeatIntervalMillis;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.batchSize = batchSize;
+        this.maxQueueBacklog = maxQueueBacklog;
+
+        meterRegistry.gauge("gateway.cluster.partitions.owned", held, Map::size);
+        this.enqueued = meterRegistry.counter("gateway.cluster.work", "result", "enqueued");
+        this.completed = meterRegistry.counter("gateway.cluster.work", "result", "completed");
+        this.retried = meterRegistry.counter("gateway.cluster.work", "result", "retried");
+        this.acquired = meterRegistry.counter("gateway.cluster.partitions.changes", "change", "acquired");
+        this.lost = meterRegistry.counter("gateway.cluster.partitions.changes", "change", "lost");
+    }
+
+    /**
+     * @return true si los webhooks se guardan en la tabla de trabajo en vez
+     *         de enviarse desde la réplica que los recibió
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Guarda el evento para que lo reenvíe la réplica dueña de su partición
+     *
+     * Es síncrono: al retornar el evento está en la base de datos.
+     * Si la base de datos falla, lanza la excepción (el controlador responde 503).
+     */
+    public void enqueue(WompiWebhookEvent event) {
+        work.enqueue(event, partitionOf(event));
+        enqueued.increment();
+    }
+
+    int partitionOf(WompiWebhookEvent event) {
+        String key = event.transaction() != null ? event.transaction().id() : null;
+        return key == null ? 0 : Math.floorMod(key.hashCode(), partitions);
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        leases.initialize(partitions);
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cluster-forwarder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::coordinate, 0, heartbeatIntervalMillis, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::poll, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+        running = true;
+        log.info("Modo clúster activo: réplica {}, {} particiones, arriendo de {} ms",
+                 nodeId, partitions, leaseTtl.toMillis());
+    }
+
+    /**
+     * Latido, renovación y reparto de particiones
+     */
+    void coordinate() {
+        try {
+            leases.heartbeat(nodeId);
+
+            for (Integer partition : new ArrayList<>(held.keySet())) {
+                if (!leases.renew(partition, nodeId, leaseTtl)) {
+                    held.remove(partition);
+                    lost.increment();
+                    log.warn("⚠ Partición {} perdida (el arriendo venció y la tomó otra réplica)", partition);
+                }
+            }
+            for (Integer partition : new ArrayList<>(releasing)) {
+                if (!leases.renew(partition, nodeId, leaseTtl)) {
+                    releasing.remove(partition);
+                    lost.increment();
+                    log.warn("⚠ Partición {} perdida mientras se soltaba", partition);
+                }
+            }
+
+            // El latido vale por un ttl: una réplica que dejó de latir ya no cuenta
+            int nodes = Math.max(1, leases.liveNodes(leaseTtl));
+            int target = (partitions + nodes - 1) / nodes;
+
+            if (held.size() < target) {
+                for (Integer partition : leases.available()) {
+                    if (held.size() >= target) {
+                        break;
+                    }
+                    if (!held.containsKey(partition) && !releasing.contains(partition)
+                            && leases.tryAcquire(partition, nodeId, leaseTtl)) {
+                        held.put(partition, 0L);
+                        acquired.increment();
+                    }
+                }
+            } else if (held.size() > target) {
+                // Llegó una réplica nueva: dejamos de leer el excedente para soltarlo
+                List<Integer> extra = List.copyOf(new ArrayList<>(held.keySet()).subList(target, held.size()));
+                for (Integer partition : extra) {
+                    held.remove(partition);
+                    releasing.add(partition);
+                }
+                log.info("Particiones a liberar para rebalancear: {} (réplicas vivas: {})", extra.size(), nodes);
+            }
+
+            releaseDrained();
+        } catch (RuntimeException e) {
+            // Si la base de datos no responde, los arriendos vencen solos; reintentamos en el próximo ciclo
+            log.error("✗ Error coordinando particiones del clúster: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Suelta las particiones a liberar que ya no tienen filas en la cola local
+     */
+    private void releaseDrained() {
+        for (Integer partition : new ArrayList<>(releasing)) {
+            if (!inFlight.containsValue(partition)) {
+                leases.release(partition, nodeId);
+                releasing.remove(partition);
+                log.info("Partición {} liberada", partition);
+            }
+        }
+    }
+
+    /**
+     * Pasa a la cola local lo pendiente de las particiones propias
+     */
+    void poll() {
+        try {
+            for (Integer partition : new ArrayList<>(held.keySet())) {
+                if (!forwardingQueue.isAccepting()) {
+                    return;
+                }
+                // Backpressure: lo que no cabe en la cola local espera en la tabla
+                int room = Math.min(batchSize, maxQueueBacklog - forwardingQueue.size());
+                if (room <= 0) {
+                    return;
+                }
+                Long afterId = held.get(partition);
+                if (afterId == null) {
+                    continue;
+                }
+                for (PendingWork pending : work.findPending(partition, afterId, room)) {
+                    held.computeIfPresent(partition, (p, last) -> Math.max(last, pending.id()));
+                    if (inFlight.putIfAbsent(pending.id(), partition) == null) {
+                        submit(pending);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("✗ Error leyendo el trabajo pendiente del clúster: {}", e.getMessage());
+        }
+    }
+
+    private void submit(PendingWork pending) {
+        forwardingQueue.submit(pending.event()).whenComplete((result, error) -> {
+            try {
+                if (error == null && result.isPersisted()) {
+                    // Entregado o guardado en dead letters por el caso de uso
+                    work.complete(pending.id());
+                    completed.increment();
+                } else {
+                    // Rechazado (cola llena, apagándose, otra réplica lo está enviando) o
+                    // el dead letter no se pudo guardar: la fila queda y se vuelve a leer
+                    // desde ese punto de la partición
+                    retried.increment();
+                    held.computeIfPresent(pending.partition(), (p, last) -> Math.min(last, pending.id() - 1));
+                }
+            } catch (RuntimeException e) {
+                // La fila queda: se reenvía de nuevo y la deduplicación lo descarta
+                log.error("✗ No se pudo completar el trabajo {} del clúster: {}", pending.id(), e.getMessage());
+            } finally {
+                inFlight.remove(pending.id());
+            }
+        });
+    }
+
+    /**
+     * Deja de leer trabajo y suelta las particiones para que las tomen las demás réplicas
+     *
+     * Lo que ya está en la cola local lo drena ForwardingShutdown (se detiene después)
+     */
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        scheduler.shutdown();
+        try {
+            // Sin interrumpir: el ciclo en curso puede estar en medio de JDBC
+            scheduler.awaitTermination(leaseTtl.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<Integer> owned = new ArrayList<>(held.keySet());
+        owned.addAll(releasing);
+        int released = owned.size();
+        try {
+            for (Integer partition : owned) {
+                leases.release(partition, nodeId);
+            }
+            leases.leave(nodeId);
+            log.info("✓ Modo clúster detenido: {} particiones liberadas", released);
+        } catch (RuntimeException e) {
+            log.error("✗ No se pudieron liberar las particiones (vencerán en {} ms): {}",
+                      leaseTtl.toMillis(), e.getMessage());
+        }
+        held.clear();
+        releasing.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Mayor que la fase de ForwardingShutdown: se deja de leer trabajo antes de drenar la cola
+     */
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 256;
+    }
+}
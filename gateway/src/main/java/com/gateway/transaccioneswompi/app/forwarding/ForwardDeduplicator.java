@@ -0,0 +1,179 @@
+package com.gateway.transaccioneswompi.app.forwarding;
+
+import com.gateway.transaccioneswompi.domain.TransactionStatus;
+import com.gateway.transaccioneswompi.domain.WompiWebhookEvent;
+import com.gateway.transaccioneswompi.domain.ports.DedupStorePort;
+import com.gateway.transaccioneswompi.domain.ports.DedupStorePort.ClaimResult;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Deduplicación de reenvíos entre réplicas (Application Layer)
+ *
+ * Antes de reenviar, la cola pregunta aquí si (transacción, estado) ya se
+ * entregó o si otra réplica lo está entregando (DedupStorePort).
+ *
+ * - Near-cache: las llaves ya ENTREGADAS se recuerdan localmente (LRU), así
+ *   los reintentos de Wompi sobre transacciones recientes no van a la base
+ *   de datos. Solo se cachea "entregado", que ya no cambia; "en curso" sí
+ *   cambia y siempre se consulta al almacén
+ * - Si el almacén falla, se reenvía igual (preferimos un duplicado a perder
+ *   un pago) y se cuenta en gateway.dedup.checks{result=error}
+ *
+ * Thread-safe: lo usan los hilos de todos los stripes.
+ */
+@Component
+public class ForwardDeduplicator {
+
+    private static final Logger log = LoggerFactory.getLogger(ForwardDeduplicator.class);
+
+    private final DedupStorePort store;
+    private final boolean enabled;
+
+    // Llaves ya entregadas (protegido por synchronized)
+    private final Map<String, Boolean> delivered;
+
+    private final Map<ClaimResult, Counter> checks = new EnumMap<>(ClaimResult.class);
+    private final Counter nearCacheHits;
+    private final Counter errors;
+
+    public ForwardDeduplicator(
+            DedupStorePort store,
+            MeterRegistry meterRegistry,
+            @Value("${gateway.dedup.enabled:true}") boolean enabled,
+            @Value("${gateway.dedup.near-cache-size:50000}") int nearCacheSize) {
+        this.store = store;
+        this.enabled = enabled;
+        this.delivered = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > nearCacheSize;
+            }
+        };
+        for (ClaimResult result : ClaimResult.values()) {
+            checks.put(result, meterRegistry.counter("gateway.dedup.checks", "result", result.name().toLowerCase()));
+        }
+        this.nearCacheHits = meterRegistry.counter("gateway.dedup.checks", "result", "near_cache");
+        this.errors = meterRegistry.counter("gateway.dedup.checks", "result", "error");
+    }
+
+    /**
+     * Reclama el reenvío del evento
+     *
+     * @return CLAIMED si hay que reenviarlo (también si la deduplicación
+     *         está apagada, el evento no trae ID/estado o el almacén falló)
+     */
+    public ClaimResult claim(WompiWebhookEvent event) {
+        String transactionId = transactionId(event);
+        String status = status(event);
+        if (!enabled || transactionId == null || status == null) {
+            return ClaimResult.CLAIMED;
+        }
+        if (isCached(transactionId, status)) {
+            nearCacheHits.increment();
+            return ClaimResult.DELIVERED;
+        }
+
+        ClaimResult result;
+        try {
+            result = store.tryClaim(transactionId, status);
+        } catch (RuntimeException e) {
+            errors.increment();
+            log.error("✗ No se pudo consultar la deduplicación de {} ({}), se reenvía igual: {}",
+                      transactionId, status, e.getMessage());
+            return ClaimResult.CLAIMED;
+        }
+        if (result == ClaimResult.DELIVERED) {
+            cache(transactionId, status);
+        }
+        checks.get(result).increment();
+        return result;
+    }
+
+    /**
+     * ¿Seguru ya recibió un estado final de la transacción y este evento no es final?
+     * (ej: un PENDING en dead letters cuando ya se entregó el APPROVED)
+     *
+     * @return false si no se puede saber (deduplicación apagada o almacén caído)
+     */
+    public boolean isSupersededByFinal(WompiWebhookEvent event) {
+        String transactionId = transactionId(event);
+        TransactionStatus status = event.transaction() != null ? event.transaction().status() : null;
+        if (!enabled || transactionId == null || status == null || status.isFinal()) {
+            return false;
+        }
+        try {
+            return store.deliveredStatuses(transactionId).stream()
+                    .map(TransactionStatus::of)
+                    .anyMatch(TransactionStatus::isFinal);
+        } catch (RuntimeException e) {
+            errors.increment();
+            log.error("✗ No se pudieron consultar los estados entregados de {}: {}", transactionId, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * El evento se entregó: las demás réplicas ya no lo reenvían
+     */
+    public void delivered(WompiWebhookEvent event) {
+        String transactionId = transactionId(event);
+        String status = status(event);
+        if (!enabled || transactionId == null || status == null) {
+            return;
+        }
+        cache(transactionId, status);
+        try {
+            store.markDelivered(transactionId, status);
+        } catch (RuntimeException e) {
+            errors.increment();
+            log.error("✗ No se pudo registrar la entrega de {} ({}) para deduplicación: {}",
+                      transactionId, status, e.getMessage());
+        }
+    }
+
+    /**
+     * El evento no se pudo entregar: se libera para que un reintento lo vuelva a intentar
+     */
+    public void failed(WompiWebhookEvent event) {
+        String transactionId = transactionId(event);
+        String status = status(event);
+        if (!enabled || transactionId == null || status == null) {
+            return;
+        }
+        try {
+            store.release(transactionId, status);
+        } catch (RuntimeException e) {
+            // El reclamo expira solo (claim-timeout-ms)
+            errors.increment();
+            log.error("✗ No se pudo liberar el reclamo de {} ({}): {}", transactionId, status, e.getMessage());
+        }
+    }
+
+    private synchronized boolean isCached(String transactionId, String status) {
+        return delivered.containsKey(transactionId + ':' + status);
+    }
+
+    private synchronized void cache(String transactionId, String status) {
+        delivered.put(transactionId + ':' + status, Boolean.TRUE);
+    }
+
+    private static String transactionId(WompiWebhookEvent event) {
+        return event.transaction() != null ? event.transaction().id() : null;
+    }
+
+    private static String status(WompiWebhookEvent event) {
+        return event.transaction() != null && event.transaction().status() != null
+                ? event.transaction().status().value()
+                : null;
+    }
+}
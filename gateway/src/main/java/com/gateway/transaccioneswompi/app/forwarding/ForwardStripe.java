@@ -0,0 +1,151 @@
+package com.gateway.transaccioneswompi.app.forwarding;
+
+import com.gateway.transaccioneswompi.domain.EventPriority;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Stripe (partición) de la cola de reenvío
+ *
+ * Cada transacción siempre cae en el mismo stripe (hash de su ID) y cada
+ * stripe lo atiende UN SOLO hilo. Así los eventos de una misma transacción
+ * se entregan en orden, y transacciones distintas avanzan en paralelo
+ * en los demás stripes.
+ *
+ * Además, si una transacción acumula varias actualizaciones sin enviar
+ * (ej: Seguru lento), solo se conserva la más reciente.
+ */
+class ForwardStripe {
+
+    private final int index;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final PriorityTaskBuffer buffer;
+
+    // Tarea pendiente (aún no enviada) de cada transacción, para coalescer
+    private final Map<String, ForwardTask> pendingByKey = new HashMap<>();
+
+    // Solo lo usa el hilo de este stripe, no necesita lock
+    private final StaleUpdateFilter staleFilter;
+
+    ForwardStripe(int index, long maxWaitNanos, int staleFilterEntries) {
+        this.index = index;
+        this.buffer = new PriorityTaskBuffer(maxWaitNanos);
+        this.staleFilter = new StaleUpdateFilter(staleFilterEntries);
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    StaleUpdateFilter getStaleFilter() {
+        return staleFilter;
+    }
+
+    /**
+     * Agrega una tarea al stripe, coalesciendo con la pendiente de su transacción
+     *
+     * Si la transacción ya tenía una tarea sin enviar, solo sobrevive la más
+     * reciente (ver ForwardTask.isNewerThan) y la otra queda reemplazada.
+     *
+     * @return La tarea que quedó reemplazada (la nueva o la que estaba), o null
+     */
+    ForwardTask add(ForwardTask task) {
+        lock.lock();
+        try {
+            String key = task.getPartitionKey();
+            ForwardTask pending = key != null ? pendingByKey.get(key) : null;
+
+            if (pending == null) {
+                enqueue(key, task);
+                return null;
+            }
+
+            if (task.isNewerThan(pending)) {
+                buffer.remove(pending);
+                task.absorb(pending);
+                enqueue(key, task);
+                return pending;
+            }
+
+            // La tarea nueva es más vieja que la pendiente: no se envía
+            task.markSuperseded();
+            pending.absorb(task);
+            return task;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void enqueue(String key, ForwardTask task) {
+        buffer.add(task);
+        if (key != null) {
+            pendingByKey.put(key, task);
+        }
+        notEmpty.signal();
+    }
+
+    /**
+     * Espera y saca la siguiente tarea del stripe (según prioridad)
+     */
+    ForwardTask take() throws InterruptedException {
+        lock.lock();
+        try {
+            ForwardTask task;
+            while ((task = buffer.poll(System.nanoTime())) == null) {
+                notEmpty.await();
+            }
+            // Ya no está pendiente: desde aquí no se puede coalescer
+            if (task.getPartitionKey() != null) {
+                pendingByKey.remove(task.getPartitionKey(), task);
+            }
+            return task;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Saca todas las tareas pendientes del stripe (usado al apagar)
+     */
+    List<ForwardTask> drainAll() {
+        lock.lock();
+        try {
+            pendingByKey.clear();
+            return buffer.drainAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return buffer.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size(EventPriority priority) {
+        lock.lock();
+        try {
+            return buffer.size(priority);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long overdueServed() {
+        lock.lock();
+        try {
+            return buffer.getOverdueServed();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
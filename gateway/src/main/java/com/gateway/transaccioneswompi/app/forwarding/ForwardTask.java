@@ -0,0 +1,182 @@
+package com.gateway.transaccioneswompi.app.forwarding;
+
+import com.gateway.transaccioneswompi.app.usecases.ProcessWompiWebhookUseCase.ProcessingResult;
+import com.gateway.transaccioneswompi.domain.EventPriority;
+import com.gateway.transaccioneswompi.domain.TransactionStatus;
+import com.gateway.transaccioneswompi.domain.WompiWebhookEvent;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Tarea de reenvío: un evento esperando ser enviado a Seguru
+ *
+ * Quien encola el evento recibe el CompletableFuture y puede esperar
+ * el resultado (el controlador lo hace para responderle a Wompi).
+ *
+ * Si mientras espera llega un evento más nuevo de la misma transacción,
+ * esta tarea se "coalesce": no se envía, y su resultado será el mismo
+ * de la tarea que la reemplazó. El historial de estados reemplazados
+ * queda en la tarea sobreviviente para auditoría.
+ */
+public class ForwardTask {
+
+    // Límite del historial de coalescencia por tarea (para no crecer sin control)
+    private static final int MAX_HISTORY = 32;
+
+    private final WompiWebhookEvent event;
+    private final EventPriority priority;
+    private final String partitionKey;
+    private final long enqueuedNanos;
+    // De dónde viene el evento: decide qué controles de duplicados se aplican
+    private final Origin origin;
+    private final CompletableFuture<ProcessingResult> result = new CompletableFuture<>();
+
+    // Estado de coalescencia (protegido por el lock del stripe)
+    private boolean superseded;
+    private ForwardTask supersededBy;
+    private List<SupersededUpdate> coalescedHistory;
+
+    public ForwardTask(WompiWebhookEvent event, long enqueuedNanos) {
+        this(event, enqueuedNanos, Origin.LIVE);
+    }
+
+    public ForwardTask(WompiWebhookEvent event, long enqueuedNanos, Origin origin) {
+        this.event = event;
+        this.priority = EventPriority.of(event);
+        this.partitionKey = partitionKey(event);
+        this.enqueuedNanos = enqueuedNanos;
+        this.origin = origin;
+    }
+
+    /**
+     * Llave que agrupa los eventos de una misma transacción:
+     * el ID de la transacción o, si no viene, su referencia
+     */
+    static String partitionKey(WompiWebhookEvent event) {
+        WompiWebhookEvent.Transaction tx = event != null ? event.transaction() : null;
+        if (tx == null) {
+            return null;
+        }
+        return tx.id() != null ? tx.id() : tx.reference();
+    }
+
+    /**
+     * ¿El evento de esta tarea es más reciente que el de la otra?
+     *
+     * Orden: finalized_at (si ambos lo traen), luego el que esté finalizado,
+     * luego timestamp (si ambos lo traen). En empate gana el que llegó después (esta tarea).
+     */
+    boolean isNewerThan(ForwardTask other) {
+        Instant mine = finalizedAt(event);
+        Instant theirs = finalizedAt(other.event);
+        if (mine != null && theirs != null && !mine.equals(theirs)) {
+            return mine.isAfter(theirs);
+        }
+        if (mine != null && theirs == null) {
+            return true;
+        }
+        if (mine == null && theirs != null) {
+            return false;
+        }
+        if (event.timestamp() == null || other.event.timestamp() == null) {
+            return true;
+        }
+        return event.timestamp() >= other.event.timestamp();
+    }
+
+    /**
+     * Absorbe una tarea reemplazada: hereda su historial y la registra
+     */
+    void absorb(ForwardTask older) {
+        if (coalescedHistory == null) {
+            coalescedHistory = new ArrayList<>();
+        }
+        if (older.coalescedHistory != null) {
+            coalescedHistory.addAll(older.coalescedHistory);
+        }
+        coalescedHistory.add(SupersededUpdate.of(older.event));
+        if (coalescedHistory.size() > MAX_HISTORY) {
+            coalescedHistory.subList(0, coalescedHistory.size() - MAX_HISTORY).clear();
+        }
+        older.supersededBy = this;
+    }
+
+    private static Instant finalizedAt(WompiWebhookEvent event) {
+        return event.transaction() != null ? event.transaction().finalizedAt() : null;
+    }
+
+    public WompiWebhookEvent getEvent() {
+        return event;
+    }
+
+    public EventPriority getPriority() {
+        return priority;
+    }
+
+    public String getPartitionKey() {
+        return partitionKey;
+    }
+
+    public long getEnqueuedNanos() {
+        return enqueuedNanos;
+    }
+
+    public Origin getOrigin() {
+        return origin;
+    }
+
+    public CompletableFuture<ProcessingResult> getResult() {
+        return result;
+    }
+
+    boolean isSuperseded() {
+        return superseded;
+    }
+
+    void markSuperseded() {
+        this.superseded = true;
+    }
+
+    ForwardTask getSupersededBy() {
+        return supersededBy;
+    }
+
+    /**
+     * @return Estados de esta transacción que se coalescieron en esta tarea (nunca null)
+     */
+    public List<SupersededUpdate> getCoalescedHistory() {
+        return coalescedHistory != null ? coalescedHistory : List.of();
+    }
+
+    /**
+     * Origen del evento
+     */
+    public enum Origin {
+        // Webhook de Wompi (también el recuperado del journal o leído en modo clúster)
+        LIVE,
+        // Reenvío de un dead letter: pasa por la deduplicación y se descarta si
+        // Seguru ya recibió un estado final de la transacción
+        REPLAY,
+        // Reenvío pedido por la conciliación: Seguru no lo tiene aunque el
+        // gateway lo dé por entregado, así que no pasa por la deduplicación
+        RECONCILIATION
+    }
+
+    /**
+     * Registro de auditoría de un estado que no se envió por estar reemplazado
+     */
+    public record SupersededUpdate(TransactionStatus status, Long timestamp, Instant finalizedAt) {
+
+        static SupersededUpdate of(WompiWebhookEvent event) {
+            WompiWebhookEvent.Transaction tx = event.transaction();
+            return new SupersededUpdate(
+                tx != null ? tx.status() : null,
+                event.timestamp(),
+                tx != null ? tx.finalizedAt() : null
+            );
+        }
+    }
+}
@@ -0,0 +1,371 @@
+package com.gateway.transaccioneswompi.app.forwarding;
+
+import com.gateway.transaccioneswompi.app.usecases.ProcessWompiWebhookUseCase;
+import com.gateway.transaccioneswompi.app.usecases.ProcessWompiWebhookUseCase.ProcessingResult;
+import com.gateway.transaccioneswompi.domain.EventPriority;
+import com.gateway.transaccioneswompi.domain.WompiWebhookEvent;
+import com.gateway.transaccioneswompi.domain.ports.DedupStorePort.ClaimResult;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * COLA DE REENVÍO - Etapa de envío a Seguru (Application Layer)
+ *
+ * Los eventos ya no se envían en orden de llegada: se encolan y se envían
+ * según su prioridad de negocio (ver EventPriority). Cuando hay congestión,
+ * los pagos APPROVED y los payouts aplicados llegan primero a Reservas.
+ *
+ * La cola está particionada en "stripes" (ver ForwardStripe): el ID de la
+ * transacción decide el stripe y cada stripe tiene un solo hilo. Resultado:
+ * - Paralelismo entre transacciones distintas (un hilo por stripe)
+ * - Orden garantizado dentro de una misma transacción
+ * - Un PENDING que llega después de su APPROVED se descarta (StaleUpdateFilter)
+ * - Un (transacción, estado) ya entregado por esta u otra réplica no se
+ *   reenvía (ForwardDeduplicator)
+ * - Si una transacción acumula varias actualizaciones sin enviar, solo se
+ *   envía la más reciente (coalescencia); las demás quedan en el historial
+ *
+ * La cola es acotada (queue-capacity): si se llena, el evento se rechaza
+ * y el controlador responde 503 para que Wompi reintente.
+ *
+ * Al apagar, drain() deja de aceptar eventos y espera a que se envíe lo
+ * pendiente (ver ForwardingShutdown).
+ */
+@Service
+public class ForwardingQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(ForwardingQueue.class);
+
+    private final ProcessWompiWebhookUseCase processWebhookUseCase;
+    private final ForwardDeduplicator deduplicator;
+
+    private final ForwardStripe[] stripes;
+    private final AtomicInteger size = new AtomicInteger();
+    private final int capacity;
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running = true;
+    private volatile boolean accepting = true;
+
+    // Tareas que un worker está enviando en este momento
+    private final Set<ForwardTask> inFlight = ConcurrentHashMap.newKeySet();
+    private final AtomicLong processed = new AtomicLong();
+
+    // Métricas por prioridad
+    private final Map<EventPriority, Counter> enqueued = new EnumMap<>(EventPriority.class);
+    private final Map<EventPriority, Counter> rejected = new EnumMap<>(EventPriority.class);
+    private final Map<EventPriority, Timer> waitTime = new EnumMap<>(EventPriority.class);
+    private final Counter staleDropped;
+    private final Counter coalesced;
+
+    public ForwardingQueue(
+            ProcessWompiWebhookUseCase processWebhookUseCase,
+            ForwardDeduplicator deduplicator,
+            MeterRegistry meterRegistry,
+            @Value("${gateway.forwarding.stripes:0}") int stripeCount,
+            @Value("${gateway.forwarding.queue-capacity:1000}") int capacity,
+            @Value("${gateway.forwarding.max-wait-ms:5000}") long maxWaitMillis,
+            @Value("${gateway.forwarding.stale-filter-size:100000}") int staleFilterSize) {
+        this.processWebhookUseCase = processWebhookUseCase;
+        this.deduplicator = deduplicator;
+        this.capacity = capacity;
+
+        // 0 = automático: dos stripes por núcleo (el envío es I/O, no CPU)
+        int count = stripeCount > 0 ? stripeCount : 2 * Runtime.getRuntime().availableProcessors();
+        this.stripes = new ForwardStripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new ForwardStripe(i, TimeUnit.MILLISECONDS.toNanos(maxWaitMillis),
+                    Math.max(1, staleFilterSize / count));
+        }
+
+        for (EventPriority priority : EventPriority.values()) {
+            String tag = priority.name().toLowerCase();
+            enqueued.put(priority, meterRegistry.counter("gateway.forwarding.enqueued", "priority", tag));
+            rejected.put(priority, meterRegistry.counter("gateway.forwarding.rejected", "priority", tag));
+            waitTime.put(priority, meterRegistry.timer("gateway.forwarding.wait", "priority", tag));
+            meterRegistry.gauge("gateway.forwarding.queue.size", Tags.of("priority", tag),
+                    this, queue -> queue.size(priority));
+        }
+        FunctionCounter.builder("gateway.forwarding.starvation.promoted", this, queue -> queue.overdueServed())
+                .register(meterRegistry);
+        this.staleDropped = meterRegistry.counter("gateway.forwarding.stale.dropped");
+        this.coalesced = meterRegistry.counter("gateway.forwarding.coalesced");
+
+        for (ForwardStripe stripe : stripes) {
+            Thread worker = new Thread(() -> runWorker(stripe), "forward-stripe-" + stripe.getIndex());
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        log.info("Cola de reenvío iniciada: {} stripes, capacidad {}", count, capacity);
+    }
+
+    /**
+     * Encola un evento del tráfico en vivo (ver submit(event, origin))
+     */
+    public CompletableFuture<ProcessingResult> submit(WompiWebhookEvent event) {
+        return submit(event, ForwardTask.Origin.LIVE);
+    }
+
+    /**
+     * Encola un evento para enviarlo a Seguru
+     *
+     * @param event      Evento de dominio
+     * @param origin Tráfico en vivo, reenvío de un dead letter o reenvío de la
+     *               conciliación (solo este último se envía aunque figure entregado)
+     * @return Future con el resultado del envío. Si la cola está llena
+     *         termina con RejectedExecutionException.
+     */
+    public CompletableFuture<ProcessingResult> submit(WompiWebhookEvent event, ForwardTask.Origin origin) {
+        ForwardTask task = new ForwardTask(event, System.nanoTime(), origin);
+
+        if (!accepting) {
+            rejected.get(task.getPriority()).increment();
+            task.getResult().completeExceptionally(
+                    new RejectedExecutionException("Gateway apagándose, no se aceptan eventos nuevos"));
+            return task.getResult();
+        }
+
+        if (size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+            rejected.get(task.getPriority()).increment();
+            task.getResult().completeExceptionally(
+                    new RejectedExecutionException("Cola de reenvío llena (" + capacity + ")"));
+            return task.getResult();
+        }
+
+        enqueued.get(task.getPriority()).increment();
+        ForwardTask superseded = stripeFor(task.getPartitionKey()).add(task);
+        if (superseded != null) {
+            // Dos actualizaciones de la misma transacción quedaron en una sola
+            size.decrementAndGet();
+            coalesced.increment();
+            followSurvivor(superseded);
+        }
+        return task.getResult();
+    }
+
+    /**
+     * Una tarea coalescida no se envía: su resultado es el de la tarea que la reemplazó
+     */
+    private void followSurvivor(ForwardTask superseded) {
+        ForwardTask survivor = superseded.getSupersededBy();
+        log.info("Actualización coalescida - Transacción: {} - Estado {} reemplazado por {}",
+                 superseded.getPartitionKey(),
+                 superseded.getEvent().transaction().status(),
+                 survivor.getEvent().transaction().status());
+
+        survivor.getResult().whenComplete((result, error) -> {
+            if (error != null) {
+                superseded.getResult().completeExceptionally(error);
+            } else {
+                superseded.getResult().complete(new ProcessingResult(
+                    result.isSuccess(),
+                    "Actualización coalescida con un estado más reciente. " + result.getMessage(),
+                    result.isPersisted(),
+                    result.isRetryable()
+                ));
+            }
+        });
+    }
+
+    /**
+     * @return Eventos esperando ser enviados (todas las prioridades)
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * @return Máximo de eventos esperando (queue-capacity)
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return false si la cola ya no acepta eventos (apagándose)
+     */
+    public boolean isAccepting() {
+        return accepting;
+    }
+
+    /**
+     * Deja de aceptar eventos y espera a que se envíe lo pendiente
+     *
+     * @param timeoutMillis Tiempo máximo de espera
+     * @return Lo que se alcanzó a enviar y lo que quedó sin enviar
+     */
+    public DrainResult drain(long timeoutMillis) throws InterruptedException {
+        accepting = false;
+        long processedBefore = processed.get();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+
+        while ((size.get() > 0 || !inFlight.isEmpty()) && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(50L);
+        }
+
+        List<ForwardTask> queued = new ArrayList<>();
+        for (ForwardStripe stripe : stripes) {
+            List<ForwardTask> tasks = stripe.drainAll();
+            size.addAndGet(-tasks.size());
+            queued.addAll(tasks);
+        }
+        return new DrainResult(processed.get() - processedBefore, queued, new ArrayList<>(inFlight));
+    }
+
+    /**
+     * Resultado de drain()
+     *
+     * @param drained  Eventos enviados durante la espera
+     * @param queued   Eventos que quedaron en la cola sin enviar (ya se sacaron de la cola:
+     *                 ningún worker los va a tomar)
+     * @param inFlight Eventos que un worker seguía enviando al vencer el plazo. Solo
+     *                 informativo: el worker termina el envío y completa su resultado
+     */
+    public record DrainResult(long drained, List<ForwardTask> queued, List<ForwardTask> inFlight) {
+    }
+
+    private ForwardStripe stripeFor(String partitionKey) {
+        if (partitionKey == null) {
+            return stripes[0];
+        }
+        int hash = partitionKey.hashCode();
+        hash ^= (hash >>> 16);  // Mezclar bits altos, como HashMap
+        return stripes[Math.floorMod(hash, stripes.length)];
+    }
+
+    private int size(EventPriority priority) {
+        int total = 0;
+        for (ForwardStripe stripe : stripes) {
+            total += stripe.size(priority);
+        }
+        return total;
+    }
+
+    private long overdueServed() {
+        long total = 0;
+        for (ForwardStripe stripe : stripes) {
+            total += stripe.overdueServed();
+        }
+        return total;
+    }
+
+    private void runWorker(ForwardStripe stripe) {
+        while (running) {
+            ForwardTask task;
+            try {
+                task = stripe.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            // Primero en vuelo y después fuera de la cola: drain() nunca ve
+            // size == 0 e inFlight vacío mientras la tarea cambia de lugar
+            inFlight.add(task);
+            size.decrementAndGet();
+            try {
+                process(stripe, task);
+            } finally {
+                inFlight.remove(task);
+                processed.incrementAndGet();
+            }
+        }
+    }
+
+    private void process(ForwardStripe stripe, ForwardTask task) {
+        waitTime.get(task.getPriority())
+                .record(System.nanoTime() - task.getEnqueuedNanos(), TimeUnit.NANOSECONDS);
+
+        // Un evento más viejo que lo ya entregado no se reenvía (pero Wompi recibe 200)
+        if (stripe.getStaleFilter().isStale(task.getPartitionKey(), task.getEvent())) {
+            staleDropped.increment();
+            log.info("Evento obsoleto descartado - Transacción: {} - Estado: {}",
+                     task.getPartitionKey(), task.getEvent().transaction().status());
+            task.getResult().complete(new ProcessingResult(
+                true,
+                "Evento obsoleto: ya se entregó un estado más reciente de la transacción"
+            ));
+            return;
+        }
+
+        if (!task.getCoalescedHistory().isEmpty()) {
+            log.info("Transacción {}: se envía solo el estado más reciente ({}). Estados coalescidos: {}",
+                     task.getPartitionKey(), task.getEvent().transaction().status(), task.getCoalescedHistory());
+        }
+
+        // Un dead letter viejo no pisa un estado final que Seguru ya recibió (el filtro
+        // de arriba es local y se pierde al reiniciar; esto se consulta en el almacén)
+        if (task.getOrigin() == ForwardTask.Origin.REPLAY && deduplicator.isSupersededByFinal(task.getEvent())) {
+            staleDropped.increment();
+            log.info("Reenvío obsoleto descartado - Transacción: {} - Estado: {}",
+                     task.getPartitionKey(), task.getEvent().transaction().status());
+            task.getResult().complete(new ProcessingResult(
+                true,
+                "Evento obsoleto: Seguru ya recibió un estado final de la transacción"
+            ));
+            return;
+        }
+
+        // Otra réplica (o esta misma, antes) ya lo entregó o lo está entregando
+        ClaimResult claim = task.getOrigin() == ForwardTask.Origin.RECONCILIATION
+                ? ClaimResult.CLAIMED
+                : deduplicator.claim(task.getEvent());
+        if (claim == ClaimResult.DELIVERED) {
+            log.info("Evento duplicado descartado - Transacción: {} - Estado: {}",
+                     task.getPartitionKey(), task.getEvent().transaction().status());
+            task.getResult().complete(new ProcessingResult(
+                true,
+                "Evento duplicado: este estado de la transacción ya se entregó"
+            ));
+            return;
+        }
+        if (claim == ClaimResult.IN_PROGRESS) {
+            // 503: Wompi reintenta y para entonces ya figurará como entregado
+            task.getResult().completeExceptionally(new RejectedExecutionException(
+                    "Otra réplica está entregando este evento"));
+            return;
+        }
+
+        try {
+            ProcessingResult result = processWebhookUseCase.execute(task.getEvent());
+            if (result.isSuccess()) {
+                stripe.getStaleFilter().markDelivered(task.getPartitionKey(), task.getEvent());
+                deduplicator.delivered(task.getEvent());
+            } else {
+                deduplicator.failed(task.getEvent());
+            }
+            task.getResult().complete(result);
+        } catch (RuntimeException e) {
+            log.error("Error inesperado reenviando evento: {}", e.getMessage(), e);
+            deduplicator.failed(task.getEvent());
+            task.getResult().completeExceptionally(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+    }
+}
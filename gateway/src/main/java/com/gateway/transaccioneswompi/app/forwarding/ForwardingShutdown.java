@@ -0,0 +1,122 @@
+package com.gateway.transaccioneswompi.app.forwarding;
+
+import com.gateway.transaccioneswompi.app.forwarding.ForwardingQueue.DrainResult;
+import com.gateway.transaccioneswompi.app.usecases.ProcessWompiWebhookUseCase.ProcessingResult;
+import com.gateway.transaccioneswompi.domain.ports.DeadLetterPort;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * APAGADO ORDENADO DEL REENVÍO
+ *
+ * Al recibir SIGTERM (despliegue, escalado), Spring detiene los beans
+ * SmartLifecycle en orden de fase, de mayor a menor. Este componente se
+ * detiene ANTES que el servidor web (que usa DEFAULT_PHASE - 1024):
+ *
+ * 1. La cola deja de aceptar webhooks: los nuevos reciben 503 y Wompi reintenta
+ * 2. Se espera hasta drain-timeout-ms a que se envíe lo encolado y lo en vuelo
+ * 3. Lo que seguía en la cola (ningún worker lo tomó) se guarda en dead letters
+ *    (código SHUTDOWN) para reenviarlo después con el reenvío masivo
+ * 4. Lo que un worker sigue enviando NO se toca: su resultado (entregado o
+ *    dead letter) lo decide el propio envío. Si el proceso termina antes,
+ *    el webhook sigue sin confirmar en el journal y Wompi no recibió respuesta
+ * 5. Se registra en el log un reporte de lo drenado y lo guardado
+ */
+@Component
+public class ForwardingShutdown implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ForwardingShutdown.class);
+
+    static final String ERROR_CODE = "SHUTDOWN";
+
+    private final ForwardingQueue forwardingQueue;
+    private final DeadLetterPort deadLetters;
+    private final long drainTimeoutMillis;
+
+    private volatile boolean running;
+
+    public ForwardingShutdown(
+            ForwardingQueue forwardingQueue,
+            DeadLetterPort deadLetters,
+            @Value("${gateway.shutdown.drain-timeout-ms:20000}") long drainTimeoutMillis) {
+        this.forwardingQueue = forwardingQueue;
+        this.deadLetters = deadLetters;
+        this.drainTimeoutMillis = drainTimeoutMillis;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        log.info("Apagando: drenando la cola de reenvío ({} pendientes, plazo {} ms)",
+                 forwardingQueue.size(), drainTimeoutMillis);
+
+        DrainResult result;
+        try {
+            result = forwardingQueue.drain(drainTimeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("✗ Drenado de la cola interrumpido");
+            return;
+        }
+
+        int stored = persist(result.queued());
+        int inFlight = result.inFlight().size();
+
+        if (result.queued().isEmpty() && inFlight == 0) {
+            log.info("✓ Cola de reenvío drenada: {} eventos enviados durante el apagado", result.drained());
+        } else {
+            log.warn("⚠ Cola de reenvío drenada parcialmente: {} enviados, {} de {} encolados guardados en dead letters, "
+                     + "{} todavía enviándose", result.drained(), stored, result.queued().size(), inFlight);
+        }
+    }
+
+    /**
+     * Guarda en dead letters los eventos que quedaron en la cola sin enviarse
+     *
+     * @return Cuántos se guardaron
+     */
+    private int persist(List<ForwardTask> tasks) {
+        int stored = 0;
+        for (ForwardTask task : tasks) {
+            boolean persisted = false;
+            try {
+                deadLetters.store(task.getEvent(), ERROR_CODE, "Evento encolado al apagar el gateway");
+                persisted = true;
+                stored++;
+            } catch (RuntimeException e) {
+                log.error("✗ No se pudo guardar en dead letters el evento {} al apagar: {}",
+                          task.getPartitionKey(), e.getMessage());
+            }
+            // Quien espera el resultado (el controlador, el journal) no queda colgado.
+            // Si no se guardó, el journal no se confirma y se recupera al reiniciar
+            task.getResult().complete(new ProcessingResult(false, persisted
+                    ? "Gateway apagándose; evento guardado en dead letters"
+                    : "Gateway apagándose; el evento no se pudo guardar en dead letters", persisted));
+        }
+        return stored;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Mayor que la fase del apagado del servidor web: la cola se drena primero
+     */
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 512;
+    }
+}
@@ -0,0 +1,146 @@
+package com.gateway.transaccioneswompi.app.forwarding;
+
+import com.gateway.transaccioneswompi.domain.EventPriority;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Buffer de tareas ordenado por prioridad (una cola FIFO por prioridad)
+ *
+ * Siempre se atiende primero la prioridad más alta (SETTLEMENT > FINAL > INTERMEDIATE).
+ *
+ * Protección contra inanición: si la tarea más antigua de alguna cola ya
+ * esperó más de maxWaitNanos, se atiende esa primero aunque haya tareas
+ * más urgentes. Así un PENDING nunca se queda en la cola para siempre.
+ *
+ * Las tareas reemplazadas (coalescidas) se marcan con remove() y se
+ * descartan cuando llegan a la cabeza de su cola, sin recorrer la cola.
+ *
+ * NO es thread-safe: quien lo usa debe protegerlo con su propio lock.
+ */
+class PriorityTaskBuffer {
+
+    private final Map<EventPriority, ArrayDeque<ForwardTask>> queues = new EnumMap<>(EventPriority.class);
+    private final int[] sizes = new int[EventPriority.values().length];
+    private final long maxWaitNanos;
+    private int size;
+    private long overdueServed;
+
+    PriorityTaskBuffer(long maxWaitNanos) {
+        this.maxWaitNanos = maxWaitNanos;
+        for (EventPriority priority : EventPriority.values()) {
+            queues.put(priority, new ArrayDeque<>());
+        }
+    }
+
+    void add(ForwardTask task) {
+        queues.get(task.getPriority()).addLast(task);
+        sizes[task.getPriority().ordinal()]++;
+        size++;
+    }
+
+    /**
+     * Quita una tarea pendiente (la marca como reemplazada)
+     */
+    void remove(ForwardTask task) {
+        if (!task.isSuperseded()) {
+            task.markSuperseded();
+            sizes[task.getPriority().ordinal()]--;
+            size--;
+        }
+    }
+
+    /**
+     * Saca la siguiente tarea a procesar
+     *
+     * @param nowNanos Momento actual (System.nanoTime)
+     * @return La tarea, o null si el buffer está vacío
+     */
+    ForwardTask poll(long nowNanos) {
+        if (size == 0) {
+            return null;
+        }
+
+        // 1. ¿Alguna tarea esperó demasiado? Se atiende la más antigua de ellas
+        ArrayDeque<ForwardTask> overdue = null;
+        long oldestEnqueued = Long.MAX_VALUE;
+        for (ArrayDeque<ForwardTask> queue : queues.values()) {
+            ForwardTask head = peekLive(queue);
+            if (head != null
+                    && nowNanos - head.getEnqueuedNanos() > maxWaitNanos
+                    && head.getEnqueuedNanos() < oldestEnqueued) {
+                overdue = queue;
+                oldestEnqueued = head.getEnqueuedNanos();
+            }
+        }
+        if (overdue != null) {
+            overdueServed++;
+            return take(overdue);
+        }
+
+        // 2. Si no, la de mayor prioridad (el EnumMap recorre en orden de prioridad)
+        for (ArrayDeque<ForwardTask> queue : queues.values()) {
+            if (peekLive(queue) != null) {
+                return take(queue);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Saca todas las tareas vigentes (en orden de prioridad) y deja el buffer vacío
+     */
+    List<ForwardTask> drainAll() {
+        List<ForwardTask> tasks = new ArrayList<>(size);
+        for (ArrayDeque<ForwardTask> queue : queues.values()) {
+            for (ForwardTask task : queue) {
+                if (!task.isSuperseded()) {
+                    tasks.add(task);
+                }
+            }
+            queue.clear();
+        }
+        Arrays.fill(sizes, 0);
+        size = 0;
+        return tasks;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int size(EventPriority priority) {
+        return sizes[priority.ordinal()];
+    }
+
+    /**
+     * @return Cuántas tareas se atendieron por la protección contra inanición
+     */
+    long getOverdueServed() {
+        return overdueServed;
+    }
+
+    private ForwardTask take(ArrayDeque<ForwardTask> queue) {
+        ForwardTask task = queue.pollFirst();
+        sizes[task.getPriority().ordinal()]--;
+        size--;
+        return task;
+    }
+
+    /**
+     * Primera tarea vigente de la cola (descarta las reemplazadas que estén adelante)
+     */
+    private ForwardTask peekLive(ArrayDeque<ForwardTask> queue) {
+        ForwardTask head = queue.peekFirst();
+        while (head != null && head.isSuperseded()) {
+            queue.pollFirst();
+            head = queue.peekFirst();
+        }
+        return head;
+    }
+}
@@ -0,0 +1,66 @@
+package com.gateway.transaccioneswompi.app.forwarding;
+
+import com.gateway.transaccioneswompi.domain.TransactionStatus;
+import com.gateway.transaccioneswompi.domain.WompiWebhookEvent;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Filtro de actualizaciones obsoletas
+ *
+ * Recuerda el último estado ENTREGADO a Seguru de cada transacción y descarta
+ * los eventos que llegan "tarde":
+ * - un evento con timestamp anterior al último entregado (si ambos lo traen)
+ * - un estado intermedio (PENDING) después de un estado final (APPROVED, etc.)
+ *
+ * Solo guarda las transacciones más recientes (LRU con tamaño máximo).
+ *
+ * NO es thread-safe: cada stripe tiene su propio filtro y lo usa un solo hilo.
+ */
+class StaleUpdateFilter {
+
+    private final Map<String, Delivered> lastDelivered;
+
+    StaleUpdateFilter(int maxEntries) {
+        this.lastDelivered = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Delivered> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @return true si el evento es más viejo que lo último entregado para su transacción
+     */
+    boolean isStale(String key, WompiWebhookEvent event) {
+        if (key == null) {
+            return false;
+        }
+        Delivered last = lastDelivered.get(key);
+        if (last == null) {
+            return false;
+        }
+        if (event.timestamp() != null && last.timestamp() != null && event.timestamp() < last.timestamp()) {
+            return true;
+        }
+        TransactionStatus status = event.transaction() != null ? event.transaction().status() : null;
+        return last.status() != null && last.status().isFinal()
+                && (status == null || !status.isFinal());
+    }
+
+    /**
+     * Registra que el evento se entregó a Seguru
+     */
+    void markDelivered(String key, WompiWebhookEvent event) {
+        if (key == null) {
+            return;
+        }
+        TransactionStatus status = event.transaction() != null ? event.transaction().status() : null;
+        lastDelivered.put(key, new Delivered(status, event.timestamp()));
+    }
+
+    private record Delivered(TransactionStatus status, Long timestamp) {
+    }
+}
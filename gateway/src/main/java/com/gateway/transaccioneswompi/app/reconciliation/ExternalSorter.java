@@ -0,0 +1,176 @@
+package com.gateway.transaccioneswompi.app.reconciliation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Ordenamiento externo del export de Seguru por ID de transacción
+ *
+ * El export puede tener millones de filas y venir en cualquier orden.
+ * Para no cargarlo todo en memoria:
+ * 1. Se leen bloques de maxInMemory filas, se ordenan y se guardan en
+ *    archivos temporales ("runs")
+ * 2. Se mezclan los runs con una cola de prioridad (k-way merge), leyendo
+ *    una fila a la vez de cada uno
+ *
+ * Memoria usada: maxInMemory filas + una fila por run.
+ */
+class ExternalSorter implements AutoCloseable {
+
+    private static final Comparator<SeguruAck> BY_TRANSACTION =
+            Comparator.comparing(SeguruAck::transactionId);
+
+    private final Path tempDir;
+    private final int maxInMemory;
+    private final List<Path> runs = new ArrayList<>();
+    private final List<RunReader> readers = new ArrayList<>();
+
+    ExternalSorter(Path tempDir, int maxInMemory) {
+        this.tempDir = tempDir;
+        this.maxInMemory = Math.max(1, maxInMemory);
+    }
+
+    /**
+     * @return Las mismas filas ordenadas por ID de transacción (sin filas sin ID)
+     */
+    Iterator<SeguruAck> sort(Iterator<SeguruAck> input) throws IOException {
+        List<SeguruAck> buffer = new ArrayList<>(Math.min(maxInMemory, 8192));
+        while (input.hasNext()) {
+            SeguruAck ack = input.next();
+            if (ack == null || ack.transactionId() == null || ack.transactionId().isBlank()) {
+                continue;
+            }
+            buffer.add(ack);
+            if (buffer.size() >= maxInMemory) {
+                spill(buffer);
+            }
+        }
+
+        // Todo cupo en memoria: no hace falta tocar el disco
+        if (runs.isEmpty()) {
+            buffer.sort(BY_TRANSACTION);
+            return buffer.iterator();
+        }
+        if (!buffer.isEmpty()) {
+            spill(buffer);
+        }
+        return merge();
+    }
+
+    int getRunCount() {
+        return runs.size();
+    }
+
+    private void spill(List<SeguruAck> buffer) throws IOException {
+        buffer.sort(BY_TRANSACTION);
+        Path run = Files.createTempFile(tempDir, "seguru-run-", ".bin");
+        runs.add(run);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run)))) {
+            for (SeguruAck ack : buffer) {
+                out.writeUTF(ack.transactionId());
+                out.writeUTF(ack.status() != null ? ack.status() : "");
+            }
+        }
+        buffer.clear();
+    }
+
+    private Iterator<SeguruAck> merge() throws IOException {
+        PriorityQueue<RunReader> heap = new PriorityQueue<>(
+                Comparator.comparing((RunReader reader) -> reader.current, BY_TRANSACTION));
+        for (Path run : runs) {
+            RunReader reader = new RunReader(run);
+            readers.add(reader);
+            if (reader.advance()) {
+                heap.add(reader);
+            }
+        }
+
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !heap.isEmpty();
+            }
+
+            @Override
+            public SeguruAck next() {
+                RunReader reader = heap.poll();
+                if (reader == null) {
+                    throw new NoSuchElementException();
+                }
+                SeguruAck ack = reader.current;
+                try {
+                    if (reader.advance()) {
+                        heap.add(reader);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return ack;
+            }
+        };
+    }
+
+    /**
+     * Borra los archivos temporales
+     */
+    @Override
+    public void close() {
+        for (RunReader reader : readers) {
+            reader.close();
+        }
+        for (Path run : runs) {
+            try {
+                Files.deleteIfExists(run);
+            } catch (IOException e) {
+                // Es un archivo temporal: si no se puede borrar, lo limpiará el sistema
+            }
+        }
+    }
+
+    /**
+     * Lee un run fila por fila
+     */
+    private static final class RunReader {
+
+        private final DataInputStream in;
+        private SeguruAck current;
+
+        RunReader(Path run) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run)));
+        }
+
+        boolean advance() throws IOException {
+            try {
+                String transactionId = in.readUTF();
+                String status = in.readUTF();
+                current = new SeguruAck(transactionId, status.isEmpty() ? null : status);
+                return true;
+            } catch (EOFException e) {
+                current = null;
+                close();
+                return false;
+            }
+        }
+
+        void close() {
+            try {
+                in.close();
+            } catch (IOException e) {
+                // Nada que hacer
+            }
+        }
+    }
+}
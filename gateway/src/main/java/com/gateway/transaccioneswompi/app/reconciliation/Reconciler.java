@@ -0,0 +1,126 @@
+package com.gateway.transaccioneswompi.app.reconciliation;
+
+import com.gateway.transaccioneswompi.domain.TransactionStatus;
+import com.gateway.transaccioneswompi.domain.ports.EventStorePort.TransactionState;
+
+import java.util.Iterator;
+
+/**
+ * Cruce ordenado (sorted-merge) entre lo que recibió el gateway y lo que tiene Seguru
+ *
+ * Ambas entradas vienen ordenadas por ID de transacción, así que basta
+ * avanzar las dos a la vez comparando el ID actual de cada una: nunca se
+ * guarda más de una fila de cada lado en memoria.
+ *
+ * - Solo en el gateway        → MISSING_IN_SEGURU (se puede reenviar)
+ * - En ambos, estado distinto → STATUS_MISMATCH (se reenvía si el gateway tiene un estado final)
+ * - Solo en Seguru            → UNKNOWN_TO_GATEWAY (informativo)
+ */
+class Reconciler {
+
+    enum DiscrepancyType {
+        MISSING_IN_SEGURU,
+        STATUS_MISMATCH,
+        UNKNOWN_TO_GATEWAY
+    }
+
+    /**
+     * Una diferencia encontrada
+     *
+     * @param redeliverable Si tiene sentido reenviar a Seguru el último evento del gateway
+     */
+    record Discrepancy(DiscrepancyType type, String transactionId, String gatewayStatus,
+                       String seguruStatus, boolean redeliverable) {
+    }
+
+    interface Listener {
+        void onMatch(String transactionId);
+
+        void onDiscrepancy(Discrepancy discrepancy);
+    }
+
+    private Reconciler() {
+    }
+
+    /**
+     * @param gateway Último estado de cada transacción en el gateway (ordenado, sin repetidos)
+     * @param seguru  Export de Seguru ordenado por ID (puede tener repetidos)
+     */
+    static void run(Iterator<TransactionState> gateway, Iterator<SeguruAck> seguru, Listener listener) {
+        SeguruCursor seguruCursor = new SeguruCursor(seguru);
+        TransactionState g = gateway.hasNext() ? gateway.next() : null;
+        SeguruAck s = seguruCursor.next();
+        String previous = null;
+
+        while (g != null || s != null) {
+            if (g != null) {
+                // El cruce solo es correcto si el gateway viene en el mismo orden que el export
+                if (previous != null && previous.compareTo(g.transactionId()) > 0) {
+                    throw new IllegalStateException("El gateway no viene ordenado por ID de transacción: "
+                            + previous + " > " + g.transactionId());
+                }
+                previous = g.transactionId();
+            }
+
+            int cmp = g == null ? 1 : s == null ? -1 : g.transactionId().compareTo(s.transactionId());
+            if (cmp < 0) {
+                listener.onDiscrepancy(new Discrepancy(
+                        DiscrepancyType.MISSING_IN_SEGURU, g.transactionId(), g.status(), null, true));
+                g = gateway.hasNext() ? gateway.next() : null;
+            } else if (cmp > 0) {
+                listener.onDiscrepancy(new Discrepancy(
+                        DiscrepancyType.UNKNOWN_TO_GATEWAY, s.transactionId(), null, s.status(), false));
+                s = seguruCursor.next();
+            } else {
+                if (sameStatus(g.status(), s.status())) {
+                    listener.onMatch(g.transactionId());
+                } else {
+                    // Reenviar un PENDING sobre un estado final de Seguru lo haría retroceder
+                    listener.onDiscrepancy(new Discrepancy(
+                            DiscrepancyType.STATUS_MISMATCH, g.transactionId(), g.status(), s.status(),
+                            isFinal(g.status())));
+                }
+                g = gateway.hasNext() ? gateway.next() : null;
+                s = seguruCursor.next();
+            }
+        }
+    }
+
+    private static boolean sameStatus(String gateway, String seguru) {
+        return gateway == null ? seguru == null : gateway.equalsIgnoreCase(seguru);
+    }
+
+    private static boolean isFinal(String status) {
+        TransactionStatus parsed = TransactionStatus.of(status);
+        return parsed != null && parsed.isFinal();
+    }
+
+    /**
+     * Junta las filas repetidas del export (misma transacción), prefiriendo un estado final
+     */
+    private static final class SeguruCursor {
+
+        private final Iterator<SeguruAck> source;
+        private SeguruAck lookahead;
+
+        SeguruCursor(Iterator<SeguruAck> source) {
+            this.source = source;
+            this.lookahead = source.hasNext() ? source.next() : null;
+        }
+
+        SeguruAck next() {
+            SeguruAck current = lookahead;
+            if (current == null) {
+                return null;
+            }
+            lookahead = source.hasNext() ? source.next() : null;
+            while (lookahead != null && lookahead.transactionId().equals(current.transactionId())) {
+                if (!isFinal(current.status()) && isFinal(lookahead.status())) {
+                    current = lookahead;
+                }
+                lookahead = source.hasNext() ? source.next() : null;
+            }
+            return current;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.gateway.transaccioneswompi.app.reconciliation;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Trabajo de conciliación y su resultado
+ */
+public class ReconciliationJob {
+
+    public enum State {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final String id;
+    private final String exportFile;
+    private final Instant from;
+    private final Instant to;
+    private final boolean redeliver;
+    private final Instant startedAt = Instant.now();
+
+    private final AtomicLong matched = new AtomicLong();
+    private final AtomicLong missingInSeguru = new AtomicLong();
+    private final AtomicLong statusMismatch = new AtomicLong();
+    private final AtomicLong unknownToGateway = new AtomicLong();
+    private final AtomicLong queuedForRedelivery = new AtomicLong();
+    private volatile State state = State.RUNNING;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    ReconciliationJob(String id, String exportFile, Instant from, Instant to, boolean redeliver) {
+        this.id = id;
+        this.exportFile = exportFile;
+        this.from = from;
+        this.to = to;
+        this.redeliver = redeliver;
+    }
+
+    void onMatch() {
+        matched.incrementAndGet();
+    }
+
+    void onDiscrepancy(Reconciler.DiscrepancyType type) {
+        switch (type) {
+            case MISSING_IN_SEGURU -> missingInSeguru.incrementAndGet();
+            case STATUS_MISMATCH -> statusMismatch.incrementAndGet();
+            case UNKNOWN_TO_GATEWAY -> unknownToGateway.incrementAndGet();
+        }
+    }
+
+    void onQueued() {
+        queuedForRedelivery.incrementAndGet();
+    }
+
+    void finish(State finalState, String errorMessage) {
+        this.error = errorMessage;
+        this.finishedAt = Instant.now();
+        this.state = finalState;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getExportFile() {
+        return exportFile;
+    }
+
+    public Instant getFrom() {
+        return from;
+    }
+
+    public Instant getTo() {
+        return to;
+    }
+
+    public boolean isRedeliver() {
+        return redeliver;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public long getMatched() {
+        return matched.get();
+    }
+
+    public long getMissingInSeguru() {
+        return missingInSeguru.get();
+    }
+
+    public long getStatusMismatch() {
+        return statusMismatch.get();
+    }
+
+    public long getUnknownToGateway() {
+        return unknownToGateway.get();
+    }
+
+    public long getQueuedForRedelivery() {
+        return queuedForRedelivery.get();
+    }
+}
@@ -0,0 +1,465 @@
+package com.gateway.transaccioneswompi.app.reconciliation;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gateway.transaccioneswompi.domain.ports.DeadLetterPort;
+import com.gateway.transaccioneswompi.domain.ports.EventStorePort;
+import com.gateway.transaccioneswompi.domain.ports.EventStorePort.EventQuery;
+import com.gateway.transaccioneswompi.domain.ports.EventStorePort.StoredEvent;
+import com.gateway.transaccioneswompi.domain.ports.EventStorePort.TransactionState;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * CONCILIACIÓN - Gateway vs Seguru (Application Layer)
+ *
+ * Detecta transacciones que Wompi nos envió pero que nunca llegaron a
+ * Reservas/Aliados (o llegaron con otro estado):
+ * 1. Lee el export de Seguru (CSV o JSON) y lo ordena por ID de transacción
+ *    con memoria acotada (ExternalSorter)
+ * 2. Lee el último estado de cada transacción del almacén de eventos, por
+ *    bloques y en el mismo orden
+ * 3. Cruza ambos (Reconciler), guardando las diferencias en un archivo temporal
+ * 4. Si el cruce terminó sin errores, escribe el reporte CSV y, opcionalmente,
+ *    guarda las diferencias reenviables en dead letters (error_code
+ *    RECONCILIATION_*), desde donde se reenvían con el reenvío masivo
+ *
+ * Si el cruce falla a mitad (ej: el gateway no vino en el mismo orden que el
+ * export), las diferencias encontradas hasta ahí pueden ser falsas: se
+ * reportan, pero no se guarda ninguna en dead letters.
+ *
+ * El export debe estar en import-dir (solo se acepta el nombre del archivo).
+ *
+ * Se crea con la primera petición (@Lazy): no demora el arranque.
+ */
+@Lazy
+@Service
+public class ReconciliationService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReconciliationService.class);
+
+    private final EventStorePort eventStore;
+    private final DeadLetterPort deadLetters;
+    private final ObjectMapper objectMapper;
+    private final Path importDir;
+    private final Path reportDir;
+    private final int chunkSize;
+    private final int sortBuffer;
+    private final int jobsKept;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "reconciliation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Trabajos recientes (los más viejos se olvidan)
+    private final Map<String, ReconciliationJob> jobs = new LinkedHashMap<>();
+    private ReconciliationJob running;
+
+    public ReconciliationService(
+            EventStorePort eventStore,
+            DeadLetterPort deadLetters,
+            ObjectMapper objectMapper,
+            @Value("${gateway.reconciliation.import-dir:${java.io.tmpdir}/gateway-reconciliation/import}") String importDir,
+            @Value("${gateway.reconciliation.report-dir:${java.io.tmpdir}/gateway-reconciliation/reports}") String reportDir,
+            @Value("${gateway.reconciliation.chunk-size:5000}") int chunkSize,
+            @Value("${gateway.reconciliation.sort-buffer:100000}") int sortBuffer,
+            @Value("${gateway.reconciliation.jobs-kept:20}") int jobsKept) {
+        this.eventStore = eventStore;
+        this.deadLetters = deadLetters;
+        this.objectMapper = objectMapper;
+        this.importDir = Paths.get(importDir).toAbsolutePath().normalize();
+        this.reportDir = Paths.get(reportDir).toAbsolutePath().normalize();
+        this.chunkSize = chunkSize;
+        this.sortBuffer = sortBuffer;
+        this.jobsKept = jobsKept;
+    }
+
+    /**
+     * Inicia una conciliación
+     *
+     * @param exportFile Nombre del archivo en import-dir (.csv, .json o .ndjson)
+     * @param from       Recibidos en el gateway desde (null = sin límite)
+     * @param to         Recibidos en el gateway hasta (null = sin límite)
+     * @param redeliver  Guardar las diferencias reenviables en dead letters
+     * @throws IllegalArgumentException si el archivo no existe o está fuera de import-dir
+     * @throws IllegalStateException    si ya hay una conciliación corriendo
+     */
+    public synchronized ReconciliationJob start(String exportFile, Instant from, Instant to, boolean redeliver) {
+        Path export = resolveExport(exportFile);
+        if (running != null && running.getState() == ReconciliationJob.State.RUNNING) {
+            throw new IllegalStateException("Ya hay una conciliación en curso: " + running.getId());
+        }
+
+        ReconciliationJob job = new ReconciliationJob(UUID.randomUUID().toString(), exportFile, from, to, redeliver);
+        jobs.put(job.getId(), job);
+        if (jobs.size() > jobsKept) {
+            jobs.remove(jobs.keySet().iterator().next());
+        }
+        running = job;
+        executor.execute(() -> run(job, export));
+        return job;
+    }
+
+    public synchronized ReconciliationJob get(String id) {
+        return jobs.get(id);
+    }
+
+    /**
+     * @return Ruta del reporte CSV de un trabajo (puede no existir aún)
+     */
+    public Path reportPath(String id) {
+        return reportDir.resolve("reconciliation-" + id + ".csv");
+    }
+
+    private Path resolveExport(String exportFile) {
+        if (exportFile == null || exportFile.isBlank()) {
+            throw new IllegalArgumentException("Falta el nombre del archivo exportado de Seguru");
+        }
+        Path export = importDir.resolve(exportFile).normalize();
+        if (!export.startsWith(importDir) || !Files.isRegularFile(export)) {
+            throw new IllegalArgumentException("Archivo no encontrado en " + importDir + ": " + exportFile);
+        }
+        return export;
+    }
+
+    private void run(ReconciliationJob job, Path export) {
+        log.info("Conciliación {} iniciada con {}", job.getId(), export);
+        Path found = reportDir.resolve("reconciliation-" + job.getId() + ".pending");
+        boolean merged = false;
+        try {
+            Files.createDirectories(reportDir);
+            try (ExportReader reader = openExport(export);
+                 ExternalSorter sorter = new ExternalSorter(reportDir, sortBuffer);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(found)))) {
+
+                Iterator<SeguruAck> seguru = sorter.sort(reader);
+                Reconciler.run(gatewayStates(job), seguru, new Reconciler.Listener() {
+                    @Override
+                    public void onMatch(String transactionId) {
+                        job.onMatch();
+                    }
+
+                    @Override
+                    public void onDiscrepancy(Reconciler.Discrepancy discrepancy) {
+                        job.onDiscrepancy(discrepancy.type());
+                        writeDiscrepancy(out, discrepancy);
+                    }
+                });
+            }
+            merged = true;
+            writeReport(job, found, job.isRedeliver());
+            job.finish(ReconciliationJob.State.COMPLETED, null);
+
+        } catch (IOException | RuntimeException e) {
+            log.error("✗ Error en la conciliación {}: {}", job.getId(), e.getMessage(), e);
+            if (!merged) {
+                // Lo encontrado hasta el error queda en el reporte, sin reenviar nada
+                log.warn("⚠ Conciliación {} incompleta: no se guarda ninguna diferencia en dead letters", job.getId());
+                writePartialReport(job, found);
+            }
+            job.finish(ReconciliationJob.State.FAILED, e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(found);
+            } catch (IOException e) {
+                // Es un archivo temporal: si no se puede borrar, lo limpiará el sistema
+            }
+        }
+
+        log.info("Conciliación {} terminada ({}): {} coinciden, {} faltan en Seguru, {} con otro estado, "
+                 + "{} desconocidas para el gateway, {} enviadas a dead letters",
+                 job.getId(), job.getState(), job.getMatched(), job.getMissingInSeguru(),
+                 job.getStatusMismatch(), job.getUnknownToGateway(), job.getQueuedForRedelivery());
+    }
+
+    /**
+     * Escribe el reporte a partir de las diferencias encontradas en el cruce
+     *
+     * @param redeliver Guardar en dead letters las reenviables (solo si el cruce terminó bien)
+     */
+    private void writeReport(ReconciliationJob job, Path found, boolean redeliver) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(found)));
+             BufferedWriter report = Files.newBufferedWriter(reportPath(job.getId()), StandardCharsets.UTF_8)) {
+
+            report.write("type,transaction_id,gateway_status,seguru_status,queued_for_redelivery");
+            report.newLine();
+
+            Reconciler.Discrepancy discrepancy;
+            while ((discrepancy = readDiscrepancy(in)) != null) {
+                boolean queued = redeliver && discrepancy.redeliverable() && queue(discrepancy);
+                if (queued) {
+                    job.onQueued();
+                }
+                writeLine(report, discrepancy, queued);
+            }
+        }
+    }
+
+    private void writePartialReport(ReconciliationJob job, Path found) {
+        if (!Files.exists(found)) {
+            return;
+        }
+        try {
+            writeReport(job, found, false);
+        } catch (IOException | RuntimeException e) {
+            log.error("✗ No se pudo escribir el reporte de la conciliación {}: {}", job.getId(), e.getMessage());
+        }
+    }
+
+    private static void writeDiscrepancy(DataOutputStream out, Reconciler.Discrepancy discrepancy) {
+        try {
+            out.writeUTF(discrepancy.type().name());
+            out.writeUTF(discrepancy.transactionId());
+            out.writeUTF(discrepancy.gatewayStatus() != null ? discrepancy.gatewayStatus() : "");
+            out.writeUTF(discrepancy.seguruStatus() != null ? discrepancy.seguruStatus() : "");
+            out.writeBoolean(discrepancy.redeliverable());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return La siguiente diferencia, o null al final del archivo
+     */
+    private static Reconciler.Discrepancy readDiscrepancy(DataInputStream in) throws IOException {
+        try {
+            Reconciler.DiscrepancyType type = Reconciler.DiscrepancyType.valueOf(in.readUTF());
+            String transactionId = in.readUTF();
+            String gatewayStatus = in.readUTF();
+            String seguruStatus = in.readUTF();
+            boolean redeliverable = in.readBoolean();
+            return new Reconciler.Discrepancy(type, transactionId,
+                    gatewayStatus.isEmpty() ? null : gatewayStatus,
+                    seguruStatus.isEmpty() ? null : seguruStatus,
+                    redeliverable);
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Guarda en dead letters el último evento que el gateway recibió de la transacción
+     */
+    private boolean queue(Reconciler.Discrepancy discrepancy) {
+        List<StoredEvent> latest = eventStore.search(new EventQuery(
+                discrepancy.transactionId(), null, null, null, null, null, null, 1)).items();
+        if (latest.isEmpty()) {
+            return false;
+        }
+        String errorCode = discrepancy.type() == Reconciler.DiscrepancyType.MISSING_IN_SEGURU
+                ? "RECONCILIATION_MISSING"
+                : "RECONCILIATION_MISMATCH";
+        try {
+            deadLetters.store(latest.get(0).event(), errorCode, String.format(
+                    "Conciliación: gateway=%s, Seguru=%s", discrepancy.gatewayStatus(), discrepancy.seguruStatus()));
+        } catch (RuntimeException e) {
+            // Queda en el reporte como no enviada (queued=false)
+            log.error("✗ No se pudo guardar en dead letters la transacción {}: {}",
+                      discrepancy.transactionId(), e.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    private static void writeLine(BufferedWriter report, Reconciler.Discrepancy discrepancy, boolean queued) {
+        try {
+            report.write(String.join(",",
+                    discrepancy.type().name(),
+                    csv(discrepancy.transactionId()),
+                    csv(discrepancy.gatewayStatus()),
+                    csv(discrepancy.seguruStatus()),
+                    String.valueOf(queued)));
+            report.newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.contains(",") || value.contains("\"")
+                ? "\"" + value.replace("\"", "\"\"") + "\""
+                : value;
+    }
+
+    /**
+     * Último estado de cada transacción del gateway, leído por bloques (cursor por ID)
+     */
+    private Iterator<TransactionState> gatewayStates(ReconciliationJob job) {
+        return new Iterator<>() {
+            private List<TransactionState> chunk = List.of();
+            private int position;
+            private String cursor;
+            private boolean exhausted;
+
+            @Override
+            public boolean hasNext() {
+                if (position < chunk.size()) {
+                    return true;
+                }
+                if (exhausted) {
+                    return false;
+                }
+                chunk = eventStore.latestStates(cursor, job.getFrom(), job.getTo(), chunkSize);
+                position = 0;
+                exhausted = chunk.size() < chunkSize;
+                if (chunk.isEmpty()) {
+                    return false;
+                }
+                cursor = chunk.get(chunk.size() - 1).transactionId();
+                return true;
+            }
+
+            @Override
+            public TransactionState next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return chunk.get(position++);
+            }
+        };
+    }
+
+    private ExportReader openExport(Path export) throws IOException {
+        String name = export.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".json") || name.endsWith(".ndjson")) {
+            // Acepta un arreglo JSON o un objeto por línea
+            MappingIterator<SeguruAck> values = objectMapper.readerFor(SeguruAck.class).readValues(export.toFile());
+            return new ExportReader(values, values);
+        }
+        CsvIterator csv = new CsvIterator(Files.newBufferedReader(export, StandardCharsets.UTF_8));
+        return new ExportReader(csv, csv);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Iterador sobre el export que se puede cerrar
+     */
+    private record ExportReader(Iterator<SeguruAck> rows, Closeable source)
+            implements Iterator<SeguruAck>, Closeable {
+
+        @Override
+        public boolean hasNext() {
+            return rows.hasNext();
+        }
+
+        @Override
+        public SeguruAck next() {
+            return rows.next();
+        }
+
+        @Override
+        public void close() throws IOException {
+            source.close();
+        }
+    }
+
+    /**
+     * Lee un CSV con encabezado (columnas transaction_id y status, en cualquier orden)
+     */
+    private static final class CsvIterator implements Iterator<SeguruAck>, Closeable {
+
+        private final BufferedReader reader;
+        private final int idColumn;
+        private final int statusColumn;
+        private String nextLine;
+
+        CsvIterator(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            String header = reader.readLine();
+            if (header == null) {
+                throw new IOException("El export CSV está vacío");
+            }
+            String[] columns = header.split(",", -1);
+            int id = -1;
+            int status = -1;
+            for (int i = 0; i < columns.length; i++) {
+                String column = unquote(columns[i]).toLowerCase(Locale.ROOT);
+                if (column.equals("transaction_id") || column.equals("id")) {
+                    id = i;
+                } else if (column.equals("status")) {
+                    status = i;
+                }
+            }
+            if (id < 0 || status < 0) {
+                throw new IOException("El CSV debe tener las columnas transaction_id y status");
+            }
+            this.idColumn = id;
+            this.statusColumn = status;
+            this.nextLine = reader.readLine();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextLine != null;
+        }
+
+        @Override
+        public SeguruAck next() {
+            if (nextLine == null) {
+                throw new NoSuchElementException();
+            }
+            String[] fields = nextLine.split(",", -1);
+            try {
+                nextLine = reader.readLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (fields.length <= Math.max(idColumn, statusColumn)) {
+                return null;  // Fila incompleta: el ordenador la ignora
+            }
+            return new SeguruAck(unquote(fields[idColumn]), unquote(fields[statusColumn]));
+        }
+
+        private static String unquote(String value) {
+            String trimmed = value.trim();
+            if (trimmed.length() >= 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+                return trimmed.substring(1, trimmed.length() - 1);
+            }
+            return trimmed;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
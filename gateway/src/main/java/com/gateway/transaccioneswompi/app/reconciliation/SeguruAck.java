@@ -0,0 +1,13 @@
+package com.gateway.transaccioneswompi.app.reconciliation;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Una fila del export de Seguru: la transacción y el estado que Seguru tiene registrado
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record SeguruAck(
+        @JsonProperty("transaction_id") String transactionId,
+        @JsonProperty("status") String status) {
+}
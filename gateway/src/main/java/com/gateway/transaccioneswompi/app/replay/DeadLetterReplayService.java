@@ -0,0 +1,263 @@
+package com.gateway.transaccioneswompi.app.replay;
+
+import com.gateway.transaccioneswompi.app.forwarding.ForwardTask;
+import com.gateway.transaccioneswompi.app.forwarding.ForwardingQueue;
+import com.gateway.transaccioneswompi.app.usecases.ProcessWompiWebhookUseCase.ProcessingResult;
+import com.gateway.transaccioneswompi.domain.ports.DeadLetterPort;
+import com.gateway.transaccioneswompi.domain.ports.DeadLetterPort.DeadLetter;
+import com.gateway.transaccioneswompi.domain.ports.DeadLetterPort.DeadLetterQuery;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * REENVÍO MASIVO DE DEAD LETTERS (Application Layer)
+ *
+ * Después de una caída de Seguru, permite reenviar miles de eventos
+ * rápido pero de forma segura:
+ * - Recorre los dead letters por cursor (por bloques, sin cargarlos todos)
+ * - Ritmo máximo (eventos por segundo) y máximo de eventos en vuelo
+ * - Los eventos pasan por la MISMA cola de reenvío que el tráfico en vivo,
+ *   así respetan su prioridad, su orden por transacción y los hilos por stripe
+ *   (que son los que limitan la concurrencia hacia cada destino)
+ * - Si la cola tiene mucho trabajo pendiente, el reenvío espera para no
+ *   provocar 503 al tráfico en vivo de Wompi
+ * - Pasan por la deduplicación entre réplicas: no se reenvía un (transacción,
+ *   estado) que Seguru ya recibió, ni un estado intermedio si ya recibió uno
+ *   final (ej: PENDING después de APPROVED). La excepción son los que guardó la
+ *   conciliación (RECONCILIATION_*): Seguru no los tiene aunque el gateway
+ *   los dé por entregados
+ *
+ * Solo puede haber un trabajo corriendo a la vez.
+ * Se crea con la primera petición (@Lazy): no demora el arranque.
+ */
+@Lazy
+@Service
+public class DeadLetterReplayService {
+
+    private static final Logger log = LoggerFactory.getLogger(DeadLetterReplayService.class);
+
+    // Espera cuando la cola de reenvío está ocupada
+    private static final long BACKOFF_MILLIS = 200L;
+
+    // Código de los dead letters que guarda la conciliación (ver ReconciliationService)
+    private static final String RECONCILIATION_PREFIX = "RECONCILIATION_";
+
+    private final DeadLetterPort deadLetters;
+    private final ForwardingQueue forwardingQueue;
+    private final int maxParallelism;
+    private final double maxRatePerSecond;
+    private final int chunkSize;
+    private final int maxQueueBacklog;
+    private final int jobsKept;
+
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dead-letter-replay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Trabajos recientes (los más viejos se olvidan)
+    private final Map<String, ReplayJob> jobs = new LinkedHashMap<>();
+    private ReplayJob running;
+
+    private final Counter replayedOk;
+    private final Counter replayedFailed;
+
+    public DeadLetterReplayService(
+            DeadLetterPort deadLetters,
+            ForwardingQueue forwardingQueue,
+            MeterRegistry meterRegistry,
+            @Value("${gateway.dead-letter.replay.max-parallelism:16}") int maxParallelism,
+            @Value("${gateway.dead-letter.replay.max-rate-per-second:100}") double maxRatePerSecond,
+            @Value("${gateway.dead-letter.replay.chunk-size:200}") int chunkSize,
+            @Value("${gateway.dead-letter.replay.max-queue-backlog:200}") int maxQueueBacklog,
+            @Value("${gateway.dead-letter.replay.jobs-kept:20}") int jobsKept) {
+        this.deadLetters = deadLetters;
+        this.forwardingQueue = forwardingQueue;
+        this.maxParallelism = maxParallelism;
+        this.maxRatePerSecond = maxRatePerSecond;
+        this.chunkSize = chunkSize;
+        this.maxQueueBacklog = maxQueueBacklog;
+        this.jobsKept = jobsKept;
+        this.replayedOk = meterRegistry.counter("gateway.dead_letter.replayed", "result", "success");
+        this.replayedFailed = meterRegistry.counter("gateway.dead_letter.replayed", "result", "failure");
+    }
+
+    /**
+     * Inicia un reenvío masivo
+     *
+     * @param filter        Qué dead letters reenviar (afterId/upToId/limit se ignoran)
+     * @param ratePerSecond Eventos por segundo (se limita a max-rate-per-second)
+     * @param parallelism   Eventos en vuelo al mismo tiempo (se limita a max-parallelism)
+     * @return El trabajo creado
+     * @throws IllegalStateException si ya hay un reenvío corriendo
+     */
+    public synchronized ReplayJob start(DeadLetterQuery filter, double ratePerSecond, int parallelism) {
+        if (running != null && running.getState() == ReplayJob.State.RUNNING) {
+            throw new IllegalStateException("Ya hay un reenvío en curso: " + running.getId());
+        }
+
+        double rate = ratePerSecond > 0 ? Math.min(ratePerSecond, maxRatePerSecond) : maxRatePerSecond;
+        int threads = parallelism > 0 ? Math.min(parallelism, maxParallelism) : maxParallelism;
+        ReplayJob job = new ReplayJob(UUID.randomUUID().toString(), filter, rate, threads);
+
+        jobs.put(job.getId(), job);
+        if (jobs.size() > jobsKept) {
+            jobs.remove(jobs.keySet().iterator().next());
+        }
+        running = job;
+        coordinator.execute(() -> run(job));
+
+        log.info("Reenvío de dead letters iniciado: {} ({} eventos/s, {} en vuelo)", job.getId(), rate, threads);
+        return job;
+    }
+
+    public synchronized ReplayJob get(String id) {
+        return jobs.get(id);
+    }
+
+    public synchronized List<ReplayJob> list() {
+        return new ArrayList<>(jobs.values());
+    }
+
+    /**
+     * Detiene un reenvío (los eventos ya enviados terminan normalmente)
+     *
+     * @return false si el trabajo no existe
+     */
+    public synchronized boolean cancel(String id) {
+        ReplayJob job = jobs.get(id);
+        if (job == null) {
+            return false;
+        }
+        job.cancel();
+        return true;
+    }
+
+    private void run(ReplayJob job) {
+        DeadLetterQuery filter = job.getFilter();
+        Semaphore inFlight = new Semaphore(job.getParallelism());
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / job.getRatePerSecond());
+
+        try {
+            // Solo lo que existe al empezar: lo que falle durante el reenvío no se persigue
+            long upToId = deadLetters.lastId();
+            job.setTotal(deadLetters.countPending(query(filter, null, upToId)));
+
+            long nextSend = System.nanoTime();
+            Long afterId = null;
+            while (!job.isCancelled()) {
+                List<DeadLetter> chunk = deadLetters.findPending(query(filter, afterId, upToId));
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                for (DeadLetter deadLetter : chunk) {
+                    if (job.isCancelled()) {
+                        break;
+                    }
+                    // Ritmo: un evento cada intervalNanos
+                    long now = System.nanoTime();
+                    if (nextSend > now) {
+                        TimeUnit.NANOSECONDS.sleep(nextSend - now);
+                    }
+                    nextSend = Math.max(nextSend, now) + intervalNanos;
+
+                    inFlight.acquire();
+                    replay(job, deadLetter, inFlight);
+                    afterId = deadLetter.id();
+                }
+            }
+
+            // Esperar a que terminen los que están en vuelo
+            inFlight.acquire(job.getParallelism());
+            job.finish(job.isCancelled() ? ReplayJob.State.CANCELLED : ReplayJob.State.COMPLETED, null);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.finish(ReplayJob.State.CANCELLED, "Interrumpido");
+        } catch (RuntimeException e) {
+            log.error("✗ Error en el reenvío de dead letters {}: {}", job.getId(), e.getMessage(), e);
+            job.finish(ReplayJob.State.FAILED, e.getMessage());
+        }
+
+        log.info("Reenvío de dead letters {} terminado ({}): {} exitosos, {} fallidos de {}",
+                 job.getId(), job.getState(), job.getSucceeded(), job.getFailed(), job.getTotal());
+    }
+
+    private void replay(ReplayJob job, DeadLetter deadLetter, Semaphore inFlight) throws InterruptedException {
+        CompletableFuture<ProcessingResult> result;
+        while (true) {
+            // No llenar la cola: el tráfico en vivo tiene prioridad
+            if (forwardingQueue.size() < maxQueueBacklog) {
+                result = forwardingQueue.submit(deadLetter.event(), originOf(deadLetter));
+                if (!result.isCompletedExceptionally()) {
+                    break;
+                }
+            }
+            if (!forwardingQueue.isAccepting()) {
+                // Apagándose: el dead letter sigue pendiente
+                job.cancel();
+            }
+            if (job.isCancelled()) {
+                inFlight.release();
+                return;
+            }
+            TimeUnit.MILLISECONDS.sleep(BACKOFF_MILLIS);
+        }
+        job.onSubmitted();
+
+        result.whenComplete((processing, error) -> {
+            boolean success = error == null && processing.isSuccess();
+            try {
+                if (success) {
+                    deadLetters.markReplayed(deadLetter.id());
+                }
+            } catch (RuntimeException e) {
+                log.error("✗ No se pudo marcar el dead letter {} como reenviado: {}", deadLetter.id(), e.getMessage());
+            } finally {
+                (success ? replayedOk : replayedFailed).increment();
+                job.onResult(success);
+                inFlight.release();
+            }
+        });
+    }
+
+    private static ForwardTask.Origin originOf(DeadLetter deadLetter) {
+        return deadLetter.errorCode() != null && deadLetter.errorCode().startsWith(RECONCILIATION_PREFIX)
+                ? ForwardTask.Origin.RECONCILIATION
+                : ForwardTask.Origin.REPLAY;
+    }
+
+    private DeadLetterQuery query(DeadLetterQuery filter, Long afterId, long upToId) {
+        return new DeadLetterQuery(filter.from(), filter.to(), filter.status(), filter.errorCode(),
+                                   afterId, upToId, chunkSize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        synchronized (this) {
+            if (running != null) {
+                running.cancel();
+            }
+        }
+        coordinator.shutdownNow();
+    }
+}
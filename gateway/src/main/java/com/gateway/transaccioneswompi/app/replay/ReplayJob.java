@@ -0,0 +1,130 @@
+package com.gateway.transaccioneswompi.app.replay;
+
+import com.gateway.transaccioneswompi.domain.ports.DeadLetterPort.DeadLetterQuery;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Trabajo de reenvío masivo de dead letters y su progreso
+ *
+ * Los contadores se actualizan desde varios hilos (el coordinador y
+ * los callbacks de la cola de reenvío), por eso son atómicos.
+ */
+public class ReplayJob {
+
+    public enum State {
+        RUNNING,
+        COMPLETED,
+        CANCELLED,
+        FAILED
+    }
+
+    private final String id;
+    private final DeadLetterQuery filter;
+    private final double ratePerSecond;
+    private final int parallelism;
+    private final Instant startedAt = Instant.now();
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile long total;
+    private volatile State state = State.RUNNING;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    ReplayJob(String id, DeadLetterQuery filter, double ratePerSecond, int parallelism) {
+        this.id = id;
+        this.filter = filter;
+        this.ratePerSecond = ratePerSecond;
+        this.parallelism = parallelism;
+    }
+
+    void setTotal(long total) {
+        this.total = total;
+    }
+
+    void onSubmitted() {
+        submitted.incrementAndGet();
+    }
+
+    void onResult(boolean success) {
+        (success ? succeeded : failed).incrementAndGet();
+    }
+
+    void finish(State finalState, String errorMessage) {
+        this.error = errorMessage;
+        this.finishedAt = Instant.now();
+        this.state = finalState;
+    }
+
+    /**
+     * Pide detener el trabajo (los eventos ya enviados terminan normalmente)
+     */
+    void cancel() {
+        if (state == State.RUNNING) {
+            state = State.CANCELLED;
+        }
+    }
+
+    boolean isCancelled() {
+        return state == State.CANCELLED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public DeadLetterQuery getFilter() {
+        return filter;
+    }
+
+    public double getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getSubmitted() {
+        return submitted.get();
+    }
+
+    public long getSucceeded() {
+        return succeeded.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    /**
+     * @return Porcentaje completado (0 a 100)
+     */
+    public double getProgressPercent() {
+        long done = succeeded.get() + failed.get();
+        return total > 0 ? Math.min(100.0, 100.0 * done / total) : 100.0;
+    }
+}
@@ -1,6 +1,10 @@
 package com.gateway.transaccioneswompi.app.usecases;
 
 import com.gateway.transaccioneswompi.domain.WompiWebhookEvent;
+import com.gateway.transaccioneswompi.domain.ports.DeadLetterPort;
+import com.gateway.transaccioneswompi.domain.ports.DeliveryAuditPort;
+import com.gateway.transaccioneswompi.domain.ports.DeliveryAuditPort.DeliveryAttempt;
+import com.gateway.transaccioneswompi.domain.ports.DeliveryAuditPort.Destination;
 import com.gateway.transaccioneswompi.domain.ports.ExternalApiPort;
 import com.gateway.transaccioneswompi.domain.ports.ExternalApiPort.ExternalApiResponse;
 
@@ -8,14 +12,19 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
 /**
  * CASO DE USO - Lógica de Negocio (Application Layer)
  *
  * Este caso de uso orquesta la lógica de negocio:
  * 1. Recibe el evento de webhook (domain model)
  * 2. Envía los datos completos a Seguru
- * 3. Procesa las respuestas
- * 4. Retorna el resultado
+ * 3. Procesa las respuestas (cada intento queda en la auditoría de entregas)
+ * 4. Si ambos destinos fallan, guarda el evento en dead letters para reenviarlo después
+ * 5. Retorna el resultado
  *
  * @Service le dice a Spring que esta clase es un servicio de negocio
  */
@@ -27,9 +36,14 @@ public class ProcessWompiWebhookUseCase {
     // Inyectamos el PUERTO, no el adaptador concreto
     // Esto permite cambiar la implementación sin tocar el caso de uso
     private final ExternalApiPort externalApiPort;
+    private final DeliveryAuditPort deliveryAudit;
+    private final DeadLetterPort deadLetters;
 
-    public ProcessWompiWebhookUseCase(ExternalApiPort externalApiPort) {
+    public ProcessWompiWebhookUseCase(ExternalApiPort externalApiPort, DeliveryAuditPort deliveryAudit,
+                                      DeadLetterPort deadLetters) {
         this.externalApiPort = externalApiPort;
+        this.deliveryAudit = deliveryAudit;
+        this.deadLetters = deadLetters;
     }
 
     /**
@@ -37,7 +51,8 @@ public class ProcessWompiWebhookUseCase {
      *
      * Lógica de fallback:
      * 1. Intenta enviar a RESERVAS
-     * 2. Si falla, intenta enviar a ALIADOS
+     * 2. Si falla, intenta enviar a ALIADOS (salvo que RESERVAS solo estuviera
+     *    frenado por el límite de tráfico: se devuelve para reintentar)
      * 3. Si ambos fallan, devuelve error
      *
      * @param event Evento de webhook convertido a modelo de dominio
@@ -45,17 +60,18 @@ public class ProcessWompiWebhookUseCase {
      */
     public ProcessingResult execute(WompiWebhookEvent event) {
         log.info("=== Iniciando procesamiento de webhook ===");
-        log.info("Evento: {}", event.getEvent());
-        log.info("Transacción ID: {}", event.getData().getTransaction().getId());
-        log.info("Estado: {}", event.getData().getTransaction().getStatus());
+        log.info("Evento: {}", event.event());
+        log.info("Transacción ID: {}", event.transaction().id());
+        log.info("Estado: {}", event.transaction().status());
 
         try {
             // 1. PRIMER INTENTO: Enviar a RESERVAS
             log.info("Intentando enviar datos a RESERVAS (intento 1/2)...");
-            ExternalApiResponse reservasResponse = externalApiPort.sendToReservas(event);
+            ExternalApiResponse reservasResponse = deliver(Destination.RESERVAS, 1, event, externalApiPort::sendToReservas);
 
             if (reservasResponse.isSuccess()) {
                 log.info("✓ Datos enviados exitosamente a RESERVAS");
+                resolveDeadLetter(event);
                 log.info("=== Webhook procesado exitosamente ===");
                 return new ProcessingResult(
                     true,
@@ -63,14 +79,22 @@ public class ProcessWompiWebhookUseCase {
                 );
             }
 
+            // 2a. Límite de tráfico hacia RESERVAS: no es una falla de Reservas.
+            //     Desviarlo a ALIADOS mandaría la ráfaga al destino equivocado
+            if (reservasResponse.isRateLimited()) {
+                log.warn("⚠ RESERVAS saturado por el límite de tráfico: no se desvía a ALIADOS, se reintenta más tarde");
+                return ProcessingResult.retryLater(reservasResponse.getMessage());
+            }
+
             // 2. RESERVAS FALLÓ - Intentar ALIADOS como fallback
             log.warn("⚠ RESERVAS falló - Error: {}", reservasResponse.getMessage());
             log.info("Intentando enviar datos a ALIADOS (intento 2/2 - FALLBACK)...");
 
-            ExternalApiResponse aliadosResponse = externalApiPort.sendToAliados(event);
+            ExternalApiResponse aliadosResponse = deliver(Destination.ALIADOS, 2, event, externalApiPort::sendToAliados);
 
             if (aliadosResponse.isSuccess()) {
                 log.info("✓ Datos enviados exitosamente a ALIADOS (fallback)");
+                resolveDeadLetter(event);
                 log.info("=== Webhook procesado exitosamente ===");
                 return new ProcessingResult(
                     true,
@@ -83,41 +107,136 @@ public class ProcessWompiWebhookUseCase {
             log.error("RESERVAS: {}", reservasResponse.getMessage());
             log.error("ALIADOS: {}", aliadosResponse.getMessage());
 
-            return new ProcessingResult(
-                false,
-                String.format(
-                    "Ambos endpoints fallaron. RESERVAS: %s | ALIADOS: %s",
-                    reservasResponse.getMessage(),
-                    aliadosResponse.getMessage()
-                )
+            String message = String.format(
+                "Ambos endpoints fallaron. RESERVAS: %s | ALIADOS: %s",
+                reservasResponse.getMessage(),
+                aliadosResponse.getMessage()
             );
 
+            // 4. Guardar en dead letters para poder reenviarlo cuando Seguru se recupere
+            boolean stored = storeDeadLetter(event, aliadosResponse.getErrorCode(), message);
+
+            return new ProcessingResult(false, message, stored);
+
         } catch (Exception e) {
             // Este catch captura cualquier error inesperado
             log.error("Error inesperado procesando webhook: {}", e.getMessage(), e);
+            boolean stored = storeDeadLetter(event, "UNEXPECTED_ERROR", e.getMessage());
             return new ProcessingResult(
                 false,
-                "Error inesperado: " + e.getMessage()
+                "Error inesperado: " + e.getMessage(),
+                stored
             );
         }
     }
 
+    /**
+     * El evento ya llegó a Seguru: si había fallado antes (dead letter pendiente),
+     * se marca resuelto para que un reenvío masivo no lo vuelva a mandar
+     */
+    private void resolveDeadLetter(WompiWebhookEvent event) {
+        try {
+            if (deadLetters.resolve(event)) {
+                log.info("Dead letter resuelto: el evento se entregó en un reintento");
+            }
+        } catch (RuntimeException e) {
+            // El reenvío masivo igual lo descarta por la deduplicación
+            log.warn("⚠ No se pudo marcar resuelto el dead letter del evento: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Guarda el evento en dead letters
+     *
+     * @return false si no se pudo guardar (el evento solo sigue a salvo en el journal)
+     */
+    private boolean storeDeadLetter(WompiWebhookEvent event, String errorCode, String message) {
+        try {
+            deadLetters.store(event, errorCode, message);
+            return true;
+        } catch (RuntimeException e) {
+            log.error("✗ El evento no quedó en dead letters: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Envía el evento a un destino midiendo la latencia y registra el intento
+     */
+    private ExternalApiResponse deliver(Destination destination, int attemptNumber, WompiWebhookEvent event,
+                                        Function<WompiWebhookEvent, ExternalApiResponse> send) {
+        Instant attemptedAt = Instant.now();
+        long start = System.nanoTime();
+        ExternalApiResponse response = send.apply(event);
+        long latencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        deliveryAudit.record(new DeliveryAttempt(
+            attemptedAt,
+            destination,
+            attemptNumber,
+            response.isSuccess(),
+            response.getHttpStatus(),
+            response.getErrorCode(),
+            latencyMillis,
+            event.transaction() != null ? event.transaction().id() : null,
+            event.transaction() != null && event.transaction().status() != null
+                    ? event.transaction().status().value() : null
+        ));
+        return response;
+    }
+
     /**
      * Clase interna para el resultado del procesamiento
      */
     public static class ProcessingResult {
         private final boolean success;
         private final String message;
+        // Entregado o guardado en dead letters: ya no hace falta recuperarlo del journal
+        private final boolean persisted;
+        // No se intentó enviar (ej: límite de tráfico): hay que reintentarlo más tarde
+        private final boolean retryable;
 
         public ProcessingResult(boolean success, String message) {
+            this(success, message, success);
+        }
+
+        public ProcessingResult(boolean success, String message, boolean persisted) {
+            this(success, message, persisted, false);
+        }
+
+        public ProcessingResult(boolean success, String message, boolean persisted, boolean retryable) {
             this.success = success;
             this.message = message;
+            this.persisted = persisted;
+            this.retryable = retryable;
+        }
+
+        /**
+         * El evento no se envió ni se guardó: quien lo encoló debe reintentarlo
+         * (Wompi con un 503, el clúster releyendo la fila, el journal, etc.)
+         */
+        public static ProcessingResult retryLater(String message) {
+            return new ProcessingResult(false, message, false, true);
         }
 
         public boolean isSuccess() {
             return success;
         }
 
+        /**
+         * @return true si el evento quedó a salvo (entregado o en dead letters)
+         */
+        public boolean isPersisted() {
+            return persisted;
+        }
+
+        /**
+         * @return true si falló sin llegar a Seguru y conviene reintentar más tarde
+         */
+        public boolean isRetryable() {
+            return retryable;
+        }
+
         public String getMessage() {
             return message;
         }
@@ -127,6 +246,8 @@ public class ProcessWompiWebhookUseCase {
             return "ProcessingResult{" +
                     "success=" + success +
                     ", message='" + message + '\'' +
+                    ", persisted=" + persisted +
+                    ", retryable=" + retryable +
                     '}';
         }
     }
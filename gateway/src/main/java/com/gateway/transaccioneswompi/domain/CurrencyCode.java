@@ -0,0 +1,53 @@
+package com.gateway.transaccioneswompi.domain;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Moneda de una transacción (COP, USD, etc.) - Value Object del Dominio
+ *
+ * Igual que TransactionStatus: constantes compartidas para los valores
+ * conocidos y aceptación de cualquier otro código que envíe Wompi.
+ */
+public final class CurrencyCode {
+
+    private static final InternedValues<CurrencyCode> VALUES =
+            new InternedValues<>(CurrencyCode::new, 32);
+
+    public static final CurrencyCode COP = VALUES.intern("COP");
+    public static final CurrencyCode USD = VALUES.intern("USD");
+
+    private final String value;
+
+    private CurrencyCode(String value) {
+        this.value = value;
+    }
+
+    @JsonCreator
+    public static CurrencyCode of(String value) {
+        return value == null ? null : VALUES.intern(value);
+    }
+
+    @JsonValue
+    public String value() {
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof CurrencyCode other && value.equals(other.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return value.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
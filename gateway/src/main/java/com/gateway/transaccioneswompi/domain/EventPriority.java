@@ -0,0 +1,41 @@
+package com.gateway.transaccioneswompi.domain;
+
+/**
+ * Prioridad de negocio de un evento de Wompi
+ *
+ * No todos los webhooks valen lo mismo cuando hay congestión:
+ * - SETTLEMENT:   pago confirmado (APPROVED) o payout aplicado. Es lo que el
+ *                 cliente "siente", debe llegar a Seguru primero.
+ * - FINAL:        otros estados finales (DECLINED, VOIDED, ERROR).
+ * - INTERMEDIATE: estados intermedios (PENDING o desconocidos). Wompi enviará
+ *                 luego el estado final, así que son los primeros en esperar.
+ *
+ * El orden del enum es el orden de prioridad (el primero es el más urgente).
+ */
+public enum EventPriority {
+    SETTLEMENT,
+    FINAL,
+    INTERMEDIATE;
+
+    /**
+     * Clasifica un evento según el estado de su transacción
+     *
+     * @param event Evento de dominio (puede venir sin transacción)
+     * @return La prioridad del evento
+     */
+    public static EventPriority of(WompiWebhookEvent event) {
+        WompiWebhookEvent.Transaction tx = event != null ? event.transaction() : null;
+        if (tx == null || tx.status() == null) {
+            return INTERMEDIATE;
+        }
+        if (TransactionStatus.APPROVED.equals(tx.status())
+                || (tx.payoutId() != null && tx.appliedAt() != null)) {
+            return SETTLEMENT;
+        }
+        return tx.status().isFinal() ? FINAL : INTERMEDIATE;
+    }
+
+    public boolean isIntermediate() {
+        return this == INTERMEDIATE;
+    }
+}
@@ -0,0 +1,45 @@
+package com.gateway.transaccioneswompi.domain;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Tabla de valores internados (uso interno del dominio)
+ *
+ * Los valores tipo "enum abierto" (estado, moneda, método de pago) se repiten
+ * en casi todos los webhooks. En lugar de guardar un String nuevo por evento,
+ * compartimos una sola instancia por valor.
+ *
+ * La tabla tiene un tamaño máximo: si Wompi (o alguien malintencionado) envía
+ * valores desconocidos sin límite, dejamos de internarlos y simplemente
+ * devolvemos una instancia nueva, para no crecer la memoria sin control.
+ */
+final class InternedValues<T> {
+
+    private final ConcurrentHashMap<String, T> values = new ConcurrentHashMap<>();
+    private final Function<String, T> factory;
+    private final int maxSize;
+
+    InternedValues(Function<String, T> factory, int maxSize) {
+        this.factory = factory;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Devuelve la instancia compartida para el valor (o una nueva si la tabla está llena)
+     */
+    T intern(String value) {
+        T existing = values.get(value);
+        if (existing != null) {
+            return existing;
+        }
+
+        T created = factory.apply(value);
+        if (values.size() >= maxSize) {
+            return created;
+        }
+
+        T previous = values.putIfAbsent(value, created);
+        return previous != null ? previous : created;
+    }
+}
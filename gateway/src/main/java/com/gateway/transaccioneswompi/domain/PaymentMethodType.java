@@ -0,0 +1,58 @@
+package com.gateway.transaccioneswompi.domain;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Método de pago de una transacción (NEQUI, PSE, CARD, etc.) - Value Object del Dominio
+ *
+ * Igual que TransactionStatus: constantes compartidas para los valores
+ * conocidos y aceptación de cualquier otro método que envíe Wompi.
+ */
+public final class PaymentMethodType {
+
+    private static final InternedValues<PaymentMethodType> VALUES =
+            new InternedValues<>(PaymentMethodType::new, 64);
+
+    public static final PaymentMethodType CARD = VALUES.intern("CARD");
+    public static final PaymentMethodType NEQUI = VALUES.intern("NEQUI");
+    public static final PaymentMethodType PSE = VALUES.intern("PSE");
+    public static final PaymentMethodType BANCOLOMBIA_TRANSFER = VALUES.intern("BANCOLOMBIA_TRANSFER");
+    public static final PaymentMethodType BANCOLOMBIA_COLLECT = VALUES.intern("BANCOLOMBIA_COLLECT");
+    public static final PaymentMethodType BANCOLOMBIA_QR = VALUES.intern("BANCOLOMBIA_QR");
+    public static final PaymentMethodType DAVIPLATA = VALUES.intern("DAVIPLATA");
+
+    private final String value;
+
+    private PaymentMethodType(String value) {
+        this.value = value;
+    }
+
+    @JsonCreator
+    public static PaymentMethodType of(String value) {
+        return value == null ? null : VALUES.intern(value);
+    }
+
+    @JsonValue
+    public String value() {
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof PaymentMethodType other && value.equals(other.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return value.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
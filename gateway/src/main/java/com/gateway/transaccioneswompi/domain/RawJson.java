@@ -0,0 +1,58 @@
+package com.gateway.transaccioneswompi.domain;
+
+/**
+ * Fragmento de JSON "crudo" - Value Object del Dominio
+ *
+ * Algunos campos de Wompi (shipping_address, billing_data) son objetos grandes
+ * que el gateway nunca lee: solo los reenvía a Seguru. En lugar de convertirlos
+ * a Map/List (muchos objetos pequeños) guardamos el texto JSON tal cual llegó
+ * y lo escribimos igual al reenviar.
+ *
+ * Si algún componente necesita leer su contenido, lo parsea bajo demanda
+ * con su propio ObjectMapper a partir de json().
+ *
+ * La conversión desde/hacia JSON la registra RawJsonModule (Infrastructure).
+ */
+public final class RawJson {
+
+    private final String json;
+
+    private RawJson(String json) {
+        this.json = json;
+    }
+
+    /**
+     * Crea el fragmento a partir de un texto JSON válido
+     *
+     * @param json Texto JSON (objeto, arreglo o valor simple)
+     * @return El fragmento, o null si el texto es null
+     */
+    public static RawJson of(String json) {
+        return json == null ? null : new RawJson(json);
+    }
+
+    /**
+     * @return El texto JSON exactamente como se recibió
+     */
+    public String json() {
+        return json;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof RawJson other && json.equals(other.json);
+    }
+
+    @Override
+    public int hashCode() {
+        return json.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return json;
+    }
+}
@@ -0,0 +1,74 @@
+package com.gateway.transaccioneswompi.domain;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Estado de una transacción de Wompi - Value Object del Dominio
+ *
+ * Funciona como un "enum abierto": los estados conocidos son constantes
+ * compartidas, pero si Wompi agrega un estado nuevo lo aceptamos igual
+ * (un enum de Java fallaría al deserializar).
+ *
+ * Las instancias se internan, así que todos los eventos APPROVED
+ * apuntan al mismo objeto en memoria.
+ */
+public final class TransactionStatus {
+
+    private static final InternedValues<TransactionStatus> VALUES =
+            new InternedValues<>(TransactionStatus::new, 32);
+
+    public static final TransactionStatus PENDING = VALUES.intern("PENDING");
+    public static final TransactionStatus APPROVED = VALUES.intern("APPROVED");
+    public static final TransactionStatus DECLINED = VALUES.intern("DECLINED");
+    public static final TransactionStatus VOIDED = VALUES.intern("VOIDED");
+    public static final TransactionStatus ERROR = VALUES.intern("ERROR");
+
+    private final String value;
+
+    private TransactionStatus(String value) {
+        this.value = value;
+    }
+
+    /**
+     * Obtiene el estado a partir del texto que envía Wompi
+     *
+     * @param value Texto del estado (ej: "APPROVED")
+     * @return La instancia compartida, o null si el valor es null
+     */
+    @JsonCreator
+    public static TransactionStatus of(String value) {
+        return value == null ? null : VALUES.intern(value);
+    }
+
+    @JsonValue
+    public String value() {
+        return value;
+    }
+
+    /**
+     * Un estado final ya no cambiará (APPROVED, DECLINED, VOIDED, ERROR)
+     */
+    public boolean isFinal() {
+        return this.equals(APPROVED) || this.equals(DECLINED)
+                || this.equals(VOIDED) || this.equals(ERROR);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof TransactionStatus other && value.equals(other.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return value.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
@@ -3,6 +3,7 @@ package com.gateway.transaccioneswompi.domain;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Evento de webhook de Wompi - Modelo de Dominio
@@ -10,490 +11,183 @@ import java.util.List;
  * Esta clase representa el concepto de negocio "Evento de Webhook de Wompi".
  * En arquitectura hexagonal, el dominio NO debe depender de frameworks externos.
  * Por eso usamos tipos básicos de Java (String, Long, Instant, etc.)
+ *
+ * El modelo es INMUTABLE (records): una vez creado el evento no cambia, así que
+ * se puede encolar, cachear y reintentar desde varios hilos sin copias defensivas.
+ * Los valores repetitivos (estado, moneda, método de pago) son instancias
+ * compartidas para ocupar menos memoria por evento.
+ *
+ * El monto y el timestamp son Long (no long): si Wompi no los manda, a
+ * Seguru le llegan como null, igual que antes, y no como 0.
+ *
+ * @param event       Tipo de evento: "transaction.updated"
+ * @param data        Datos de la transacción
+ * @param signature   Firma para verificar autenticidad
+ * @param timestamp   Timestamp en milisegundos (puede ser null)
+ * @param sentAt      Fecha de envío del webhook
+ * @param environment "test" o "production"
  */
-public class WompiWebhookEvent {
-
-    @JsonProperty("event")
-    private String event;                    // Tipo de evento: "transaction.updated"
-
-    @JsonProperty("data")
-    private TransactionData data;            // Datos de la transacción
-
-    @JsonProperty("signature")
-    private Signature signature;             // Firma para verificar autenticidad
-
-    @JsonProperty("timestamp")
-    private Long timestamp;                  // Timestamp en milisegundos
-
-    @JsonProperty("sent_at")
-    private Instant sentAt;                  // Fecha de envío del webhook
-
-    @JsonProperty("environment")
-    private String environment;              // "test" o "production"
-
-    // Constructor vacío (necesario para frameworks como Jackson)
-    public WompiWebhookEvent() {
-    }
-
-    // Constructor con todos los parámetros
-    public WompiWebhookEvent(String event, TransactionData data, Signature signature,
-                             Long timestamp, Instant sentAt) {
-        this.event = event;
-        this.data = data;
-        this.signature = signature;
-        this.timestamp = timestamp;
-        this.sentAt = sentAt;
-    }
-
-    // GETTERS Y SETTERS
-    // En Java necesitamos estos métodos para acceder y modificar los atributos privados
-
-    public String getEvent() {
-        return event;
-    }
-
-    public void setEvent(String event) {
-        this.event = event;
-    }
-
-    public TransactionData getData() {
-        return data;
-    }
-
-    public void setData(TransactionData data) {
-        this.data = data;
-    }
-
-    public Signature getSignature() {
-        return signature;
-    }
-
-    public void setSignature(Signature signature) {
-        this.signature = signature;
-    }
-
-    public Long getTimestamp() {
-        return timestamp;
-    }
-
-    public void setTimestamp(Long timestamp) {
-        this.timestamp = timestamp;
-    }
-
-    public Instant getSentAt() {
-        return sentAt;
-    }
+public record WompiWebhookEvent(
+        @JsonProperty("event") String event,
+        @JsonProperty("data") TransactionData data,
+        @JsonProperty("signature") Signature signature,
+        @JsonProperty("timestamp") Long timestamp,
+        @JsonProperty("sent_at") Instant sentAt,
+        @JsonProperty("environment") String environment) {
 
-    public void setSentAt(Instant sentAt) {
-        this.sentAt = sentAt;
-    }
-
-    public String getEnvironment() {
-        return environment;
+    /**
+     * Atajo para llegar a la transacción sin pasar por el wrapper "data"
+     *
+     * @return La transacción, o null si el evento no trae datos
+     */
+    public Transaction transaction() {
+        return data != null ? data.transaction() : null;
     }
 
-    public void setEnvironment(String environment) {
-        this.environment = environment;
+    /**
+     * Copia del evento sin datos personales del cliente ni del beneficiario
+     * (para mostrarla a operadores). NO se debe reenviar a Seguru.
+     *
+     * @return El mismo evento sin email, dirección, facturación ni datos del beneficiario
+     */
+    public WompiWebhookEvent withoutPersonalData() {
+        Transaction tx = transaction();
+        if (tx == null) {
+            return this;
+        }
+        return new WompiWebhookEvent(event, new TransactionData(tx.withoutPersonalData()),
+                                     signature, timestamp, sentAt, environment);
     }
 
     /**
      * Clase interna que envuelve la transacción
      */
-    public static class TransactionData {
-        @JsonProperty("transaction")
-        private Transaction transaction;
-
-        public TransactionData() {
-        }
-
-        public TransactionData(Transaction transaction) {
-            this.transaction = transaction;
-        }
-
-        public Transaction getTransaction() {
-            return transaction;
-        }
-
-        public void setTransaction(Transaction transaction) {
-            this.transaction = transaction;
-        }
+    public record TransactionData(
+            @JsonProperty("transaction") Transaction transaction) {
     }
 
     /**
      * Clase que representa una Transacción
      * Contiene toda la información del pago/transferencia
+     *
+     * @param id                ID único de la transacción
+     * @param createdAt         Fecha de creación
+     * @param finalizedAt       Fecha de finalización
+     * @param amountInCents     Monto en centavos (2000 = $20.00), puede ser null
+     * @param reference         Referencia única de la transacción
+     * @param customerEmail     Email del cliente
+     * @param currency          Moneda: COP, USD, etc.
+     * @param paymentMethodType NEQUI, PSE, CARD, etc.
+     * @param status            APPROVED, DECLINED, PENDING, etc.
+     * @param shippingAddress   Dirección de envío, JSON crudo (puede ser null)
+     * @param paymentLinkId     ID del link de pago (puede ser null)
+     * @param redirectUrl       URL de redirección
+     * @param paymentSourceId   ID de la fuente de pago (puede ser null)
+     * @param billingData       Datos de facturación, JSON crudo (puede ser null)
+     * @param payoutId          ID del pago (solo payouts)
+     * @param payee             Datos del beneficiario (solo payouts)
+     * @param failureReason     Razón de fallo (si aplica)
+     * @param appliedAt         Fecha de aplicación (solo payouts)
      */
-    public static class Transaction {
-        @JsonProperty("id")
-        private String id;                   // ID único de la transacción
-
-        @JsonProperty("created_at")
-        private Instant createdAt;           // Fecha de creación
-
-        @JsonProperty("finalized_at")
-        private Instant finalizedAt;         // Fecha de finalización
-
-        @JsonProperty("amount_in_cents")
-        private Long amountInCents;          // Monto en centavos (2000 = $20.00)
-
-        @JsonProperty("reference")
-        private String reference;            // Referencia única de la transacción
-
-        @JsonProperty("customer_email")
-        private String customerEmail;        // Email del cliente
-
-        @JsonProperty("currency")
-        private String currency;             // Moneda: COP, USD, etc.
-
-        @JsonProperty("payment_method_type")
-        private String paymentMethodType;    // NEQUI, PSE, CARD, etc.
-
-        @JsonProperty("status")
-        private String status;               // APPROVED, DECLINED, PENDING, etc.
-
-        @JsonProperty("shipping_address")
-        private Object shippingAddress;      // Dirección de envío (puede ser null)
-
-        @JsonProperty("payment_link_id")
-        private String paymentLinkId;        // ID del link de pago (puede ser null)
-
-        @JsonProperty("redirect_url")
-        private String redirectUrl;          // URL de redirección
-
-        @JsonProperty("payment_source_id")
-        private String paymentSourceId;      // ID de la fuente de pago (puede ser null)
-
-        @JsonProperty("billing_data")
-        private Object billingData;          // Datos de facturación (puede ser null)
-
-        // Campos para payouts (pueden estar ausentes en transacciones normales)
-        @JsonProperty("payout_id")
-        private String payoutId;             // ID del pago
-
-        @JsonProperty("payee")
-        private Payee payee;                 // Datos del beneficiario
-
-        @JsonProperty("failure_reason")
-        private FailureReason failureReason; // Razón de fallo (si aplica)
-
-        @JsonProperty("applied_at")
-        private Instant appliedAt;           // Fecha de aplicación
-
-        public Transaction() {
-        }
-
-        public Transaction(String id, String payoutId, Long amountInCents, String status,
-                          Payee payee, FailureReason failureReason, String currency,
-                          Instant appliedAt, Instant createdAt) {
-            this.id = id;
-            this.payoutId = payoutId;
-            this.amountInCents = amountInCents;
-            this.status = status;
-            this.payee = payee;
-            this.failureReason = failureReason;
-            this.currency = currency;
-            this.appliedAt = appliedAt;
-            this.createdAt = createdAt;
-        }
-
-        // Getters y Setters
-        public String getId() {
-            return id;
-        }
-
-        public void setId(String id) {
-            this.id = id;
-        }
-
-        public String getPayoutId() {
-            return payoutId;
-        }
-
-        public void setPayoutId(String payoutId) {
-            this.payoutId = payoutId;
-        }
-
-        public Long getAmountInCents() {
-            return amountInCents;
-        }
-
-        public void setAmountInCents(Long amountInCents) {
-            this.amountInCents = amountInCents;
-        }
-
-        public String getStatus() {
-            return status;
-        }
-
-        public void setStatus(String status) {
-            this.status = status;
-        }
-
-        public Payee getPayee() {
-            return payee;
-        }
-
-        public void setPayee(Payee payee) {
-            this.payee = payee;
-        }
-
-        public FailureReason getFailureReason() {
-            return failureReason;
-        }
-
-        public void setFailureReason(FailureReason failureReason) {
-            this.failureReason = failureReason;
-        }
-
-        public String getCurrency() {
-            return currency;
-        }
-
-        public void setCurrency(String currency) {
-            this.currency = currency;
-        }
-
-        public Instant getAppliedAt() {
-            return appliedAt;
-        }
-
-        public void setAppliedAt(Instant appliedAt) {
-            this.appliedAt = appliedAt;
-        }
-
-        public Instant getCreatedAt() {
-            return createdAt;
-        }
-
-        public void setCreatedAt(Instant createdAt) {
-            this.createdAt = createdAt;
-        }
-
-        public Instant getFinalizedAt() {
-            return finalizedAt;
-        }
-
-        public void setFinalizedAt(Instant finalizedAt) {
-            this.finalizedAt = finalizedAt;
-        }
-
-        public String getReference() {
-            return reference;
-        }
-
-        public void setReference(String reference) {
-            this.reference = reference;
-        }
-
-        public String getCustomerEmail() {
-            return customerEmail;
-        }
-
-        public void setCustomerEmail(String customerEmail) {
-            this.customerEmail = customerEmail;
-        }
-
-        public String getPaymentMethodType() {
-            return paymentMethodType;
-        }
-
-        public void setPaymentMethodType(String paymentMethodType) {
-            this.paymentMethodType = paymentMethodType;
-        }
-
-        public Object getShippingAddress() {
-            return shippingAddress;
-        }
-
-        public void setShippingAddress(Object shippingAddress) {
-            this.shippingAddress = shippingAddress;
-        }
-
-        public String getPaymentLinkId() {
-            return paymentLinkId;
-        }
-
-        public void setPaymentLinkId(String paymentLinkId) {
-            this.paymentLinkId = paymentLinkId;
-        }
-
-        public String getRedirectUrl() {
-            return redirectUrl;
-        }
-
-        public void setRedirectUrl(String redirectUrl) {
-            this.redirectUrl = redirectUrl;
-        }
-
-        public String getPaymentSourceId() {
-            return paymentSourceId;
-        }
-
-        public void setPaymentSourceId(String paymentSourceId) {
-            this.paymentSourceId = paymentSourceId;
-        }
-
-        public Object getBillingData() {
-            return billingData;
-        }
-
-        public void setBillingData(Object billingData) {
-            this.billingData = billingData;
+    public record Transaction(
+            @JsonProperty("id") String id,
+            @JsonProperty("created_at") Instant createdAt,
+            @JsonProperty("finalized_at") Instant finalizedAt,
+            @JsonProperty("amount_in_cents") Long amountInCents,
+            @JsonProperty("reference") String reference,
+            @JsonProperty("customer_email") String customerEmail,
+            @JsonProperty("currency") CurrencyCode currency,
+            @JsonProperty("payment_method_type") PaymentMethodType paymentMethodType,
+            @JsonProperty("status") TransactionStatus status,
+            @JsonProperty("shipping_address") RawJson shippingAddress,
+            @JsonProperty("payment_link_id") String paymentLinkId,
+            @JsonProperty("redirect_url") String redirectUrl,
+            @JsonProperty("payment_source_id") String paymentSourceId,
+            @JsonProperty("billing_data") RawJson billingData,
+            @JsonProperty("payout_id") String payoutId,
+            @JsonProperty("payee") Payee payee,
+            @JsonProperty("failure_reason") FailureReason failureReason,
+            @JsonProperty("applied_at") Instant appliedAt) {
+
+        /**
+         * Copia sin email, dirección de envío, datos de facturación ni
+         * datos del beneficiario (del beneficiario solo quedan banco y tipo de cuenta)
+         */
+        public Transaction withoutPersonalData() {
+            Payee redactedPayee = payee != null
+                    ? new Payee(null, null, payee.bank(), payee.accountType(), null, null)
+                    : null;
+            return new Transaction(id, createdAt, finalizedAt, amountInCents, reference, null,
+                                   currency, paymentMethodType, status, null, paymentLinkId,
+                                   redirectUrl, paymentSourceId, null, payoutId, redactedPayee,
+                                   failureReason, appliedAt);
         }
     }
 
     /**
      * Clase que representa al beneficiario del pago
+     *
+     * @param name          Nombre completo
+     * @param document      Número de documento
+     * @param bank          Banco
+     * @param accountType   Tipo de cuenta: SAVINGS, CHECKING
+     * @param accountNumber Número de cuenta
+     * @param email         Email
      */
-    public static class Payee {
-        @JsonProperty("name")
-        private String name;            // Nombre completo
-
-        @JsonProperty("document")
-        private String document;        // Número de documento
-
-        @JsonProperty("bank")
-        private String bank;            // Banco
-
-        @JsonProperty("account_type")
-        private String accountType;     // Tipo de cuenta: SAVINGS, CHECKING
-
-        @JsonProperty("account_number")
-        private String accountNumber;   // Número de cuenta
-
-        @JsonProperty("email")
-        private String email;           // Email
-
-        public Payee() {
-        }
-
-        public Payee(String name, String document, String bank, String accountType,
-                    String accountNumber, String email) {
-            this.name = name;
-            this.document = document;
-            this.bank = bank;
-            this.accountType = accountType;
-            this.accountNumber = accountNumber;
-            this.email = email;
-        }
-
-        // Getters y Setters
-        public String getName() {
-            return name;
-        }
-
-        public void setName(String name) {
-            this.name = name;
-        }
-
-        public String getDocument() {
-            return document;
-        }
-
-        public void setDocument(String document) {
-            this.document = document;
-        }
-
-        public String getBank() {
-            return bank;
-        }
-
-        public void setBank(String bank) {
-            this.bank = bank;
-        }
-
-        public String getAccountType() {
-            return accountType;
-        }
-
-        public void setAccountType(String accountType) {
-            this.accountType = accountType;
-        }
-
-        public String getAccountNumber() {
-            return accountNumber;
-        }
-
-        public void setAccountNumber(String accountNumber) {
-            this.accountNumber = accountNumber;
-        }
-
-        public String getEmail() {
-            return email;
-        }
-
-        public void setEmail(String email) {
-            this.email = email;
-        }
+    public record Payee(
+            @JsonProperty("name") String name,
+            @JsonProperty("document") String document,
+            @JsonProperty("bank") String bank,
+            @JsonProperty("account_type") String accountType,
+            @JsonProperty("account_number") String accountNumber,
+            @JsonProperty("email") String email) {
     }
 
     /**
      * Razón del fallo de una transacción
+     *
+     * @param code    Código de error: "C01", "C02", etc.
+     * @param message Mensaje descriptivo del error
      */
-    public static class FailureReason {
-        @JsonProperty("code")
-        private String code;       // Código de error: "C01", "C02", etc.
-
-        @JsonProperty("message")
-        private String message;    // Mensaje descriptivo del error
-
-        public FailureReason() {
-        }
-
-        public FailureReason(String code, String message) {
-            this.code = code;
-            this.message = message;
-        }
-
-        public String getCode() {
-            return code;
-        }
-
-        public void setCode(String code) {
-            this.code = code;
-        }
-
-        public String getMessage() {
-            return message;
-        }
-
-        public void setMessage(String message) {
-            this.message = message;
-        }
+    public record FailureReason(
+            @JsonProperty("code") String code,
+            @JsonProperty("message") String message) {
     }
 
     /**
      * Firma digital para verificar la autenticidad del webhook
+     *
+     * Casi todos los webhooks firman exactamente la misma lista de propiedades,
+     * así que la lista se comparte entre eventos en lugar de copiarse en cada uno.
+     *
+     * @param properties Campos que se firmaron
+     * @param checksum   Hash de verificación
      */
-    public static class Signature {
-        @JsonProperty("properties")
-        private List<String> properties;  // Campos que se firmaron
-
-        @JsonProperty("checksum")
-        private String checksum;          // Hash de verificación
-
-        public Signature() {
-        }
-
-        public Signature(List<String> properties, String checksum) {
-            this.properties = properties;
-            this.checksum = checksum;
-        }
-
-        public List<String> getProperties() {
-            return properties;
-        }
-
-        public void setProperties(List<String> properties) {
-            this.properties = properties;
-        }
-
-        public String getChecksum() {
-            return checksum;
-        }
-
-        public void setChecksum(String checksum) {
-            this.checksum = checksum;
+    public record Signature(
+            @JsonProperty("properties") List<String> properties,
+            @JsonProperty("checksum") String checksum) {
+
+        private static final int MAX_SHARED_PROPERTY_LISTS = 16;
+        private static final ConcurrentHashMap<List<String>, List<String>> SHARED_PROPERTY_LISTS =
+                new ConcurrentHashMap<>();
+
+        public Signature {
+            properties = shared(properties);
+        }
+
+        private static List<String> shared(List<String> properties) {
+            if (properties == null) {
+                return null;
+            }
+            List<String> existing = SHARED_PROPERTY_LISTS.get(properties);
+            if (existing != null) {
+                return existing;
+            }
+            List<String> copy = List.copyOf(properties);
+            if (SHARED_PROPERTY_LISTS.size() < MAX_SHARED_PROPERTY_LISTS) {
+                SHARED_PROPERTY_LISTS.putIfAbsent(copy, copy);
+            }
+            return copy;
         }
     }
 }
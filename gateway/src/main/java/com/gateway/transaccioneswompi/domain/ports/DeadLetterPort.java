@@ -0,0 +1,81 @@
+package com.gateway.transaccioneswompi.domain.ports;
+
+import com.gateway.transaccioneswompi.domain.WompiWebhookEvent;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * PUERTO (PORT) - Eventos que no se pudieron entregar (dead letters)
+ *
+ * Cuando Reservas Y Aliados fallan, el evento se guarda aquí para poder
+ * reenviarlo después (ej: cuando Seguru se recupere de una caída).
+ *
+ * Un mismo evento (transacción + estado + timestamp) ocupa una sola fila:
+ * si vuelve a fallar (reintento de Wompi o reenvío manual) solo se
+ * actualizan el último error y el contador de fallos.
+ */
+public interface DeadLetterPort {
+
+    /**
+     * Guarda (o actualiza) un evento que agotó sus intentos de entrega
+     *
+     * @param event     Evento que no se pudo entregar
+     * @param errorCode Código de error del último intento
+     * @param message   Mensaje de error del último intento
+     * @throws RuntimeException Si no se pudo guardar: el evento NO quedó a salvo
+     *                          y el llamador no debe darlo por registrado
+     */
+    void store(WompiWebhookEvent event, String errorCode, String message);
+
+    /**
+     * Busca dead letters pendientes de reenvío, en orden de id (ascendente)
+     */
+    List<DeadLetter> findPending(DeadLetterQuery query);
+
+    /**
+     * Cuenta los dead letters pendientes que cumplen el filtro
+     */
+    long countPending(DeadLetterQuery query);
+
+    /**
+     * @return El id más alto existente (0 si no hay ninguno)
+     */
+    long lastId();
+
+    /**
+     * Marca un dead letter como reenviado exitosamente
+     */
+    void markReplayed(long id);
+
+    /**
+     * El evento se entregó por otro camino (reintento de Wompi, webhook en vivo):
+     * su dead letter pendiente, si lo hay, ya no se reenvía
+     *
+     * @return true si había un dead letter pendiente de ese evento
+     */
+    boolean resolve(WompiWebhookEvent event);
+
+    /**
+     * Filtros. Los campos null no filtran.
+     *
+     * @param from      Último fallo desde (inclusive)
+     * @param to        Último fallo hasta (exclusive)
+     * @param status    Estado de la transacción (ej: "APPROVED")
+     * @param errorCode Código de error del último intento
+     * @param afterId   Cursor: solo ids mayores a este
+     * @param upToId    Solo ids menores o iguales a este
+     * @param limit     Máximo de resultados
+     */
+    record DeadLetterQuery(Instant from, Instant to, String status, String errorCode,
+                           Long afterId, Long upToId, int limit) {
+    }
+
+    /**
+     * Evento guardado en dead letters
+     */
+    record DeadLetter(long id, Instant firstFailedAt, Instant lastFailedAt, String transactionId,
+                      String status, String errorCode, String message, int failures,
+                      WompiWebhookEvent event) {
+    }
+}
@@ -0,0 +1,54 @@
+package com.gateway.transaccioneswompi.domain.ports;
+
+import java.util.List;
+
+/**
+ * PUERTO (PORT) - Deduplicación de reenvíos entre réplicas del gateway
+ *
+ * Con varias réplicas detrás de un balanceador, los reintentos de Wompi
+ * pueden caer en réplicas distintas. Antes de reenviar un evento, la réplica
+ * "reclama" su llave (ID de transacción + estado) en un almacén compartido:
+ * solo una lo logra y las demás no reenvían.
+ *
+ * La implementación por defecto usa la base de datos (JdbcDedupStoreAdapter);
+ * un almacén clave-valor (ej: Redis con SET NX PX) puede implementar este
+ * mismo puerto sin tocar la lógica de reenvío.
+ */
+public interface DedupStorePort {
+
+    /**
+     * Intenta reclamar el reenvío de (transacción, estado)
+     *
+     * Un reclamo EN CURSO de otra réplica que lleva más de claimTimeout
+     * se considera abandonado (la réplica se cayó) y se puede tomar.
+     *
+     * @return CLAIMED si esta réplica debe reenviarlo
+     */
+    ClaimResult tryClaim(String transactionId, String status);
+
+    /**
+     * Registra que (transacción, estado) ya se entregó a Seguru
+     * (aunque no se haya reclamado antes, ej: un reenvío manual)
+     */
+    void markDelivered(String transactionId, String status);
+
+    /**
+     * Estados de la transacción que ya se entregaron a Seguru (en cualquier réplica)
+     */
+    List<String> deliveredStatuses(String transactionId);
+
+    /**
+     * Libera un reclamo propio que no se pudo entregar, para que
+     * el próximo reintento (en cualquier réplica) lo vuelva a intentar
+     */
+    void release(String transactionId, String status);
+
+    enum ClaimResult {
+        // Esta réplica lo reclamó: debe reenviarlo
+        CLAIMED,
+        // Ya se entregó (en esta u otra réplica): no se reenvía
+        DELIVERED,
+        // Otra réplica lo está reenviando en este momento
+        IN_PROGRESS
+    }
+}
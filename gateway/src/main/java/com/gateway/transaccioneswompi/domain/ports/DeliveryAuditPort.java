@@ -0,0 +1,74 @@
+package com.gateway.transaccioneswompi.domain.ports;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * PUERTO (PORT) - Auditoría de entregas a Seguru
+ *
+ * Registra CADA intento de envío a cada destino (Reservas y Aliados):
+ * destino, status HTTP, código de error, latencia y número de intento.
+ * Con esto se puede comparar históricamente el desempeño de los destinos.
+ *
+ * Es un puerto de SALIDA: la infrastructure decide dónde se guarda.
+ */
+public interface DeliveryAuditPort {
+
+    /**
+     * Registra un intento de entrega. NO debe bloquear al llamador.
+     */
+    void record(DeliveryAttempt attempt);
+
+    /**
+     * Resumen por destino y ventana de tiempo: tasa de éxito y percentiles de latencia
+     *
+     * @param from   Desde (inclusive)
+     * @param to     Hasta (exclusive)
+     * @param bucket Tamaño de cada ventana (ej: 1 hora)
+     * @return Una fila por destino y ventana, ordenadas por ventana
+     */
+    List<DeliveryRollup> rollup(Instant from, Instant to, Duration bucket);
+
+    /**
+     * Destinos de entrega
+     */
+    enum Destination {
+        RESERVAS,
+        ALIADOS
+    }
+
+    /**
+     * Un intento de envío a un destino
+     *
+     * @param attemptedAt   Momento en que empezó el intento
+     * @param destination   Destino
+     * @param attemptNumber Número de intento dentro del procesamiento (1 = Reservas, 2 = Aliados)
+     * @param success       Si el destino aceptó el evento
+     * @param httpStatus    Status HTTP de la respuesta (0 si no hubo respuesta, ej: timeout)
+     * @param errorCode     Código de error (null si fue exitoso)
+     * @param latencyMillis Duración del intento
+     * @param transactionId ID de la transacción en Wompi
+     * @param status        Estado de la transacción enviado
+     */
+    record DeliveryAttempt(Instant attemptedAt, Destination destination, int attemptNumber,
+                           boolean success, int httpStatus, String errorCode, long latencyMillis,
+                           String transactionId, String status) {
+    }
+
+    /**
+     * Resumen de una ventana de tiempo para un destino
+     *
+     * @param bucketStart Inicio de la ventana
+     * @param destination Destino
+     * @param attempts    Intentos en la ventana
+     * @param successes   Intentos exitosos
+     * @param successRate successes / attempts (0 a 1)
+     * @param p50Millis   Latencia mediana
+     * @param p95Millis   Latencia percentil 95
+     * @param p99Millis   Latencia percentil 99
+     */
+    record DeliveryRollup(Instant bucketStart, Destination destination, long attempts, long successes,
+                          double successRate, double p50Millis, double p95Millis, double p99Millis) {
+    }
+}
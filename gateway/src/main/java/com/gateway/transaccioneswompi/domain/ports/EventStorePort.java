@@ -0,0 +1,95 @@
+package com.gateway.transaccioneswompi.domain.ports;
+
+import com.gateway.transaccioneswompi.domain.TransactionStatus;
+import com.gateway.transaccioneswompi.domain.WompiWebhookEvent;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * PUERTO (PORT) - Almacén de eventos recibidos
+ *
+ * Guarda cada webhook que llega de Wompi (solo se agrega, nunca se modifica)
+ * para que los operadores puedan averiguar qué pasó con un pago sin tener
+ * que buscar en los logs.
+ *
+ * Es un puerto de SALIDA: la infrastructure decide dónde se guarda
+ * (base de datos JDBC, archivo local, etc.)
+ */
+public interface EventStorePort {
+
+    /**
+     * Registra un evento recibido. NO debe bloquear al llamador:
+     * la implementación puede guardarlo de forma asíncrona.
+     *
+     * @param event      Evento de Wompi ya convertido a dominio
+     * @param receivedAt Momento en que llegó al gateway
+     */
+    void append(WompiWebhookEvent event, Instant receivedAt);
+
+    /**
+     * Busca eventos (del más nuevo al más viejo) con paginación por cursor
+     *
+     * @param query Filtros y cursor
+     * @return Una página de resultados y el cursor para la siguiente
+     */
+    EventPage search(EventQuery query);
+
+    /**
+     * Último estado recibido de cada transacción, ordenado por ID de transacción
+     * (paginación por cursor). Lo usa la conciliación para recorrer millones de
+     * transacciones por bloques.
+     *
+     * El orden debe ser binario (el de String.compareTo): es el del export de
+     * Seguru, que se ordena en Java.
+     *
+     * @param afterTransactionId Cursor: solo transacciones con ID mayor (null = desde el inicio)
+     * @param from               Recibidos desde (inclusive, null = sin límite)
+     * @param to                 Recibidos hasta (exclusive, null = sin límite)
+     * @param limit              Tamaño del bloque
+     */
+    List<TransactionState> latestStates(String afterTransactionId, Instant from, Instant to, int limit);
+
+    /**
+     * Filtros de búsqueda. Los campos null no filtran.
+     *
+     * @param transactionId ID de la transacción en Wompi
+     * @param reference     Referencia del pago
+     * @param customerEmail Email del cliente (se compara contra el hash de la columna de búsqueda)
+     * @param status        Estado de la transacción
+     * @param from          Recibidos desde (inclusive)
+     * @param to            Recibidos hasta (exclusive)
+     * @param beforeId      Cursor: solo eventos con id menor a este
+     * @param limit         Tamaño de la página
+     */
+    record EventQuery(String transactionId, String reference, String customerEmail,
+                      TransactionStatus status, Instant from, Instant to,
+                      Long beforeId, int limit) {
+    }
+
+    /**
+     * Evento guardado
+     *
+     * @param event Evento completo, con datos personales (ver WompiWebhookEvent.withoutPersonalData)
+     */
+    record StoredEvent(long id, Instant receivedAt, String transactionId, String reference,
+                       String status, String eventType, WompiWebhookEvent event) {
+    }
+
+    /**
+     * Último estado conocido de una transacción
+     *
+     * @param eventId Id del evento (en el almacén) que trajo ese estado
+     */
+    record TransactionState(String transactionId, String status, long eventId) {
+    }
+
+    /**
+     * Página de resultados
+     *
+     * @param items      Eventos de la página
+     * @param nextCursor Valor para beforeId de la siguiente página (null si no hay más)
+     */
+    record EventPage(List<StoredEvent> items, Long nextCursor) {
+    }
+}
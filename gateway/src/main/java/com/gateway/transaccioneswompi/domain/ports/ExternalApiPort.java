@@ -39,9 +39,14 @@ public interface ExternalApiPort {
      * (Pertenece al domain porque es un concepto de negocio)
      */
     class ExternalApiResponse {
+        // El envío no se hizo: no hubo turno en el límite de tráfico hacia el destino
+        public static final String RATE_LIMITED = "RATE_LIMITED";
+
         private boolean success;
         private String message;
         private String errorCode;
+        // Status HTTP que respondió el destino (0 si no hubo respuesta, ej: timeout)
+        private int httpStatus;
 
         public ExternalApiResponse() {
         }
@@ -52,6 +57,11 @@ public interface ExternalApiPort {
             this.errorCode = errorCode;
         }
 
+        public ExternalApiResponse(boolean success, String message, String errorCode, int httpStatus) {
+            this(success, message, errorCode);
+            this.httpStatus = httpStatus;
+        }
+
         public boolean isSuccess() {
             return success;
         }
@@ -76,12 +86,25 @@ public interface ExternalApiPort {
             this.errorCode = errorCode;
         }
 
+        public int getHttpStatus() {
+            return httpStatus;
+        }
+
+        public boolean isRateLimited() {
+            return RATE_LIMITED.equals(errorCode);
+        }
+
+        public void setHttpStatus(int httpStatus) {
+            this.httpStatus = httpStatus;
+        }
+
         @Override
         public String toString() {
             return "ExternalApiResponse{" +
                     "success=" + success +
                     ", message='" + message + '\'' +
                     ", errorCode='" + errorCode + '\'' +
+                    ", httpStatus=" + httpStatus +
                     '}';
         }
     }
@@ -0,0 +1,38 @@
+package com.gateway.transaccioneswompi.domain.ports;
+
+import com.gateway.transaccioneswompi.domain.WompiWebhookEvent;
+
+import java.util.List;
+
+/**
+ * PUERTO (PORT) - Trabajo de reenvío compartido entre réplicas (modo clúster)
+ *
+ * En modo clúster, la réplica que recibe el webhook no lo reenvía: lo guarda
+ * aquí, en la partición que le corresponde a su transacción. Cada partición
+ * la drena una sola réplica a la vez (ver PartitionLeasePort).
+ */
+public interface ForwardWorkPort {
+
+    /**
+     * Guarda un evento pendiente de reenvío (durable al retornar)
+     */
+    void enqueue(WompiWebhookEvent event, int partition);
+
+    /**
+     * Eventos pendientes de una partición, en orden de llegada
+     *
+     * @param afterId Solo los de id mayor (0 = desde el principio)
+     */
+    List<PendingWork> findPending(int partition, long afterId, int limit);
+
+    /**
+     * El evento ya se procesó (entregado o guardado en dead letters)
+     */
+    void complete(long id);
+
+    /**
+     * Un evento pendiente de reenvío
+     */
+    record PendingWork(long id, int partition, WompiWebhookEvent event) {
+    }
+}
@@ -0,0 +1,59 @@
+package com.gateway.transaccioneswompi.domain.ports;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * PUERTO (PORT) - Arriendo de particiones entre réplicas (modo clúster)
+ *
+ * Cada partición de trabajo tiene a lo sumo un dueño. El dueño debe renovar
+ * el arriendo antes de que venza; si la réplica se cae, el arriendo vence y
+ * otra réplica lo toma. Todas las operaciones son atómicas en el almacén
+ * (dos réplicas no pueden tomar la misma partición).
+ */
+public interface PartitionLeasePort {
+
+    /**
+     * Crea las particiones 0..count-1 si no existen
+     */
+    void initialize(int count);
+
+    /**
+     * Registra que la réplica sigue viva
+     */
+    void heartbeat(String nodeId);
+
+    /**
+     * @return Cuántas réplicas enviaron un latido en el último ttl
+     */
+    int liveNodes(Duration ttl);
+
+    /**
+     * Quita la réplica de las vivas (apagado ordenado)
+     */
+    void leave(String nodeId);
+
+    /**
+     * @return Particiones sin dueño o con el arriendo vencido
+     */
+    List<Integer> available();
+
+    /**
+     * Toma una partición libre o vencida
+     *
+     * @return false si otra réplica la tiene (o la tomó primero)
+     */
+    boolean tryAcquire(int partition, String nodeId, Duration ttl);
+
+    /**
+     * Extiende el arriendo de una partición propia
+     *
+     * @return false si ya no es nuestra (venció y otra réplica la tomó)
+     */
+    boolean renew(int partition, String nodeId, Duration ttl);
+
+    /**
+     * Libera una partición propia para que otra réplica la tome de inmediato
+     */
+    void release(int partition, String nodeId);
+}
@@ -0,0 +1,204 @@
+package com.gateway.transaccioneswompi.infrastructure.adapters;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.ResponseExtractor;
+
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * LECTURA ACOTADA de las respuestas de Seguru
+ *
+ * De la respuesta solo nos interesan el status y los campos "message" y
+ * "error_code". En vez de deserializar el cuerpo completo a un DTO:
+ *
+ * - Respuesta 2xx: se lee con el parser de Jackson en modo streaming,
+ *   campo por campo, y se deja de leer apenas aparecen los dos campos
+ *   (o al llegar a maxBytes). "data" y cualquier otro campo se saltan
+ *   sin construir objetos
+ * - Respuesta de error: se guarda solo un extracto de hasta excerptBytes
+ *   (un proxy puede responder una página HTML de cientos de KB)
+ *
+ * Si la respuesta viene comprimida (Content-Encoding: gzip) se descomprime
+ * al vuelo y los topes aplican a los bytes YA descomprimidos: una respuesta
+ * chica que se infla a cientos de MB tampoco pasa de maxBytes.
+ *
+ * Así la memoria por llamada queda acotada sin importar qué responda el destino.
+ */
+public class BoundedResponseExtractor implements ResponseExtractor<BoundedResponseExtractor.DownstreamResponse> {
+
+    private static final String TRUNCATED_SUFFIX = "... (truncado)";
+
+    private final JsonFactory jsonFactory;
+    private final int maxBytes;
+    private final int excerptBytes;
+
+    public BoundedResponseExtractor(JsonFactory jsonFactory, int maxBytes, int excerptBytes) {
+        this.jsonFactory = jsonFactory;
+        this.maxBytes = maxBytes;
+        this.excerptBytes = excerptBytes;
+    }
+
+    @Override
+    public DownstreamResponse extractData(ClientHttpResponse response) throws IOException {
+        int status = response.getStatusCode().value();
+        try (InputStream body = decoded(response)) {
+            if (response.getStatusCode().is2xxSuccessful()) {
+                return readSuccess(status, body);
+            }
+            return new DownstreamResponse(status, null, null, readExcerpt(body, charsetOf(response)), false);
+        }
+    }
+
+    /**
+     * Cuerpo de la respuesta, descomprimido si viene en GZIP
+     */
+    private static InputStream decoded(ClientHttpResponse response) throws IOException {
+        if (!"gzip".equalsIgnoreCase(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING))) {
+            return response.getBody();
+        }
+        try {
+            return new GZIPInputStream(response.getBody());
+        } catch (EOFException e) {
+            // Cuerpo vacío (ej: 204 con Content-Encoding)
+            return InputStream.nullInputStream();
+        }
+    }
+
+    /**
+     * Busca "message" y "error_code" en el primer nivel del JSON
+     *
+     * Un cuerpo vacío o que se corta en maxBytes no es un error: el destino
+     * ya respondió 2xx, solo nos quedamos sin mensaje. Un cuerpo que no es un
+     * objeto JSON (ej: la página HTML de un proxy) sí: se marca invalidBody.
+     */
+    private DownstreamResponse readSuccess(int status, InputStream body) {
+        String message = null;
+        String errorCode = null;
+        CappedInputStream capped = new CappedInputStream(body, maxBytes);
+        try (JsonParser parser = jsonFactory.createParser(capped)) {
+            JsonToken first = parser.nextToken();
+            if (first == null) {
+                return new DownstreamResponse(status, null, null, null, false);
+            }
+            if (first != JsonToken.START_OBJECT) {
+                return new DownstreamResponse(status, null, null, null, true);
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("message".equals(field) && value == JsonToken.VALUE_STRING) {
+                    message = truncate(parser.getText(), excerptBytes);
+                } else if ("error_code".equals(field) && value == JsonToken.VALUE_STRING) {
+                    errorCode = truncate(parser.getText(), excerptBytes);
+                } else {
+                    parser.skipChildren();
+                }
+                if (message != null && errorCode != null) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            // Cortado por nuestro tope: nos quedamos con lo que alcanzamos a leer
+            if (!capped.isExhausted()) {
+                return new DownstreamResponse(status, message, errorCode, null, true);
+            }
+        }
+        return new DownstreamResponse(status, message, errorCode, null, false);
+    }
+
+    /**
+     * Primeros excerptBytes del cuerpo de error como texto
+     */
+    private String readExcerpt(InputStream body, Charset charset) throws IOException {
+        byte[] bytes = body.readNBytes(excerptBytes + 1);
+        boolean truncated = bytes.length > excerptBytes;
+        String text = new String(bytes, 0, Math.min(bytes.length, excerptBytes), charset);
+        return truncated ? text + TRUNCATED_SUFFIX : text;
+    }
+
+    private static Charset charsetOf(ClientHttpResponse response) {
+        MediaType contentType = response.getHeaders().getContentType();
+        return contentType != null && contentType.getCharset() != null
+                ? contentType.getCharset()
+                : StandardCharsets.UTF_8;
+    }
+
+    private static String truncate(String text, int maxChars) {
+        return text.length() > maxChars ? text.substring(0, maxChars) + TRUNCATED_SUFFIX : text;
+    }
+
+    /**
+     * Lo que nos interesa de la respuesta de un destino
+     *
+     * @param status      Status HTTP
+     * @param message     Campo "message" de una respuesta 2xx (null si no vino)
+     * @param errorCode   Campo "error_code" de una respuesta 2xx (null si no vino)
+     * @param bodyExcerpt Extracto del cuerpo de una respuesta de error (null si fue 2xx)
+     * @param invalidBody true si fue 2xx pero el cuerpo no es JSON válido: el
+     *                    destino (o un proxy delante) no procesó el evento
+     */
+    public record DownstreamResponse(int status, String message, String errorCode, String bodyExcerpt,
+                                     boolean invalidBody) {
+
+        public boolean isSuccessful() {
+            return status >= 200 && status < 300;
+        }
+    }
+
+    /**
+     * InputStream que termina (EOF) después de max bytes
+     */
+    private static final class CappedInputStream extends FilterInputStream {
+        private long remaining;
+
+        CappedInputStream(InputStream in, long max) {
+            super(in);
+            this.remaining = max;
+        }
+
+        boolean isExhausted() {
+            return remaining <= 0;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = super.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int n = super.read(buffer, offset, (int) Math.min(length, remaining));
+            if (n > 0) {
+                remaining -= n;
+            }
+            return n;
+        }
+
+        @Override
+        public void close() {
+            // El cuerpo lo cierra extractData (try-with-resources)
+        }
+    }
+}
@@ -1,24 +1,30 @@
 package com.gateway.transaccioneswompi.infrastructure.adapters;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gateway.transaccioneswompi.domain.WompiWebhookEvent;
+import com.gateway.transaccioneswompi.domain.ports.DeliveryAuditPort.Destination;
 import com.gateway.transaccioneswompi.domain.ports.ExternalApiPort;
-import com.gateway.transaccioneswompi.infrastructure.dto.ExternalApiResponseDto;
+import com.gateway.transaccioneswompi.infrastructure.adapters.BoundedResponseExtractor.DownstreamResponse;
+import com.gateway.transaccioneswompi.infrastructure.buffers.BufferPool;
+import com.gateway.transaccioneswompi.infrastructure.buffers.PooledBuffer;
+import com.gateway.transaccioneswompi.infrastructure.compression.RequestCompression;
+import com.gateway.transaccioneswompi.infrastructure.health.DestinationHealth;
+import com.gateway.transaccioneswompi.infrastructure.ratelimit.OutboundRateLimiter;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RequestCallback;
 import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.List;
+
 /**
  * ADAPTADOR - Implementación del Puerto (Infrastructure)
  *
@@ -26,6 +32,19 @@ import org.springframework.web.client.RestTemplate;
  * Aquí es donde realmente hacemos las llamadas HTTP a las APIs externas.
  *
  * Usamos RestTemplate (de Spring) para hacer peticiones HTTP POST.
+ * Antes de cada POST se espera turno en el límite de tráfico del destino
+ * (OutboundRateLimiter), para no superar la capacidad de Seguru.
+ *
+ * La respuesta NO se deserializa completa: BoundedResponseExtractor lee
+ * solo el status, "message" y "error_code", con un tope de bytes, y de las
+ * respuestas de error guarda un extracto corto (para el log y dead letters).
+ *
+ * El cuerpo se comprime con GZIP si el destino lo tiene activado
+ * (RequestCompression), y se aceptan respuestas comprimidas. El JSON se
+ * escribe en un buffer del pool (BufferPool), no en un byte[] nuevo por envío.
+ *
+ * El resultado de cada envío alimenta la salud del destino (DestinationHealth),
+ * que el actuator usa para sacar la réplica del balanceador.
  *
  * @Component le dice a Spring que maneje esta clase como un bean
  */
@@ -36,6 +55,12 @@ public class ExternalApiAdapter implements ExternalApiPort {
 
     // RestTemplate es la herramienta de Spring para hacer peticiones HTTP
     private final RestTemplate restTemplate;
+    private final OutboundRateLimiter rateLimiter;
+    private final BoundedResponseExtractor responseExtractor;
+    private final RequestCompression compression;
+    private final ObjectMapper objectMapper;
+    private final DestinationHealth destinationHealth;
+    private final BufferPool bufferPool;
 
     // @Value inyecta valores desde application.properties
     @Value("${external.api.reservas.seguru.url}")
@@ -45,8 +70,22 @@ public class ExternalApiAdapter implements ExternalApiPort {
     private String aliadosSegururUrl;
 
     // Constructor - Spring inyecta RestTemplate automáticamente
-    public ExternalApiAdapter(RestTemplate restTemplate) {
+    public ExternalApiAdapter(
+            RestTemplate restTemplate,
+            OutboundRateLimiter rateLimiter,
+            ObjectMapper objectMapper,
+            RequestCompression compression,
+            DestinationHealth destinationHealth,
+            BufferPool bufferPool,
+            @Value("${external.api.response.max-bytes:65536}") int maxResponseBytes,
+            @Value("${external.api.response.error-excerpt-bytes:1024}") int errorExcerptBytes) {
         this.restTemplate = restTemplate;
+        this.rateLimiter = rateLimiter;
+        this.responseExtractor = new BoundedResponseExtractor(objectMapper.getFactory(), maxResponseBytes, errorExcerptBytes);
+        this.compression = compression;
+        this.objectMapper = objectMapper;
+        this.destinationHealth = destinationHealth;
+        this.bufferPool = bufferPool;
     }
 
     /**
@@ -56,67 +95,54 @@ public class ExternalApiAdapter implements ExternalApiPort {
     @Override
     public ExternalApiResponse sendToReservas(WompiWebhookEvent event) {
         log.info("=== Iniciando envío a RESERVAS Seguru ===");
-        log.info("URL COMPLETA destino: {}", reservasSegururUrl);
-        log.info("Transacción ID: {}", event.getData().getTransaction().getId());
-        log.info("Event type: {}", event.getEvent());
+        return send(Destination.RESERVAS, reservasSegururUrl, event, "Enviado exitosamente a Reservas");
+    }
 
-        try {
-            // 1. Configurar headers HTTP
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
+    /**
+     * Envía el evento completo de Wompi al endpoint de Aliados Seguru
+     * Este método se usa como FALLBACK cuando Reservas falla
+     */
+    @Override
+    public ExternalApiResponse sendToAliados(WompiWebhookEvent event) {
+        log.info("=== Iniciando envío a ALIADOS Seguru (FALLBACK) ===");
+        return send(Destination.ALIADOS, aliadosSegururUrl, event, "Enviado exitosamente a Aliados");
+    }
 
-            // 2. Crear la entidad HTTP con el evento completo
-            // El evento se serializa automáticamente a JSON
-            HttpEntity<WompiWebhookEvent> entity = new HttpEntity<>(event, headers);
+    /**
+     * POST del evento a un destino y traducción de la respuesta
+     */
+    private ExternalApiResponse send(Destination destination, String url, WompiWebhookEvent event,
+                                     String defaultMessage) {
+        log.info("URL COMPLETA destino: {}", url);
+        log.info("Transacción ID: {}", event.transaction().id());
+        log.info("Event type: {}", event.event());
+
+        // 0. Esperar turno en el límite de tráfico hacia el destino
+        if (!rateLimiter.acquire(destination)) {
+            return rateLimited(destination);
+        }
 
-            log.info(">>> POST a: {}", reservasSegururUrl);
-            log.info(">>> Headers: {}", headers);
-            log.info("Enviando datos a Reservas...");
+        try {
+            log.info(">>> POST a: {}", url);
+            log.info("Enviando datos a {}...", destination);
 
-            // 3. Hacer la petición POST
-            ResponseEntity<ExternalApiResponseDto> response = restTemplate.exchange(
-                reservasSegururUrl,
+            // 1-3. Hacer la petición POST (ver jsonBody) y leer la respuesta de forma acotada
+            //      (los 4xx/5xx no lanzan excepción: ver RestTemplateConfig)
+            DownstreamResponse response = restTemplate.execute(
+                url,
                 HttpMethod.POST,
-                entity,
-                ExternalApiResponseDto.class
+                jsonBody(destination, event),
+                responseExtractor
             );
 
-            // 4. Procesar respuesta exitosa
-            ExternalApiResponseDto responseDto = response.getBody();
-            HttpStatus statusCode = (HttpStatus) response.getStatusCode();
-
-            log.info("✓ Respuesta exitosa de RESERVAS - Status Code: {}", statusCode.value());
-            log.info("Respuesta: {}", responseDto);
-
-            return new ExternalApiResponse(
-                true,
-                responseDto != null ? responseDto.getMessage() : "Enviado exitosamente a Reservas",
-                null
-            );
-
-        } catch (HttpClientErrorException e) {
-            // Error 4xx (400, 401, 404, etc.)
-            log.error("✗ Error del cliente al llamar a RESERVAS - Status: {} - Body: {}",
-                     e.getStatusCode().value(), e.getResponseBodyAsString());
-            return new ExternalApiResponse(
-                false,
-                "Error del cliente: " + e.getStatusCode() + " - " + e.getResponseBodyAsString(),
-                "HTTP_CLIENT_ERROR_" + e.getStatusCode().value()
-            );
-
-        } catch (HttpServerErrorException e) {
-            // Error 5xx (500, 502, 503, etc.)
-            log.error("✗ Error del servidor en RESERVAS - Status: {} - Body: {}",
-                     e.getStatusCode().value(), e.getResponseBodyAsString());
-            return new ExternalApiResponse(
-                false,
-                "Error del servidor: " + e.getStatusCode() + " - " + e.getResponseBodyAsString(),
-                "HTTP_SERVER_ERROR_" + e.getStatusCode().value()
-            );
+            // 4. Procesar la respuesta (un 2xx con cuerpo inválido no es una respuesta sana)
+            destinationHealth.record(destination, response.invalidBody() ? 0 : response.status());
+            return toExternalApiResponse(destination, response, defaultMessage);
 
         } catch (ResourceAccessException e) {
             // Error de red/timeout/conexión
-            log.error("✗ Error de conexión con RESERVAS: {}", e.getMessage(), e);
+            destinationHealth.record(destination, 0);
+            log.error("✗ Error de conexión con {}: {}", destination, e.getMessage(), e);
             return new ExternalApiResponse(
                 false,
                 "Error de conexión: " + e.getMessage(),
@@ -125,7 +151,8 @@ public class ExternalApiAdapter implements ExternalApiPort {
 
         } catch (Exception e) {
             // Cualquier otro error
-            log.error("✗ Error inesperado al llamar a RESERVAS: {}", e.getMessage(), e);
+            destinationHealth.record(destination, 0);
+            log.error("✗ Error inesperado al llamar a {}: {}", destination, e.getMessage(), e);
             return new ExternalApiResponse(
                 false,
                 "Error inesperado: " + e.getMessage(),
@@ -135,82 +162,115 @@ public class ExternalApiAdapter implements ExternalApiPort {
     }
 
     /**
-     * Envía el evento completo de Wompi al endpoint de Aliados Seguru
-     * Este método se usa como FALLBACK cuando Reservas falla
+     * Escribe el evento como JSON, comprimido con GZIP si corresponde
      */
-    @Override
-    public ExternalApiResponse sendToAliados(WompiWebhookEvent event) {
-        log.info("=== Iniciando envío a ALIADOS Seguru (FALLBACK) ===");
-        log.info("URL COMPLETA destino: {}", aliadosSegururUrl);
-        log.info("Transacción ID: {}", event.getData().getTransaction().getId());
-        log.info("Event type: {}", event.getEvent());
-
-        try {
-            // 1. Configurar headers HTTP
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-
-            // 2. Crear la entidad HTTP con el evento completo
-            HttpEntity<WompiWebhookEvent> entity = new HttpEntity<>(event, headers);
-
-            log.info(">>> POST a: {}", aliadosSegururUrl);
-            log.info(">>> Headers: {}", headers);
-            log.info("Enviando datos a Aliados...");
-
-            // 3. Hacer la petición POST
-            ResponseEntity<ExternalApiResponseDto> response = restTemplate.exchange(
-                aliadosSegururUrl,
-                HttpMethod.POST,
-                entity,
-                ExternalApiResponseDto.class
-            );
-
-            // 4. Procesar respuesta exitosa
-            ExternalApiResponseDto responseDto = response.getBody();
-            HttpStatus statusCode = (HttpStatus) response.getStatusCode();
-
-            log.info("✓ Respuesta exitosa de ALIADOS - Status Code: {}", statusCode.value());
-            log.info("Respuesta: {}", responseDto);
+    private RequestCallback jsonBody(Destination destination, WompiWebhookEvent event) {
+        return request -> {
+            try (PooledBuffer buffer = bufferPool.acquire()) {
+                // 1. El evento se serializa a JSON TAL CUAL como llegó de Wompi
+                objectMapper.writeValue(buffer.outputStream(), event);
+                byte[] body = buffer.array();
+                int length = buffer.length();
+
+                // 2. Configurar headers HTTP
+                HttpHeaders headers = request.getHeaders();
+                headers.setContentType(MediaType.APPLICATION_JSON);
+                headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+                headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+
+                byte[] compressed = compression.compressIfEnabled(destination, body, length);
+                if (compressed != null) {
+                    headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+                    log.info(">>> Cuerpo comprimido: {} → {} bytes", length, compressed.length);
+                    body = compressed;
+                    length = compressed.length;
+                }
+                headers.setContentLength(length);
+                log.info(">>> Headers: {}", headers);
+
+                // 3. Enviar el cuerpo
+                request.getBody().write(body, 0, length);
+            }
+        };
+    }
 
-            return new ExternalApiResponse(
-                true,
-                responseDto != null ? responseDto.getMessage() : "Enviado exitosamente a Aliados",
-                null
-            );
+    private ExternalApiResponse toExternalApiResponse(Destination destination, DownstreamResponse response,
+                                                      String defaultMessage) {
+        int status = response.status();
 
-        } catch (HttpClientErrorException e) {
-            log.error("✗ Error del cliente al llamar a ALIADOS - Status: {} - Body: {}",
-                     e.getStatusCode().value(), e.getResponseBodyAsString());
+        if (response.isSuccessful() && response.invalidBody()) {
+            // Ej: la página HTML de un proxy o un balanceador con 200: Seguru no lo procesó
+            log.error("✗ Respuesta {} de {} sin JSON válido: el evento no se da por entregado", status, destination);
             return new ExternalApiResponse(
                 false,
-                "Error del cliente: " + e.getStatusCode() + " - " + e.getResponseBodyAsString(),
-                "HTTP_CLIENT_ERROR_" + e.getStatusCode().value()
+                "Respuesta " + statusText(status) + " sin JSON válido",
+                "INVALID_RESPONSE_BODY",
+                status
             );
+        }
 
-        } catch (HttpServerErrorException e) {
-            log.error("✗ Error del servidor en ALIADOS - Status: {} - Body: {}",
-                     e.getStatusCode().value(), e.getResponseBodyAsString());
+        if (response.isSuccessful()) {
+            log.info("✓ Respuesta exitosa de {} - Status Code: {}", destination, status);
+            log.info("Respuesta: message={}, error_code={}", response.message(), response.errorCode());
             return new ExternalApiResponse(
-                false,
-                "Error del servidor: " + e.getStatusCode() + " - " + e.getResponseBodyAsString(),
-                "HTTP_SERVER_ERROR_" + e.getStatusCode().value()
+                true,
+                response.message() != null ? response.message() : defaultMessage,
+                null,
+                status
             );
+        }
 
-        } catch (ResourceAccessException e) {
-            log.error("✗ Error de conexión con ALIADOS: {}", e.getMessage(), e);
+        String statusText = statusText(status);
+        if (status >= 400 && status < 500) {
+            // Error 4xx (400, 401, 404, etc.)
+            log.error("✗ Error del cliente al llamar a {} - Status: {} - Body: {}",
+                     destination, status, response.bodyExcerpt());
             return new ExternalApiResponse(
                 false,
-                "Error de conexión: " + e.getMessage(),
-                "CONNECTION_ERROR"
+                "Error del cliente: " + statusText + " - " + response.bodyExcerpt(),
+                "HTTP_CLIENT_ERROR_" + status,
+                status
             );
+        }
 
-        } catch (Exception e) {
-            log.error("✗ Error inesperado al llamar a ALIADOS: {}", e.getMessage(), e);
+        if (status >= 500) {
+            // Error 5xx (500, 502, 503, etc.)
+            log.error("✗ Error del servidor en {} - Status: {} - Body: {}",
+                     destination, status, response.bodyExcerpt());
             return new ExternalApiResponse(
                 false,
-                "Error inesperado: " + e.getMessage(),
-                "UNEXPECTED_ERROR"
+                "Error del servidor: " + statusText + " - " + response.bodyExcerpt(),
+                "HTTP_SERVER_ERROR_" + status,
+                status
             );
         }
+
+        // 1xx/3xx: el destino no aceptó el evento
+        log.error("✗ Respuesta inesperada de {} - Status: {}", destination, status);
+        return new ExternalApiResponse(
+            false,
+            "Respuesta inesperada: " + statusText,
+            "UNEXPECTED_STATUS_" + status,
+            status
+        );
+    }
+
+    /**
+     * Igual que HttpStatusCode.toString(): "404 NOT_FOUND" (o solo el número si no es estándar)
+     */
+    private static String statusText(int status) {
+        HttpStatus known = HttpStatus.resolve(status);
+        return known != null ? known.toString() : String.valueOf(status);
+    }
+
+    /**
+     * Respuesta cuando no hubo turno en el límite de tráfico (no se llegó a enviar)
+     */
+    private ExternalApiResponse rateLimited(Destination destination) {
+        return new ExternalApiResponse(
+            false,
+            "Límite de tráfico hacia " + destination + " saturado",
+            ExternalApiResponse.RATE_LIMITED
+        );
     }
 }
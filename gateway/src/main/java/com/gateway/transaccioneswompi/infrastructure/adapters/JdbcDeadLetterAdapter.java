@@ -0,0 +1,196 @@
+package com.gateway.transaccioneswompi.infrastructure.adapters;
+
+import com.gateway.transaccioneswompi.domain.WompiWebhookEvent;
+import com.gateway.transaccioneswompi.domain.ports.DeadLetterPort;
+import com.gateway.transaccioneswompi.infrastructure.mappers.EventBinaryCodec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ADAPTADOR - Dead letters en la base de datos (JDBC)
+ *
+ * Implementa DeadLetterPort sobre la tabla dead_letter (ver schema.sql).
+ *
+ * A diferencia del almacén de eventos, aquí la escritura es SÍNCRONA:
+ * solo ocurre cuando ambos destinos fallaron (camino poco frecuente) y
+ * no queremos perder un evento que nadie más tiene. Si la base de datos
+ * falla, store() lanza la excepción: quien llama sabe que el evento no
+ * quedó guardado (y, por ejemplo, no confirma el journal).
+ */
+@Component
+public class JdbcDeadLetterAdapter implements DeadLetterPort {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcDeadLetterAdapter.class);
+
+    private static final String STATE_PENDING = "PENDING";
+    private static final String STATE_REPLAYED = "REPLAYED";
+    private static final String STATE_RESOLVED = "RESOLVED";
+
+    private static final String UPDATE_SQL =
+            "UPDATE dead_letter SET last_failed_at = ?, error_code = ?, message = ?, failures = failures + 1, "
+            + "state = '" + STATE_PENDING + "', replayed_at = NULL WHERE event_key = ?";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO dead_letter (event_key, first_failed_at, last_failed_at, transaction_id, status, "
+            + "error_code, message, failures, state, payload) VALUES (?, ?, ?, ?, ?, ?, ?, 1, '" + STATE_PENDING + "', ?)";
+
+    private static final String SELECT_SQL =
+            "SELECT id, first_failed_at, last_failed_at, transaction_id, status, error_code, message, failures, payload "
+            + "FROM dead_letter";
+
+    // Largo de las columnas error_code y message
+    private static final int MAX_ERROR_CODE = 32;
+    private static final int MAX_MESSAGE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EventBinaryCodec codec;
+
+    public JdbcDeadLetterAdapter(JdbcTemplate jdbcTemplate, EventBinaryCodec codec) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.codec = codec;
+    }
+
+    @Override
+    public void store(WompiWebhookEvent event, String errorCode, String message) {
+        String key = eventKey(event);
+        Timestamp now = Timestamp.from(Instant.now());
+        String code = truncate(errorCode, MAX_ERROR_CODE);
+        String text = truncate(message, MAX_MESSAGE);
+
+        try {
+            if (jdbcTemplate.update(UPDATE_SQL, now, code, text, key) > 0) {
+                log.warn("⚠ Dead letter actualizado (volvió a fallar): {}", key);
+                return;
+            }
+            WompiWebhookEvent.Transaction tx = event.transaction();
+            try {
+                jdbcTemplate.update(INSERT_SQL, key, now, now,
+                        tx != null ? tx.id() : null,
+                        tx != null && tx.status() != null ? tx.status().value() : null,
+                        code, text, codec.encode(event));
+            } catch (DuplicateKeyException e) {
+                // Otro hilo lo insertó al mismo tiempo
+                jdbcTemplate.update(UPDATE_SQL, now, code, text, key);
+            }
+            log.warn("⚠ Evento guardado en dead letters: {}", key);
+
+        } catch (DataAccessException e) {
+            log.error("✗ No se pudo guardar el dead letter {}: {}", key, e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<DeadLetter> findPending(DeadLetterQuery query) {
+        List<Object> args = new ArrayList<>();
+        String where = where(query, args);
+        args.add(Math.max(1, query.limit()));
+        return jdbcTemplate.query(SELECT_SQL + where + " ORDER BY id LIMIT ?", this::mapRow, args.toArray());
+    }
+
+    @Override
+    public long countPending(DeadLetterQuery query) {
+        List<Object> args = new ArrayList<>();
+        String where = where(query, args);
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM dead_letter" + where, Long.class, args.toArray());
+        return count != null ? count : 0L;
+    }
+
+    @Override
+    public long lastId() {
+        Long id = jdbcTemplate.queryForObject("SELECT MAX(id) FROM dead_letter", Long.class);
+        return id != null ? id : 0L;
+    }
+
+    @Override
+    public void markReplayed(long id) {
+        jdbcTemplate.update("UPDATE dead_letter SET state = ?, replayed_at = ? WHERE id = ?",
+                STATE_REPLAYED, Timestamp.from(Instant.now()), id);
+    }
+
+    @Override
+    public boolean resolve(WompiWebhookEvent event) {
+        // Por event_key (índice único): la entrega del mismo evento, no la de otro estado
+        return jdbcTemplate.update(
+                "UPDATE dead_letter SET state = ?, replayed_at = ? WHERE event_key = ? AND state = ?",
+                STATE_RESOLVED, Timestamp.from(Instant.now()), eventKey(event), STATE_PENDING) > 0;
+    }
+
+    private static String where(DeadLetterQuery query, List<Object> args) {
+        StringBuilder sql = new StringBuilder(" WHERE state = ?");
+        args.add(STATE_PENDING);
+
+        if (query.from() != null) {
+            sql.append(" AND last_failed_at >= ?");
+            args.add(Timestamp.from(query.from()));
+        }
+        if (query.to() != null) {
+            sql.append(" AND last_failed_at < ?");
+            args.add(Timestamp.from(query.to()));
+        }
+        if (query.status() != null) {
+            sql.append(" AND status = ?");
+            args.add(query.status());
+        }
+        if (query.errorCode() != null) {
+            sql.append(" AND error_code = ?");
+            args.add(query.errorCode());
+        }
+        if (query.afterId() != null) {
+            sql.append(" AND id > ?");
+            args.add(query.afterId());
+        }
+        if (query.upToId() != null) {
+            sql.append(" AND id <= ?");
+            args.add(query.upToId());
+        }
+        return sql.toString();
+    }
+
+    private DeadLetter mapRow(ResultSet rs, int rowNum) throws SQLException {
+        WompiWebhookEvent event;
+        try {
+            event = codec.decode(rs.getBytes("payload"));
+        } catch (IOException e) {
+            throw new SQLException("Payload inválido en dead_letter " + rs.getLong("id"), e);
+        }
+        return new DeadLetter(
+            rs.getLong("id"),
+            rs.getTimestamp("first_failed_at").toInstant(),
+            rs.getTimestamp("last_failed_at").toInstant(),
+            rs.getString("transaction_id"),
+            rs.getString("status"),
+            rs.getString("error_code"),
+            rs.getString("message"),
+            rs.getInt("failures"),
+            event
+        );
+    }
+
+    /**
+     * Identidad del evento: transacción (o referencia) + estado + timestamp
+     */
+    static String eventKey(WompiWebhookEvent event) {
+        WompiWebhookEvent.Transaction tx = event.transaction();
+        String id = tx == null ? null : (tx.id() != null ? tx.id() : tx.reference());
+        String status = tx != null && tx.status() != null ? tx.status().value() : null;
+        return truncate(id + ":" + status + ":" + event.timestamp(), 200);
+    }
+
+    private static String truncate(String value, int max) {
+        return value != null && value.length() > max ? value.substring(0, max) : value;
+    }
+}
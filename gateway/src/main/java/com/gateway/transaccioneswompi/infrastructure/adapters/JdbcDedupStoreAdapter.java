@@ -0,0 +1,135 @@
+package com.gateway.transaccioneswompi.infrastructure.adapters;
+
+import com.gateway.transaccioneswompi.domain.ports.DedupStorePort;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * ADAPTADOR - Deduplicación entre réplicas en la base de datos (JDBC)
+ *
+ * Implementa DedupStorePort sobre la tabla forward_dedup (ver schema.sql),
+ * que todas las réplicas comparten:
+ * - Reclamar = INSERT. La llave primaria (transaction_id, status) garantiza
+ *   que solo una réplica lo logra; las demás reciben DuplicateKeyException
+ *   y leen en qué estado está la fila
+ * - Tomar un reclamo abandonado = UPDATE condicionado al dueño y la hora
+ *   que se leyeron (compare-and-set): si dos réplicas lo intentan, gana una
+ *
+ * Cada réplica se identifica con gateway.instance-id (el hostname del contenedor).
+ */
+@Component
+public class JdbcDedupStoreAdapter implements DedupStorePort {
+
+    private static final String STATE_IN_PROGRESS = "IN_PROGRESS";
+    private static final String STATE_DELIVERED = "DELIVERED";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO forward_dedup (transaction_id, status, state, owner, claimed_at, delivered_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String SELECT_SQL =
+            "SELECT state, owner, claimed_at FROM forward_dedup WHERE transaction_id = ? AND status = ?";
+
+    private static final String TAKE_OVER_SQL =
+            "UPDATE forward_dedup SET owner = ?, claimed_at = ? "
+            + "WHERE transaction_id = ? AND status = ? AND state = '" + STATE_IN_PROGRESS + "' "
+            + "AND owner = ? AND claimed_at = ?";
+
+    private static final String DELIVERED_SQL =
+            "UPDATE forward_dedup SET state = '" + STATE_DELIVERED + "', delivered_at = ? "
+            + "WHERE transaction_id = ? AND status = ?";
+
+    private static final String DELIVERED_STATUSES_SQL =
+            "SELECT status FROM forward_dedup WHERE transaction_id = ? AND state = '" + STATE_DELIVERED + "'";
+
+    private static final String RELEASE_SQL =
+            "DELETE FROM forward_dedup WHERE transaction_id = ? AND status = ? "
+            + "AND state = '" + STATE_IN_PROGRESS + "' AND owner = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String instanceId;
+    private final long claimTimeoutMillis;
+
+    public JdbcDedupStoreAdapter(
+            JdbcTemplate jdbcTemplate,
+            @Value("${gateway.instance-id:gateway}") String instanceId,
+            @Value("${gateway.dedup.claim-timeout-ms:60000}") long claimTimeoutMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.instanceId = instanceId;
+        this.claimTimeoutMillis = claimTimeoutMillis;
+    }
+
+    @Override
+    public ClaimResult tryClaim(String transactionId, String status) {
+        Timestamp now = Timestamp.from(Instant.now());
+        try {
+            jdbcTemplate.update(INSERT_SQL, transactionId, status, STATE_IN_PROGRESS, instanceId, now, null);
+            return ClaimResult.CLAIMED;
+        } catch (DuplicateKeyException e) {
+            // Ya existe: ver si se entregó, si alguien lo está enviando o si quedó abandonado
+        }
+
+        List<Claim> rows = jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> new Claim(
+                rs.getString("state"), rs.getString("owner"), rs.getTimestamp("claimed_at")
+        ), transactionId, status);
+
+        if (rows.isEmpty()) {
+            // Se liberó entre el INSERT y el SELECT: un intento más
+            try {
+                jdbcTemplate.update(INSERT_SQL, transactionId, status, STATE_IN_PROGRESS, instanceId, now, null);
+                return ClaimResult.CLAIMED;
+            } catch (DuplicateKeyException e) {
+                return ClaimResult.IN_PROGRESS;
+            }
+        }
+
+        Claim claim = rows.get(0);
+        if (STATE_DELIVERED.equals(claim.state())) {
+            return ClaimResult.DELIVERED;
+        }
+
+        // Un reclamo propio en curso solo puede venir de una ejecución anterior
+        // de esta réplica (dentro de la réplica, una transacción se envía de a uno)
+        boolean abandoned = instanceId.equals(claim.owner())
+                || claim.claimedAt().toInstant().plusMillis(claimTimeoutMillis).isBefore(now.toInstant());
+        if (abandoned && jdbcTemplate.update(TAKE_OVER_SQL, instanceId, now, transactionId, status,
+                                             claim.owner(), claim.claimedAt()) > 0) {
+            return ClaimResult.CLAIMED;
+        }
+        return ClaimResult.IN_PROGRESS;
+    }
+
+    @Override
+    public void markDelivered(String transactionId, String status) {
+        Timestamp now = Timestamp.from(Instant.now());
+        if (jdbcTemplate.update(DELIVERED_SQL, now, transactionId, status) > 0) {
+            return;
+        }
+        // Sin reclamo previo (ej: reenvío manual de un dead letter)
+        try {
+            jdbcTemplate.update(INSERT_SQL, transactionId, status, STATE_DELIVERED, instanceId, now, now);
+        } catch (DuplicateKeyException e) {
+            jdbcTemplate.update(DELIVERED_SQL, now, transactionId, status);
+        }
+    }
+
+    @Override
+    public List<String> deliveredStatuses(String transactionId) {
+        return jdbcTemplate.queryForList(DELIVERED_STATUSES_SQL, String.class, transactionId);
+    }
+
+    @Override
+    public void release(String transactionId, String status) {
+        jdbcTemplate.update(RELEASE_SQL, transactionId, status, instanceId);
+    }
+
+    private record Claim(String state, String owner, Timestamp claimedAt) {
+    }
+}
@@ -0,0 +1,120 @@
+package com.gateway.transaccioneswompi.infrastructure.adapters;
+
+import com.gateway.transaccioneswompi.domain.ports.DeliveryAuditPort;
+import com.gateway.transaccioneswompi.infrastructure.persistence.AsyncBatchWriter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ADAPTADOR - Auditoría de entregas en la base de datos (JDBC)
+ *
+ * Implementa DeliveryAuditPort sobre la tabla delivery_attempt (ver schema.sql).
+ * Igual que el almacén de eventos, los INSERT se hacen en lotes desde el
+ * hilo del AsyncBatchWriter, nunca desde el hilo que envía a Seguru.
+ *
+ * El resumen (rollup) se calcula en la base de datos: agrupa por destino y
+ * ventana de tiempo (attempted_at / bucket) y usa PERCENTILE_CONT para
+ * los percentiles de latencia.
+ */
+@Component
+public class JdbcDeliveryAuditAdapter implements DeliveryAuditPort {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO delivery_attempt (attempted_at, destination, attempt_number, success, http_status, "
+            + "error_code, latency_ms, transaction_id, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String ROLLUP_SQL =
+            "SELECT (attempted_at / ?) * ? AS bucket_start, destination, COUNT(*) AS attempts, "
+            + "SUM(CASE WHEN success THEN 1 ELSE 0 END) AS successes, "
+            + "PERCENTILE_CONT(0.50) WITHIN GROUP (ORDER BY latency_ms) AS p50, "
+            + "PERCENTILE_CONT(0.95) WITHIN GROUP (ORDER BY latency_ms) AS p95, "
+            + "PERCENTILE_CONT(0.99) WITHIN GROUP (ORDER BY latency_ms) AS p99 "
+            + "FROM delivery_attempt WHERE attempted_at >= ? AND attempted_at < ? "
+            + "GROUP BY bucket_start, destination ORDER BY bucket_start, destination";
+
+    // Largo de la columna error_code
+    private static final int MAX_ERROR_CODE = 32;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // null si la auditoría está deshabilitada
+    private final AsyncBatchWriter<DeliveryAttempt> writer;
+
+    public JdbcDeliveryAuditAdapter(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${gateway.delivery-audit.enabled:true}") boolean enabled,
+            @Value("${gateway.delivery-audit.queue-capacity:20000}") int queueCapacity,
+            @Value("${gateway.delivery-audit.batch-size:500}") int batchSize,
+            @Value("${gateway.delivery-audit.flush-interval-ms:500}") long flushIntervalMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.writer = enabled
+                ? new AsyncBatchWriter<>("delivery-audit", queueCapacity, batchSize, flushIntervalMillis,
+                                         this::insertBatch, meterRegistry)
+                : null;
+    }
+
+    @Override
+    public void record(DeliveryAttempt attempt) {
+        if (writer != null) {
+            writer.offer(attempt);
+        }
+    }
+
+    private void insertBatch(List<DeliveryAttempt> batch) {
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (DeliveryAttempt attempt : batch) {
+            String errorCode = attempt.errorCode();
+            if (errorCode != null && errorCode.length() > MAX_ERROR_CODE) {
+                errorCode = errorCode.substring(0, MAX_ERROR_CODE);
+            }
+            rows.add(new Object[] {
+                attempt.attemptedAt().toEpochMilli(),
+                attempt.destination().name(),
+                attempt.attemptNumber(),
+                attempt.success(),
+                attempt.httpStatus(),
+                errorCode,
+                (int) Math.min(attempt.latencyMillis(), Integer.MAX_VALUE),
+                attempt.transactionId(),
+                attempt.status()
+            });
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+
+    @Override
+    public List<DeliveryRollup> rollup(Instant from, Instant to, Duration bucket) {
+        long bucketMillis = Math.max(1L, bucket.toMillis());
+        return jdbcTemplate.query(ROLLUP_SQL, (rs, rowNum) -> {
+            long attempts = rs.getLong("attempts");
+            long successes = rs.getLong("successes");
+            return new DeliveryRollup(
+                Instant.ofEpochMilli(rs.getLong("bucket_start")),
+                Destination.valueOf(rs.getString("destination")),
+                attempts,
+                successes,
+                attempts > 0 ? (double) successes / attempts : 0.0,
+                rs.getDouble("p50"),
+                rs.getDouble("p95"),
+                rs.getDouble("p99")
+            );
+        }, bucketMillis, bucketMillis, from.toEpochMilli(), to.toEpochMilli());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+}
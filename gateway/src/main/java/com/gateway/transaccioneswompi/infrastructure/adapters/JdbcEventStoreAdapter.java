@@ -0,0 +1,273 @@
+package com.gateway.transaccioneswompi.infrastructure.adapters;
+
+import com.gateway.transaccioneswompi.domain.WompiWebhookEvent;
+import com.gateway.transaccioneswompi.domain.ports.EventStorePort;
+import com.gateway.transaccioneswompi.infrastructure.persistence.AsyncBatchWriter;
+import com.gateway.transaccioneswompi.infrastructure.mappers.EventBinaryCodec;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * ADAPTADOR - Almacén de eventos en la base de datos (JDBC)
+ *
+ * Implementa EventStorePort sobre el DataSource de la aplicación
+ * (tabla webhook_event, ver schema.sql).
+ *
+ * - append() solo encola: el INSERT lo hace el AsyncBatchWriter en lotes,
+ *   así la recepción del webhook no espera a la base de datos
+ * - payload guarda el evento COMPLETO, con los datos personales del cliente
+ *   (email, dirección, facturación, beneficiario): la conciliación lo usa para
+ *   reenviarlo a Seguru. La tabla es tan sensible como los dead letters.
+ * - La columna para buscar por email guarda solo su HMAC-SHA256 (email_hash),
+ *   calculado con el secreto gateway.event-store.email-hash-secret. Un SHA-256
+ *   sin clave se revierte probando emails conocidos; con HMAC hace falta el secreto.
+ *   Sin secreto no se guarda el hash y la búsqueda por email queda deshabilitada.
+ * - search() usa paginación por cursor (keyset): "id < cursor ORDER BY id DESC".
+ *   A diferencia de OFFSET, el costo no crece con el número de página.
+ * - Limitación: from/to solos no se resuelven recorriendo un índice en orden.
+ *   La base de datos lee el rango en idx_webhook_event_received (received_at, id)
+ *   y ordena esas filas por id: el costo crece con el tamaño de la ventana.
+ *   Con otro filtro (referencia, transacción, email, estado) se usa su índice.
+ */
+@Component
+public class JdbcEventStoreAdapter implements EventStorePort {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcEventStoreAdapter.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO webhook_event (received_at, transaction_id, reference, email_hash, status, event_type, payload) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private static final String SELECT_SQL =
+            "SELECT id, received_at, transaction_id, reference, status, event_type, payload FROM webhook_event";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EventBinaryCodec codec;
+    private final int maxPageSize;
+
+    // null si no hay secreto: no se guarda el hash ni se busca por email
+    private final SecretKeySpec emailHashKey;
+
+    // null si el almacén está deshabilitado
+    private final AsyncBatchWriter<PendingEvent> writer;
+
+    public JdbcEventStoreAdapter(
+            JdbcTemplate jdbcTemplate,
+            EventBinaryCodec codec,
+            MeterRegistry meterRegistry,
+            @Value("${gateway.event-store.enabled:true}") boolean enabled,
+            @Value("${gateway.event-store.queue-capacity:10000}") int queueCapacity,
+            @Value("${gateway.event-store.batch-size:500}") int batchSize,
+            @Value("${gateway.event-store.flush-interval-ms:200}") long flushIntervalMillis,
+            @Value("${gateway.event-store.max-page-size:200}") int maxPageSize,
+            @Value("${gateway.event-store.email-hash-secret:}") String emailHashSecret) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.codec = codec;
+        this.maxPageSize = maxPageSize;
+        this.emailHashKey = StringUtils.hasText(emailHashSecret)
+                ? new SecretKeySpec(emailHashSecret.trim().getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM)
+                : null;
+        if (this.emailHashKey == null) {
+            log.warn("⚠ gateway.event-store.email-hash-secret no está configurado: la búsqueda por email está deshabilitada");
+        }
+        this.writer = enabled
+                ? new AsyncBatchWriter<>("event-store", queueCapacity, batchSize, flushIntervalMillis,
+                                         this::insertBatch, meterRegistry)
+                : null;
+    }
+
+    @Override
+    public void append(WompiWebhookEvent event, Instant receivedAt) {
+        if (writer != null && event != null) {
+            writer.offer(new PendingEvent(event, receivedAt));
+        }
+    }
+
+    /**
+     * Guarda un lote (corre en el hilo del escritor, nunca en el del webhook)
+     */
+    private void insertBatch(List<PendingEvent> batch) {
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (PendingEvent pending : batch) {
+            WompiWebhookEvent event = pending.event();
+            WompiWebhookEvent.Transaction tx = event.transaction();
+            byte[] payload = codec.encode(event);
+            rows.add(new Object[] {
+                Timestamp.from(pending.receivedAt()),
+                tx != null ? tx.id() : null,
+                tx != null ? tx.reference() : null,
+                tx != null ? hashEmail(tx.customerEmail()) : null,
+                tx != null && tx.status() != null ? tx.status().value() : null,
+                event.event(),
+                payload
+            });
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        }
+    }
+
+    @Override
+    public EventPage search(EventQuery query) {
+        StringBuilder sql = new StringBuilder(SELECT_SQL).append(" WHERE 1=1");
+        List<Object> args = new ArrayList<>();
+
+        if (query.transactionId() != null) {
+            sql.append(" AND transaction_id = ?");
+            args.add(query.transactionId());
+        }
+        if (query.reference() != null) {
+            sql.append(" AND reference = ?");
+            args.add(query.reference());
+        }
+        if (query.customerEmail() != null) {
+            if (emailHashKey == null) {
+                throw new IllegalArgumentException(
+                        "Búsqueda por email deshabilitada: falta gateway.event-store.email-hash-secret");
+            }
+            sql.append(" AND email_hash = ?");
+            args.add(hashEmail(query.customerEmail()));
+        }
+        if (query.status() != null) {
+            sql.append(" AND status = ?");
+            args.add(query.status().value());
+        }
+        if (query.from() != null) {
+            sql.append(" AND received_at >= ?");
+            args.add(Timestamp.from(query.from()));
+        }
+        if (query.to() != null) {
+            sql.append(" AND received_at < ?");
+            args.add(Timestamp.from(query.to()));
+        }
+        if (query.beforeId() != null) {
+            sql.append(" AND id < ?");
+            args.add(query.beforeId());
+        }
+
+        // Con solo from/to no hay índice que entregue las filas en orden de id:
+        // se lee el rango de received_at y se ordena (ver la documentación de la clase)
+
+        // Se pide una fila de más para saber si existe una página siguiente
+        int limit = Math.max(1, Math.min(query.limit(), maxPageSize));
+        sql.append(" ORDER BY id DESC LIMIT ?");
+        args.add(limit + 1);
+
+        List<StoredEvent> items = jdbcTemplate.query(sql.toString(), this::mapRow, args.toArray());
+        Long nextCursor = null;
+        if (items.size() > limit) {
+            items = new ArrayList<>(items.subList(0, limit));
+            nextCursor = items.get(limit - 1).id();
+        }
+        return new EventPage(items, nextCursor);
+    }
+
+    @Override
+    public List<TransactionState> latestStates(String afterTransactionId, Instant from, Instant to, int limit) {
+        // El mismo filtro de fechas va en la consulta y en la subconsulta del último evento
+        StringBuilder window = new StringBuilder();
+        List<Object> windowArgs = new ArrayList<>();
+        if (from != null) {
+            window.append(" AND %1$s.received_at >= ?");
+            windowArgs.add(Timestamp.from(from));
+        }
+        if (to != null) {
+            window.append(" AND %1$s.received_at < ?");
+            windowArgs.add(Timestamp.from(to));
+        }
+
+        // ORDER BY y el cursor (>) usan la colación de la columna, que debe ser binaria
+        // (COLLATE "C" en PostgreSQL) para coincidir con el orden del export en Java
+        String sql = "SELECT w.transaction_id, w.status, w.id FROM webhook_event w"
+                + " WHERE w.transaction_id > ?" + String.format(window.toString(), "w")
+                + " AND w.id = (SELECT MAX(x.id) FROM webhook_event x WHERE x.transaction_id = w.transaction_id"
+                + String.format(window.toString(), "x") + ")"
+                + " ORDER BY w.transaction_id LIMIT ?";
+
+        List<Object> args = new ArrayList<>();
+        args.add(afterTransactionId != null ? afterTransactionId : "");
+        args.addAll(windowArgs);
+        args.addAll(windowArgs);
+        args.add(Math.max(1, limit));
+
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new TransactionState(
+            rs.getString("transaction_id"),
+            rs.getString("status"),
+            rs.getLong("id")
+        ), args.toArray());
+    }
+
+    private StoredEvent mapRow(ResultSet rs, int rowNum) throws SQLException {
+        WompiWebhookEvent event;
+        try {
+            event = codec.decode(rs.getBytes("payload"));
+        } catch (IOException e) {
+            throw new SQLException("Payload inválido en webhook_event " + rs.getLong("id"), e);
+        }
+        return new StoredEvent(
+            rs.getLong("id"),
+            rs.getTimestamp("received_at").toInstant(),
+            rs.getString("transaction_id"),
+            rs.getString("reference"),
+            rs.getString("status"),
+            rs.getString("event_type"),
+            event
+        );
+    }
+
+    /**
+     * HMAC-SHA256 del email normalizado (minúsculas, sin espacios), o null sin secreto
+     *
+     * Los hashes guardados con otro secreto (o con el SHA-256 anterior, sin clave)
+     * no coinciden: esas filas dejan de aparecer en la búsqueda por email.
+     */
+    String hashEmail(String email) {
+        if (emailHashKey == null || email == null || email.isBlank()) {
+            return null;
+        }
+        try {
+            // Mac no es thread-safe: una instancia por llamada
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(emailHashKey);
+            byte[] hash = mac.doFinal(email.trim().toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (GeneralSecurityException e) {
+            // HmacSHA256 es obligatorio en toda JVM
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    private record PendingEvent(WompiWebhookEvent event, Instant receivedAt) {
+    }
+}
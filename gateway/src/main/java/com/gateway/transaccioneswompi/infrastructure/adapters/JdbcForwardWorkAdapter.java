@@ -0,0 +1,68 @@
+package com.gateway.transaccioneswompi.infrastructure.adapters;
+
+import com.gateway.transaccioneswompi.domain.WompiWebhookEvent;
+import com.gateway.transaccioneswompi.domain.ports.ForwardWorkPort;
+import com.gateway.transaccioneswompi.infrastructure.mappers.EventBinaryCodec;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * ADAPTADOR - Trabajo de reenvío del modo clúster en la base de datos (JDBC)
+ *
+ * Implementa ForwardWorkPort sobre la tabla forward_work (ver schema.sql).
+ * La escritura es SÍNCRONA: en modo clúster el webhook se responde 200
+ * apenas el evento queda aquí, así que tiene que estar guardado.
+ * La lectura usa el índice (partition_no, id): cada réplica solo lee sus particiones.
+ */
+@Component
+public class JdbcForwardWorkAdapter implements ForwardWorkPort {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO forward_work (partition_no, transaction_id, enqueued_at, payload) VALUES (?, ?, ?, ?)";
+
+    private static final String SELECT_SQL =
+            "SELECT id, partition_no, payload FROM forward_work WHERE partition_no = ? AND id > ? ORDER BY id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EventBinaryCodec codec;
+
+    public JdbcForwardWorkAdapter(JdbcTemplate jdbcTemplate, EventBinaryCodec codec) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.codec = codec;
+    }
+
+    @Override
+    public void enqueue(WompiWebhookEvent event, int partition) {
+        jdbcTemplate.update(INSERT_SQL, partition,
+                event.transaction() != null ? event.transaction().id() : null,
+                Timestamp.from(Instant.now()), codec.encode(event));
+    }
+
+    @Override
+    public List<PendingWork> findPending(int partition, long afterId, int limit) {
+        return jdbcTemplate.query(SELECT_SQL, this::mapRow, partition, afterId, Math.max(1, limit));
+    }
+
+    @Override
+    public void complete(long id) {
+        jdbcTemplate.update("DELETE FROM forward_work WHERE id = ?", id);
+    }
+
+    private PendingWork mapRow(ResultSet rs, int rowNum) throws SQLException {
+        WompiWebhookEvent event;
+        try {
+            event = codec.decode(rs.getBytes("payload"));
+        } catch (IOException e) {
+            throw new SQLException("Payload inválido en forward_work " + rs.getLong("id"), e);
+        }
+        return new PendingWork(rs.getLong("id"), rs.getInt("partition_no"), event);
+    }
+}
@@ -0,0 +1,106 @@
+package com.gateway.transaccioneswompi.infrastructure.adapters;
+
+import com.gateway.transaccioneswompi.domain.ports.PartitionLeasePort;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * ADAPTADOR - Arriendo de particiones en la base de datos (JDBC)
+ *
+ * Implementa PartitionLeasePort sobre las tablas partition_lease y
+ * cluster_node (ver schema.sql). Cada operación es un solo UPDATE
+ * condicionado, así la base de datos decide quién gana si dos réplicas
+ * intentan tomar la misma partición al mismo tiempo.
+ *
+ * Las horas las pone cada réplica: los relojes deben estar sincronizados
+ * (NTP) con un error mucho menor que el ttl del arriendo.
+ */
+@Component
+public class JdbcPartitionLeaseAdapter implements PartitionLeasePort {
+
+    // Arriendo "vencido desde siempre": partición libre
+    private static final Timestamp FREE = Timestamp.from(Instant.EPOCH);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcPartitionLeaseAdapter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void initialize(int count) {
+        Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM partition_lease", Integer.class);
+        if (existing != null && existing >= count) {
+            return;
+        }
+        for (int partition = 0; partition < count; partition++) {
+            try {
+                jdbcTemplate.update("INSERT INTO partition_lease (partition_no, owner, expires_at) VALUES (?, NULL, ?)",
+                        partition, FREE);
+            } catch (DuplicateKeyException e) {
+                // Ya existía (o la creó otra réplica al mismo tiempo)
+            }
+        }
+    }
+
+    @Override
+    public void heartbeat(String nodeId) {
+        Timestamp now = Timestamp.from(Instant.now());
+        if (jdbcTemplate.update("UPDATE cluster_node SET heartbeat_at = ? WHERE node_id = ?", now, nodeId) > 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO cluster_node (node_id, heartbeat_at) VALUES (?, ?)", nodeId, now);
+        } catch (DuplicateKeyException e) {
+            jdbcTemplate.update("UPDATE cluster_node SET heartbeat_at = ? WHERE node_id = ?", now, nodeId);
+        }
+    }
+
+    @Override
+    public int liveNodes(Duration ttl) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cluster_node WHERE heartbeat_at >= ?",
+                Integer.class, Timestamp.from(Instant.now().minus(ttl)));
+        return count != null ? count : 0;
+    }
+
+    @Override
+    public void leave(String nodeId) {
+        jdbcTemplate.update("DELETE FROM cluster_node WHERE node_id = ?", nodeId);
+    }
+
+    @Override
+    public List<Integer> available() {
+        return jdbcTemplate.queryForList(
+                "SELECT partition_no FROM partition_lease WHERE expires_at < ? ORDER BY partition_no",
+                Integer.class, Timestamp.from(Instant.now()));
+    }
+
+    @Override
+    public boolean tryAcquire(int partition, String nodeId, Duration ttl) {
+        Instant now = Instant.now();
+        return jdbcTemplate.update(
+                "UPDATE partition_lease SET owner = ?, expires_at = ? WHERE partition_no = ? AND expires_at < ?",
+                nodeId, Timestamp.from(now.plus(ttl)), partition, Timestamp.from(now)) > 0;
+    }
+
+    @Override
+    public boolean renew(int partition, String nodeId, Duration ttl) {
+        Instant now = Instant.now();
+        return jdbcTemplate.update(
+                "UPDATE partition_lease SET expires_at = ? WHERE partition_no = ? AND owner = ? AND expires_at >= ?",
+                Timestamp.from(now.plus(ttl)), partition, nodeId, Timestamp.from(now)) > 0;
+    }
+
+    @Override
+    public void release(int partition, String nodeId) {
+        jdbcTemplate.update("UPDATE partition_lease SET owner = NULL, expires_at = ? WHERE partition_no = ? AND owner = ?",
+                FREE, partition, nodeId);
+    }
+}
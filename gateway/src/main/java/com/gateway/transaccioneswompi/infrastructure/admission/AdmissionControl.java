@@ -0,0 +1,176 @@
+package com.gateway.transaccioneswompi.infrastructure.admission;
+
+import com.gateway.transaccioneswompi.app.forwarding.ForwardingQueue;
+import com.gateway.transaccioneswompi.domain.EventPriority;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * CONTROL DE ADMISIÓN - Protección del webhook contra sobrecarga
+ *
+ * Antes de procesar un webhook pedimos un "permiso". Si el gateway está
+ * saturado respondemos rápido con HTTP 503: Wompi reintentará más tarde,
+ * y mientras tanto no acumulamos hilos esperando a un Seguru lento.
+ *
+ * Reglas (configurables en application.properties):
+ * 1. Límite duro de trabajo en curso (max-in-flight) para TODOS los eventos
+ * 2. Los eventos intermedios (PENDING) tienen un límite menor, así siempre
+ *    queda espacio para los estados finales (APPROVED/DECLINED)
+ * 3. Si la latencia promedio reciente de Seguru supera max-latency-ms,
+ *    se rechazan los eventos intermedios
+ * 4. Si la cola de reenvío tiene más de max-backlog-intermediate eventos
+ *    esperando, se rechazan los eventos intermedios
+ */
+@Component
+public class AdmissionControl {
+
+    private static final Logger log = LoggerFactory.getLogger(AdmissionControl.class);
+
+    // Peso de cada muestra nueva en el promedio móvil exponencial (EWMA)
+    private static final double LATENCY_EWMA_ALPHA = 0.2;
+
+    // Si no hay muestras recientes, la latencia vieja deja de contar
+    private static final long LATENCY_STALE_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong latencyEwmaBits = new AtomicLong(Double.doubleToLongBits(0.0));
+    private final AtomicLong lastLatencySampleNanos = new AtomicLong();
+
+    private final int maxInFlight;
+    private final int maxInFlightIntermediate;
+    private final long maxLatencyMillis;
+    private final int maxBacklogIntermediate;
+    private final ForwardingQueue forwardingQueue;
+
+    private final Counter rejectedFinal;
+    private final Counter rejectedIntermediate;
+
+    public AdmissionControl(
+            @Value("${gateway.admission.max-in-flight:200}") int maxInFlight,
+            @Value("${gateway.admission.max-in-flight-intermediate:100}") int maxInFlightIntermediate,
+            @Value("${gateway.admission.max-latency-ms:8000}") long maxLatencyMillis,
+            @Value("${gateway.admission.max-backlog-intermediate:500}") int maxBacklogIntermediate,
+            ForwardingQueue forwardingQueue,
+            MeterRegistry meterRegistry) {
+        this.maxInFlight = maxInFlight;
+        this.maxInFlightIntermediate = Math.min(maxInFlightIntermediate, maxInFlight);
+        this.maxLatencyMillis = maxLatencyMillis;
+        this.maxBacklogIntermediate = maxBacklogIntermediate;
+        this.forwardingQueue = forwardingQueue;
+
+        meterRegistry.gauge("gateway.admission.in_flight", inFlight);
+        meterRegistry.gauge("gateway.admission.downstream_latency_ewma_ms", this, AdmissionControl::currentLatencyMillis);
+        this.rejectedFinal = meterRegistry.counter("gateway.admission.rejected", "priority", "final");
+        this.rejectedIntermediate = meterRegistry.counter("gateway.admission.rejected", "priority", "intermediate");
+    }
+
+    /**
+     * Pide permiso para procesar un evento
+     *
+     * El permiso SIEMPRE debe cerrarse (try-with-resources) para liberar el cupo
+     * y registrar la latencia del procesamiento.
+     *
+     * @param priority Prioridad del evento (ver EventPriority)
+     * @return Un permiso admitido o rechazado (ver Permit.isAdmitted)
+     */
+    public Permit tryAcquire(EventPriority priority) {
+        boolean intermediate = priority.isIntermediate();
+
+        if (intermediate && currentLatencyMillis() > maxLatencyMillis) {
+            return reject(intermediate, "Latencia de Seguru demasiado alta");
+        }
+        if (intermediate && forwardingQueue.size() >= maxBacklogIntermediate) {
+            return reject(intermediate, "Cola de reenvío congestionada");
+        }
+
+        int limit = intermediate ? maxInFlightIntermediate : maxInFlight;
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return reject(intermediate, "Demasiados webhooks en proceso (" + current + ")");
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return new Permit(System.nanoTime(), null);
+            }
+        }
+    }
+
+    /**
+     * @return Cantidad de webhooks que se están procesando en este momento
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return Latencia promedio reciente del procesamiento (0 si no hay muestras recientes)
+     */
+    public double currentLatencyMillis() {
+        if (System.nanoTime() - lastLatencySampleNanos.get() > LATENCY_STALE_NANOS) {
+            return 0.0;
+        }
+        return Double.longBitsToDouble(latencyEwmaBits.get());
+    }
+
+    private Permit reject(boolean intermediate, String reason) {
+        (intermediate ? rejectedIntermediate : rejectedFinal).increment();
+        log.warn("⚠ Webhook rechazado por sobrecarga ({}): {}",
+                 intermediate ? "intermedio" : "final", reason);
+        return new Permit(0L, reason);
+    }
+
+    private void release(long startNanos) {
+        inFlight.decrementAndGet();
+
+        long now = System.nanoTime();
+        double sampleMillis = (now - startNanos) / 1_000_000.0;
+        while (true) {
+            long currentBits = latencyEwmaBits.get();
+            double current = Double.longBitsToDouble(currentBits);
+            double updated = current + LATENCY_EWMA_ALPHA * (sampleMillis - current);
+            if (latencyEwmaBits.compareAndSet(currentBits, Double.doubleToLongBits(updated))) {
+                break;
+            }
+        }
+        lastLatencySampleNanos.set(now);
+    }
+
+    /**
+     * Permiso de procesamiento (admitido o rechazado)
+     */
+    public final class Permit implements AutoCloseable {
+        private final long startNanos;
+        private final String rejectionReason;
+        private boolean closed;
+
+        private Permit(long startNanos, String rejectionReason) {
+            this.startNanos = startNanos;
+            this.rejectionReason = rejectionReason;
+        }
+
+        public boolean isAdmitted() {
+            return rejectionReason == null;
+        }
+
+        public String getRejectionReason() {
+            return rejectionReason;
+        }
+
+        @Override
+        public void close() {
+            if (isAdmitted() && !closed) {
+                closed = true;
+                release(startNanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.gateway.transaccioneswompi.infrastructure.admission;
+
+import com.fasterxml.jackson.core.StreamReadConstraints;
+import com.fasterxml.jackson.core.exc.StreamConstraintsException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.gateway.transaccioneswompi.infrastructure.dto.WompiWebhookRequest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * LÍMITES DEL CUERPO DEL WEBHOOK - Rechazo temprano de payloads abusivos
+ *
+ * El endpoint del webhook es público: cualquiera puede mandar un cuerpo
+ * gigante, con miles de niveles de anidación o con strings enormes, y
+ * hacernos gastar heap y CPU en parsearlo. Los límites se revisan ANTES
+ * de armar el DTO:
+ *
+ * 1. Tamaño (max-bytes): con el Content-Length, sin leer nada, y mientras
+ *    se lee el cuerpo (por si viene sin Content-Length). → HTTP 413
+ * 2. Anidación (max-nesting-depth) y largo de strings/números
+ *    (max-string-length, max-number-length): los revisa el parser de
+ *    Jackson token a token (StreamReadConstraints), así el parseo se corta
+ *    en el primer token que se pasa. → HTTP 400
+ *
+ * Las restricciones van en una COPIA del ObjectMapper: el resto del
+ * gateway (journal, almacén, envíos) no cambia.
+ *
+ * Métrica: gateway.payload.rejected{reason=too_large|too_deep|string_too_long|number_too_long|malformed}
+ */
+@Component
+public class PayloadLimits {
+
+    private final int maxBytes;
+    private final ObjectReader webhookReader;
+
+    private final Counter tooLarge;
+    private final Counter tooDeep;
+    private final Counter stringTooLong;
+    private final Counter numberTooLong;
+    private final Counter malformed;
+
+    public PayloadLimits(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${gateway.payload.max-bytes:65536}") int maxBytes,
+            @Value("${gateway.payload.max-nesting-depth:32}") int maxNestingDepth,
+            @Value("${gateway.payload.max-string-length:16384}") int maxStringLength,
+            @Value("${gateway.payload.max-number-length:64}") int maxNumberLength) {
+        this.maxBytes = maxBytes;
+
+        ObjectMapper limited = objectMapper.copy();
+        limited.getFactory().setStreamReadConstraints(StreamReadConstraints.builder()
+                .maxNestingDepth(maxNestingDepth)
+                .maxStringLength(maxStringLength)
+                .maxNumberLength(maxNumberLength)
+                .build());
+        this.webhookReader = limited.readerFor(WompiWebhookRequest.class);
+
+        this.tooLarge = meterRegistry.counter("gateway.payload.rejected", "reason", "too_large");
+        this.tooDeep = meterRegistry.counter("gateway.payload.rejected", "reason", "too_deep");
+        this.stringTooLong = meterRegistry.counter("gateway.payload.rejected", "reason", "string_too_long");
+        this.numberTooLong = meterRegistry.counter("gateway.payload.rejected", "reason", "number_too_long");
+        this.malformed = meterRegistry.counter("gateway.payload.rejected", "reason", "malformed");
+    }
+
+    /**
+     * @return Tamaño máximo del cuerpo en bytes
+     */
+    public int maxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Revisa el Content-Length declarado (antes de leer el cuerpo)
+     *
+     * @param contentLength Content-Length, o null/-1 si no vino
+     * @return false si supera max-bytes (y se cuenta como too_large)
+     */
+    public boolean acceptsContentLength(Long contentLength) {
+        if (contentLength != null && contentLength > maxBytes) {
+            tooLarge.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * El cuerpo resultó más grande que max-bytes al leerlo
+     */
+    public void rejectTooLarge() {
+        tooLarge.increment();
+    }
+
+    /**
+     * Parsea el webhook en body[0, length) con los límites de anidación y largo
+     *
+     * @throws StreamConstraintsException si se pasa de algún límite
+     * @throws IOException                si no es un JSON válido
+     */
+    public WompiWebhookRequest readWebhook(byte[] body, int length) throws IOException {
+        try {
+            return webhookReader.readValue(body, 0, length);
+        } catch (IOException e) {
+            StreamConstraintsException violation = constraintViolation(e);
+            if (violation != null) {
+                constraintCounter(violation).increment();
+                throw violation;
+            }
+            malformed.increment();
+            throw e;
+        }
+    }
+
+    /**
+     * Si el límite se pasó dentro de un objeto, databind envuelve la
+     * excepción del parser en una JsonMappingException: se busca en las causas
+     */
+    private static StreamConstraintsException constraintViolation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof StreamConstraintsException violation) {
+                return violation;
+            }
+        }
+        return null;
+    }
+
+    private Counter constraintCounter(StreamConstraintsException e) {
+        // Jackson no expone cuál límite se pasó: se distingue por el mensaje
+        String message = String.valueOf(e.getOriginalMessage());
+        if (message.startsWith("Depth")) {
+            return tooDeep;
+        }
+        if (message.startsWith("Number")) {
+            return numberTooLong;
+        }
+        return stringTooLong;
+    }
+}
@@ -0,0 +1,76 @@
+package com.gateway.transaccioneswompi.infrastructure.buffers;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * POOL DE BUFFERS - Arreglos de bytes reutilizables para los cuerpos HTTP
+ *
+ * En el pico, la mayor parte de la basura del young-gen eran los byte[]
+ * de los cuerpos: el del webhook que llega (Spring lo copia en un
+ * ByteArrayOutputStream que crece y al final lo vuelve a copiar) y el JSON
+ * que se envía a Seguru (writeValueAsBytes hace lo mismo).
+ *
+ * Aquí se guardan pool-size arreglos de buffer-size bytes:
+ * - acquire() toma uno del pool (hit) o crea uno nuevo si no hay (miss)
+ * - Al cerrar el PooledBuffer el arreglo vuelve al pool; si el pool está
+ *   lleno se deja para el GC
+ * - Un cuerpo más grande que buffer-size se pasa a un arreglo propio
+ *   (oversize) y el del pool se devuelve enseguida
+ *
+ * Métricas: gateway.buffers.acquired{result=hit|miss}, gateway.buffers.oversize
+ * y gateway.buffers.available. Muchos miss = subir pool-size; muchos
+ * oversize = subir buffer-size.
+ *
+ * Thread-safe.
+ */
+@Component
+public class BufferPool {
+
+    private final int bufferSize;
+    private final BlockingQueue<byte[]> pool;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter oversize;
+
+    public BufferPool(
+            MeterRegistry meterRegistry,
+            @Value("${gateway.buffers.buffer-size:16384}") int bufferSize,
+            @Value("${gateway.buffers.pool-size:256}") int poolSize) {
+        this.bufferSize = bufferSize;
+        this.pool = new ArrayBlockingQueue<>(Math.max(1, poolSize));
+
+        this.hits = meterRegistry.counter("gateway.buffers.acquired", "result", "hit");
+        this.misses = meterRegistry.counter("gateway.buffers.acquired", "result", "miss");
+        this.oversize = meterRegistry.counter("gateway.buffers.oversize");
+        meterRegistry.gauge("gateway.buffers.available", pool, BlockingQueue::size);
+    }
+
+    /**
+     * Toma un buffer vacío. Hay que cerrarlo (try-with-resources) para devolverlo
+     */
+    public PooledBuffer acquire() {
+        byte[] array = pool.poll();
+        if (array != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            array = new byte[bufferSize];
+        }
+        return new PooledBuffer(this, array);
+    }
+
+    void release(byte[] array) {
+        pool.offer(array);
+    }
+
+    void recordOversize() {
+        oversize.increment();
+    }
+}
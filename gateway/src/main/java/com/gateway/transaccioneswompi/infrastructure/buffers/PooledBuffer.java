@@ -0,0 +1,113 @@
+package com.gateway.transaccioneswompi.infrastructure.buffers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Buffer de bytes prestado por BufferPool
+ *
+ * Se llena leyendo un InputStream (readFrom, con tope) o escribiendo en
+ * outputStream(); el contenido válido es array()[0, length()).
+ *
+ * Al cerrarlo el arreglo vuelve al pool: después de close() no se debe
+ * usar array() (otro hilo ya puede estar escribiendo en él).
+ *
+ * NO es thread-safe: lo usa un solo hilo mientras lo tiene prestado.
+ */
+public final class PooledBuffer implements AutoCloseable {
+
+    private final BufferPool owner;
+    private byte[] array;
+    private int length;
+    // false cuando el contenido pasó a un arreglo propio (oversize)
+    private boolean pooled = true;
+
+    // El close() de Jackson (AUTO_CLOSE_TARGET) no devuelve el buffer al pool
+    private final OutputStream outputStream = new OutputStream() {
+        @Override
+        public void write(int b) {
+            ensureCapacity(length + 1);
+            array[length++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            ensureCapacity(length + len);
+            System.arraycopy(b, off, array, length, len);
+            length += len;
+        }
+    };
+
+    PooledBuffer(BufferPool owner, byte[] array) {
+        this.owner = owner;
+        this.array = array;
+    }
+
+    /**
+     * Lee el stream completo al buffer (no lo cierra), hasta maxBytes
+     *
+     * @return false si el stream trae más de maxBytes: se deja de leer
+     *         ahí y el contenido queda incompleto
+     */
+    public boolean readFrom(InputStream in, int maxBytes) throws IOException {
+        while (true) {
+            if (length == array.length) {
+                // Nunca crecer más allá de maxBytes + 1 (el byte que delata el exceso)
+                ensureCapacity(Math.min(length + 1, maxBytes + 1));
+            }
+            int n = in.read(array, length, Math.min(array.length, maxBytes + 1) - length);
+            if (n < 0) {
+                return true;
+            }
+            length += n;
+            if (length > maxBytes) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Stream para escribir en el buffer; su close() no hace nada
+     */
+    public OutputStream outputStream() {
+        return outputStream;
+    }
+
+    public byte[] array() {
+        return array;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Copia exacta del contenido (para lo que debe sobrevivir al buffer)
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(array, length);
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= array.length) {
+            return;
+        }
+        byte[] grown = Arrays.copyOf(array, Math.max(required, array.length * 2));
+        if (pooled) {
+            owner.recordOversize();
+            owner.release(array);
+            pooled = false;
+        }
+        array = grown;
+    }
+
+    @Override
+    public void close() {
+        if (array != null && pooled) {
+            owner.release(array);
+        }
+        array = null;
+    }
+}
@@ -0,0 +1,85 @@
+package com.gateway.transaccioneswompi.infrastructure.compression;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * COMPRESOR GZIP con Deflaters reutilizables
+ *
+ * GZIPOutputStream crea un Deflater nuevo en cada llamada, y cada Deflater
+ * reserva ~256 KB de memoria nativa (zlib) que solo se libera con end() o
+ * cuando pasa el GC. Aquí los Deflaters se guardan en un pool acotado y se
+ * reinician (reset) entre usos.
+ *
+ * El formato se arma a mano (RFC 1952): cabecera de 10 bytes, datos
+ * "deflate" sin envoltura y al final CRC32 + tamaño original.
+ *
+ * Thread-safe: cada llamada toma su propio Deflater del pool.
+ */
+public class PooledGzip {
+
+    // Cabecera GZIP: magic, método deflate, sin flags, sin fecha, SO desconocido
+    private static final byte[] HEADER = {
+        (byte) 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff
+    };
+
+    private final int level;
+    private final BlockingQueue<Deflater> pool;
+
+    public PooledGzip(int level, int poolSize) {
+        this.level = level;
+        this.pool = new ArrayBlockingQueue<>(Math.max(1, poolSize));
+    }
+
+    /**
+     * Comprime el contenido completo en formato GZIP
+     */
+    public byte[] compress(byte[] input) {
+        return compress(input, 0, input.length);
+    }
+
+    /**
+     * Comprime input[offset, offset + length) en formato GZIP
+     */
+    public byte[] compress(byte[] input, int offset, int length) {
+        Deflater deflater = pool.poll();
+        if (deflater == null) {
+            // nowrap = true: deflate "crudo", la envoltura GZIP la escribimos nosotros
+            deflater = new Deflater(level, true);
+        }
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(length / 2 + 32);
+            out.write(HEADER, 0, HEADER.length);
+
+            deflater.setInput(input, offset, length);
+            deflater.finish();
+            byte[] buffer = new byte[Math.min(8192, length + 64)];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buffer);
+                out.write(buffer, 0, n);
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(input, offset, length);
+            writeIntLE(out, (int) crc.getValue());
+            writeIntLE(out, length);
+            return out.toByteArray();
+        } finally {
+            deflater.reset();
+            if (!pool.offer(deflater)) {
+                // Pool lleno: liberar la memoria nativa ya
+                deflater.end();
+            }
+        }
+    }
+
+    private static void writeIntLE(ByteArrayOutputStream out, int value) {
+        out.write(value & 0xff);
+        out.write((value >>> 8) & 0xff);
+        out.write((value >>> 16) & 0xff);
+        out.write((value >>> 24) & 0xff);
+    }
+}
@@ -0,0 +1,81 @@
+package com.gateway.transaccioneswompi.infrastructure.compression;
+
+import com.gateway.transaccioneswompi.domain.ports.DeliveryAuditPort.Destination;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * COMPRESIÓN DE LOS ENVÍOS A SEGURU (opcional, por destino)
+ *
+ * Con Seguru en otra región, el tiempo de transferencia pesa más que la CPU
+ * de comprimir: un webhook de ~3.5 KB con datos de facturación y firmas baja a ~1/4
+ * con GZIP (ver benchmark/CompressionBenchmark.java).
+ *
+ * - Se activa por destino: el destino tiene que aceptar Content-Encoding: gzip
+ * - Solo se comprimen cuerpos de min-bytes o más: en los chicos la
+ *   cabecera GZIP y la CPU no compensan
+ *
+ * Métricas: gateway.compression.bytes{destination, stage=original|sent}.
+ * La razón de compresión es sent / original.
+ */
+@Component
+public class RequestCompression {
+
+    private final Map<Destination, Boolean> enabled = new EnumMap<>(Destination.class);
+    private final int minBytes;
+    private final PooledGzip gzip;
+
+    private final Map<Destination, Counter> originalBytes = new EnumMap<>(Destination.class);
+    private final Map<Destination, Counter> sentBytes = new EnumMap<>(Destination.class);
+
+    public RequestCompression(
+            MeterRegistry meterRegistry,
+            @Value("${external.api.reservas.compression.enabled:false}") boolean reservasEnabled,
+            @Value("${external.api.aliados.compression.enabled:false}") boolean aliadosEnabled,
+            @Value("${external.api.compression.min-bytes:1024}") int minBytes,
+            @Value("${external.api.compression.level:6}") int level,
+            @Value("${external.api.compression.pool-size:0}") int poolSize) {
+        enabled.put(Destination.RESERVAS, reservasEnabled);
+        enabled.put(Destination.ALIADOS, aliadosEnabled);
+        this.minBytes = minBytes;
+        // 0 = automático: un compresor por hilo de la cola de reenvío (dos por núcleo)
+        this.gzip = new PooledGzip(level,
+                poolSize > 0 ? poolSize : 2 * Runtime.getRuntime().availableProcessors());
+
+        for (Destination destination : Destination.values()) {
+            String tag = destination.name().toLowerCase();
+            originalBytes.put(destination,
+                    meterRegistry.counter("gateway.compression.bytes", "destination", tag, "stage", "original"));
+            sentBytes.put(destination,
+                    meterRegistry.counter("gateway.compression.bytes", "destination", tag, "stage", "sent"));
+        }
+    }
+
+    /**
+     * Comprime el cuerpo si el destino lo tiene activado y supera el umbral
+     *
+     * @return El cuerpo GZIP, o null si se envía sin comprimir
+     */
+    public byte[] compressIfEnabled(Destination destination, byte[] body) {
+        return compressIfEnabled(destination, body, body.length);
+    }
+
+    /**
+     * Igual que compressIfEnabled(destination, body), con el cuerpo en body[0, length)
+     */
+    public byte[] compressIfEnabled(Destination destination, byte[] body, int length) {
+        if (!enabled.get(destination) || length < minBytes) {
+            return null;
+        }
+        byte[] compressed = gzip.compress(body, 0, length);
+        originalBytes.get(destination).increment(length);
+        sentBytes.get(destination).increment(compressed.length);
+        return compressed;
+    }
+}
@@ -0,0 +1,52 @@
+package com.gateway.transaccioneswompi.infrastructure.config;
+
+import com.gateway.transaccioneswompi.app.reconciliation.SeguruAck;
+import com.gateway.transaccioneswompi.domain.CurrencyCode;
+import com.gateway.transaccioneswompi.domain.PaymentMethodType;
+import com.gateway.transaccioneswompi.domain.TransactionStatus;
+import com.gateway.transaccioneswompi.domain.WompiWebhookEvent;
+import com.gateway.transaccioneswompi.infrastructure.dto.ExternalApiResponseDto;
+import com.gateway.transaccioneswompi.infrastructure.dto.WompiWebhookRequest;
+
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+/**
+ * PISTAS PARA GRAALVM NATIVE IMAGE
+ *
+ * En un ejecutable nativo solo existe la reflexión que se declara en el build.
+ * Spring AOT ya declara los tipos de @RequestBody y los que retornan los
+ * controladores, pero NO los que convertimos a mano con el ObjectMapper:
+ * - WompiWebhookRequest: el webhook llega como bytes y se parsea en el controlador
+ * - WompiWebhookEvent: se envía a Seguru y se guarda como JSON (eventos, dead letters)
+ * - ExternalApiResponseDto: la respuesta de Seguru (RestTemplate)
+ * - SeguruAck: las filas del export JSON de la conciliación
+ *
+ * Se registra con @ImportRuntimeHints en la clase App.
+ */
+public class GatewayRuntimeHints implements RuntimeHintsRegistrar {
+
+    // Valores del dominio que Jackson crea con su método estático of() (@JsonCreator)
+    private static final Class<?>[] INTERNED_VALUES = {
+        CurrencyCode.class, PaymentMethodType.class, TransactionStatus.class
+    };
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // Recorre también los tipos anidados (Transaction, TransactionData, ...)
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                WompiWebhookRequest.class, WompiWebhookEvent.class, ExternalApiResponseDto.class, SeguruAck.class);
+
+        for (Class<?> type : INTERNED_VALUES) {
+            hints.reflection().registerType(type, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+
+        // log4jdbc (ver AppConfig) carga su logger por nombre desde este archivo
+        hints.resources().registerPattern("log4jdbc.log4j2.properties");
+        hints.reflection().registerType(TypeReference.of("net.sf.log4jdbc.log.slf4j.Slf4jSpyLogDelegator"),
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+    }
+}
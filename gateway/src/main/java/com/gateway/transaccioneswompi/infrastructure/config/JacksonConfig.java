@@ -0,0 +1,26 @@
+package com.gateway.transaccioneswompi.infrastructure.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.gateway.transaccioneswompi.infrastructure.mappers.RawJsonModule;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * CONFIGURACIÓN - Jackson (JSON)
+ *
+ * Spring Boot agrega automáticamente cada bean de tipo Module al ObjectMapper
+ * que usan los controladores y el RestTemplate.
+ */
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Soporte para los campos que se guardan como JSON crudo
+     * (shipping_address, billing_data)
+     */
+    @Bean
+    public Module rawJsonModule() {
+        return new RawJsonModule();
+    }
+}
@@ -3,6 +3,8 @@ package com.gateway.transaccioneswompi.infrastructure.config;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.ResponseErrorHandler;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.Duration;
@@ -14,6 +16,11 @@ import java.time.Duration;
  * @Bean le dice a Spring que cree y maneje el objeto RestTemplate
  *
  * RestTemplate es la herramienta de Spring para hacer peticiones HTTP.
+ *
+ * Las respuestas 4xx/5xx NO lanzan excepción: ExternalApiAdapter las lee
+ * con BoundedResponseExtractor (que acota cuánto del cuerpo se lee) y
+ * decide según el status. La excepción por defecto copia el cuerpo de
+ * error COMPLETO a memoria, sea del tamaño que sea.
  */
 @Configuration
 public class RestTemplateConfig {
@@ -29,6 +36,23 @@ public class RestTemplateConfig {
         return builder
             .setConnectTimeout(Duration.ofSeconds(10))  // Timeout de conexión: 10 segundos
             .setReadTimeout(Duration.ofSeconds(10))     // Timeout de lectura: 10 segundos
+            .errorHandler(new StatusOnlyErrorHandler())  // El status lo revisa quien llama
             .build();
     }
+
+    /**
+     * Manejador de errores que no trata ningún status como error
+     */
+    static class StatusOnlyErrorHandler implements ResponseErrorHandler {
+
+        @Override
+        public boolean hasError(ClientHttpResponse response) {
+            return false;
+        }
+
+        @Override
+        public void handleError(ClientHttpResponse response) {
+            // Nunca se llama: hasError siempre es false
+        }
+    }
 }
@@ -0,0 +1,93 @@
+package com.gateway.transaccioneswompi.infrastructure.controllers;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import com.gateway.transaccioneswompi.app.replay.DeadLetterReplayService;
+import com.gateway.transaccioneswompi.app.replay.ReplayJob;
+import com.gateway.transaccioneswompi.domain.ports.DeadLetterPort;
+import com.gateway.transaccioneswompi.domain.ports.DeadLetterPort.DeadLetter;
+import com.gateway.transaccioneswompi.domain.ports.DeadLetterPort.DeadLetterQuery;
+import com.gateway.transaccioneswompi.infrastructure.dto.ReplayRequest;
+
+import org.springframework.context.annotation.Lazy;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * CONTROLADOR - Dead letters y reenvío masivo (para operadores)
+ *
+ * - GET    /api-gateway/admin/dead-letters              Lista los pendientes (cursor "after")
+ * - POST   /api-gateway/admin/dead-letters/replay       Inicia un reenvío masivo (202)
+ * - GET    /api-gateway/admin/dead-letters/replay       Trabajos recientes
+ * - GET    /api-gateway/admin/dead-letters/replay/{id}  Progreso de un trabajo
+ * - DELETE /api-gateway/admin/dead-letters/replay/{id}  Detiene un trabajo
+ */
+@Lazy
+@RestController
+@RequestMapping("/api-gateway/admin/dead-letters")
+public class DeadLetterController {
+
+    private final DeadLetterPort deadLetters;
+    private final DeadLetterReplayService replayService;
+
+    public DeadLetterController(DeadLetterPort deadLetters, DeadLetterReplayService replayService) {
+        this.deadLetters = deadLetters;
+        this.replayService = replayService;
+    }
+
+    @GetMapping
+    public List<DeadLetter> list(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String errorCode,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int limit) {
+
+        return deadLetters.findPending(new DeadLetterQuery(
+            from, to, status, errorCode, after, null, Math.min(limit, 500)
+        ));
+    }
+
+    @PostMapping("/replay")
+    public ResponseEntity<Object> replay(@RequestBody ReplayRequest request) {
+        DeadLetterQuery filter = new DeadLetterQuery(
+            request.getFrom(), request.getTo(), request.getStatus(), request.getErrorCode(), null, null, 0
+        );
+        try {
+            ReplayJob job = replayService.start(filter, request.getRatePerSecond(), request.getParallelism());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/replay")
+    public List<ReplayJob> jobs() {
+        return replayService.list();
+    }
+
+    @GetMapping("/replay/{id}")
+    public ResponseEntity<ReplayJob> job(@PathVariable String id) {
+        ReplayJob job = replayService.get(id);
+        return job != null ? ResponseEntity.ok(job) : ResponseEntity.notFound().build();
+    }
+
+    @DeleteMapping("/replay/{id}")
+    public ResponseEntity<ReplayJob> cancel(@PathVariable String id) {
+        return replayService.cancel(id)
+                ? ResponseEntity.ok(replayService.get(id))
+                : ResponseEntity.notFound().build();
+    }
+}
@@ -0,0 +1,47 @@
+package com.gateway.transaccioneswompi.infrastructure.controllers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import com.gateway.transaccioneswompi.domain.ports.DeliveryAuditPort;
+import com.gateway.transaccioneswompi.domain.ports.DeliveryAuditPort.DeliveryRollup;
+
+import org.springframework.context.annotation.Lazy;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * CONTROLADOR - Resumen de entregas a Seguru (para operadores)
+ *
+ * Compara Reservas vs Aliados: tasa de éxito y latencia (p50, p95, p99)
+ * por ventana de tiempo.
+ *
+ * Ejemplo (últimas 24 horas, ventanas de 1 hora):
+ *   GET /api-gateway/admin/deliveries/rollup?bucketMinutes=60
+ */
+@Lazy
+@RestController
+@RequestMapping("/api-gateway/admin/deliveries")
+public class DeliveryAuditController {
+
+    private final DeliveryAuditPort deliveryAudit;
+
+    public DeliveryAuditController(DeliveryAuditPort deliveryAudit) {
+        this.deliveryAudit = deliveryAudit;
+    }
+
+    @GetMapping("/rollup")
+    public List<DeliveryRollup> rollup(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "60") long bucketMinutes) {
+
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : end.minus(Duration.ofDays(1));
+        return deliveryAudit.rollup(start, end, Duration.ofMinutes(Math.max(1L, bucketMinutes)));
+    }
+}
@@ -0,0 +1,81 @@
+package com.gateway.transaccioneswompi.infrastructure.controllers;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import com.gateway.transaccioneswompi.domain.TransactionStatus;
+import com.gateway.transaccioneswompi.domain.ports.EventStorePort;
+import com.gateway.transaccioneswompi.domain.ports.EventStorePort.EventPage;
+import com.gateway.transaccioneswompi.domain.ports.EventStorePort.EventQuery;
+import com.gateway.transaccioneswompi.domain.ports.EventStorePort.StoredEvent;
+
+import org.springframework.context.annotation.Lazy;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * CONTROLADOR - Consulta de eventos recibidos (para operadores)
+ *
+ * Permite averiguar qué pasó con un pago sin revisar los logs.
+ *
+ * Ejemplo:
+ *   GET /api-gateway/admin/events?reference=RES-123&limit=50
+ *   GET /api-gateway/admin/events?reference=RES-123&limit=50&before=98231   (página siguiente)
+ *
+ * La respuesta trae "nextCursor": se envía como "before" para pedir la siguiente página.
+ *
+ * Los eventos se devuelven SIN datos personales (email, dirección, facturación,
+ * beneficiario): para buscar por email se usa el parámetro customerEmail
+ * (requiere gateway.event-store.email-hash-secret; sin él responde 400).
+ *
+ * from/to solos recorren todo el rango de fechas y lo ordenan: para ventanas
+ * grandes conviene combinarlos con reference, transactionId, customerEmail o status.
+ */
+@Lazy
+@RestController
+@RequestMapping("/api-gateway/admin/events")
+public class EventStoreController {
+
+    private final EventStorePort eventStore;
+
+    public EventStoreController(EventStorePort eventStore) {
+        this.eventStore = eventStore;
+    }
+
+    @GetMapping
+    public ResponseEntity<Object> search(
+            @RequestParam(required = false) String transactionId,
+            @RequestParam(required = false) String reference,
+            @RequestParam(required = false) String customerEmail,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) Long before,
+            @RequestParam(defaultValue = "50") int limit) {
+
+        EventPage page;
+        try {
+            page = eventStore.search(new EventQuery(
+                transactionId, reference, customerEmail, TransactionStatus.of(status),
+                from, to, before, limit
+            ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+        List<StoredEvent> items = page.items().stream()
+                .map(EventStoreController::withoutPersonalData)
+                .toList();
+        return ResponseEntity.ok(new EventPage(items, page.nextCursor()));
+    }
+
+    private static StoredEvent withoutPersonalData(StoredEvent stored) {
+        return new StoredEvent(stored.id(), stored.receivedAt(), stored.transactionId(), stored.reference(),
+                               stored.status(), stored.eventType(),
+                               stored.event() != null ? stored.event().withoutPersonalData() : null);
+    }
+}
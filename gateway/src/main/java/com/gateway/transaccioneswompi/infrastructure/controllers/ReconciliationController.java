@@ -0,0 +1,74 @@
+package com.gateway.transaccioneswompi.infrastructure.controllers;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import com.gateway.transaccioneswompi.app.reconciliation.ReconciliationJob;
+import com.gateway.transaccioneswompi.app.reconciliation.ReconciliationService;
+import com.gateway.transaccioneswompi.infrastructure.dto.ReconciliationRequest;
+
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * CONTROLADOR - Conciliación gateway vs Seguru (para operadores)
+ *
+ * - POST /api-gateway/admin/reconciliation             Inicia una conciliación (202)
+ * - GET  /api-gateway/admin/reconciliation/{id}        Progreso y totales
+ * - GET  /api-gateway/admin/reconciliation/{id}/report Reporte CSV de diferencias
+ */
+@Lazy
+@RestController
+@RequestMapping("/api-gateway/admin/reconciliation")
+public class ReconciliationController {
+
+    private final ReconciliationService reconciliationService;
+
+    public ReconciliationController(ReconciliationService reconciliationService) {
+        this.reconciliationService = reconciliationService;
+    }
+
+    @PostMapping
+    public ResponseEntity<Object> start(@RequestBody ReconciliationRequest request) {
+        try {
+            ReconciliationJob job = reconciliationService.start(
+                request.getExportFile(), request.getFrom(), request.getTo(), request.isRedeliver());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ReconciliationJob> job(@PathVariable String id) {
+        ReconciliationJob job = reconciliationService.get(id);
+        return job != null ? ResponseEntity.ok(job) : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/{id}/report")
+    public ResponseEntity<Resource> report(@PathVariable String id) {
+        if (reconciliationService.get(id) == null) {
+            return ResponseEntity.notFound().build();
+        }
+        Path report = reconciliationService.reportPath(id);
+        if (!Files.isRegularFile(report)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .body(new FileSystemResource(report));
+    }
+}
@@ -1,18 +1,39 @@
 package com.gateway.transaccioneswompi.infrastructure.controllers;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
-import com.gateway.transaccioneswompi.app.usecases.ProcessWompiWebhookUseCase;
+import com.fasterxml.jackson.core.exc.StreamConstraintsException;
+import com.gateway.transaccioneswompi.app.cluster.ClusterForwarder;
+import com.gateway.transaccioneswompi.app.forwarding.ForwardingQueue;
 import com.gateway.transaccioneswompi.app.usecases.ProcessWompiWebhookUseCase.ProcessingResult;
+import com.gateway.transaccioneswompi.domain.EventPriority;
 import com.gateway.transaccioneswompi.domain.WompiWebhookEvent;
+import com.gateway.transaccioneswompi.domain.ports.EventStorePort;
+import com.gateway.transaccioneswompi.infrastructure.admission.AdmissionControl;
+import com.gateway.transaccioneswompi.infrastructure.admission.PayloadLimits;
+import com.gateway.transaccioneswompi.infrastructure.buffers.BufferPool;
+import com.gateway.transaccioneswompi.infrastructure.buffers.PooledBuffer;
 import com.gateway.transaccioneswompi.infrastructure.dto.WompiWebhookRequest;
 import com.gateway.transaccioneswompi.infrastructure.mappers.WompiWebhookMapper;
+import com.gateway.transaccioneswompi.infrastructure.metrics.StartupMetrics;
+import com.gateway.transaccioneswompi.infrastructure.persistence.WebhookJournal;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.slf4j.Logger;
@@ -22,10 +43,12 @@ import org.slf4j.LoggerFactory;
  * CONTROLADOR - Capa de Infrastructure (Adaptador de entrada)
  *
  * Este controlador recibe las peticiones HTTP y:
- * 1. Recibe el JSON como DTO (WompiWebhookRequest)
+ * 1. Recibe el JSON (bytes) y lo convierte a DTO (WompiWebhookRequest)
  * 2. Lo convierte a modelo de dominio usando el mapper
- * 3. Llama a la lógica de negocio (Use Case)
- * 4. Retorna una respuesta HTTP
+ * 3. Guarda los bytes en el journal (si está habilitado)
+ * 4. Encola el evento para la lógica de negocio (Use Case) y espera el resultado
+ *    (en modo clúster lo guarda para la réplica dueña de su partición, ver ClusterForwarder)
+ * 5. Retorna una respuesta HTTP
  */
 @RestController
 @RequestMapping("/api-gateway/wompi")
@@ -35,14 +58,43 @@ public class RespuestaWompiController {
 
     // Inyección de dependencias
     private final WompiWebhookMapper mapper;
-    private final ProcessWompiWebhookUseCase processWebhookUseCase;
+    private final ForwardingQueue forwardingQueue;
+    private final AdmissionControl admissionControl;
+    private final EventStorePort eventStore;
+    private final WebhookJournal journal;
+    private final StartupMetrics startupMetrics;
+    private final ClusterForwarder clusterForwarder;
+    private final BufferPool bufferPool;
+    private final PayloadLimits payloadLimits;
+
+    // Segundos sugeridos a Wompi antes de reintentar cuando respondemos 503
+    @Value("${gateway.admission.retry-after-seconds:5}")
+    private int retryAfterSeconds;
+
+    // Tiempo máximo que esperamos el resultado del reenvío antes de responder 503
+    @Value("${gateway.forwarding.await-timeout-ms:30000}")
+    private long awaitTimeoutMillis;
 
     // Constructor para inyección de dependencias
     public RespuestaWompiController(
             WompiWebhookMapper mapper,
-            ProcessWompiWebhookUseCase processWebhookUseCase) {
+            ForwardingQueue forwardingQueue,
+            AdmissionControl admissionControl,
+            EventStorePort eventStore,
+            WebhookJournal journal,
+            StartupMetrics startupMetrics,
+            ClusterForwarder clusterForwarder,
+            BufferPool bufferPool,
+            PayloadLimits payloadLimits) {
         this.mapper = mapper;
-        this.processWebhookUseCase = processWebhookUseCase;
+        this.forwardingQueue = forwardingQueue;
+        this.admissionControl = admissionControl;
+        this.eventStore = eventStore;
+        this.journal = journal;
+        this.startupMetrics = startupMetrics;
+        this.clusterForwarder = clusterForwarder;
+        this.bufferPool = bufferPool;
+        this.payloadLimits = payloadLimits;
     }
 
     /**
@@ -55,12 +107,59 @@ public class RespuestaWompiController {
      *
      * Este endpoint devuelve:
      * - HTTP 200: Si al menos uno de los endpoints (Reservas o Aliados) funcionó
+     *   (en modo clúster: si el evento quedó guardado para reenviarse)
      * - HTTP 500: Si ambos endpoints fallaron
+     * - HTTP 503: Si el gateway está saturado (control de admisión o cola de reenvío llena)
+     * - HTTP 400: Si el cuerpo no es un JSON válido o se pasa de los límites de anidación/largo
+     * - HTTP 413: Si el cuerpo supera gateway.payload.max-bytes (ver PayloadLimits)
+     * - HTTP 415: Si el Content-Type no es application/json (el cuerpo se lee
+     *   como bytes, así que Spring ya no lo valida por nosotros)
      *
-     * @RequestBody indica que Spring debe convertir el JSON a WompiWebhookRequest
+     * El cuerpo se lee tal cual a un buffer del pool (BufferPool): el journal
+     * guarda exactamente lo que envió Wompi y no se crea un byte[] por webhook.
+     * El buffer vuelve al pool cuando se responde.
      */
-    @PostMapping("/update-transaction")
-    public ResponseEntity<Map<String, Object>> updateTransaction(@RequestBody WompiWebhookRequest request) {
+    @PostMapping(value = "/update-transaction", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> updateTransaction(
+            InputStream body,
+            @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength)
+            throws IOException {
+        // Un cuerpo declarado demasiado grande se rechaza sin leerlo
+        if (!payloadLimits.acceptsContentLength(contentLength)) {
+            return payloadTooLarge();
+        }
+        try (PooledBuffer buffer = bufferPool.acquire()) {
+            if (!buffer.readFrom(body, payloadLimits.maxBytes())) {
+                // Sin Content-Length (chunked) o con uno falso: se corta al pasar el límite
+                payloadLimits.rejectTooLarge();
+                return payloadTooLarge();
+            }
+            return handleWebhook(buffer.array(), buffer.length());
+        }
+    }
+
+    /**
+     * Procesa el webhook cuyo JSON está en body[0, length)
+     */
+    private ResponseEntity<Map<String, Object>> handleWebhook(byte[] body, int length) {
+        Instant receivedAt = Instant.now();
+
+        WompiWebhookRequest request;
+        try {
+            request = payloadLimits.readWebhook(body, length);
+        } catch (StreamConstraintsException e) {
+            log.warn("⚠ Webhook rechazado por exceder los límites del JSON: {}", e.getOriginalMessage());
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "error");
+            response.put("message", "JSON excede los límites permitidos");
+            return ResponseEntity.badRequest().body(response);
+        } catch (IOException e) {
+            log.warn("⚠ Webhook con JSON inválido: {}", e.getMessage());
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "error");
+            response.put("message", "JSON inválido");
+            return ResponseEntity.badRequest().body(response);
+        }
 
         // 1. Log del request (DTO)
         log.info("=== WEBHOOK RECIBIDO DE WOMPI ===");
@@ -68,17 +167,116 @@ public class RespuestaWompiController {
 
         // 2. Convertir DTO a Domain usando el mapper
         WompiWebhookEvent domainEvent = mapper.toDomain(request);
-        log.info("Transacción ID: {}", domainEvent.getData().getTransaction().getId());
-        log.info("Estado: {}", domainEvent.getData().getTransaction().getStatus());
-
-        // 3. Llamar al caso de uso (lógica de negocio con fallback)
-        ProcessingResult result = processWebhookUseCase.execute(domainEvent);
+        log.info("Transacción ID: {}", domainEvent.transaction().id());
+        log.info("Estado: {}", domainEvent.transaction().status());
 
-        // 4. Preparar respuesta según el resultado
         Map<String, Object> response = new HashMap<>();
-        response.put("transactionId", domainEvent.getData().getTransaction().getId());
+        response.put("transactionId", domainEvent.transaction().id());
         response.put("event", request.getEvent());
 
+        // 3. Control de admisión: si estamos saturados, 503 rápido (Wompi reintentará)
+        try (AdmissionControl.Permit permit = admissionControl.tryAcquire(EventPriority.of(domainEvent))) {
+            if (!permit.isAdmitted()) {
+                return unavailable(response, permit.getRejectionReason());
+            }
+
+            // Guardar el evento para consulta posterior (asíncrono, no frena la respuesta).
+            // Solo los admitidos: uno rechazado con 503 lo reintentará Wompi y se guardará entonces
+            eventStore.append(domainEvent, receivedAt);
+
+            // 4. Journal: si el proceso se cae antes de terminar, el webhook se recupera al reiniciar
+            long journalOffset;
+            try {
+                journalOffset = journal.append(body, 0, length);
+            } catch (IOException e) {
+                log.error("✗ No se pudo guardar el webhook en el journal: {}", e.getMessage(), e);
+                return unavailable(response, "No se pudo guardar el webhook en el journal");
+            }
+
+            // 5a. Modo clúster: guardar el evento para la réplica dueña de su partición
+            if (clusterForwarder.isEnabled()) {
+                return enqueueForCluster(domainEvent, journalOffset, response);
+            }
+
+            // 5. Encolar el evento para el caso de uso (lógica de negocio con fallback)
+            //    y esperar el resultado: la cola atiende primero los pagos confirmados
+            CompletableFuture<ProcessingResult> future = forwardingQueue.submit(domainEvent);
+            // Al terminar, el evento se entregó, quedó en dead letters o Wompi recibió
+            // un error (500/503) y lo reintentará: el journal ya no es la única copia
+            future.whenComplete((processing, error) -> journal.ack(journalOffset));
+
+            ProcessingResult result;
+            try {
+                result = future.get(awaitTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException | TimeoutException e) {
+                Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+                return unavailable(response, cause instanceof RejectedExecutionException
+                        ? cause.getMessage()
+                        : "Tiempo de espera agotado en la cola de reenvío");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return unavailable(response, "Procesamiento interrumpido");
+            }
+
+            // 6. Preparar respuesta según el resultado
+            return toResponse(result, response);
+        }
+    }
+
+    /**
+     * Modo clúster: el webhook se responde apenas el evento queda en la base
+     * de datos; el reenvío lo hace la réplica dueña de su partición
+     */
+    private ResponseEntity<Map<String, Object>> enqueueForCluster(
+            WompiWebhookEvent domainEvent, long journalOffset, Map<String, Object> response) {
+        try {
+            clusterForwarder.enqueue(domainEvent);
+        } catch (RuntimeException e) {
+            // Wompi recibe 503 y lo reintenta: no hace falta guardarlo en el journal
+            log.error("✗ No se pudo guardar el evento para el clúster: {}", e.getMessage(), e);
+            journal.ack(journalOffset);
+            return unavailable(response, "No se pudo guardar el evento para reenvío");
+        }
+        journal.ack(journalOffset);
+        return toResponse(new ProcessingResult(true, "Evento aceptado para reenvío"), response);
+    }
+
+    /**
+     * Respuesta HTTP 413: el cuerpo supera gateway.payload.max-bytes
+     */
+    private ResponseEntity<Map<String, Object>> payloadTooLarge() {
+        log.warn("⚠ Webhook rechazado: el cuerpo supera {} bytes", payloadLimits.maxBytes());
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "error");
+        response.put("message", "El cuerpo supera " + payloadLimits.maxBytes() + " bytes");
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(response);
+    }
+
+    /**
+     * Respuesta HTTP 503: el gateway no puede procesar el webhook ahora (Wompi reintentará)
+     */
+    private ResponseEntity<Map<String, Object>> unavailable(Map<String, Object> response, String message) {
+        response.put("status", "rejected");
+        response.put("message", message);
+
+        log.warn("⚠ Webhook no procesado: {}", message);
+        log.warn("=== DEVOLVIENDO HTTP 503 A WOMPI (Wompi reintentará) ===");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(response);
+    }
+
+    /**
+     * Convierte el resultado del caso de uso en la respuesta HTTP para Wompi
+     */
+    private ResponseEntity<Map<String, Object>> toResponse(ProcessingResult result, Map<String, Object> response) {
+        startupMetrics.onWebhookHandled();
+
+        if (result.isRetryable()) {
+            // No se llegó a enviar (límite de tráfico): 503 con Retry-After
+            return unavailable(response, result.getMessage());
+        }
+
         if (result.isSuccess()) {
             // Al menos uno de los endpoints (Reservas o Aliados) funcionó
             response.put("status", "success");
@@ -0,0 +1,63 @@
+package com.gateway.transaccioneswompi.infrastructure.dto;
+
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * DTO para pedir una conciliación contra el export de Seguru
+ */
+public class ReconciliationRequest {
+
+    // Nombre del archivo exportado por Seguru dentro de import-dir (.csv, .json o .ndjson)
+    @JsonProperty("export_file")
+    private String exportFile;
+
+    // Eventos recibidos en el gateway desde (inclusive), opcional
+    @JsonProperty("from")
+    private Instant from;
+
+    // Eventos recibidos en el gateway hasta (exclusive), opcional
+    @JsonProperty("to")
+    private Instant to;
+
+    // Guardar las diferencias reenviables en dead letters
+    @JsonProperty("redeliver")
+    private boolean redeliver;
+
+    public ReconciliationRequest() {
+    }
+
+    // Getters y Setters
+    public String getExportFile() {
+        return exportFile;
+    }
+
+    public void setExportFile(String exportFile) {
+        this.exportFile = exportFile;
+    }
+
+    public Instant getFrom() {
+        return from;
+    }
+
+    public void setFrom(Instant from) {
+        this.from = from;
+    }
+
+    public Instant getTo() {
+        return to;
+    }
+
+    public void setTo(Instant to) {
+        this.to = to;
+    }
+
+    public boolean isRedeliver() {
+        return redeliver;
+    }
+
+    public void setRedeliver(boolean redeliver) {
+        this.redeliver = redeliver;
+    }
+}
@@ -0,0 +1,89 @@
+package com.gateway.transaccioneswompi.infrastructure.dto;
+
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * DTO para pedir un reenvío masivo de dead letters
+ *
+ * Todos los campos son opcionales: sin filtros se reenvían todos los pendientes.
+ */
+public class ReplayRequest {
+
+    // Último fallo desde (inclusive), ej: "2024-01-01T10:00:00Z"
+    @JsonProperty("from")
+    private Instant from;
+
+    // Último fallo hasta (exclusive)
+    @JsonProperty("to")
+    private Instant to;
+
+    // Estado de la transacción, ej: "APPROVED"
+    @JsonProperty("status")
+    private String status;
+
+    // Código de error del último intento, ej: "CONNECTION_ERROR"
+    @JsonProperty("error_code")
+    private String errorCode;
+
+    // Eventos por segundo (0 = máximo configurado)
+    @JsonProperty("rate_per_second")
+    private double ratePerSecond;
+
+    // Eventos en vuelo al mismo tiempo (0 = máximo configurado)
+    @JsonProperty("parallelism")
+    private int parallelism;
+
+    public ReplayRequest() {
+    }
+
+    // Getters y Setters
+    public Instant getFrom() {
+        return from;
+    }
+
+    public void setFrom(Instant from) {
+        this.from = from;
+    }
+
+    public Instant getTo() {
+        return to;
+    }
+
+    public void setTo(Instant to) {
+        this.to = to;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    public void setErrorCode(String errorCode) {
+        this.errorCode = errorCode;
+    }
+
+    public double getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    public void setRatePerSecond(double ratePerSecond) {
+        this.ratePerSecond = ratePerSecond;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+}
@@ -1,6 +1,7 @@
 package com.gateway.transaccioneswompi.infrastructure.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.gateway.transaccioneswompi.domain.RawJson;
 import java.util.List;
 
 /**
@@ -138,7 +139,7 @@ public class WompiWebhookRequest {
         private String status;
 
         @JsonProperty("shipping_address")
-        private Object shippingAddress;  // null o un objeto
+        private RawJson shippingAddress;  // null o un objeto (JSON crudo, no se parsea)
 
         @JsonProperty("payment_link_id")
         private String paymentLinkId;
@@ -150,7 +151,7 @@ public class WompiWebhookRequest {
         private String paymentSourceId;
 
         @JsonProperty("billing_data")
-        private Object billingData;  // null o un objeto
+        private RawJson billingData;  // null o un objeto (JSON crudo, no se parsea)
 
         // Campos del modelo anterior (para payouts)
         @JsonProperty("payoutId")
@@ -273,11 +274,11 @@ public class WompiWebhookRequest {
             this.paymentMethodType = paymentMethodType;
         }
 
-        public Object getShippingAddress() {
+        public RawJson getShippingAddress() {
             return shippingAddress;
         }
 
-        public void setShippingAddress(Object shippingAddress) {
+        public void setShippingAddress(RawJson shippingAddress) {
             this.shippingAddress = shippingAddress;
         }
 
@@ -305,11 +306,11 @@ public class WompiWebhookRequest {
             this.paymentSourceId = paymentSourceId;
         }
 
-        public Object getBillingData() {
+        public RawJson getBillingData() {
             return billingData;
         }
 
-        public void setBillingData(Object billingData) {
+        public void setBillingData(RawJson billingData) {
             this.billingData = billingData;
         }
     }
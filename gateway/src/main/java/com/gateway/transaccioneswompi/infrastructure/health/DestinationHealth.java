@@ -0,0 +1,119 @@
+package com.gateway.transaccioneswompi.infrastructure.health;
+
+import com.gateway.transaccioneswompi.domain.ports.DeliveryAuditPort.Destination;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * SALUD DE LOS DESTINOS - Según los envíos reales a Seguru
+ *
+ * No se hacen sondeos sincrónicos a Seguru: ExternalApiAdapter informa el
+ * resultado de cada envío (record) y aquí se lleva, por destino, una
+ * ventana de los últimos window-ms (RollingOutcomeWindow).
+ *
+ * Un destino está DOWN si, dentro de la ventana:
+ * - hubo al menos min-calls envíos y la tasa de éxito es menor a min-success-rate, o
+ * - lleva max-consecutive-failures fallas seguidas (el destino dejó de responder)
+ *
+ * Cuenta como falla lo que indica que el destino no está sano: error de
+ * conexión/timeout, 5xx y 429. Un 4xx es culpa del evento, no del destino.
+ *
+ * Sin envíos en la ventana el destino vuelve a UP: así una réplica fuera
+ * del balanceador no queda fuera para siempre por fallas viejas.
+ *
+ * Un destino caído NO saca a la réplica del balanceador (Aliados es el
+ * respaldo de Reservas, y las demás réplicas ven el mismo destino caído):
+ * la readiness usa deliveryIndicator(), que solo está DOWN si TODOS los
+ * destinos lo están, es decir, si esta réplica no puede entregar nada.
+ */
+@Component
+public class DestinationHealth {
+
+    private final Map<Destination, RollingOutcomeWindow> windows = new EnumMap<>(Destination.class);
+    private final long minCalls;
+    private final double minSuccessRate;
+    private final int maxConsecutiveFailures;
+
+    public DestinationHealth(
+            MeterRegistry meterRegistry,
+            @Value("${gateway.health.downstream.window-ms:60000}") long windowMillis,
+            @Value("${gateway.health.downstream.min-calls:10}") long minCalls,
+            @Value("${gateway.health.downstream.min-success-rate:0.5}") double minSuccessRate,
+            @Value("${gateway.health.downstream.max-consecutive-failures:5}") int maxConsecutiveFailures) {
+        this.minCalls = minCalls;
+        this.minSuccessRate = minSuccessRate;
+        this.maxConsecutiveFailures = maxConsecutiveFailures;
+        for (Destination destination : Destination.values()) {
+            RollingOutcomeWindow window = new RollingOutcomeWindow(windowMillis, 12);
+            windows.put(destination, window);
+            Gauge.builder("gateway.downstream.success_rate", window, w -> w.snapshot().successRate())
+                    .tag("destination", destination.name().toLowerCase())
+                    .description("Tasa de éxito de los envíos en la ventana de salud")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Registra el resultado de un envío
+     *
+     * @param status Status HTTP de la respuesta, o 0 si no hubo una respuesta utilizable
+     *               (conexión/timeout, cuerpo inválido, error inesperado)
+     */
+    public void record(Destination destination, int status) {
+        boolean healthy = status > 0 && status < 500 && status != 429;
+        windows.get(destination).record(healthy);
+    }
+
+    /**
+     * Indicador de salud (actuator) de un destino
+     */
+    public HealthIndicator indicator(Destination destination) {
+        RollingOutcomeWindow window = windows.get(destination);
+        return () -> health(window.snapshot());
+    }
+
+    /**
+     * Indicador de salud (actuator) del envío en conjunto: DOWN solo si todos
+     * los destinos están DOWN. El detalle trae el estado de cada destino.
+     */
+    public HealthIndicator deliveryIndicator() {
+        return () -> {
+            boolean anyUp = false;
+            Map<String, String> statuses = new LinkedHashMap<>();
+            for (Map.Entry<Destination, RollingOutcomeWindow> entry : windows.entrySet()) {
+                Status status = health(entry.getValue().snapshot()).getStatus();
+                anyUp |= !Status.DOWN.equals(status);
+                statuses.put(entry.getKey().name().toLowerCase(), status.getCode());
+            }
+            return (anyUp ? Health.up() : Health.down()).withDetails(statuses).build();
+        };
+    }
+
+    Health health(RollingOutcomeWindow.Snapshot snapshot) {
+        boolean lowSuccessRate = snapshot.calls() >= minCalls && snapshot.successRate() < minSuccessRate;
+        boolean unresponsive = snapshot.consecutiveFailures() >= maxConsecutiveFailures;
+
+        Health.Builder builder = lowSuccessRate || unresponsive ? Health.down() : Health.up();
+        builder.withDetail("calls", snapshot.calls())
+               .withDetail("successRate", Math.round(snapshot.successRate() * 1000) / 1000.0)
+               .withDetail("consecutiveFailures", snapshot.consecutiveFailures());
+        if (snapshot.lastSuccessMillis() >= 0) {
+            builder.withDetail("lastSuccess", Instant.ofEpochMilli(snapshot.lastSuccessMillis()).toString());
+        }
+        if (snapshot.lastFailureMillis() >= 0) {
+            builder.withDetail("lastFailure", Instant.ofEpochMilli(snapshot.lastFailureMillis()).toString());
+        }
+        return builder.build();
+    }
+}
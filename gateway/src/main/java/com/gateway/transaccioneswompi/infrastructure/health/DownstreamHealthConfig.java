@@ -0,0 +1,39 @@
+package com.gateway.transaccioneswompi.infrastructure.health;
+
+import com.gateway.transaccioneswompi.domain.ports.DeliveryAuditPort.Destination;
+
+import org.springframework.boot.actuate.health.CompositeHealthContributor;
+import org.springframework.boot.actuate.health.HealthContributor;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * CONFIGURACIÓN - Indicadores de salud de Seguru
+ *
+ * - "seguru": un hijo por destino, /actuator/health/seguru/reservas y
+ *   /actuator/health/seguru/aliados (ver DestinationHealth). Solo informativo:
+ *   NO está en el grupo readiness
+ * - "seguruDelivery": DOWN solo si ningún destino funciona. Es el que usa
+ *   el grupo readiness
+ */
+@Configuration
+public class DownstreamHealthConfig {
+
+    @Bean
+    public HealthContributor seguru(DestinationHealth destinationHealth) {
+        Map<String, HealthContributor> destinations = new LinkedHashMap<>();
+        for (Destination destination : Destination.values()) {
+            destinations.put(destination.name().toLowerCase(), destinationHealth.indicator(destination));
+        }
+        return CompositeHealthContributor.fromMap(destinations);
+    }
+
+    @Bean
+    public HealthIndicator seguruDelivery(DestinationHealth destinationHealth) {
+        return destinationHealth.deliveryIndicator();
+    }
+}
@@ -0,0 +1,44 @@
+package com.gateway.transaccioneswompi.infrastructure.health;
+
+import com.gateway.transaccioneswompi.app.forwarding.ForwardingQueue;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * SALUD DE LA COLA DE REENVÍO (actuator: "forwardingBacklog")
+ *
+ * OUT_OF_SERVICE si la cola pasó max-fill-ratio de su capacidad o ya no
+ * acepta eventos (apagándose). Está en el grupo readiness: el balanceador
+ * manda el tráfico a otra réplica ANTES de que esta empiece a responder 503.
+ * Cuando la cola baja, vuelve a UP sola.
+ */
+@Component
+public class ForwardingBacklogHealthIndicator implements HealthIndicator {
+
+    private final ForwardingQueue forwardingQueue;
+    private final double maxFillRatio;
+
+    public ForwardingBacklogHealthIndicator(
+            ForwardingQueue forwardingQueue,
+            @Value("${gateway.health.forwarding.max-fill-ratio:0.9}") double maxFillRatio) {
+        this.forwardingQueue = forwardingQueue;
+        this.maxFillRatio = maxFillRatio;
+    }
+
+    @Override
+    public Health health() {
+        int size = forwardingQueue.size();
+        int capacity = forwardingQueue.capacity();
+        boolean full = size >= capacity * maxFillRatio;
+        boolean accepting = forwardingQueue.isAccepting();
+
+        Health.Builder builder = full || !accepting ? Health.outOfService() : Health.up();
+        return builder.withDetail("backlog", size)
+                      .withDetail("capacity", capacity)
+                      .withDetail("accepting", accepting)
+                      .build();
+    }
+}
@@ -0,0 +1,53 @@
+package com.gateway.transaccioneswompi.infrastructure.health;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * SALUD DE LA PERSISTENCIA ASÍNCRONA (actuator: "persistenceLag")
+ *
+ * Los AsyncBatchWriter (historial de eventos, auditoría de entregas)
+ * publican su atraso en la métrica gateway.persistence.lag_ms: la edad
+ * del registro más viejo sin guardar. Se leen de ahí, así cualquier
+ * escritor nuevo queda cubierto sin tocar esta clase.
+ *
+ * DOWN si algún escritor lleva más de max-lag-ms de atraso (base de datos
+ * caída o muy lenta): la réplica sigue recibiendo, pero pierde registros
+ * cuando la cola del escritor se llena.
+ */
+@Component
+public class PersistenceLagHealthIndicator implements HealthIndicator {
+
+    private final MeterRegistry meterRegistry;
+    private final double maxLagMillis;
+
+    public PersistenceLagHealthIndicator(
+            MeterRegistry meterRegistry,
+            @Value("${gateway.health.persistence.max-lag-ms:10000}") double maxLagMillis) {
+        this.meterRegistry = meterRegistry;
+        this.maxLagMillis = maxLagMillis;
+    }
+
+    @Override
+    public Health health() {
+        Map<String, Object> lagByWriter = new LinkedHashMap<>();
+        boolean lagging = false;
+        for (Gauge gauge : meterRegistry.find("gateway.persistence.lag_ms").gauges()) {
+            double lag = gauge.value();
+            lagByWriter.put(gauge.getId().getTag("writer"), Math.round(lag));
+            lagging |= lag > maxLagMillis;
+        }
+
+        Health.Builder builder = lagging ? Health.down() : Health.up();
+        return builder.withDetail("lagMillis", lagByWriter)
+                      .withDetail("maxLagMillis", Math.round(maxLagMillis))
+                      .build();
+    }
+}
@@ -0,0 +1,109 @@
+package com.gateway.transaccioneswompi.infrastructure.health;
+
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * Éxitos y fallas de los últimos window-ms, en baldes de tiempo
+ *
+ * La ventana está dividida en N baldes; cada resultado suma en el balde
+ * del momento actual y los baldes más viejos que la ventana se reciclan.
+ * Así la tasa de éxito refleja solo lo reciente: si deja de haber tráfico,
+ * las fallas viejas salen solas de la ventana (no queda "pegado" en DOWN).
+ *
+ * Thread-safe (synchronized): una operación corta por envío a Seguru.
+ */
+final class RollingOutcomeWindow {
+
+    private final long bucketMillis;
+    private final LongSupplier clockMillis;
+
+    // Por balde: a qué intervalo de tiempo corresponde y sus contadores
+    private final long[] bucketEpoch;
+    private final long[] successes;
+    private final long[] failures;
+
+    private int consecutiveFailures;
+    private long lastSuccessMillis = -1L;
+    private long lastFailureMillis = -1L;
+
+    RollingOutcomeWindow(long windowMillis, int buckets) {
+        this(windowMillis, buckets, System::currentTimeMillis);
+    }
+
+    RollingOutcomeWindow(long windowMillis, int buckets, LongSupplier clockMillis) {
+        this.bucketMillis = Math.max(1L, windowMillis / buckets);
+        this.clockMillis = clockMillis;
+        this.bucketEpoch = new long[buckets];
+        this.successes = new long[buckets];
+        this.failures = new long[buckets];
+        Arrays.fill(bucketEpoch, -1L);
+    }
+
+    synchronized void record(boolean success) {
+        long now = clockMillis.getAsLong();
+        int index = bucketFor(now);
+        if (success) {
+            successes[index]++;
+            consecutiveFailures = 0;
+            lastSuccessMillis = now;
+        } else {
+            failures[index]++;
+            consecutiveFailures++;
+            lastFailureMillis = now;
+        }
+    }
+
+    synchronized Snapshot snapshot() {
+        long now = clockMillis.getAsLong();
+        long currentEpoch = now / bucketMillis;
+        long okCount = 0;
+        long failedCount = 0;
+        for (int i = 0; i < bucketEpoch.length; i++) {
+            // Solo baldes dentro de la ventana
+            if (bucketEpoch[i] > currentEpoch - bucketEpoch.length) {
+                okCount += successes[i];
+                failedCount += failures[i];
+            }
+        }
+        // Una racha de fallas que ya salió de la ventana no cuenta
+        long windowMillis = bucketMillis * bucketEpoch.length;
+        int streak = lastFailureMillis >= 0 && now - lastFailureMillis < windowMillis ? consecutiveFailures : 0;
+        return new Snapshot(okCount, failedCount, streak, lastSuccessMillis, lastFailureMillis);
+    }
+
+    private int bucketFor(long now) {
+        long epoch = now / bucketMillis;
+        int index = (int) (epoch % bucketEpoch.length);
+        if (bucketEpoch[index] != epoch) {
+            // El balde era de una vuelta anterior de la ventana: se recicla
+            bucketEpoch[index] = epoch;
+            successes[index] = 0;
+            failures[index] = 0;
+        }
+        return index;
+    }
+
+    /**
+     * @param successes           Envíos exitosos dentro de la ventana
+     * @param failures            Envíos fallidos dentro de la ventana
+     * @param consecutiveFailures Fallas seguidas (0 si la última ya salió de la ventana)
+     * @param lastSuccessMillis   Hora del último éxito (-1 si nunca)
+     * @param lastFailureMillis   Hora de la última falla (-1 si nunca)
+     */
+    record Snapshot(long successes, long failures, int consecutiveFailures,
+                    long lastSuccessMillis, long lastFailureMillis) {
+
+        long calls() {
+            return successes + failures;
+        }
+
+        /**
+         * @return Fracción de éxitos (1.0 si no hubo envíos en la ventana)
+         */
+        double successRate() {
+            long calls = calls();
+            return calls == 0 ? 1.0 : (double) successes / calls;
+        }
+    }
+}
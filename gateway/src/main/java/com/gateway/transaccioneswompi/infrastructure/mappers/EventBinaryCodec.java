@@ -0,0 +1,340 @@
+package com.gateway.transaccioneswompi.infrastructure.mappers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gateway.transaccioneswompi.domain.CurrencyCode;
+import com.gateway.transaccioneswompi.domain.PaymentMethodType;
+import com.gateway.transaccioneswompi.domain.RawJson;
+import com.gateway.transaccioneswompi.domain.TransactionStatus;
+import com.gateway.transaccioneswompi.domain.WompiWebhookEvent;
+import com.gateway.transaccioneswompi.domain.WompiWebhookEvent.FailureReason;
+import com.gateway.transaccioneswompi.domain.WompiWebhookEvent.Payee;
+import com.gateway.transaccioneswompi.domain.WompiWebhookEvent.Signature;
+import com.gateway.transaccioneswompi.domain.WompiWebhookEvent.Transaction;
+import com.gateway.transaccioneswompi.domain.WompiWebhookEvent.TransactionData;
+
+import org.springframework.stereotype.Component;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * CODEC BINARIO - WompiWebhookEvent para colas y persistencia
+ *
+ * Lo que el gateway guarda (almacén de eventos, dead letters, trabajo del
+ * clúster) se guardaba como JSON: los nombres de los campos se repiten en
+ * cada fila y números y fechas van como texto. Este formato escribe los
+ * campos en un orden fijo (el "esquema" es el orden de este código):
+ *
+ * - Cabecera: byte MAGIC + byte de versión
+ * - Textos: largo (varint, 0 = null) + UTF-8
+ * - Números: varint zigzag (los montos chicos ocupan 2-4 bytes, no 8);
+ *   monto y timestamp llevan antes un byte 0/1 de presencia (pueden ser null)
+ * - Fechas: segundos y nanos como varint
+ * - Objetos opcionales (payee, firma, ...): un byte 0/1 de presencia
+ * - shipping_address y billing_data: el texto JSON crudo tal cual (RawJson)
+ *
+ * Un pago típico pasa de ~790 a ~320 bytes y se codifica/decodifica 2-3
+ * veces más rápido que con Jackson (ver benchmark/EventCodecBenchmark.java).
+ *
+ * VERSIONES: para cambiar el formato se sube VERSION y se mantiene la
+ * lectura de las anteriores; las filas viejas se siguen leyendo. Las filas
+ * guardadas como JSON (antes de este codec) empiezan con '{' y se leen con
+ * Jackson.
+ *
+ * - v1: monto y timestamp sin byte de presencia (siempre venían con valor)
+ * - v2: monto y timestamp opcionales
+ */
+@Component
+public class EventBinaryCodec {
+
+    static final byte MAGIC = (byte) 0xE5;
+    static final byte VERSION = 2;
+
+    private final ObjectMapper objectMapper;
+
+    public EventBinaryCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Codifica el evento en la versión actual del formato
+     */
+    public byte[] encode(WompiWebhookEvent event) {
+        Writer out = new Writer(256);
+        out.writeByte(MAGIC);
+        out.writeByte(VERSION);
+
+        out.writeString(event.event());
+        Transaction tx = event.transaction();
+        out.writeBoolean(event.data() != null);
+        if (event.data() != null) {
+            out.writeBoolean(tx != null);
+            if (tx != null) {
+                writeTransaction(out, tx);
+            }
+        }
+        Signature signature = event.signature();
+        out.writeBoolean(signature != null);
+        if (signature != null) {
+            List<String> properties = signature.properties();
+            out.writeVarLong(properties == null ? 0 : properties.size() + 1L);
+            if (properties != null) {
+                for (String property : properties) {
+                    out.writeString(property);
+                }
+            }
+            out.writeString(signature.checksum());
+        }
+        out.writeOptionalZigZag(event.timestamp());
+        out.writeInstant(event.sentAt());
+        out.writeString(event.environment());
+        return out.toByteArray();
+    }
+
+    private static void writeTransaction(Writer out, Transaction tx) {
+        out.writeString(tx.id());
+        out.writeInstant(tx.createdAt());
+        out.writeInstant(tx.finalizedAt());
+        out.writeOptionalZigZag(tx.amountInCents());
+        out.writeString(tx.reference());
+        out.writeString(tx.customerEmail());
+        out.writeString(tx.currency() != null ? tx.currency().value() : null);
+        out.writeString(tx.paymentMethodType() != null ? tx.paymentMethodType().value() : null);
+        out.writeString(tx.status() != null ? tx.status().value() : null);
+        out.writeString(tx.shippingAddress() != null ? tx.shippingAddress().json() : null);
+        out.writeString(tx.paymentLinkId());
+        out.writeString(tx.redirectUrl());
+        out.writeString(tx.paymentSourceId());
+        out.writeString(tx.billingData() != null ? tx.billingData().json() : null);
+        out.writeString(tx.payoutId());
+        Payee payee = tx.payee();
+        out.writeBoolean(payee != null);
+        if (payee != null) {
+            out.writeString(payee.name());
+            out.writeString(payee.document());
+            out.writeString(payee.bank());
+            out.writeString(payee.accountType());
+            out.writeString(payee.accountNumber());
+            out.writeString(payee.email());
+        }
+        FailureReason failure = tx.failureReason();
+        out.writeBoolean(failure != null);
+        if (failure != null) {
+            out.writeString(failure.code());
+            out.writeString(failure.message());
+        }
+        out.writeInstant(tx.appliedAt());
+    }
+
+    /**
+     * Decodifica un evento (binario de cualquier versión conocida, o JSON)
+     *
+     * @throws IOException Si los bytes están cortados, la versión es
+     *                     desconocida o el JSON es inválido
+     */
+    public WompiWebhookEvent decode(byte[] bytes) throws IOException {
+        if (bytes.length == 0 || bytes[0] != MAGIC) {
+            // Fila anterior al codec binario
+            return objectMapper.readValue(bytes, WompiWebhookEvent.class);
+        }
+        Reader in = new Reader(bytes, 1);
+        int version = in.readByte();
+        if (version != 1 && version != VERSION) {
+            throw new IOException("Versión de codec desconocida: " + version);
+        }
+        boolean optionalNumbers = version >= 2;
+
+        String event = in.readString();
+        TransactionData data = null;
+        if (in.readBoolean()) {
+            data = new TransactionData(in.readBoolean() ? readTransaction(in, optionalNumbers) : null);
+        }
+        Signature signature = null;
+        if (in.readBoolean()) {
+            long count = in.readVarLong();
+            List<String> properties = null;
+            if (count > 0) {
+                properties = new ArrayList<>((int) Math.min(count - 1, 64));
+                for (long i = 0; i < count - 1; i++) {
+                    properties.add(in.readString());
+                }
+            }
+            signature = new Signature(properties, in.readString());
+        }
+        Long timestamp = optionalNumbers ? in.readOptionalZigZag() : Long.valueOf(in.readZigZag());
+        Instant sentAt = in.readInstant();
+        String environment = in.readString();
+        return new WompiWebhookEvent(event, data, signature, timestamp, sentAt, environment);
+    }
+
+    private static Transaction readTransaction(Reader in, boolean optionalNumbers) throws IOException {
+        String id = in.readString();
+        Instant createdAt = in.readInstant();
+        Instant finalizedAt = in.readInstant();
+        Long amountInCents = optionalNumbers ? in.readOptionalZigZag() : Long.valueOf(in.readZigZag());
+        String reference = in.readString();
+        String customerEmail = in.readString();
+        String currency = in.readString();
+        String paymentMethodType = in.readString();
+        String status = in.readString();
+        RawJson shippingAddress = RawJson.of(in.readString());
+        String paymentLinkId = in.readString();
+        String redirectUrl = in.readString();
+        String paymentSourceId = in.readString();
+        RawJson billingData = RawJson.of(in.readString());
+        String payoutId = in.readString();
+        Payee payee = in.readBoolean()
+                ? new Payee(in.readString(), in.readString(), in.readString(),
+                            in.readString(), in.readString(), in.readString())
+                : null;
+        FailureReason failureReason = in.readBoolean() ? new FailureReason(in.readString(), in.readString()) : null;
+        Instant appliedAt = in.readInstant();
+
+        return new Transaction(id, createdAt, finalizedAt, amountInCents, reference, customerEmail,
+                currency != null ? CurrencyCode.of(currency) : null,
+                paymentMethodType != null ? PaymentMethodType.of(paymentMethodType) : null,
+                status != null ? TransactionStatus.of(status) : null,
+                shippingAddress, paymentLinkId, redirectUrl, paymentSourceId, billingData,
+                payoutId, payee, failureReason, appliedAt);
+    }
+
+    /**
+     * Buffer de escritura que crece solo (sin sincronización, a diferencia de ByteArrayOutputStream)
+     */
+    private static final class Writer {
+        private byte[] buffer;
+        private int size;
+
+        Writer(int initialCapacity) {
+            this.buffer = new byte[initialCapacity];
+        }
+
+        void writeByte(int value) {
+            ensure(1);
+            buffer[size++] = (byte) value;
+        }
+
+        void writeBoolean(boolean value) {
+            writeByte(value ? 1 : 0);
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        void writeZigZag(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        void writeOptionalZigZag(Long value) {
+            writeBoolean(value != null);
+            if (value != null) {
+                writeZigZag(value);
+            }
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(utf8.length + 1L);
+            ensure(utf8.length);
+            System.arraycopy(utf8, 0, buffer, size, utf8.length);
+            size += utf8.length;
+        }
+
+        void writeInstant(Instant value) {
+            writeBoolean(value != null);
+            if (value != null) {
+                writeZigZag(value.getEpochSecond());
+                writeVarLong(value.getNano());
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] buffer;
+        private int position;
+
+        Reader(byte[] buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        int readByte() throws IOException {
+            if (position >= buffer.length) {
+                throw new EOFException("Evento binario cortado en el byte " + position);
+            }
+            return buffer[position++];
+        }
+
+        boolean readBoolean() throws IOException {
+            return readByte() != 0;
+        }
+
+        long readVarLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Varint inválido en el byte " + position);
+        }
+
+        long readZigZag() throws IOException {
+            long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        Long readOptionalZigZag() throws IOException {
+            return readBoolean() ? readZigZag() : null;
+        }
+
+        String readString() throws IOException {
+            long length = readVarLong();
+            if (length == 0) {
+                return null;
+            }
+            int bytes = (int) (length - 1);
+            if (length - 1 > buffer.length - position) {
+                throw new EOFException("Texto de " + bytes + " bytes cortado en el byte " + position);
+            }
+            String value = new String(buffer, position, bytes, StandardCharsets.UTF_8);
+            position += bytes;
+            return value;
+        }
+
+        Instant readInstant() throws IOException {
+            if (!readBoolean()) {
+                return null;
+            }
+            long seconds = readZigZag();
+            return Instant.ofEpochSecond(seconds, readVarLong());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.gateway.transaccioneswompi.infrastructure.mappers;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.gateway.transaccioneswompi.domain.RawJson;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+/**
+ * MÓDULO JACKSON - Lectura y escritura de RawJson
+ *
+ * Al LEER: copia los tokens del valor directamente a un texto, sin construir
+ * LinkedHashMap/ArrayList intermedios. Los números se copian con su texto
+ * original (no pasan por double ni BigDecimal). Lo reenviado tiene los mismos
+ * valores que lo recibido; solo se pierden los espacios entre tokens.
+ *
+ * Al ESCRIBIR: inserta el texto tal cual en la salida (writeRawValue).
+ *
+ * Spring Boot registra automáticamente en su ObjectMapper cualquier bean
+ * de tipo Module (ver JacksonConfig).
+ */
+public class RawJsonModule extends SimpleModule {
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    public RawJsonModule() {
+        super("RawJsonModule");
+        addSerializer(RawJson.class, new RawJsonSerializer());
+        addDeserializer(RawJson.class, new RawJsonDeserializer());
+    }
+
+    static class RawJsonSerializer extends StdSerializer<RawJson> {
+
+        RawJsonSerializer() {
+            super(RawJson.class);
+        }
+
+        @Override
+        public void serialize(RawJson value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeRawValue(value.json());
+        }
+    }
+
+    static class RawJsonDeserializer extends StdDeserializer<RawJson> {
+
+        RawJsonDeserializer() {
+            super(RawJson.class);
+        }
+
+        @Override
+        public RawJson deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            StringWriter writer = new StringWriter(128);
+
+            try (JsonGenerator gen = FACTORY.createGenerator(writer)) {
+                // Copiamos token por token hasta cerrar el objeto/arreglo inicial
+                int depth = 0;
+                do {
+                    JsonToken token = p.currentToken();
+                    if (token.isNumeric()) {
+                        // El texto original del número: copyCurrentEventExact pasa
+                        // por BigDecimal y reescribe 1E2 como 1E+2
+                        gen.writeNumber(p.getText());
+                    } else {
+                        gen.copyCurrentEventExact(p);
+                    }
+                    if (token.isStructStart()) {
+                        depth++;
+                    } else if (token.isStructEnd()) {
+                        depth--;
+                    }
+                } while (depth > 0 && p.nextToken() != null);
+            }
+
+            return RawJson.of(writer.toString());
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.gateway.transaccioneswompi.infrastructure.mappers;
 
+import com.gateway.transaccioneswompi.domain.CurrencyCode;
+import com.gateway.transaccioneswompi.domain.PaymentMethodType;
+import com.gateway.transaccioneswompi.domain.TransactionStatus;
 import com.gateway.transaccioneswompi.domain.WompiWebhookEvent;
 import com.gateway.transaccioneswompi.infrastructure.dto.WompiWebhookRequest;
 import org.springframework.stereotype.Component;
@@ -29,125 +32,88 @@ public class WompiWebhookMapper {
             return null;
         }
 
-        WompiWebhookEvent event = new WompiWebhookEvent();
-        event.setEvent(request.getEvent());
-        event.setTimestamp(request.getTimestamp());
-        event.setEnvironment(request.getEnvironment());
-
-        // Convertir String a Instant (fecha)
-        if (request.getSentAt() != null) {
-            event.setSentAt(Instant.parse(request.getSentAt()));
-        }
-
-        // Mapear la data
-        if (request.getData() != null) {
-            event.setData(mapTransactionData(request.getData()));
-        }
-
-        // Mapear la signature
-        if (request.getSignature() != null) {
-            event.setSignature(mapSignature(request.getSignature()));
-        }
-
-        return event;
+        // Los objetos anidados solo se crean si vienen en el JSON
+        return new WompiWebhookEvent(
+            request.getEvent(),
+            request.getData() != null ? mapTransactionData(request.getData()) : null,
+            request.getSignature() != null ? mapSignature(request.getSignature()) : null,
+            request.getTimestamp(),
+            parseInstant(request.getSentAt()),   // Convertir String a Instant (fecha)
+            request.getEnvironment()
+        );
     }
 
     /**
      * Mapea el wrapper de TransactionData
      */
     private WompiWebhookEvent.TransactionData mapTransactionData(WompiWebhookRequest.DataWrapper dataWrapper) {
-        WompiWebhookEvent.TransactionData data = new WompiWebhookEvent.TransactionData();
-
-        if (dataWrapper.getTransaction() != null) {
-            data.setTransaction(mapTransaction(dataWrapper.getTransaction()));
-        }
-
-        return data;
+        return new WompiWebhookEvent.TransactionData(
+            dataWrapper.getTransaction() != null ? mapTransaction(dataWrapper.getTransaction()) : null
+        );
     }
 
     /**
      * Mapea la Transaction completa
+     *
+     * Los valores repetitivos (moneda, método de pago, estado) se convierten
+     * a sus instancias compartidas del dominio.
      */
     private WompiWebhookEvent.Transaction mapTransaction(WompiWebhookRequest.Transaction reqTx) {
-        WompiWebhookEvent.Transaction tx = new WompiWebhookEvent.Transaction();
-
-        // Mapear todos los campos básicos
-        tx.setId(reqTx.getId());
-        tx.setAmountInCents(reqTx.getAmountInCents());
-        tx.setReference(reqTx.getReference());
-        tx.setCustomerEmail(reqTx.getCustomerEmail());
-        tx.setCurrency(reqTx.getCurrency());
-        tx.setPaymentMethodType(reqTx.getPaymentMethodType());
-        tx.setStatus(reqTx.getStatus());
-        tx.setShippingAddress(reqTx.getShippingAddress());
-        tx.setPaymentLinkId(reqTx.getPaymentLinkId());
-        tx.setRedirectUrl(reqTx.getRedirectUrl());
-        tx.setPaymentSourceId(reqTx.getPaymentSourceId());
-        tx.setBillingData(reqTx.getBillingData());
-
-        // Campos para payouts (pueden ser null)
-        tx.setPayoutId(reqTx.getPayoutId());
-
-        // Convertir fechas String a Instant
-        if (reqTx.getCreatedAt() != null) {
-            tx.setCreatedAt(Instant.parse(reqTx.getCreatedAt()));
-        }
-        if (reqTx.getFinalizedAt() != null) {
-            tx.setFinalizedAt(Instant.parse(reqTx.getFinalizedAt()));
-        }
-        if (reqTx.getAppliedAt() != null) {
-            tx.setAppliedAt(Instant.parse(reqTx.getAppliedAt()));
-        }
-
-        // Mapear objetos anidados (pueden ser null en transacciones normales)
-        if (reqTx.getPayee() != null) {
-            tx.setPayee(mapPayee(reqTx.getPayee()));
-        }
-
-        if (reqTx.getFailureReason() != null) {
-            tx.setFailureReason(mapFailureReason(reqTx.getFailureReason()));
-        }
-
-        return tx;
+        return new WompiWebhookEvent.Transaction(
+            reqTx.getId(),
+            parseInstant(reqTx.getCreatedAt()),
+            parseInstant(reqTx.getFinalizedAt()),
+            reqTx.getAmountInCents(),
+            reqTx.getReference(),
+            reqTx.getCustomerEmail(),
+            CurrencyCode.of(reqTx.getCurrency()),
+            PaymentMethodType.of(reqTx.getPaymentMethodType()),
+            TransactionStatus.of(reqTx.getStatus()),
+            reqTx.getShippingAddress(),
+            reqTx.getPaymentLinkId(),
+            reqTx.getRedirectUrl(),
+            reqTx.getPaymentSourceId(),
+            reqTx.getBillingData(),
+            // Campos para payouts (pueden ser null en transacciones normales)
+            reqTx.getPayoutId(),
+            reqTx.getPayee() != null ? mapPayee(reqTx.getPayee()) : null,
+            reqTx.getFailureReason() != null ? mapFailureReason(reqTx.getFailureReason()) : null,
+            parseInstant(reqTx.getAppliedAt())
+        );
     }
 
     /**
      * Mapea el Payee (beneficiario)
      */
     private WompiWebhookEvent.Payee mapPayee(WompiWebhookRequest.Payee reqPayee) {
-        WompiWebhookEvent.Payee payee = new WompiWebhookEvent.Payee();
-
-        payee.setName(reqPayee.getName());
-        payee.setDocument(reqPayee.getDocument());
-        payee.setBank(reqPayee.getBank());
-        payee.setAccountType(reqPayee.getAccountType());
-        payee.setAccountNumber(reqPayee.getAccountNumber());
-        payee.setEmail(reqPayee.getEmail());
-
-        return payee;
+        return new WompiWebhookEvent.Payee(
+            reqPayee.getName(),
+            reqPayee.getDocument(),
+            reqPayee.getBank(),
+            reqPayee.getAccountType(),
+            reqPayee.getAccountNumber(),
+            reqPayee.getEmail()
+        );
     }
 
     /**
      * Mapea el FailureReason (razón de fallo)
      */
     private WompiWebhookEvent.FailureReason mapFailureReason(WompiWebhookRequest.FailureReason reqReason) {
-        WompiWebhookEvent.FailureReason reason = new WompiWebhookEvent.FailureReason();
-
-        reason.setCode(reqReason.getCode());
-        reason.setMessage(reqReason.getMessage());
-
-        return reason;
+        return new WompiWebhookEvent.FailureReason(reqReason.getCode(), reqReason.getMessage());
     }
 
     /**
      * Mapea la Signature (firma digital)
      */
     private WompiWebhookEvent.Signature mapSignature(WompiWebhookRequest.Signature reqSig) {
-        WompiWebhookEvent.Signature signature = new WompiWebhookEvent.Signature();
-
-        signature.setProperties(reqSig.getProperties());
-        signature.setChecksum(reqSig.getChecksum());
+        return new WompiWebhookEvent.Signature(reqSig.getProperties(), reqSig.getChecksum());
+    }
 
-        return signature;
+    /**
+     * Convierte una fecha ISO-8601 (String) a Instant, respetando los null
+     */
+    private Instant parseInstant(String value) {
+        return value != null ? Instant.parse(value) : null;
     }
 }
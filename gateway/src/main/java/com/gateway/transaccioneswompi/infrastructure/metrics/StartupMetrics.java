@@ -0,0 +1,74 @@
+package com.gateway.transaccioneswompi.infrastructure.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MÉTRICAS DE ARRANQUE
+ *
+ * Con autoescalado, lo que importa es cuánto tarda una instancia nueva
+ * en atender tráfico, no solo en "arrancar":
+ * - gateway.startup.ready: desde que arrancó la JVM hasta ApplicationReadyEvent
+ * - gateway.startup.first_webhook: desde que arrancó la JVM hasta que se
+ *   respondió el primer webhook (incluye la primera llamada a Seguru)
+ *
+ * Spring Boot ya publica application.started.time y application.ready.time,
+ * pero esos se miden desde SpringApplication.run(), sin contar el arranque
+ * de la JVM (que es justamente lo que reduce AppCDS).
+ */
+@Component
+public class StartupMetrics {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupMetrics.class);
+
+    // -1 = todavía no ocurrió
+    private volatile long readyMillis = -1L;
+    private volatile long firstWebhookMillis = -1L;
+
+    public StartupMetrics(MeterRegistry meterRegistry) {
+        TimeGauge.builder("gateway.startup.ready", this, TimeUnit.MILLISECONDS, metrics -> valueOf(metrics.readyMillis))
+                .description("Tiempo desde el arranque de la JVM hasta que la aplicación está lista")
+                .register(meterRegistry);
+        TimeGauge.builder("gateway.startup.first_webhook", this, TimeUnit.MILLISECONDS,
+                          metrics -> valueOf(metrics.firstWebhookMillis))
+                .description("Tiempo desde el arranque de la JVM hasta el primer webhook respondido")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        readyMillis = uptimeMillis();
+        log.info("✓ Gateway listo {} ms después de iniciar la JVM", readyMillis);
+    }
+
+    /**
+     * Lo llama el controlador al responder un webhook; solo cuenta el primero
+     */
+    public void onWebhookHandled() {
+        if (firstWebhookMillis >= 0) {
+            return;
+        }
+        synchronized (this) {
+            if (firstWebhookMillis < 0) {
+                firstWebhookMillis = uptimeMillis();
+                log.info("✓ Primer webhook respondido {} ms después de iniciar la JVM", firstWebhookMillis);
+            }
+        }
+    }
+
+    private static double valueOf(long millis) {
+        return millis >= 0 ? millis : Double.NaN;
+    }
+
+    private static long uptimeMillis() {
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+}
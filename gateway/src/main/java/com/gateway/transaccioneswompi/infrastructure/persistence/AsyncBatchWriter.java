@@ -0,0 +1,152 @@
+package com.gateway.transaccioneswompi.infrastructure.persistence;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * ESCRITOR ASÍNCRONO POR LOTES - Persistencia fuera del camino crítico
+ *
+ * El hilo que atiende el webhook solo hace offer() (no bloquea, no toca la BD).
+ * Un hilo propio del escritor junta los registros y los guarda en lotes
+ * (batch-size registros o cada flush-interval-ms, lo que pase primero).
+ *
+ * Si la cola se llena (BD caída o muy lenta), los registros nuevos se
+ * descartan y se cuentan: preferimos perder un registro de auditoría
+ * antes que frenar la recepción de pagos.
+ *
+ * @param <T> Tipo de registro a guardar
+ */
+public class AsyncBatchWriter<T> implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncBatchWriter.class);
+
+    private final String name;
+    private final BlockingQueue<Entry<T>> queue;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final Consumer<List<T>> flusher;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter failed;
+
+    /**
+     * @param name                Nombre del escritor (hilo y métricas)
+     * @param capacity            Máximo de registros esperando
+     * @param batchSize           Máximo de registros por lote
+     * @param flushIntervalMillis Espera máxima antes de guardar un lote incompleto
+     * @param flusher             Guarda un lote (ej: JdbcTemplate.batchUpdate)
+     * @param meterRegistry       Registro de métricas
+     */
+    public AsyncBatchWriter(String name, int capacity, int batchSize, long flushIntervalMillis,
+                            Consumer<List<T>> flusher, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.flusher = flusher;
+
+        Tags tags = Tags.of("writer", name);
+        this.written = meterRegistry.counter("gateway.persistence.written", tags);
+        this.dropped = meterRegistry.counter("gateway.persistence.dropped", tags);
+        this.failed = meterRegistry.counter("gateway.persistence.failed", tags);
+        meterRegistry.gauge("gateway.persistence.backlog", tags, queue, BlockingQueue::size);
+        meterRegistry.gauge("gateway.persistence.lag_ms", tags, this, AsyncBatchWriter::lagMillis);
+
+        this.thread = new Thread(this::run, "batch-writer-" + name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Encola un registro para guardarlo (nunca bloquea)
+     *
+     * @return false si la cola estaba llena y el registro se descartó
+     */
+    public boolean offer(T item) {
+        if (queue.offer(new Entry<>(item, System.nanoTime()))) {
+            return true;
+        }
+        dropped.increment();
+        log.warn("⚠ Cola de persistencia '{}' llena, registro descartado", name);
+        return false;
+    }
+
+    /**
+     * @return Registros esperando ser guardados
+     */
+    public int backlog() {
+        return queue.size();
+    }
+
+    /**
+     * @return Antigüedad (ms) del registro más viejo sin guardar, 0 si no hay
+     */
+    public double lagMillis() {
+        Entry<T> head = queue.peek();
+        return head == null ? 0.0 : (System.nanoTime() - head.enqueuedNanos()) / 1_000_000.0;
+    }
+
+    private void run() {
+        List<Entry<T>> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Entry<T> first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Entry<T>> batch) {
+        List<T> items = new ArrayList<>(batch.size());
+        for (Entry<T> entry : batch) {
+            items.add(entry.item());
+        }
+        try {
+            flusher.accept(items);
+            written.increment(items.size());
+        } catch (RuntimeException e) {
+            failed.increment(items.size());
+            log.error("✗ Error guardando lote de {} registros en '{}': {}", items.size(), name, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Detiene el escritor guardando lo que quede pendiente
+     */
+    @Override
+    public void close() {
+        // Sin interrumpir: el hilo termina solo al vaciar la cola (poll tiene timeout)
+        running = false;
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Entry<T>(T item, long enqueuedNanos) {
+    }
+}
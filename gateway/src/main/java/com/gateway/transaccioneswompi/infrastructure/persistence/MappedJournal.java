@@ -0,0 +1,473 @@
+package com.gateway.transaccioneswompi.infrastructure.persistence;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * JOURNAL MAPEADO EN MEMORIA - Buffer durable sin base de datos
+ *
+ * Archivo de solo-agregar dividido en segmentos de tamaño fijo
+ * (00000000000000000000.journal, 00000000000000000001.journal, ...).
+ * Cada segmento se mapea en memoria (mmap): agregar un registro es copiar
+ * bytes a memoria, sin llamadas al sistema.
+ *
+ * Formato de cada registro: [largo int][crc32c int][bytes]
+ * Un largo -1 marca el fin de un segmento (el siguiente registro no cabía) y
+ * un largo 0 el fin del journal, así que no se aceptan registros vacíos.
+ *
+ * - Group commit: un hilo hace force() (fsync) cada sync-interval y despierta
+ *   a todos los que esperaban, así un solo fsync cubre muchos registros
+ * - Checkpoint: el offset desde el cual hay registros sin confirmar (ack).
+ *   Se guarda en el archivo "checkpoint" y los segmentos anteriores se borran
+ * - Recuperación: al abrir, se leen los registros desde el checkpoint hasta el
+ *   primer registro incompleto o con CRC inválido (escritura cortada por un crash)
+ *
+ * Offset de un registro = índice del segmento * tamaño del segmento + posición.
+ */
+public class MappedJournal implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(MappedJournal.class);
+
+    private static final int HEADER = 8;
+    // Un MappedByteBuffer se indexa con int: un segmento no puede pasar de 2 GB - 1 byte
+    static final long MAX_SEGMENT_SIZE = Integer.MAX_VALUE;
+    private static final int END_OF_SEGMENT = -1;
+    private static final String SUFFIX = ".journal";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long syncIntervalNanos;
+    private final long checkpointIntervalNanos;
+    private final boolean waitForSync;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition synced = lock.newCondition();
+
+    // Protegidos por lock
+    private long segmentIndex;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long writeOffset;
+
+    private volatile long durableOffset;
+    private volatile boolean running = true;
+    private volatile IOException syncFailure;
+
+    // Registros escritos y aún no confirmados: offset → System.nanoTime() al escribirlo
+    // (o al recuperarlo). El primero es el más viejo: fija el checkpoint
+    private final ConcurrentSkipListMap<Long, Long> pending = new ConcurrentSkipListMap<>();
+    private final List<Entry> recovered;
+    private final Thread syncThread;
+
+    /**
+     * Abre (o crea) el journal y recupera los registros sin confirmar
+     *
+     * @param directory                Carpeta del journal
+     * @param segmentSize              Bytes por segmento
+     * @param syncIntervalMillis       Cada cuánto se hace fsync (group commit)
+     * @param checkpointIntervalMillis Cada cuánto se guarda el checkpoint
+     * @param waitForSync              true: append() espera el fsync (durable ante caída del equipo);
+     *                                 false: solo ante caída del proceso
+     */
+    public MappedJournal(Path directory, int segmentSize, long syncIntervalMillis,
+                         long checkpointIntervalMillis, boolean waitForSync) throws IOException {
+        if (segmentSize <= HEADER) {
+            throw new IllegalArgumentException("Segmento del journal demasiado chico: " + segmentSize + " bytes");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.syncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1L, syncIntervalMillis));
+        this.checkpointIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1L, checkpointIntervalMillis));
+        this.waitForSync = waitForSync;
+
+        Files.createDirectories(directory);
+        this.recovered = recover();
+        this.durableOffset = writeOffset;
+
+        this.syncThread = new Thread(this::syncLoop, "journal-sync");
+        this.syncThread.setDaemon(true);
+        this.syncThread.start();
+    }
+
+    /**
+     * Convierte gateway.journal.segment-size-mb a bytes, en long para que no se
+     * desborde, y lo valida contra el máximo de un MappedByteBuffer
+     *
+     * @throws IllegalArgumentException Si es menor a 1 MB o no cabe en un segmento (2047 MB como máximo)
+     */
+    static int segmentSizeFromMegabytes(long megabytes) {
+        long bytes = megabytes * 1024L * 1024L;
+        if (megabytes < 1 || bytes > MAX_SEGMENT_SIZE) {
+            throw new IllegalArgumentException("gateway.journal.segment-size-mb debe estar entre 1 y "
+                    + MAX_SEGMENT_SIZE / (1024L * 1024L) + " (MappedByteBuffer admite hasta 2 GB): " + megabytes);
+        }
+        return (int) bytes;
+    }
+
+    /**
+     * Registros que quedaron sin confirmar en la ejecución anterior (en orden)
+     */
+    public List<Entry> getRecovered() {
+        return recovered;
+    }
+
+    /**
+     * Agrega un registro
+     *
+     * @return Offset del registro (para confirmarlo con ack)
+     */
+    public long append(byte[] payload) throws IOException {
+        return append(payload, 0, payload.length);
+    }
+
+    /**
+     * Agrega un registro con payload[payloadOffset, payloadOffset + length) (ej: un buffer del pool)
+     *
+     * @return Offset del registro (para confirmarlo con ack)
+     */
+    public long append(byte[] payload, int payloadOffset, int length) throws IOException {
+        if (length <= 0) {
+            // La recuperación lo leería como el fin del journal y perdería lo que sigue
+            throw new IOException("Registro vacío: el journal no acepta registros de 0 bytes");
+        }
+        int recordSize = HEADER + length;
+        if (recordSize > segmentSize) {
+            throw new IOException("Registro de " + length + " bytes no cabe en un segmento de " + segmentSize);
+        }
+        if (syncFailure != null) {
+            throw new IOException("El journal no puede sincronizar a disco", syncFailure);
+        }
+
+        long offset;
+        long end;
+        lock.lock();
+        try {
+            if (!running) {
+                throw new IOException("Journal cerrado");
+            }
+            if (buffer.remaining() < recordSize) {
+                roll();
+            }
+            offset = segmentIndex * segmentSize + buffer.position();
+            CRC32C crc = new CRC32C();
+            crc.update(payload, payloadOffset, length);
+            buffer.putInt(length);
+            buffer.putInt((int) crc.getValue());
+            buffer.put(payload, payloadOffset, length);
+            end = offset + recordSize;
+            writeOffset = end;
+            pending.put(offset, System.nanoTime());
+
+            if (waitForSync) {
+                while (durableOffset < end && syncFailure == null) {
+                    synced.awaitUninterruptibly();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (syncFailure != null) {
+            throw new IOException("El journal no puede sincronizar a disco", syncFailure);
+        }
+        return offset;
+    }
+
+    /**
+     * Confirma que un registro ya se entregó (no se recuperará al reiniciar)
+     */
+    public void ack(long offset) {
+        pending.remove(offset);
+    }
+
+    /**
+     * @return Registros escritos y sin confirmar
+     */
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * @return Milisegundos desde que se escribió el registro sin confirmar más
+     *         viejo (0 si no hay). Si crece sin parar, el checkpoint no avanza
+     *         y los segmentos se acumulan en disco
+     */
+    public long oldestPendingAgeMillis() {
+        Map.Entry<Long, Long> oldest = pending.firstEntry();
+        return oldest == null ? 0L : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldest.getValue());
+    }
+
+    /**
+     * @return Offset desde el cual hay registros sin confirmar
+     */
+    public long checkpointOffset() {
+        // Con el lock: un append no puede agregar un pendiente entre las dos lecturas
+        lock.lock();
+        try {
+            Map.Entry<Long, Long> first = pending.firstEntry();
+            return first != null ? first.getKey() : writeOffset;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void roll() throws IOException {
+        if (buffer.remaining() >= Integer.BYTES) {
+            buffer.putInt(END_OF_SEGMENT);
+        }
+        buffer.force();
+        channel.close();
+        openSegment(segmentIndex + 1, 0);
+        writeOffset = segmentIndex * segmentSize;
+    }
+
+    private void openSegment(long index, int position) throws IOException {
+        Path file = segmentPath(index);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            if (raf.length() != segmentSize) {
+                raf.setLength(segmentSize);
+            }
+        }
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        buffer.position(position);
+        segmentIndex = index;
+    }
+
+    private Path segmentPath(long index) {
+        return directory.resolve(String.format("%020d%s", index, SUFFIX));
+    }
+
+    /**
+     * Lee los registros desde el checkpoint y deja el journal listo para agregar
+     */
+    private List<Entry> recover() throws IOException {
+        long checkpoint = readCheckpoint();
+        List<Long> segments = listSegments();
+        List<Entry> entries = new ArrayList<>();
+
+        long index = checkpoint / segmentSize;
+        int position = (int) (checkpoint % segmentSize);
+        if (segments.isEmpty() || segments.get(segments.size() - 1) < index) {
+            openSegment(index, position);
+            writeOffset = checkpoint;
+            deleteSegmentsBefore(index);
+            return entries;
+        }
+
+        long lastSegment = segments.get(segments.size() - 1);
+        openSegment(index, position);
+        while (true) {
+            if (buffer.remaining() < HEADER) {
+                if (segmentIndex >= lastSegment) {
+                    break;
+                }
+                channel.close();
+                openSegment(segmentIndex + 1, 0);
+                continue;
+            }
+            int start = buffer.position();
+            int length = buffer.getInt();
+            if (length == END_OF_SEGMENT && segmentIndex < lastSegment) {
+                channel.close();
+                openSegment(segmentIndex + 1, 0);
+                continue;
+            }
+            int crc = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                buffer.position(start);
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            CRC32C check = new CRC32C();
+            check.update(payload);
+            if ((int) check.getValue() != crc) {
+                log.warn("⚠ Registro con CRC inválido en el journal (escritura cortada), se descarta desde aquí");
+                buffer.position(start);
+                break;
+            }
+            long offset = segmentIndex * segmentSize + start;
+            entries.add(new Entry(offset, payload));
+            pending.put(offset, System.nanoTime());
+        }
+
+        // Limpiar lo que quedó después del último registro válido y los segmentos siguientes
+        int end = buffer.position();
+        ByteBuffer zeros = ByteBuffer.allocate(Math.min(64 * 1024, segmentSize));
+        while (buffer.hasRemaining()) {
+            zeros.clear().limit(Math.min(zeros.capacity(), buffer.remaining()));
+            buffer.put(zeros);
+        }
+        buffer.position(end);
+        buffer.force();
+        for (long segment : segments) {
+            if (segment > segmentIndex) {
+                Files.deleteIfExists(segmentPath(segment));
+            }
+        }
+        writeOffset = segmentIndex * segmentSize + end;
+        deleteSegmentsBefore(checkpoint / segmentSize);
+
+        if (!entries.isEmpty()) {
+            log.warn("⚠ Journal: {} registros sin confirmar recuperados", entries.size());
+        }
+        return entries;
+    }
+
+    private List<Long> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private void deleteSegmentsBefore(long index) throws IOException {
+        for (long segment : listSegments()) {
+            if (segment < index) {
+                Files.deleteIfExists(segmentPath(segment));
+            }
+        }
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            return 0L;
+        }
+        return Long.parseLong(Files.readString(file, StandardCharsets.US_ASCII).trim());
+    }
+
+    /**
+     * Guarda el checkpoint (escritura atómica) y borra los segmentos ya confirmados
+     */
+    void checkpoint() throws IOException {
+        long checkpoint = checkpointOffset();
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        Files.writeString(temp, Long.toString(checkpoint), StandardCharsets.US_ASCII);
+        try (FileChannel file = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            file.force(true);
+        }
+        Files.move(temp, directory.resolve(CHECKPOINT_FILE),
+                   StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        long current;
+        lock.lock();
+        try {
+            current = segmentIndex;
+        } finally {
+            lock.unlock();
+        }
+        deleteSegmentsBefore(Math.min(checkpoint / segmentSize, current));
+    }
+
+    private void syncLoop() {
+        long nextCheckpoint = System.nanoTime() + checkpointIntervalNanos;
+        while (running) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(syncIntervalNanos);
+                sync();
+                if (System.nanoTime() >= nextCheckpoint) {
+                    checkpoint();
+                    nextCheckpoint = System.nanoTime() + checkpointIntervalNanos;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.error("✗ Error sincronizando el journal: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Un fsync para todo lo escrito hasta ahora (group commit)
+     */
+    private void sync() {
+        MappedByteBuffer target;
+        long offset;
+        lock.lock();
+        try {
+            if (durableOffset == writeOffset) {
+                return;
+            }
+            target = buffer;
+            offset = writeOffset;
+        } finally {
+            lock.unlock();
+        }
+
+        // force() fuera del lock: los append siguientes no esperan al disco
+        // (al cambiar de segmento, roll() ya hizo force() del anterior)
+        try {
+            target.force();
+        } catch (RuntimeException e) {
+            syncFailure = new IOException(e);
+        }
+
+        lock.lock();
+        try {
+            durableOffset = Math.max(durableOffset, offset);
+            synced.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        // Sin interrumpir: una interrupción durante force() cierra el FileChannel.
+        // El hilo termina solo en el siguiente ciclo (sync-interval).
+        running = false;
+        try {
+            syncThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.lock();
+        try {
+            buffer.force();
+            durableOffset = writeOffset;
+            synced.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        checkpoint();
+        lock.lock();
+        try {
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Registro recuperado del journal
+     */
+    public record Entry(long offset, byte[] payload) {
+    }
+}
@@ -0,0 +1,204 @@
+package com.gateway.transaccioneswompi.infrastructure.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gateway.transaccioneswompi.app.forwarding.ForwardingQueue;
+import com.gateway.transaccioneswompi.app.usecases.ProcessWompiWebhookUseCase.ProcessingResult;
+import com.gateway.transaccioneswompi.domain.WompiWebhookEvent;
+import com.gateway.transaccioneswompi.infrastructure.dto.WompiWebhookRequest;
+import com.gateway.transaccioneswompi.infrastructure.mappers.WompiWebhookMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JOURNAL DE WEBHOOKS - Durabilidad local sin base de datos
+ *
+ * Si está habilitado, el controlador guarda los bytes del webhook en el
+ * MappedJournal ANTES de procesarlo, y lo confirma (ack) cuando el reenvío
+ * a Seguru termina. Si el proceso se cae en el medio, al reiniciar se
+ * reenvían los webhooks que quedaron sin confirmar (entrega al-menos-una-vez).
+ *
+ * Un registro sin confirmar frena el checkpoint (y el borrado de segmentos),
+ * así que ninguno queda pendiente mientras el proceso corre:
+ * - Webhook en vivo: se confirma al terminar, aunque haya fallado; en ese
+ *   caso Wompi recibió un error y es quien lo reintenta
+ * - Recuperado al arrancar: nadie más lo reintenta, así que si no se entregó
+ *   ni quedó en dead letters se vuelve a encolar cada RETRY_MILLIS
+ * La métrica gateway.journal.oldest_pending_age_ms muestra la antigüedad del
+ * registro pendiente más viejo.
+ *
+ * Deshabilitado por defecto (gateway.journal.enabled).
+ */
+@Component
+public class WebhookJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookJournal.class);
+
+    // Espera cuando la cola de reenvío está llena durante la recuperación
+    private static final long BACKOFF_MILLIS = 200L;
+    // Espera antes de reintentar un registro recuperado que no se pudo entregar ni guardar
+    private static final long RETRY_MILLIS = 5000L;
+
+    private final ObjectMapper objectMapper;
+    private final WompiWebhookMapper mapper;
+    private final ForwardingQueue forwardingQueue;
+
+    // null si el journal está deshabilitado
+    private final MappedJournal journal;
+
+    private final Timer appendTimer;
+    private final Counter recoveredCounter;
+
+    public WebhookJournal(
+            ObjectMapper objectMapper,
+            WompiWebhookMapper mapper,
+            ForwardingQueue forwardingQueue,
+            MeterRegistry meterRegistry,
+            @Value("${gateway.journal.enabled:false}") boolean enabled,
+            @Value("${gateway.journal.dir:${java.io.tmpdir}/gateway-journal}") String directory,
+            @Value("${gateway.journal.segment-size-mb:64}") int segmentSizeMb,
+            @Value("${gateway.journal.sync-interval-ms:2}") long syncIntervalMillis,
+            @Value("${gateway.journal.checkpoint-interval-ms:1000}") long checkpointIntervalMillis,
+            @Value("${gateway.journal.wait-for-sync:true}") boolean waitForSync) throws IOException {
+        this.objectMapper = objectMapper;
+        this.mapper = mapper;
+        this.forwardingQueue = forwardingQueue;
+        this.appendTimer = meterRegistry.timer("gateway.journal.append");
+        this.recoveredCounter = meterRegistry.counter("gateway.journal.recovered");
+
+        if (enabled) {
+            this.journal = new MappedJournal(Paths.get(directory), MappedJournal.segmentSizeFromMegabytes(segmentSizeMb),
+                                             syncIntervalMillis, checkpointIntervalMillis, waitForSync);
+            meterRegistry.gauge("gateway.journal.pending", journal, MappedJournal::pendingCount);
+            meterRegistry.gauge("gateway.journal.oldest_pending_age_ms", journal, MappedJournal::oldestPendingAgeMillis);
+            log.info("Journal habilitado en {} (segmentos de {} MB)", directory, segmentSizeMb);
+        } else {
+            this.journal = null;
+        }
+    }
+
+    /**
+     * Guarda los bytes del webhook (durable al retornar si wait-for-sync=true)
+     *
+     * @return Offset para confirmar con ack(), o -1 si el journal está deshabilitado
+     */
+    public long append(byte[] body) throws IOException {
+        return append(body, 0, body.length);
+    }
+
+    /**
+     * Igual que append(body), con los bytes body[offset, offset + length)
+     */
+    public long append(byte[] body, int offset, int length) throws IOException {
+        if (journal == null) {
+            return -1L;
+        }
+        long start = System.nanoTime();
+        try {
+            return journal.append(body, offset, length);
+        } finally {
+            appendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Confirma que el webhook ya no necesita recuperarse
+     */
+    public void ack(long offset) {
+        if (journal != null && offset >= 0) {
+            journal.ack(offset);
+        }
+    }
+
+    /**
+     * Reenvía los webhooks sin confirmar de la ejecución anterior.
+     * Corre en su propio hilo para no demorar el arranque.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        if (journal == null || journal.getRecovered().isEmpty()) {
+            return;
+        }
+        Thread thread = new Thread(() -> replay(journal.getRecovered()), "journal-recovery");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void replay(List<MappedJournal.Entry> entries) {
+        log.warn("⚠ Reenviando {} webhooks recuperados del journal", entries.size());
+        for (MappedJournal.Entry entry : entries) {
+            WompiWebhookEvent event;
+            try {
+                event = mapper.toDomain(objectMapper.readValue(entry.payload(), WompiWebhookRequest.class));
+            } catch (IOException | UncheckedIOException e) {
+                log.error("✗ Registro ilegible en el journal (offset {}), se descarta: {}", entry.offset(), e.getMessage());
+                journal.ack(entry.offset());
+                continue;
+            }
+
+            if (!submit(entry, event)) {
+                return;
+            }
+            recoveredCounter.increment();
+        }
+    }
+
+    /**
+     * Encola un registro recuperado (esperando si la cola está llena)
+     *
+     * @return false si el gateway se está apagando: lo que falta sigue en el
+     *         journal para el próximo arranque
+     */
+    private boolean submit(MappedJournal.Entry entry, WompiWebhookEvent event) {
+        CompletableFuture<ProcessingResult> result;
+        try {
+            while ((result = forwardingQueue.submit(event)).isCompletedExceptionally()) {
+                if (!forwardingQueue.isAccepting()) {
+                    return false;
+                }
+                TimeUnit.MILLISECONDS.sleep(BACKOFF_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        // Entregado o guardado en dead letters: se confirma. Si ni eso se pudo,
+        // se reintenta más tarde (solo el journal tiene el evento)
+        result.whenComplete((processing, error) -> {
+            if (error != null || processing.isPersisted()) {
+                journal.ack(entry.offset());
+            } else {
+                log.warn("⚠ Webhook recuperado del journal (offset {}) sin entregar ni guardar, se reintenta en {} ms",
+                         entry.offset(), RETRY_MILLIS);
+                CompletableFuture.runAsync(() -> {
+                    if (forwardingQueue.isAccepting()) {
+                        submit(entry, event);
+                    }
+                }, CompletableFuture.delayedExecutor(RETRY_MILLIS, TimeUnit.MILLISECONDS));
+            }
+        });
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+}
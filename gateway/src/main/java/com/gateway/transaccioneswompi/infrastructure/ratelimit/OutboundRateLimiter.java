@@ -0,0 +1,127 @@
+package com.gateway.transaccioneswompi.infrastructure.ratelimit;
+
+import com.gateway.transaccioneswompi.domain.ports.DeliveryAuditPort.Destination;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * LÍMITE DE TRÁFICO HACIA SEGURU - Un token bucket por destino
+ *
+ * Reservas y Aliados tienen capacidad limitada; en las ventanas de
+ * liquidación Wompi nos manda ráfagas que, reenviadas tal cual, disparan
+ * sus protecciones. Antes de cada POST se pide un token del destino:
+ *
+ * - Si hay token, se envía de inmediato
+ * - Si no, el hilo ESPERA su turno (no falla): lo que sobra de la ráfaga
+ *   se reparte en el tiempo al ritmo configurado
+ * - La espera es acotada: máximo max-wait-ms y máximo max-waiters hilos
+ *   esperando por destino. Fuera de eso el envío falla con RATE_LIMITED,
+ *   que NO se desvía a Aliados ni va a dead letters: es un rechazo para
+ *   reintentar (503 con Retry-After a Wompi, o se vuelve a encolar)
+ * - Un turno reservado que no se usa (espera interrumpida) se devuelve
+ *
+ * Métricas: gateway.ratelimit.throttled (tiempo esperado), gateway.ratelimit.rejected
+ * y gateway.ratelimit.waiting, con tag destination.
+ */
+@Component
+public class OutboundRateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboundRateLimiter.class);
+
+    private final Map<Destination, Limit> limits = new EnumMap<>(Destination.class);
+
+    public OutboundRateLimiter(
+            MeterRegistry meterRegistry,
+            @Value("${gateway.ratelimit.reservas.rate-per-second:0}") double reservasRate,
+            @Value("${gateway.ratelimit.reservas.burst:20}") int reservasBurst,
+            @Value("${gateway.ratelimit.aliados.rate-per-second:0}") double aliadosRate,
+            @Value("${gateway.ratelimit.aliados.burst:20}") int aliadosBurst,
+            @Value("${gateway.ratelimit.max-wait-ms:2000}") long maxWaitMillis,
+            @Value("${gateway.ratelimit.max-waiters:100}") int maxWaiters) {
+        limits.put(Destination.RESERVAS,
+                new Limit(Destination.RESERVAS, reservasRate, reservasBurst, maxWaitMillis, maxWaiters, meterRegistry));
+        limits.put(Destination.ALIADOS,
+                new Limit(Destination.ALIADOS, aliadosRate, aliadosBurst, maxWaitMillis, maxWaiters, meterRegistry));
+    }
+
+    /**
+     * Espera (si hace falta) un turno para enviar al destino
+     *
+     * @return false si no hubo turno dentro de la espera máxima (el envío no debe hacerse)
+     */
+    public boolean acquire(Destination destination) {
+        return limits.get(destination).acquire();
+    }
+
+    private static final class Limit {
+        private final Destination destination;
+        // null = sin límite (rate-per-second = 0)
+        private final TokenBucket bucket;
+        private final long maxWaitNanos;
+        private final int maxWaiters;
+        private final AtomicInteger waiting = new AtomicInteger();
+        private final Timer throttled;
+        private final Counter rejected;
+
+        Limit(Destination destination, double ratePerSecond, int burst, long maxWaitMillis, int maxWaiters,
+              MeterRegistry meterRegistry) {
+            String tag = destination.name().toLowerCase();
+            this.destination = destination;
+            this.bucket = ratePerSecond > 0 ? new TokenBucket(ratePerSecond, burst) : null;
+            this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+            this.maxWaiters = maxWaiters;
+            this.throttled = meterRegistry.timer("gateway.ratelimit.throttled", "destination", tag);
+            this.rejected = meterRegistry.counter("gateway.ratelimit.rejected", "destination", tag);
+            meterRegistry.gauge("gateway.ratelimit.waiting", Tags.of("destination", tag), waiting);
+        }
+
+        boolean acquire() {
+            if (bucket == null) {
+                return true;
+            }
+            // Cupo en la fila de espera ANTES de reservar: si no hay, no se consume token
+            if (waiting.incrementAndGet() > maxWaiters) {
+                waiting.decrementAndGet();
+                return reject("demasiados envíos esperando");
+            }
+            try {
+                long waitNanos = bucket.reserve(maxWaitNanos);
+                if (waitNanos < 0) {
+                    return reject("la espera superaría el máximo");
+                }
+                if (waitNanos > 0) {
+                    try {
+                        TimeUnit.NANOSECONDS.sleep(waitNanos);
+                    } catch (InterruptedException e) {
+                        // El turno ya estaba reservado: se devuelve para que no se pierda
+                        bucket.release();
+                        Thread.currentThread().interrupt();
+                        return reject("espera interrumpida");
+                    }
+                    throttled.record(waitNanos, TimeUnit.NANOSECONDS);
+                }
+                return true;
+            } finally {
+                waiting.decrementAndGet();
+            }
+        }
+
+        private boolean reject(String reason) {
+            rejected.increment();
+            log.warn("⚠ Envío a {} frenado por el límite de tráfico: {}", destination, reason);
+            return false;
+        }
+    }
+}
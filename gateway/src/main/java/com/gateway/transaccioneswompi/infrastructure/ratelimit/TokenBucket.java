@@ -0,0 +1,78 @@
+package com.gateway.transaccioneswompi.infrastructure.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * TOKEN BUCKET sin locks
+ *
+ * Se recargan ratePerSecond tokens por segundo hasta un máximo de burst.
+ * En vez de guardar "cuántos tokens quedan" (que obliga a recargar y
+ * descontar juntos), se guarda UN solo número: el instante en que el balde
+ * vuelve a estar lleno (theoretical arrival time). Así reservar un token es
+ * un compareAndSet sobre un AtomicLong:
+ *
+ * - Cada token "corre" ese instante en 1/ratePerSecond
+ * - Si el instante está a menos de (burst - 1) tokens en el futuro, hay
+ *   token disponible ya; si no, la espera es lo que falta para que lo esté
+ *
+ * Reservar NO duerme: retorna cuánto hay que esperar y el que llama duerme
+ * (ver OutboundRateLimiter). Los que esperan ya tienen su turno reservado,
+ * por orden de llegada.
+ */
+public class TokenBucket {
+
+    private final long intervalNanos;
+    private final long burstToleranceNanos;
+    private final LongSupplier clock;
+
+    // Instante (System.nanoTime) en que el balde vuelve a estar lleno
+    private final AtomicLong fullAt;
+
+    public TokenBucket(double ratePerSecond, int burst) {
+        this(ratePerSecond, burst, System::nanoTime);
+    }
+
+    TokenBucket(double ratePerSecond, int burst, LongSupplier clock) {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("ratePerSecond debe ser mayor que 0");
+        }
+        this.intervalNanos = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond));
+        this.burstToleranceNanos = (Math.max(1, burst) - 1) * intervalNanos;
+        this.clock = clock;
+        this.fullAt = new AtomicLong(clock.getAsLong());
+    }
+
+    /**
+     * Reserva un token
+     *
+     * @param maxWaitNanos Espera máxima aceptable
+     * @return Nanosegundos que hay que esperar antes de usar el token (0 = ya),
+     *         o -1 si la espera superaría maxWaitNanos (no se reserva nada)
+     */
+    public long reserve(long maxWaitNanos) {
+        while (true) {
+            long now = clock.getAsLong();
+            long current = fullAt.get();
+            long start = Math.max(current, now);
+            long wait = Math.max(0L, start - burstToleranceNanos - now);
+            if (wait > maxWaitNanos) {
+                return -1L;
+            }
+            if (fullAt.compareAndSet(current, start + intervalNanos)) {
+                return wait;
+            }
+        }
+    }
+
+    /**
+     * Devuelve un token reservado que no se usó (ej: la espera se interrumpió)
+     *
+     * El siguiente en reservar ocupa su lugar. Si el instante queda en el
+     * pasado no importa: reserve() lo toma como "ahora" (el balde no pasa de burst).
+     */
+    public void release() {
+        fullAt.addAndGet(-intervalNanos);
+    }
+}
@@ -0,0 +1,101 @@
+package com.gateway.transaccioneswompi.infrastructure.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * SEGURIDAD - Token obligatorio para /api-gateway/admin/**
+ *
+ * Las rutas de administración muestran datos de pagos y pueden reenviar
+ * miles de eventos a Seguru, así que no pueden quedar abiertas como el webhook.
+ * Cada petición debe traer el token configurado en gateway.admin.token:
+ *
+ *   Authorization: Bearer <token>
+ *
+ * - Sin token configurado, la administración queda DESHABILITADA (403):
+ *   nunca se abre por olvido
+ * - Token ausente o distinto → 401
+ * - La comparación es de tiempo constante (MessageDigest.isEqual)
+ *
+ * La ruta se normaliza antes de compararla (sin ";...", decodificada, sin
+ * "//" ni "/./") para que variantes de la misma URL no se salten el filtro.
+ */
+@Component
+public class AdminTokenFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(AdminTokenFilter.class);
+
+    static final String ADMIN_PATH = "/api-gateway/admin";
+    private static final String BEARER = "Bearer ";
+
+    private final UrlPathHelper pathHelper = new UrlPathHelper();
+
+    // null si no hay token: la administración queda deshabilitada
+    private final byte[] token;
+
+    public AdminTokenFilter(@Value("${gateway.admin.token:}") String token) {
+        this.token = StringUtils.hasText(token) ? token.trim().getBytes(StandardCharsets.UTF_8) : null;
+        if (this.token == null) {
+            log.warn("⚠ gateway.admin.token no está configurado: {}/** responde 403", ADMIN_PATH);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !isAdminPath(pathHelper.getPathWithinApplication(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (token == null) {
+            reject(response, HttpServletResponse.SC_FORBIDDEN, "Administración deshabilitada (sin gateway.admin.token)");
+            return;
+        }
+        if (!matches(request.getHeader(HttpHeaders.AUTHORIZATION))) {
+            log.warn("⚠ Acceso rechazado a {} desde {}", request.getRequestURI(), request.getRemoteAddr());
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+            reject(response, HttpServletResponse.SC_UNAUTHORIZED, "Token de administración inválido");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    static boolean isAdminPath(String path) {
+        if (path == null) {
+            return false;
+        }
+        String normalized = StringUtils.cleanPath(path.replaceAll("/{2,}", "/"));
+        return normalized.equals(ADMIN_PATH) || normalized.startsWith(ADMIN_PATH + "/");
+    }
+
+    private boolean matches(String authorization) {
+        if (authorization == null || !authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            return false;
+        }
+        byte[] presented = authorization.substring(BEARER.length()).trim().getBytes(StandardCharsets.UTF_8);
+        return MessageDigest.isEqual(token, presented);
+    }
+
+    private static void reject(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("{\"status\":\"error\",\"message\":\"" + message + "\"}");
+    }
+}
@@ -0,0 +1,217 @@
+package com.gateway.transaccioneswompi.infrastructure.warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gateway.transaccioneswompi.domain.EventPriority;
+import com.gateway.transaccioneswompi.domain.WompiWebhookEvent;
+import com.gateway.transaccioneswompi.infrastructure.dto.WompiWebhookRequest;
+import com.gateway.transaccioneswompi.infrastructure.mappers.EventBinaryCodec;
+import com.gateway.transaccioneswompi.infrastructure.mappers.WompiWebhookMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+/**
+ * CALENTAMIENTO ANTES DE RECIBIR TRÁFICO
+ *
+ * Después de cada despliegue los primeros webhooks eran lentos: el JIT
+ * todavía no compiló el código de Jackson y del mapper, y las conexiones a
+ * Seguru (DNS, TCP, TLS) se abrían con el primer envío.
+ *
+ * Al terminar el arranque (ApplicationReadyEvent) y ANTES de que Spring
+ * Boot marque la readiness como ACCEPTING_TRAFFIC, este componente:
+ *
+ * 1. Pasa eventos sintéticos por el mismo camino del webhook:
+ *    JSON → DTO → dominio → JSON (envío) → binario (almacén) y de vuelta.
+ *    No toca la cola, el almacén ni Seguru: no deja rastro
+ * 2. Abre conexiones a Reservas y Aliados con un HEAD, SOLO si el destino
+ *    tiene configurada una URL de calentamiento (gateway.warmup.<destino>.url).
+ *    Nunca se usa la URL de envío: es el endpoint de producción del socio.
+ *    La URL debe ser un endpoint sin efectos acordado con Seguru (ej: su
+ *    health check) en el mismo host y puerto que el envío: RestTemplate usa
+ *    HttpURLConnection, y la JVM deja esas conexiones abiertas (keep-alive,
+ *    hasta http.maxConnections = 5 por host) para los envíos reales
+ *
+ * Spring Boot publica ACCEPTING_TRAFFIC después de los listeners de
+ * ApplicationReadyEvent, así que mientras esto corre /actuator/health/readiness
+ * responde OUT_OF_SERVICE y el balanceador no manda tráfico.
+ *
+ * Un destino caído NO frena el arranque: se registra ⚠ y se sigue.
+ */
+@Component
+public class StartupWarmup {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupWarmup.class);
+
+    private static final String[] STATUSES = {"APPROVED", "DECLINED", "PENDING", "VOIDED", "ERROR"};
+    private static final String[] METHODS = {"NEQUI", "CARD", "PSE", "BANCOLOMBIA_TRANSFER"};
+
+    private final ObjectMapper objectMapper;
+    private final WompiWebhookMapper mapper;
+    private final EventBinaryCodec codec;
+    private final RestTemplate restTemplate;
+
+    private final boolean enabled;
+    private final int iterations;
+    private final long maxDurationMillis;
+    private final int connectionsPerDestination;
+    private final List<String> destinations;
+
+    private volatile long warmupMillis = -1L;
+
+    public StartupWarmup(
+            ObjectMapper objectMapper,
+            WompiWebhookMapper mapper,
+            EventBinaryCodec codec,
+            RestTemplate restTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${gateway.warmup.enabled:true}") boolean enabled,
+            @Value("${gateway.warmup.iterations:20000}") int iterations,
+            @Value("${gateway.warmup.max-duration-ms:10000}") long maxDurationMillis,
+            @Value("${gateway.warmup.connections-per-destination:2}") int connectionsPerDestination,
+            @Value("${gateway.warmup.reservas.url:}") String reservasWarmupUrl,
+            @Value("${gateway.warmup.aliados.url:}") String aliadosWarmupUrl) {
+        this.objectMapper = objectMapper;
+        this.mapper = mapper;
+        this.codec = codec;
+        this.restTemplate = restTemplate;
+        this.enabled = enabled;
+        this.iterations = iterations;
+        this.maxDurationMillis = maxDurationMillis;
+        this.connectionsPerDestination = connectionsPerDestination;
+        this.destinations = Stream.of(reservasWarmupUrl, aliadosWarmupUrl)
+                .filter(url -> url != null && !url.isBlank())
+                .toList();
+
+        TimeGauge.builder("gateway.startup.warmup", this, TimeUnit.MILLISECONDS,
+                          warmup -> warmup.warmupMillis >= 0 ? warmup.warmupMillis : Double.NaN)
+                .description("Duración del calentamiento previo a aceptar tráfico")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxDurationMillis);
+        log.info("Calentando el gateway antes de aceptar tráfico...");
+
+        // Las conexiones se abren en paralelo mientras el JIT compila
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.max(1, connectionsPerDestination * destinations.size()), runnable -> {
+                    Thread thread = new Thread(runnable, "warmup-connections");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        List<CompletableFuture<Void>> connections = new ArrayList<>();
+        for (String url : destinations) {
+            for (int i = 0; i < connectionsPerDestination; i++) {
+                connections.add(CompletableFuture.runAsync(() -> prime(url), executor));
+            }
+        }
+
+        int done = exerciseWebhookPath(iterations, deadline);
+
+        try {
+            long remaining = Math.max(0L, deadline - System.nanoTime());
+            CompletableFuture.allOf(connections.toArray(new CompletableFuture[0]))
+                    .get(remaining, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            log.warn("⚠ Calentamiento: no se alcanzaron a abrir todas las conexiones en {} ms", maxDurationMillis);
+        } catch (ExecutionException e) {
+            // prime() no lanza excepciones
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdown();
+        }
+
+        warmupMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("✓ Calentamiento terminado en {} ms ({} eventos sintéticos)", warmupMillis, done);
+    }
+
+    /**
+     * Recorre el camino del webhook con eventos sintéticos
+     *
+     * @return Cuántos eventos se procesaron (puede cortarse por el deadline)
+     */
+    int exerciseWebhookPath(int count, long deadlineNanos) {
+        int done = 0;
+        try {
+            for (; done < count; done++) {
+                // Cada tanto revisar el tiempo (nanoTime en cada vuelta también cuesta)
+                if ((done & 255) == 0 && System.nanoTime() > deadlineNanos) {
+                    break;
+                }
+                byte[] body = syntheticWebhook(done);
+                WompiWebhookRequest request = objectMapper.readValue(body, WompiWebhookRequest.class);
+                WompiWebhookEvent event = mapper.toDomain(request);
+                EventPriority.of(event);
+                objectMapper.writeValueAsBytes(event);
+                codec.decode(codec.encode(event));
+            }
+        } catch (IOException | RuntimeException e) {
+            // Si el camino falla aquí, fallará con los webhooks reales: mejor verlo en el log del arranque
+            log.error("✗ Calentamiento: el evento sintético {} falló: {}", done, e.getMessage(), e);
+        }
+        return done;
+    }
+
+    /**
+     * Abre (y deja en el pool de keep-alive) una conexión al destino
+     */
+    private void prime(String url) {
+        try {
+            Integer status = restTemplate.execute(url, HttpMethod.HEAD, null,
+                    response -> response.getStatusCode().value());
+            log.info("✓ Conexión a {} abierta (HEAD → {})", url, status);
+        } catch (RuntimeException e) {
+            log.warn("⚠ Calentamiento: no se pudo abrir conexión a {}: {}", url, e.getMessage());
+        }
+    }
+
+    /**
+     * Webhook de Wompi de ejemplo; cambian el ID, el estado y el método de pago.
+     * Uno de cada cuatro es un payout (payee y failureReason), que toma otras ramas del mapper
+     */
+    static byte[] syntheticWebhook(int i) {
+        String payout = i % 4 != 3 ? "" : ",\"payoutId\":\"po-" + i + "\",\"appliedAt\":\"2024-03-01T10:16:00Z\","
+                + "\"payee\":{\"name\":\"Warmup\",\"document\":\"900123\",\"bank\":\"BANCOLOMBIA\","
+                + "\"accountType\":\"SAVINGS\",\"accountNumber\":\"000" + i + "\",\"email\":\"warmup@example.com\"},"
+                + "\"failureReason\":{\"code\":\"R01\",\"message\":\"Cuenta inexistente\"}";
+        String json = "{\"event\":\"transaction.updated\",\"data\":{\"transaction\":{"
+                + "\"id\":\"warmup-" + i + "\",\"created_at\":\"2024-03-01T10:15:30.123Z\","
+                + "\"finalized_at\":\"2024-03-01T10:16:00Z\",\"amount_in_cents\":" + (100_000 + i) + ","
+                + "\"reference\":\"WARMUP" + i + "\",\"customer_email\":\"warmup@example.com\",\"currency\":\"COP\","
+                + "\"payment_method_type\":\"" + METHODS[i % METHODS.length] + "\","
+                + "\"status\":\"" + STATUSES[i % STATUSES.length] + "\",\"shipping_address\":null,"
+                + "\"payment_link_id\":null,\"redirect_url\":\"https://example.com/pagos\",\"payment_source_id\":null,"
+                + "\"billing_data\":{\"legal_id_type\":\"CC\",\"legal_id\":\"" + i + "\",\"items\":[{\"sku\":\"W-1\"}]}" + payout + "}},"
+                + "\"signature\":{\"properties\":[\"transaction.id\",\"transaction.status\","
+                + "\"transaction.amount_in_cents\"],\"checksum\":\"" + Integer.toHexString(i) + "\"},"
+                + "\"timestamp\":" + (1_700_000_000L + i) + ",\"sent_at\":\"2024-03-01T10:16:01Z\","
+                + "\"environment\":\"prod\"}";
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
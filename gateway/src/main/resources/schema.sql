@@ -0,0 +1,111 @@
+-- Esquema para H2 (desarrollo y pruebas). Para una base de datos compartida
+-- usar el de su motor, ej: db/postgresql/schema.sql
+
+-- ========================================
+-- ALMACÉN DE EVENTOS RECIBIDOS DE WOMPI
+-- ========================================
+-- Solo se agregan filas (nunca UPDATE/DELETE).
+-- Cada índice termina en "id" para que las búsquedas paginadas
+-- (WHERE filtro = ? AND id < cursor ORDER BY id DESC) se resuelvan
+-- recorriendo el índice, sin ordenar ni saltar filas (sin OFFSET).
+-- H2 compara texto en orden binario, el mismo que usa la conciliación en Java.
+CREATE TABLE IF NOT EXISTS webhook_event (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    received_at     TIMESTAMP WITH TIME ZONE NOT NULL,
+    transaction_id  VARCHAR(64),
+    reference       VARCHAR(255),
+    email_hash      CHAR(64),
+    status          VARCHAR(16),
+    event_type      VARCHAR(64),
+    payload         BLOB NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_webhook_event_tx ON webhook_event (transaction_id, id);
+CREATE INDEX IF NOT EXISTS idx_webhook_event_reference ON webhook_event (reference, id);
+CREATE INDEX IF NOT EXISTS idx_webhook_event_email ON webhook_event (email_hash, id);
+CREATE INDEX IF NOT EXISTS idx_webhook_event_status ON webhook_event (status, id);
+-- Excepción: con solo from/to (rango en received_at) el índice entrega las filas
+-- por fecha, no por id; la base lee todo el rango y lo ordena por id.
+CREATE INDEX IF NOT EXISTS idx_webhook_event_received ON webhook_event (received_at, id);
+
+-- ========================================
+-- AUDITORÍA DE ENTREGAS A SEGURU
+-- ========================================
+-- Una fila por intento de envío a cada destino. Columnas angostas y de
+-- ancho fijo (fecha en epoch ms, códigos cortos) para que el lote de
+-- INSERT sea barato y las agregaciones por ventana de tiempo lean poco.
+CREATE TABLE IF NOT EXISTS delivery_attempt (
+    attempted_at    BIGINT NOT NULL,
+    destination     VARCHAR(16) NOT NULL,
+    attempt_number  SMALLINT NOT NULL,
+    success         BOOLEAN NOT NULL,
+    http_status     SMALLINT NOT NULL,
+    error_code      VARCHAR(32),
+    latency_ms      INT NOT NULL,
+    transaction_id  VARCHAR(64),
+    status          VARCHAR(16)
+);
+
+CREATE INDEX IF NOT EXISTS idx_delivery_attempt_time ON delivery_attempt (attempted_at, destination);
+CREATE INDEX IF NOT EXISTS idx_delivery_attempt_tx ON delivery_attempt (transaction_id);
+
+-- ========================================
+-- DEAD LETTERS (eventos que no se pudieron entregar)
+-- ========================================
+-- event_key = transacción + estado + timestamp: un mismo evento ocupa una
+-- sola fila aunque falle varias veces (se actualizan failures y el último error).
+CREATE TABLE IF NOT EXISTS dead_letter (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    event_key       VARCHAR(200) NOT NULL,
+    first_failed_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    last_failed_at  TIMESTAMP WITH TIME ZONE NOT NULL,
+    transaction_id  VARCHAR(64),
+    status          VARCHAR(16),
+    error_code      VARCHAR(32),
+    message         VARCHAR(1000),
+    failures        INT NOT NULL,
+    state           VARCHAR(16) NOT NULL,
+    replayed_at     TIMESTAMP WITH TIME ZONE,
+    payload         BLOB NOT NULL,
+    CONSTRAINT uk_dead_letter_event UNIQUE (event_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_dead_letter_state ON dead_letter (state, id);
+CREATE INDEX IF NOT EXISTS idx_dead_letter_tx ON dead_letter (transaction_id);
+
+-- Deduplicación entre réplicas: una fila por (transacción, estado).
+-- La PK hace de "candado": solo la réplica que logra insertar reenvía el evento.
+CREATE TABLE IF NOT EXISTS forward_dedup (
+    transaction_id  VARCHAR(64) NOT NULL,
+    status          VARCHAR(16) NOT NULL,
+    state           VARCHAR(16) NOT NULL,
+    owner           VARCHAR(64) NOT NULL,
+    claimed_at      TIMESTAMP WITH TIME ZONE NOT NULL,
+    delivered_at    TIMESTAMP WITH TIME ZONE,
+    PRIMARY KEY (transaction_id, status)
+);
+
+-- Modo clúster: trabajo pendiente de reenvío, repartido en particiones
+-- (hash del ID de transacción). Cada réplica drena solo las particiones que arrienda.
+CREATE TABLE IF NOT EXISTS forward_work (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    partition_no    INT NOT NULL,
+    transaction_id  VARCHAR(64),
+    enqueued_at     TIMESTAMP WITH TIME ZONE NOT NULL,
+    payload         BLOB NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_forward_work_partition ON forward_work (partition_no, id);
+
+-- Arriendo (lease) de cada partición: vence si la réplica deja de renovarlo
+CREATE TABLE IF NOT EXISTS partition_lease (
+    partition_no    INT PRIMARY KEY,
+    owner           VARCHAR(64),
+    expires_at      TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+-- Réplicas vivas (latido periódico): sirve para repartir las particiones en partes iguales
+CREATE TABLE IF NOT EXISTS cluster_node (
+    node_id         VARCHAR(64) PRIMARY KEY,
+    heartbeat_at    TIMESTAMP WITH TIME ZONE NOT NULL
+);
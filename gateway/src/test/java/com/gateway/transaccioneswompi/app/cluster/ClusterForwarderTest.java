@@ -0,0 +1,117 @@
+package com.gateway.transaccioneswompi.app.cluster;
+
+import com.gateway.transaccioneswompi.app.forwarding.ForwardingQueue;
+import com.gateway.transaccioneswompi.app.usecases.ProcessWompiWebhookUseCase.ProcessingResult;
+import com.gateway.transaccioneswompi.domain.TransactionStatus;
+import com.gateway.transaccioneswompi.domain.WompiWebhookEvent;
+import com.gateway.transaccioneswompi.domain.ports.ForwardWorkPort;
+import com.gateway.transaccioneswompi.domain.ports.ForwardWorkPort.PendingWork;
+import com.gateway.transaccioneswompi.domain.ports.PartitionLeasePort;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ClusterForwarderTest {
+
+    private ForwardWorkPort work;
+    private PartitionLeasePort leases;
+    private ForwardingQueue forwardingQueue;
+    private ClusterForwarder forwarder;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        work = mock(ForwardWorkPort.class);
+        leases = mock(PartitionLeasePort.class);
+        forwardingQueue = mock(ForwardingQueue.class);
+        when(forwardingQueue.isAccepting()).thenReturn(true);
+        when(leases.available()).thenReturn(List.of(0, 1));
+        when(leases.tryAcquire(anyInt(), anyString(), any())).thenReturn(true);
+        when(leases.renew(anyInt(), anyString(), any())).thenReturn(true);
+        when(leases.liveNodes(any())).thenReturn(1);
+
+        forwarder = new ClusterForwarder(work, leases, forwardingQueue, new SimpleMeterRegistry(),
+                true, "replica-a", 2, 15000L, 5000L, 200L, 100, 500);
+        forwarder.coordinate();
+    }
+
+    @Test
+    public void testRowIsCompletedOnlyWhenPersisted() throws Exception {
+        PendingWork delivered = pending(5L, 0, "tx-1");
+        when(work.findPending(eq(0), anyLong(), anyInt())).thenReturn(List.of(delivered));
+        when(forwardingQueue.submit(delivered.event()))
+                .thenReturn(CompletableFuture.completedFuture(new ProcessingResult(true, "ok")));
+
+        forwarder.poll();
+
+        verify(work).complete(5L);
+    }
+
+    @Test
+    public void testUnsavedDeadLetterIsReadAgain() throws Exception {
+        PendingWork failed = pending(5L, 0, "tx-1");
+        when(work.findPending(eq(0), anyLong(), anyInt())).thenReturn(List.of(failed));
+        // Seguru caído y el dead letter tampoco se pudo guardar
+        when(forwardingQueue.submit(failed.event()))
+                .thenReturn(CompletableFuture.completedFuture(new ProcessingResult(false, "caído", false)));
+
+        forwarder.poll();
+        forwarder.poll();
+
+        verify(work, never()).complete(anyLong());
+        // El cursor volvió a quedar antes de la fila
+        verify(work).findPending(0, 0L, 100);
+        verify(work).findPending(0, 4L, 100);
+    }
+
+    @Test
+    public void testRebalanceWaitsForRowsInFlight() throws Exception {
+        CompletableFuture<ProcessingResult> first = new CompletableFuture<>();
+        CompletableFuture<ProcessingResult> second = new CompletableFuture<>();
+        PendingWork rowA = pending(1L, 0, "tx-1");
+        PendingWork rowB = pending(2L, 1, "tx-2");
+        when(work.findPending(eq(0), anyLong(), anyInt())).thenReturn(List.of(rowA));
+        when(work.findPending(eq(1), anyLong(), anyInt())).thenReturn(List.of(rowB));
+        when(forwardingQueue.submit(rowA.event())).thenReturn(first);
+        when(forwardingQueue.submit(rowB.event())).thenReturn(second);
+        forwarder.poll();
+
+        // Llega otra réplica: a esta le toca una sola partición
+        when(leases.liveNodes(any())).thenReturn(2);
+        forwarder.coordinate();
+        verify(leases, never()).release(anyInt(), anyString());
+
+        // Mientras tenga filas en vuelo, la partición a soltar se sigue renovando
+        forwarder.coordinate();
+        verify(leases, times(2)).renew(eq(0), anyString(), any());
+        verify(leases, times(2)).renew(eq(1), anyString(), any());
+        verify(leases, never()).release(anyInt(), anyString());
+
+        first.complete(new ProcessingResult(true, "ok"));
+        second.complete(new ProcessingResult(true, "ok"));
+        forwarder.coordinate();
+        verify(leases, times(1)).release(anyInt(), eq("replica-a"));
+    }
+
+    private static PendingWork pending(long id, int partition, String transactionId) {
+        WompiWebhookEvent.Transaction tx = new WompiWebhookEvent.Transaction(
+                transactionId, null, null, 1000L, "REF-" + transactionId, null, null, null,
+                TransactionStatus.APPROVED, null, null, null, null, null, null, null, null, null);
+        WompiWebhookEvent event = new WompiWebhookEvent("transaction.updated",
+                new WompiWebhookEvent.TransactionData(tx), null, 10L, null, "test");
+        return new PendingWork(id, partition, event);
+    }
+}
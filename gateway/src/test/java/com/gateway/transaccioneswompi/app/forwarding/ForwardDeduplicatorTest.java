@@ -0,0 +1,39 @@
+package com.gateway.transaccioneswompi.app.forwarding;
+
+import com.gateway.transaccioneswompi.domain.TransactionStatus;
+import com.gateway.transaccioneswompi.domain.ports.DedupStorePort;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.gateway.transaccioneswompi.app.forwarding.PriorityTaskBufferTest.event;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ForwardDeduplicatorTest {
+
+    @Test
+    public void testReplayedPendingIsSupersededByDeliveredFinalStatus() throws Exception {
+        DedupStorePort store = mock(DedupStorePort.class);
+        when(store.deliveredStatuses("tx-1")).thenReturn(List.of("PENDING", "APPROVED"));
+        when(store.deliveredStatuses("tx-2")).thenReturn(List.of("PENDING"));
+        ForwardDeduplicator deduplicator = new ForwardDeduplicator(store, new SimpleMeterRegistry(), true, 10);
+
+        assertTrue(deduplicator.isSupersededByFinal(event("tx-1", TransactionStatus.PENDING, 100L)));
+        // Un estado final no lo reemplaza otro (lo decide la deduplicación por estado)
+        assertFalse(deduplicator.isSupersededByFinal(event("tx-1", TransactionStatus.VOIDED, 100L)));
+        assertFalse(deduplicator.isSupersededByFinal(event("tx-2", TransactionStatus.PENDING, 100L)));
+    }
+
+    @Test
+    public void testStoreFailureDoesNotDropTheReplay() throws Exception {
+        DedupStorePort store = mock(DedupStorePort.class);
+        when(store.deliveredStatuses("tx-1")).thenThrow(new IllegalStateException("base de datos caída"));
+        ForwardDeduplicator deduplicator = new ForwardDeduplicator(store, new SimpleMeterRegistry(), true, 10);
+
+        assertFalse(deduplicator.isSupersededByFinal(event("tx-1", TransactionStatus.PENDING, 100L)));
+    }
+}
@@ -0,0 +1,63 @@
+package com.gateway.transaccioneswompi.app.forwarding;
+
+import com.gateway.transaccioneswompi.domain.TransactionStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.gateway.transaccioneswompi.app.forwarding.PriorityTaskBufferTest.task;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ForwardStripeTest {
+
+    @Test
+    public void testPendingUpdatesAreCoalescedToNewest() throws Exception {
+        ForwardStripe stripe = new ForwardStripe(0, Long.MAX_VALUE, 10);
+        ForwardTask first = task("tx-1", TransactionStatus.PENDING, 100L);
+        ForwardTask second = task("tx-1", TransactionStatus.APPROVED, 200L);
+
+        assertNull(stripe.add(first));
+        assertSame(first, stripe.add(second));
+        assertSame(second, first.getSupersededBy());
+        assertEquals(1, stripe.size());
+
+        ForwardTask taken = stripe.take();
+        assertSame(second, taken);
+        assertEquals(1, taken.getCoalescedHistory().size());
+        assertEquals(TransactionStatus.PENDING, taken.getCoalescedHistory().get(0).status());
+    }
+
+    @Test
+    public void testOlderArrivalIsCoalescedIntoPending() throws Exception {
+        ForwardStripe stripe = new ForwardStripe(0, Long.MAX_VALUE, 10);
+        ForwardTask newer = task("tx-1", TransactionStatus.APPROVED, 200L);
+        ForwardTask older = task("tx-1", TransactionStatus.PENDING, 100L);
+
+        assertNull(stripe.add(newer));
+        assertSame(older, stripe.add(older));
+        assertSame(newer, stripe.take());
+        assertEquals(0, stripe.size());
+    }
+
+    @Test
+    public void testDrainAllReturnsPendingAndEmptiesStripe() throws Exception {
+        ForwardStripe stripe = new ForwardStripe(0, Long.MAX_VALUE, 10);
+        ForwardTask first = task("tx-1", TransactionStatus.PENDING, 100L);
+        ForwardTask newer = task("tx-1", TransactionStatus.APPROVED, 200L);
+        ForwardTask other = task("tx-2", TransactionStatus.PENDING, 100L);
+        stripe.add(first);
+        stripe.add(newer);
+        stripe.add(other);
+
+        List<ForwardTask> drained = stripe.drainAll();
+        assertEquals(2, drained.size());
+        assertTrue(drained.containsAll(List.of(newer, other)));
+        assertEquals(0, stripe.size());
+
+        // La transacción ya no tiene pendientes: un evento nuevo no se combina
+        assertNull(stripe.add(task("tx-1", TransactionStatus.DECLINED, 300L)));
+    }
+}
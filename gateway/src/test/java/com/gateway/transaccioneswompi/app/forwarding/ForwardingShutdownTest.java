@@ -0,0 +1,57 @@
+package com.gateway.transaccioneswompi.app.forwarding;
+
+import com.gateway.transaccioneswompi.app.forwarding.ForwardingQueue.DrainResult;
+import com.gateway.transaccioneswompi.app.usecases.ProcessWompiWebhookUseCase.ProcessingResult;
+import com.gateway.transaccioneswompi.domain.TransactionStatus;
+import com.gateway.transaccioneswompi.domain.ports.DeadLetterPort;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ForwardingShutdownTest {
+
+    @Test
+    public void testOnlyQueuedTasksGoToDeadLetters() throws Exception {
+        ForwardTask queued = PriorityTaskBufferTest.task("tx-1", TransactionStatus.APPROVED, 0L);
+        ForwardTask inFlight = PriorityTaskBufferTest.task("tx-2", TransactionStatus.APPROVED, 0L);
+        ForwardingQueue forwardingQueue = mock(ForwardingQueue.class);
+        when(forwardingQueue.drain(100L)).thenReturn(new DrainResult(0L, List.of(queued), List.of(inFlight)));
+        DeadLetterPort deadLetters = mock(DeadLetterPort.class);
+
+        new ForwardingShutdown(forwardingQueue, deadLetters, 100L).stop();
+
+        verify(deadLetters).store(eq(queued.getEvent()), eq(ForwardingShutdown.ERROR_CODE), anyString());
+        verify(deadLetters, never()).store(eq(inFlight.getEvent()), any(), any());
+        assertTrue(queued.getResult().join().isPersisted());
+        // El worker sigue enviándolo: su resultado no se pisa
+        assertFalse(inFlight.getResult().isDone());
+    }
+
+    @Test
+    public void testFailedDeadLetterIsNotReportedAsPersisted() throws Exception {
+        ForwardTask queued = PriorityTaskBufferTest.task("tx-1", TransactionStatus.APPROVED, 0L);
+        ForwardingQueue forwardingQueue = mock(ForwardingQueue.class);
+        when(forwardingQueue.drain(100L)).thenReturn(new DrainResult(0L, List.of(queued), List.of()));
+        DeadLetterPort deadLetters = mock(DeadLetterPort.class);
+        doThrow(new IllegalStateException("base de datos caída"))
+                .when(deadLetters).store(any(), anyString(), anyString());
+
+        new ForwardingShutdown(forwardingQueue, deadLetters, 100L).stop();
+
+        ProcessingResult result = queued.getResult().join();
+        assertFalse(result.isSuccess());
+        // Sin dead letter el journal no se confirma
+        assertFalse(result.isPersisted());
+    }
+}
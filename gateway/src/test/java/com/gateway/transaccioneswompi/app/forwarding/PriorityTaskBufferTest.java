@@ -0,0 +1,54 @@
+package com.gateway.transaccioneswompi.app.forwarding;
+
+import com.gateway.transaccioneswompi.domain.TransactionStatus;
+import com.gateway.transaccioneswompi.domain.WompiWebhookEvent;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class PriorityTaskBufferTest {
+
+    private static final long MAX_WAIT = 1_000L;
+
+    @Test
+    public void testApprovedJumpsAheadOfPending() throws Exception {
+        PriorityTaskBuffer buffer = new PriorityTaskBuffer(MAX_WAIT);
+        ForwardTask pending = task("tx-1", TransactionStatus.PENDING, 0L);
+        ForwardTask declined = task("tx-2", TransactionStatus.DECLINED, 1L);
+        ForwardTask approved = task("tx-3", TransactionStatus.APPROVED, 2L);
+        buffer.add(pending);
+        buffer.add(declined);
+        buffer.add(approved);
+
+        assertEquals(approved, buffer.poll(10L));
+        assertEquals(declined, buffer.poll(10L));
+        assertEquals(pending, buffer.poll(10L));
+        assertNull(buffer.poll(10L));
+    }
+
+    @Test
+    public void testOverduePendingIsNotStarved() throws Exception {
+        PriorityTaskBuffer buffer = new PriorityTaskBuffer(MAX_WAIT);
+        ForwardTask pending = task("tx-1", TransactionStatus.PENDING, 0L);
+        ForwardTask approved = task("tx-2", TransactionStatus.APPROVED, 900L);
+        buffer.add(pending);
+        buffer.add(approved);
+
+        assertEquals(pending, buffer.poll(MAX_WAIT + 1));
+        assertEquals(1L, buffer.getOverdueServed());
+        assertEquals(approved, buffer.poll(MAX_WAIT + 1));
+    }
+
+    static ForwardTask task(String transactionId, TransactionStatus status, long enqueuedNanos) {
+        return new ForwardTask(event(transactionId, status, enqueuedNanos), enqueuedNanos);
+    }
+
+    static WompiWebhookEvent event(String transactionId, TransactionStatus status, long timestamp) {
+        WompiWebhookEvent.Transaction tx = new WompiWebhookEvent.Transaction(
+                transactionId, null, null, 1000L, "REF-" + transactionId, null, null, null,
+                status, null, null, null, null, null, null, null, null, null);
+        return new WompiWebhookEvent("transaction.updated", new WompiWebhookEvent.TransactionData(tx),
+                null, timestamp, null, "test");
+    }
+}
@@ -0,0 +1,31 @@
+package com.gateway.transaccioneswompi.app.forwarding;
+
+import com.gateway.transaccioneswompi.domain.TransactionStatus;
+import com.gateway.transaccioneswompi.domain.WompiWebhookEvent;
+import org.junit.jupiter.api.Test;
+
+import static com.gateway.transaccioneswompi.app.forwarding.PriorityTaskBufferTest.event;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StaleUpdateFilterTest {
+
+    @Test
+    public void testPendingAfterApprovedIsStale() throws Exception {
+        StaleUpdateFilter filter = new StaleUpdateFilter(10);
+        filter.markDelivered("tx-1", event("tx-1", TransactionStatus.APPROVED, 200L));
+
+        WompiWebhookEvent latePending = event("tx-1", TransactionStatus.PENDING, 300L);
+        assertTrue(filter.isStale("tx-1", latePending));
+    }
+
+    @Test
+    public void testOlderTimestampIsStale() throws Exception {
+        StaleUpdateFilter filter = new StaleUpdateFilter(10);
+        filter.markDelivered("tx-1", event("tx-1", TransactionStatus.PENDING, 200L));
+
+        assertTrue(filter.isStale("tx-1", event("tx-1", TransactionStatus.PENDING, 100L)));
+        assertFalse(filter.isStale("tx-1", event("tx-1", TransactionStatus.APPROVED, 300L)));
+        assertFalse(filter.isStale("tx-2", event("tx-2", TransactionStatus.PENDING, 100L)));
+    }
+}
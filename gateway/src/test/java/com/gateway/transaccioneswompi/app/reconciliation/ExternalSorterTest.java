@@ -0,0 +1,44 @@
+package com.gateway.transaccioneswompi.app.reconciliation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ExternalSorterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testSpillsToDiskAndMergesInOrder() throws Exception {
+        List<SeguruAck> input = new ArrayList<>();
+        for (int i = 99; i >= 0; i--) {
+            input.add(new SeguruAck(String.format("tx-%03d", i), "APPROVED"));
+        }
+        input.add(new SeguruAck(null, "APPROVED"));  // Sin ID: se ignora
+
+        List<String> sorted = new ArrayList<>();
+        try (ExternalSorter sorter = new ExternalSorter(tempDir, 7)) {
+            Iterator<SeguruAck> iterator = sorter.sort(input.iterator());
+            assertEquals(15, sorter.getRunCount());
+            iterator.forEachRemaining(ack -> sorted.add(ack.transactionId()));
+        }
+
+        assertEquals(100, sorted.size());
+        assertEquals("tx-000", sorted.get(0));
+        assertEquals("tx-099", sorted.get(99));
+        for (int i = 1; i < sorted.size(); i++) {
+            assertEquals(-1, Integer.signum(sorted.get(i - 1).compareTo(sorted.get(i))));
+        }
+        try (var files = Files.list(tempDir)) {
+            assertEquals(0L, files.count());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.gateway.transaccioneswompi.app.reconciliation;
+
+import com.gateway.transaccioneswompi.app.reconciliation.Reconciler.Discrepancy;
+import com.gateway.transaccioneswompi.app.reconciliation.Reconciler.DiscrepancyType;
+import com.gateway.transaccioneswompi.domain.ports.EventStorePort.TransactionState;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReconcilerTest {
+
+    @Test
+    public void testSortedMergeFindsEveryKindOfDiscrepancy() throws Exception {
+        List<TransactionState> gateway = List.of(
+                new TransactionState("tx-1", "APPROVED", 1L),
+                new TransactionState("tx-2", "APPROVED", 2L),
+                new TransactionState("tx-3", "DECLINED", 3L),
+                new TransactionState("tx-5", "PENDING", 5L));
+        List<SeguruAck> seguru = List.of(
+                new SeguruAck("tx-1", "APPROVED"),
+                new SeguruAck("tx-3", "PENDING"),
+                new SeguruAck("tx-4", "APPROVED"),
+                new SeguruAck("tx-5", "PENDING"),
+                new SeguruAck("tx-5", "APPROVED"));  // Repetido: gana el estado final
+
+        List<String> matches = new ArrayList<>();
+        List<Discrepancy> discrepancies = new ArrayList<>();
+        Reconciler.run(gateway.iterator(), seguru.iterator(), new Reconciler.Listener() {
+            @Override
+            public void onMatch(String transactionId) {
+                matches.add(transactionId);
+            }
+
+            @Override
+            public void onDiscrepancy(Discrepancy discrepancy) {
+                discrepancies.add(discrepancy);
+            }
+        });
+
+        assertEquals(List.of("tx-1"), matches);
+        assertEquals(4, discrepancies.size());
+
+        assertEquals(DiscrepancyType.MISSING_IN_SEGURU, discrepancies.get(0).type());
+        assertEquals("tx-2", discrepancies.get(0).transactionId());
+        assertTrue(discrepancies.get(0).redeliverable());
+
+        assertEquals(DiscrepancyType.STATUS_MISMATCH, discrepancies.get(1).type());
+        assertTrue(discrepancies.get(1).redeliverable());
+
+        assertEquals(DiscrepancyType.UNKNOWN_TO_GATEWAY, discrepancies.get(2).type());
+        assertEquals("tx-4", discrepancies.get(2).transactionId());
+
+        // PENDING en el gateway vs APPROVED en Seguru: no se reenvía (haría retroceder el estado)
+        assertEquals(DiscrepancyType.STATUS_MISMATCH, discrepancies.get(3).type());
+        assertFalse(discrepancies.get(3).redeliverable());
+    }
+}
@@ -0,0 +1,91 @@
+package com.gateway.transaccioneswompi.app.reconciliation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gateway.transaccioneswompi.domain.ports.DeadLetterPort;
+import com.gateway.transaccioneswompi.domain.ports.EventStorePort;
+import com.gateway.transaccioneswompi.domain.ports.EventStorePort.EventPage;
+import com.gateway.transaccioneswompi.domain.ports.EventStorePort.StoredEvent;
+import com.gateway.transaccioneswompi.domain.ports.EventStorePort.TransactionState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ReconciliationServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private EventStorePort eventStore;
+    private DeadLetterPort deadLetters;
+    private ReconciliationService service;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        eventStore = mock(EventStorePort.class);
+        deadLetters = mock(DeadLetterPort.class);
+        when(eventStore.search(any())).thenReturn(new EventPage(
+                List.of(new StoredEvent(1L, Instant.now(), "tx-1", null, "APPROVED", null, null)), null));
+
+        Path importDir = Files.createDirectories(dir.resolve("import"));
+        Files.writeString(importDir.resolve("seguru.csv"),
+                "transaction_id,status\ntx-3,APPROVED\n", StandardCharsets.UTF_8);
+        service = new ReconciliationService(eventStore, deadLetters, new ObjectMapper(),
+                importDir.toString(), dir.resolve("reports").toString(), 100, 100, 5);
+    }
+
+    @Test
+    public void testDiscrepanciesAreQueuedAfterTheMerge() throws Exception {
+        when(eventStore.latestStates(isNull(), any(), any(), anyInt())).thenReturn(List.of(
+                new TransactionState("tx-1", "APPROVED", 1L),
+                new TransactionState("tx-2", "APPROVED", 2L)));
+
+        ReconciliationJob job = await(service.start("seguru.csv", null, null, true));
+
+        assertEquals(ReconciliationJob.State.COMPLETED, job.getState());
+        assertEquals(2L, job.getQueuedForRedelivery());
+        verify(deadLetters, times(2)).store(any(), eq("RECONCILIATION_MISSING"), anyString());
+    }
+
+    @Test
+    public void testOrderViolationQueuesNothing() throws Exception {
+        // La base de datos devolvió otro orden que el del export (ej: otra colación)
+        when(eventStore.latestStates(isNull(), any(), any(), anyInt())).thenReturn(List.of(
+                new TransactionState("tx-2", "APPROVED", 2L),
+                new TransactionState("tx-1", "APPROVED", 1L)));
+
+        ReconciliationJob job = await(service.start("seguru.csv", null, null, true));
+
+        assertEquals(ReconciliationJob.State.FAILED, job.getState());
+        assertEquals(0L, job.getQueuedForRedelivery());
+        verify(deadLetters, never()).store(any(), anyString(), anyString());
+        // Lo encontrado antes del error queda en el reporte como no reenviado
+        List<String> report = Files.readAllLines(service.reportPath(job.getId()));
+        assertEquals("MISSING_IN_SEGURU,tx-2,APPROVED,,false", report.get(1));
+    }
+
+    private static ReconciliationJob await(ReconciliationJob job) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000L;
+        while (job.getState() == ReconciliationJob.State.RUNNING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10L);
+        }
+        return job;
+    }
+}
@@ -0,0 +1,63 @@
+package com.gateway.transaccioneswompi.app.usecases;
+
+import com.gateway.transaccioneswompi.app.usecases.ProcessWompiWebhookUseCase.ProcessingResult;
+import com.gateway.transaccioneswompi.domain.TransactionStatus;
+import com.gateway.transaccioneswompi.domain.WompiWebhookEvent;
+import com.gateway.transaccioneswompi.domain.ports.DeadLetterPort;
+import com.gateway.transaccioneswompi.domain.ports.DeliveryAuditPort;
+import com.gateway.transaccioneswompi.domain.ports.ExternalApiPort;
+import com.gateway.transaccioneswompi.domain.ports.ExternalApiPort.ExternalApiResponse;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ProcessWompiWebhookUseCaseTest {
+
+    @Test
+    public void testRateLimitedReservasIsNotDivertedToAliados() throws Exception {
+        ExternalApiPort externalApi = mock(ExternalApiPort.class);
+        DeadLetterPort deadLetters = mock(DeadLetterPort.class);
+        WompiWebhookEvent event = event();
+        when(externalApi.sendToReservas(event)).thenReturn(
+                new ExternalApiResponse(false, "Límite de tráfico saturado", ExternalApiResponse.RATE_LIMITED));
+
+        ProcessingResult result = new ProcessWompiWebhookUseCase(
+                externalApi, mock(DeliveryAuditPort.class), deadLetters).execute(event);
+
+        assertFalse(result.isSuccess());
+        assertFalse(result.isPersisted());
+        assertTrue(result.isRetryable());
+        verify(externalApi, never()).sendToAliados(any());
+        verify(deadLetters, never()).store(any(), anyString(), anyString());
+    }
+
+    @Test
+    public void testFailedReservasFallsBackToAliados() throws Exception {
+        ExternalApiPort externalApi = mock(ExternalApiPort.class);
+        WompiWebhookEvent event = event();
+        when(externalApi.sendToReservas(event)).thenReturn(
+                new ExternalApiResponse(false, "caído", "HTTP_SERVER_ERROR_503", 503));
+        when(externalApi.sendToAliados(event)).thenReturn(new ExternalApiResponse(true, "ok", null, 200));
+
+        ProcessingResult result = new ProcessWompiWebhookUseCase(
+                externalApi, mock(DeliveryAuditPort.class), mock(DeadLetterPort.class)).execute(event);
+
+        assertTrue(result.isSuccess());
+        assertFalse(result.isRetryable());
+    }
+
+    private static WompiWebhookEvent event() {
+        WompiWebhookEvent.Transaction tx = new WompiWebhookEvent.Transaction(
+                "tx-1", null, null, 1000L, "REF-tx-1", null, null, null,
+                TransactionStatus.APPROVED, null, null, null, null, null, null, null, null, null);
+        return new WompiWebhookEvent("transaction.updated", new WompiWebhookEvent.TransactionData(tx),
+                null, 10L, null, "test");
+    }
+}
@@ -0,0 +1,65 @@
+package com.gateway.transaccioneswompi.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class WompiWebhookEventTest {
+
+    @Test
+    public void testSignaturePropertiesAreSharedAndImmutable() throws Exception {
+        List<String> properties = new ArrayList<>(List.of("transaction.id", "transaction.status"));
+        WompiWebhookEvent.Signature first = new WompiWebhookEvent.Signature(properties, "a");
+        WompiWebhookEvent.Signature second = new WompiWebhookEvent.Signature(
+                List.of("transaction.id", "transaction.status"), "b");
+
+        assertSame(first.properties(), second.properties());
+        // Cambiar la lista original no cambia el evento
+        properties.add("transaction.amount_in_cents");
+        assertEquals(2, first.properties().size());
+        assertThrows(UnsupportedOperationException.class, () -> first.properties().add("x"));
+        assertNull(new WompiWebhookEvent.Signature(null, "c").properties());
+    }
+
+    @Test
+    public void testStatusValuesAreInterned() throws Exception {
+        assertSame(TransactionStatus.APPROVED, TransactionStatus.of("APPROVED"));
+        assertSame(TransactionStatus.of("PARTIALLY_REFUNDED"), TransactionStatus.of("PARTIALLY_REFUNDED"));
+        assertEquals("PARTIALLY_REFUNDED", TransactionStatus.of("PARTIALLY_REFUNDED").value());
+    }
+
+    @Test
+    public void testTransactionShortcutAndEquality() throws Exception {
+        WompiWebhookEvent empty = new WompiWebhookEvent("transaction.updated", null, null, null, null, null);
+        assertNull(empty.transaction());
+        assertEquals(empty, new WompiWebhookEvent("transaction.updated", null, null, null, null, null));
+    }
+
+    @Test
+    public void testPersonalDataIsRemovedFromOperatorCopy() throws Exception {
+        WompiWebhookEvent.Transaction tx = new WompiWebhookEvent.Transaction(
+                "tx-1", null, null, 1000L, "REF-1", "cliente@mail.com", null, null,
+                TransactionStatus.APPROVED, RawJson.of("{\"city\":\"Cali\"}"), null, null, null,
+                RawJson.of("{\"legal_id\":\"123\"}"), "po-1",
+                new WompiWebhookEvent.Payee("Ana", "CC 123", "BANCO", "SAVINGS", "0001", "ana@mail.com"),
+                null, null);
+        WompiWebhookEvent event = new WompiWebhookEvent("transaction.updated",
+                new WompiWebhookEvent.TransactionData(tx), null, 1L, null, "test");
+
+        WompiWebhookEvent.Transaction redacted = event.withoutPersonalData().transaction();
+        assertEquals("tx-1", redacted.id());
+        assertEquals("REF-1", redacted.reference());
+        assertNull(redacted.customerEmail());
+        assertNull(redacted.shippingAddress());
+        assertNull(redacted.billingData());
+        assertEquals(new WompiWebhookEvent.Payee(null, null, "BANCO", "SAVINGS", null, null), redacted.payee());
+        // El original no cambia
+        assertEquals("cliente@mail.com", event.transaction().customerEmail());
+    }
+}
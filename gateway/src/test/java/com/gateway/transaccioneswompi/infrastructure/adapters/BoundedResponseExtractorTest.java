@@ -0,0 +1,95 @@
+package com.gateway.transaccioneswompi.infrastructure.adapters;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.gateway.transaccioneswompi.infrastructure.adapters.BoundedResponseExtractor.DownstreamResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BoundedResponseExtractorTest {
+
+    private final BoundedResponseExtractor extractor = new BoundedResponseExtractor(new JsonFactory(), 256, 32);
+
+    @Test
+    public void testExtractsOnlyMessageFieldsAndSkipsData() throws Exception {
+        String body = "{\"success\":true,\"data\":{\"items\":[1,2,{\"message\":\"anidado\"}]},"
+                + "\"message\":\"ok\",\"error_code\":\"NONE\"}";
+        DownstreamResponse response = extractor.extractData(json(body, HttpStatus.OK));
+
+        assertTrue(response.isSuccessful());
+        assertEquals("ok", response.message());
+        assertEquals("NONE", response.errorCode());
+        assertNull(response.bodyExcerpt());
+    }
+
+    @Test
+    public void testSuccessBodyBeyondCapKeepsStatus() throws Exception {
+        // "message" llega después del tope de 256 bytes: no se lee
+        String big = "{\"data\":\"" + "x".repeat(1000) + "\",\"message\":\"tarde\"}";
+        DownstreamResponse response = extractor.extractData(json(big, HttpStatus.CREATED));
+        assertEquals(201, response.status());
+        assertNull(response.message());
+        assertFalse(response.invalidBody());
+
+        assertFalse(extractor.extractData(json("", HttpStatus.OK)).invalidBody());
+    }
+
+    @Test
+    public void testSuccessBodyThatIsNotJsonIsInvalid() throws Exception {
+        DownstreamResponse response = extractor.extractData(json("<html>ok</html>", HttpStatus.OK));
+        assertTrue(response.isSuccessful());
+        assertTrue(response.invalidBody());
+
+        assertTrue(extractor.extractData(json("[1,2]", HttpStatus.OK)).invalidBody());
+        assertTrue(extractor.extractData(json("{\"message\": oops}", HttpStatus.OK)).invalidBody());
+    }
+
+    @Test
+    public void testErrorBodyIsTruncated() throws Exception {
+        String html = "<html><body>" + "Bad Gateway ".repeat(500) + "</body></html>";
+        MockClientHttpResponse raw = new MockClientHttpResponse(html.getBytes(StandardCharsets.UTF_8), HttpStatus.BAD_GATEWAY);
+        raw.getHeaders().setContentType(MediaType.TEXT_HTML);
+        DownstreamResponse response = extractor.extractData(raw);
+
+        assertEquals(502, response.status());
+        assertTrue(response.bodyExcerpt().startsWith("<html><body>Bad Gateway"));
+        assertTrue(response.bodyExcerpt().endsWith("(truncado)"));
+        assertTrue(response.bodyExcerpt().length() < 64);
+    }
+
+    @Test
+    public void testGzipResponseIsDecodedAndCapped() throws Exception {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write("{\"message\":\"comprimido\"}".getBytes(StandardCharsets.UTF_8));
+        }
+        MockClientHttpResponse raw = new MockClientHttpResponse(compressed.toByteArray(), HttpStatus.OK);
+        raw.getHeaders().set("Content-Encoding", "gzip");
+        assertEquals("comprimido", extractor.extractData(raw).message());
+
+        // Una "bomba" de ceros: el extracto no pasa del tope aunque descomprimida pese 10 MB
+        compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(new byte[10 * 1024 * 1024]);
+        }
+        raw = new MockClientHttpResponse(compressed.toByteArray(), HttpStatus.BAD_GATEWAY);
+        raw.getHeaders().set("Content-Encoding", "gzip");
+        assertTrue(extractor.extractData(raw).bodyExcerpt().length() < 64);
+    }
+
+    private static MockClientHttpResponse json(String body, HttpStatus status) {
+        MockClientHttpResponse response = new MockClientHttpResponse(body.getBytes(StandardCharsets.UTF_8), status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response;
+    }
+}
@@ -0,0 +1,98 @@
+package com.gateway.transaccioneswompi.infrastructure.adapters;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.gateway.transaccioneswompi.domain.TransactionStatus;
+import com.gateway.transaccioneswompi.domain.WompiWebhookEvent;
+import com.gateway.transaccioneswompi.domain.ports.DeadLetterPort.DeadLetter;
+import com.gateway.transaccioneswompi.domain.ports.DeadLetterPort.DeadLetterQuery;
+import com.gateway.transaccioneswompi.infrastructure.mappers.EventBinaryCodec;
+import com.gateway.transaccioneswompi.infrastructure.mappers.RawJsonModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JdbcDeadLetterAdapterTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private JdbcDeadLetterAdapter deadLetters;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:dead-letter-test;DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("DELETE FROM dead_letter");
+
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .registerModule(new RawJsonModule());
+        deadLetters = new JdbcDeadLetterAdapter(jdbcTemplate, new EventBinaryCodec(objectMapper));
+    }
+
+    @Test
+    public void testSameEventFailingTwiceKeepsOneRow() throws Exception {
+        WompiWebhookEvent event = event("tx-1", TransactionStatus.APPROVED, 10L);
+        deadLetters.store(event, "CONNECTION_ERROR", "timeout");
+        deadLetters.store(event, "HTTP_SERVER_ERROR_503", "caído");
+        deadLetters.store(event("tx-2", TransactionStatus.DECLINED, 11L), "CONNECTION_ERROR", "timeout");
+
+        DeadLetterQuery all = new DeadLetterQuery(null, null, null, null, null, null, 10);
+        List<DeadLetter> pending = deadLetters.findPending(all);
+        assertEquals(2, pending.size());
+        assertEquals(2, pending.get(0).failures());
+        assertEquals("HTTP_SERVER_ERROR_503", pending.get(0).errorCode());
+        assertEquals("tx-1", pending.get(0).event().transaction().id());
+
+        DeadLetterQuery connection = new DeadLetterQuery(null, null, null, "CONNECTION_ERROR", null, null, 10);
+        assertEquals(1L, deadLetters.countPending(connection));
+
+        deadLetters.markReplayed(pending.get(0).id());
+        assertEquals(1L, deadLetters.countPending(all));
+    }
+
+    @Test
+    public void testDeliveryElsewhereResolvesOnlyThatEvent() throws Exception {
+        WompiWebhookEvent failed = event("tx-1", TransactionStatus.APPROVED, 10L);
+        deadLetters.store(failed, "CONNECTION_ERROR", "timeout");
+        deadLetters.store(event("tx-1", TransactionStatus.PENDING, 9L), "CONNECTION_ERROR", "timeout");
+
+        // Wompi reintentó el mismo evento y esta vez llegó a Seguru
+        assertTrue(deadLetters.resolve(failed));
+        assertFalse(deadLetters.resolve(failed));
+
+        DeadLetterQuery all = new DeadLetterQuery(null, null, null, null, null, null, 10);
+        List<DeadLetter> pending = deadLetters.findPending(all);
+        assertEquals(1, pending.size());
+        assertEquals(TransactionStatus.PENDING, pending.get(0).event().transaction().status());
+    }
+
+    @Test
+    public void testStoreFailureIsReportedToTheCaller() throws Exception {
+        jdbcTemplate.execute("DROP TABLE dead_letter");
+
+        // El llamador se entera de que el evento no quedó guardado
+        assertThrows(DataAccessException.class, () ->
+                deadLetters.store(event("tx-1", TransactionStatus.APPROVED, 10L), "CONNECTION_ERROR", "timeout"));
+    }
+
+    private static WompiWebhookEvent event(String id, TransactionStatus status, long timestamp) {
+        WompiWebhookEvent.Transaction tx = new WompiWebhookEvent.Transaction(
+                id, null, null, 1000L, "REF-" + id, null, null, null,
+                status, null, null, null, null, null, null, null, null, null);
+        return new WompiWebhookEvent("transaction.updated", new WompiWebhookEvent.TransactionData(tx),
+                null, timestamp, null, "test");
+    }
+}
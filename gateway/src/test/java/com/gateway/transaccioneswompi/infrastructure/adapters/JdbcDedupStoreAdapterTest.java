@@ -0,0 +1,82 @@
+package com.gateway.transaccioneswompi.infrastructure.adapters;
+
+import com.gateway.transaccioneswompi.domain.ports.DedupStorePort.ClaimResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Dos adaptadores sobre la misma base H2 hacen de dos réplicas del gateway
+ */
+public class JdbcDedupStoreAdapterTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private JdbcDedupStoreAdapter replicaA;
+    private JdbcDedupStoreAdapter replicaB;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:dedup-test;DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("DELETE FROM forward_dedup");
+
+        replicaA = new JdbcDedupStoreAdapter(jdbcTemplate, "replica-a", 60000L);
+        replicaB = new JdbcDedupStoreAdapter(jdbcTemplate, "replica-b", 60000L);
+    }
+
+    @Test
+    public void testOnlyOneReplicaClaimsAndDeliveredIsSkipped() throws Exception {
+        assertEquals(ClaimResult.CLAIMED, replicaA.tryClaim("tx-1", "APPROVED"));
+        assertEquals(ClaimResult.IN_PROGRESS, replicaB.tryClaim("tx-1", "APPROVED"));
+        // Otro estado de la misma transacción es otra llave
+        assertEquals(ClaimResult.CLAIMED, replicaB.tryClaim("tx-1", "PENDING"));
+
+        replicaA.markDelivered("tx-1", "APPROVED");
+        assertEquals(ClaimResult.DELIVERED, replicaB.tryClaim("tx-1", "APPROVED"));
+        assertEquals(ClaimResult.DELIVERED, replicaA.tryClaim("tx-1", "APPROVED"));
+    }
+
+    @Test
+    public void testReleasedAndAbandonedClaimsCanBeRetaken() throws Exception {
+        assertEquals(ClaimResult.CLAIMED, replicaA.tryClaim("tx-1", "APPROVED"));
+        // Solo el dueño libera su reclamo
+        replicaB.release("tx-1", "APPROVED");
+        assertEquals(ClaimResult.IN_PROGRESS, replicaB.tryClaim("tx-1", "APPROVED"));
+        replicaA.release("tx-1", "APPROVED");
+        assertEquals(ClaimResult.CLAIMED, replicaB.tryClaim("tx-1", "APPROVED"));
+
+        // La réplica B "se cae" con el reclamo tomado hace más del timeout
+        jdbcTemplate.update("UPDATE forward_dedup SET claimed_at = ? WHERE transaction_id = 'tx-1'",
+                Timestamp.from(Instant.now().minusSeconds(120)));
+        assertEquals(ClaimResult.CLAIMED, replicaA.tryClaim("tx-1", "APPROVED"));
+        assertEquals(ClaimResult.IN_PROGRESS, replicaB.tryClaim("tx-1", "APPROVED"));
+    }
+
+    @Test
+    public void testMarkDeliveredWithoutClaim() throws Exception {
+        // Reenvío manual: se entrega sin haber reclamado
+        replicaA.markDelivered("tx-9", "DECLINED");
+        assertEquals(ClaimResult.DELIVERED, replicaB.tryClaim("tx-9", "DECLINED"));
+    }
+
+    @Test
+    public void testDeliveredStatusesIgnoreClaimsInProgress() throws Exception {
+        replicaA.markDelivered("tx-1", "PENDING");
+        replicaA.markDelivered("tx-1", "APPROVED");
+        replicaB.tryClaim("tx-1", "VOIDED");
+
+        assertEquals(List.of("APPROVED", "PENDING"), replicaB.deliveredStatuses("tx-1").stream().sorted().toList());
+        assertEquals(List.of(), replicaB.deliveredStatuses("tx-2"));
+    }
+}
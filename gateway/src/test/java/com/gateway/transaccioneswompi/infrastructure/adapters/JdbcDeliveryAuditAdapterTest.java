@@ -0,0 +1,60 @@
+package com.gateway.transaccioneswompi.infrastructure.adapters;
+
+import com.gateway.transaccioneswompi.domain.ports.DeliveryAuditPort.DeliveryAttempt;
+import com.gateway.transaccioneswompi.domain.ports.DeliveryAuditPort.DeliveryRollup;
+import com.gateway.transaccioneswompi.domain.ports.DeliveryAuditPort.Destination;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class JdbcDeliveryAuditAdapterTest {
+
+    @Test
+    public void testRollupPerDestinationAndBucket() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:delivery-audit-test;DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("DELETE FROM delivery_attempt");
+
+        JdbcDeliveryAuditAdapter audit = new JdbcDeliveryAuditAdapter(
+                jdbcTemplate, new SimpleMeterRegistry(), true, 100, 10, 10L);
+
+        Instant hour = Instant.parse("2024-01-01T10:00:00Z");
+        for (int i = 1; i <= 4; i++) {
+            audit.record(attempt(hour.plusSeconds(i), Destination.RESERVAS, i != 4, i * 100L));
+        }
+        audit.record(attempt(hour.plusSeconds(10), Destination.ALIADOS, true, 50L));
+        audit.record(attempt(hour.plus(Duration.ofHours(1)), Destination.RESERVAS, true, 10L));
+        audit.shutdown();  // Guarda lo pendiente
+
+        List<DeliveryRollup> rollup = audit.rollup(hour, hour.plus(Duration.ofHours(2)), Duration.ofHours(1));
+        assertEquals(3, rollup.size());
+
+        DeliveryRollup aliados = rollup.get(0);
+        assertEquals(Destination.ALIADOS, aliados.destination());
+        assertEquals(1L, aliados.attempts());
+
+        DeliveryRollup reservas = rollup.get(1);
+        assertEquals(hour, reservas.bucketStart());
+        assertEquals(4L, reservas.attempts());
+        assertEquals(0.75, reservas.successRate(), 0.0001);
+        assertEquals(250.0, reservas.p50Millis(), 0.0001);
+
+        assertEquals(hour.plus(Duration.ofHours(1)), rollup.get(2).bucketStart());
+    }
+
+    private static DeliveryAttempt attempt(Instant at, Destination destination, boolean success, long latency) {
+        return new DeliveryAttempt(at, destination, destination == Destination.RESERVAS ? 1 : 2, success,
+                success ? 200 : 503, success ? null : "HTTP_SERVER_ERROR_503", latency, "tx-1", "APPROVED");
+    }
+}
@@ -0,0 +1,144 @@
+package com.gateway.transaccioneswompi.infrastructure.adapters;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.gateway.transaccioneswompi.domain.TransactionStatus;
+import com.gateway.transaccioneswompi.domain.WompiWebhookEvent;
+import com.gateway.transaccioneswompi.domain.ports.EventStorePort.EventPage;
+import com.gateway.transaccioneswompi.domain.ports.EventStorePort.EventQuery;
+import com.gateway.transaccioneswompi.domain.ports.EventStorePort.TransactionState;
+import com.gateway.transaccioneswompi.infrastructure.mappers.EventBinaryCodec;
+import com.gateway.transaccioneswompi.infrastructure.mappers.RawJsonModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JdbcEventStoreAdapterTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private EventBinaryCodec codec;
+    private JdbcEventStoreAdapter store;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:event-store-test;DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("DELETE FROM webhook_event");
+
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .registerModule(new RawJsonModule());
+        codec = new EventBinaryCodec(objectMapper);
+        store = adapter("secreto-de-prueba");
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        store.shutdown();
+    }
+
+    @Test
+    public void testKeysetPaginationByReference() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            store.append(event("tx-" + i, "REF-A", "Cliente@Mail.com ", TransactionStatus.PENDING), Instant.now());
+        }
+        store.append(event("tx-9", "REF-B", null, TransactionStatus.APPROVED), Instant.now());
+        store.shutdown();  // Guarda lo pendiente
+
+        EventPage first = store.search(new EventQuery(null, "REF-A", null, null, null, null, null, 3));
+        assertEquals(3, first.items().size());
+        assertEquals("tx-4", first.items().get(0).transactionId());
+
+        EventPage second = store.search(new EventQuery(null, "REF-A", null, null, null, null, first.nextCursor(), 3));
+        assertEquals(2, second.items().size());
+        assertEquals("tx-0", second.items().get(1).event().transaction().id());
+        assertNull(second.nextCursor());
+    }
+
+    @Test
+    public void testSearchByEmailHashAndStatus() throws Exception {
+        store.append(event("tx-1", "REF-A", "cliente@mail.com", TransactionStatus.PENDING), Instant.now());
+        store.append(event("tx-1", "REF-A", "cliente@mail.com", TransactionStatus.APPROVED), Instant.now());
+        store.shutdown();
+
+        EventPage page = store.search(new EventQuery(null, null, " CLIENTE@mail.com", TransactionStatus.APPROVED,
+                null, null, null, 10));
+        assertEquals(1, page.items().size());
+        assertEquals("APPROVED", page.items().get(0).status());
+
+        // El email no se guarda en claro
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM webhook_event WHERE email_hash LIKE '%@%'", Integer.class));
+    }
+
+    @Test
+    public void testEmailHashDependsOnTheSecret() throws Exception {
+        JdbcEventStoreAdapter other = adapter("otro-secreto");
+        try {
+            assertEquals(store.hashEmail("cliente@mail.com"), store.hashEmail(" Cliente@Mail.com"));
+            assertNotEquals(store.hashEmail("cliente@mail.com"), other.hashEmail("cliente@mail.com"));
+            assertEquals(64, store.hashEmail("cliente@mail.com").length());
+        } finally {
+            other.shutdown();
+        }
+    }
+
+    @Test
+    public void testWithoutSecretEmailIsNotHashedNorSearchable() throws Exception {
+        store.shutdown();
+        store = adapter("");
+        store.append(event("tx-1", "REF-A", "cliente@mail.com", TransactionStatus.APPROVED), Instant.now());
+        store.shutdown();
+
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM webhook_event WHERE email_hash IS NOT NULL", Integer.class));
+        assertThrows(IllegalArgumentException.class, () -> store.search(
+                new EventQuery(null, null, "cliente@mail.com", null, null, null, null, 10)));
+    }
+
+    @Test
+    public void testLatestStatePerTransactionInIdOrder() throws Exception {
+        store.append(event("tx-b", "REF-B", null, TransactionStatus.PENDING), Instant.now());
+        store.append(event("tx-a", "REF-A", null, TransactionStatus.PENDING), Instant.now());
+        store.append(event("tx-b", "REF-B", null, TransactionStatus.APPROVED), Instant.now());
+        store.append(event("tx-c", "REF-C", null, TransactionStatus.DECLINED), Instant.now());
+        store.shutdown();
+
+        List<TransactionState> first = store.latestStates(null, null, null, 2);
+        assertEquals(2, first.size());
+        assertEquals("tx-a", first.get(0).transactionId());
+        assertEquals("APPROVED", first.get(1).status());
+
+        List<TransactionState> rest = store.latestStates(first.get(1).transactionId(), null, null, 2);
+        assertEquals(1, rest.size());
+        assertEquals("tx-c", rest.get(0).transactionId());
+    }
+
+    private JdbcEventStoreAdapter adapter(String emailHashSecret) {
+        return new JdbcEventStoreAdapter(jdbcTemplate, codec, new SimpleMeterRegistry(),
+                true, 100, 10, 10L, 200, emailHashSecret);
+    }
+
+    private static WompiWebhookEvent event(String id, String reference, String email, TransactionStatus status) {
+        WompiWebhookEvent.Transaction tx = new WompiWebhookEvent.Transaction(
+                id, null, null, 1000L, reference, email, null, null,
+                status, null, null, null, null, null, null, null, null, null);
+        return new WompiWebhookEvent("transaction.updated", new WompiWebhookEvent.TransactionData(tx),
+                null, 1L, null, "test");
+    }
+}
@@ -0,0 +1,89 @@
+package com.gateway.transaccioneswompi.infrastructure.adapters;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Un adaptador sobre una base H2 compartida; "node-a" y "node-b" hacen de dos réplicas
+ */
+public class JdbcPartitionLeaseAdapterTest {
+
+    private static final Duration TTL = Duration.ofSeconds(15);
+
+    private JdbcTemplate jdbcTemplate;
+    private JdbcPartitionLeaseAdapter leases;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:lease-test;DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("DELETE FROM partition_lease");
+        jdbcTemplate.update("DELETE FROM cluster_node");
+
+        leases = new JdbcPartitionLeaseAdapter(jdbcTemplate);
+        leases.initialize(4);
+        // Una segunda réplica que arranca no duplica las particiones
+        leases.initialize(4);
+    }
+
+    @Test
+    public void testPartitionHasSingleOwner() throws Exception {
+        assertEquals(List.of(0, 1, 2, 3), leases.available());
+
+        assertTrue(leases.tryAcquire(0, "node-a", TTL));
+        assertFalse(leases.tryAcquire(0, "node-b", TTL));
+        assertTrue(leases.tryAcquire(1, "node-b", TTL));
+        assertEquals(List.of(2, 3), leases.available());
+
+        assertTrue(leases.renew(0, "node-a", TTL));
+        assertFalse(leases.renew(0, "node-b", TTL));
+    }
+
+    @Test
+    public void testExpiredLeaseIsTakenOverAndReleaseFreesIt() throws Exception {
+        assertTrue(leases.tryAcquire(0, "node-a", TTL));
+
+        // node-a deja de renovar: el arriendo vence y node-b lo toma
+        jdbcTemplate.update("UPDATE partition_lease SET expires_at = ? WHERE partition_no = 0",
+                Timestamp.from(Instant.now().minusSeconds(1)));
+        assertTrue(leases.available().contains(0));
+        assertTrue(leases.tryAcquire(0, "node-b", TTL));
+        assertFalse(leases.renew(0, "node-a", TTL));
+
+        // Solo el dueño puede liberar
+        leases.release(0, "node-a");
+        assertFalse(leases.available().contains(0));
+        leases.release(0, "node-b");
+        assertTrue(leases.tryAcquire(0, "node-a", TTL));
+    }
+
+    @Test
+    public void testLiveNodesFollowHeartbeats() throws Exception {
+        leases.heartbeat("node-a");
+        leases.heartbeat("node-b");
+        leases.heartbeat("node-a");
+        assertEquals(2, leases.liveNodes(TTL));
+
+        jdbcTemplate.update("UPDATE cluster_node SET heartbeat_at = ? WHERE node_id = 'node-b'",
+                Timestamp.from(Instant.now().minusSeconds(60)));
+        assertEquals(1, leases.liveNodes(TTL));
+
+        leases.leave("node-a");
+        assertEquals(0, leases.liveNodes(TTL));
+    }
+}
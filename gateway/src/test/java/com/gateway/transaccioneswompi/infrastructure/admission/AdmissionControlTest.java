@@ -0,0 +1,57 @@
+package com.gateway.transaccioneswompi.infrastructure.admission;
+
+import com.gateway.transaccioneswompi.app.forwarding.ForwardingQueue;
+import com.gateway.transaccioneswompi.domain.EventPriority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AdmissionControlTest {
+
+    private final ForwardingQueue forwardingQueue = mock(ForwardingQueue.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // max-in-flight 3, intermedios 1, latencia sin límite práctico, backlog de intermedios 10
+    private final AdmissionControl admission =
+            new AdmissionControl(3, 1, 60_000L, 10, forwardingQueue, meterRegistry);
+
+    @Test
+    public void testIntermediateEventsAreShedFirst() throws Exception {
+        try (AdmissionControl.Permit pending = admission.tryAcquire(EventPriority.INTERMEDIATE)) {
+            assertTrue(pending.isAdmitted());
+
+            // El cupo de intermedios se llenó, pero los finales siguen entrando
+            try (AdmissionControl.Permit secondPending = admission.tryAcquire(EventPriority.INTERMEDIATE);
+                 AdmissionControl.Permit approved = admission.tryAcquire(EventPriority.FINAL);
+                 AdmissionControl.Permit declined = admission.tryAcquire(EventPriority.FINAL);
+                 AdmissionControl.Permit overLimit = admission.tryAcquire(EventPriority.FINAL)) {
+                assertFalse(secondPending.isAdmitted());
+                assertTrue(approved.isAdmitted());
+                assertTrue(declined.isAdmitted());
+                assertFalse(overLimit.isAdmitted());
+                assertEquals(3, admission.getInFlight());
+            }
+        }
+        // Cerrar los permisos libera el cupo (los rechazados no descuentan)
+        assertEquals(0, admission.getInFlight());
+        assertEquals(1.0, meterRegistry.get("gateway.admission.rejected").tag("priority", "intermediate").counter().count());
+        assertEquals(1.0, meterRegistry.get("gateway.admission.rejected").tag("priority", "final").counter().count());
+    }
+
+    @Test
+    public void testCongestedQueueShedsOnlyIntermediateEvents() throws Exception {
+        when(forwardingQueue.size()).thenReturn(10);
+
+        try (AdmissionControl.Permit pending = admission.tryAcquire(EventPriority.INTERMEDIATE);
+             AdmissionControl.Permit approved = admission.tryAcquire(EventPriority.FINAL)) {
+            assertFalse(pending.isAdmitted());
+            assertEquals("Cola de reenvío congestionada", pending.getRejectionReason());
+            assertTrue(approved.isAdmitted());
+        }
+    }
+}
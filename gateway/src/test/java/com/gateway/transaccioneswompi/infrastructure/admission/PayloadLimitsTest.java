@@ -0,0 +1,68 @@
+package com.gateway.transaccioneswompi.infrastructure.admission;
+
+import com.fasterxml.jackson.core.exc.StreamConstraintsException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.gateway.transaccioneswompi.infrastructure.dto.WompiWebhookRequest;
+import com.gateway.transaccioneswompi.infrastructure.mappers.RawJsonModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PayloadLimitsTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .registerModule(new RawJsonModule());
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PayloadLimits limits = new PayloadLimits(objectMapper, meterRegistry, 1024, 8, 100, 20);
+
+    @Test
+    public void testNestingAndStringLimitsStopTheParser() throws Exception {
+        String deep = "[".repeat(50) + "]".repeat(50);
+        assertThrows(StreamConstraintsException.class, () -> read(webhook("\"billing_data\":" + deep)));
+
+        String longReference = "\"reference\":\"" + "x".repeat(500) + "\"";
+        assertThrows(StreamConstraintsException.class, () -> read(webhook(longReference)));
+
+        assertThrows(IOException.class, () -> read("{\"event\":"));
+
+        WompiWebhookRequest request = read(webhook("\"billing_data\":{\"items\":[{\"sku\":\"R-1\"}]}"));
+        assertEquals("tx-1", request.getData().getTransaction().getId());
+
+        assertEquals(1.0, rejected("too_deep"));
+        assertEquals(1.0, rejected("string_too_long"));
+        assertEquals(1.0, rejected("malformed"));
+        // Los límites no se filtran al ObjectMapper del resto del gateway
+        objectMapper.readValue(webhook("\"billing_data\":" + deep), WompiWebhookRequest.class);
+    }
+
+    @Test
+    public void testDeclaredContentLength() throws Exception {
+        assertTrue(limits.acceptsContentLength(null));
+        assertTrue(limits.acceptsContentLength(1024L));
+        assertFalse(limits.acceptsContentLength(1025L));
+        assertEquals(1.0, rejected("too_large"));
+    }
+
+    private WompiWebhookRequest read(String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        return limits.readWebhook(body, body.length);
+    }
+
+    private double rejected(String reason) {
+        return meterRegistry.get("gateway.payload.rejected").tag("reason", reason).counter().count();
+    }
+
+    private static String webhook(String transactionField) {
+        return "{\"event\":\"transaction.updated\",\"data\":{\"transaction\":{\"id\":\"tx-1\","
+                + transactionField + "}},\"timestamp\":1}";
+    }
+}
@@ -0,0 +1,65 @@
+package com.gateway.transaccioneswompi.infrastructure.buffers;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BufferPoolTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BufferPool pool = new BufferPool(meterRegistry, 64, 2);
+
+    @Test
+    public void testBuffersAreReusedAfterClose() throws Exception {
+        byte[] first;
+        try (PooledBuffer buffer = pool.acquire()) {
+            OutputStream out = buffer.outputStream();
+            out.write("{\"a\":1}".getBytes(StandardCharsets.UTF_8));
+            // Jackson cierra el stream: el buffer no debe volver al pool todavía
+            out.close();
+            assertEquals("{\"a\":1}", new String(buffer.array(), 0, buffer.length(), StandardCharsets.UTF_8));
+            first = buffer.array();
+        }
+        try (PooledBuffer buffer = pool.acquire()) {
+            assertSame(first, buffer.array());
+            assertEquals(0, buffer.length());
+        }
+
+        assertEquals(1.0, meterRegistry.get("gateway.buffers.acquired").tag("result", "miss").counter().count());
+        assertEquals(1.0, meterRegistry.get("gateway.buffers.acquired").tag("result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("gateway.buffers.available").gauge().value());
+    }
+
+    @Test
+    public void testOversizeBodyIsReadCompletely() throws Exception {
+        byte[] body = new byte[1000];
+        Arrays.fill(body, (byte) 'x');
+
+        try (PooledBuffer buffer = pool.acquire()) {
+            assertTrue(buffer.readFrom(new ByteArrayInputStream(body), 4096));
+            assertArrayEquals(body, buffer.toByteArray());
+        }
+
+        assertEquals(1.0, meterRegistry.get("gateway.buffers.oversize").counter().count());
+        // El arreglo del pool volvió al crecer; el grande no se guarda
+        try (PooledBuffer buffer = pool.acquire()) {
+            assertEquals(64, buffer.array().length);
+        }
+
+        // Con tope: se deja de leer apenas se pasa
+        try (PooledBuffer buffer = pool.acquire()) {
+            assertFalse(buffer.readFrom(new ByteArrayInputStream(body), 100));
+            assertEquals(101, buffer.length());
+        }
+    }
+}
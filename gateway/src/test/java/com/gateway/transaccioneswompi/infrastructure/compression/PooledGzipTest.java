@@ -0,0 +1,35 @@
+package com.gateway.transaccioneswompi.infrastructure.compression;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PooledGzipTest {
+
+    @Test
+    public void testRoundTripWithReusedDeflater() throws Exception {
+        // Pool de uno: la segunda llamada reutiliza el Deflater de la primera
+        PooledGzip gzip = new PooledGzip(6, 1);
+
+        byte[] big = "{\"transaction\":{\"id\":\"1234-5678\",\"status\":\"APPROVED\"}}"
+                .repeat(100).getBytes(StandardCharsets.UTF_8);
+        byte[] small = "{}".getBytes(StandardCharsets.UTF_8);
+
+        byte[] compressed = gzip.compress(big);
+        assertTrue(compressed.length < big.length / 4);
+        assertArrayEquals(big, gunzip(compressed));
+        assertArrayEquals(small, gunzip(gzip.compress(small)));
+        assertArrayEquals(new byte[0], gunzip(gzip.compress(new byte[0])));
+    }
+
+    private static byte[] gunzip(byte[] data) throws Exception {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return in.readAllBytes();
+        }
+    }
+}
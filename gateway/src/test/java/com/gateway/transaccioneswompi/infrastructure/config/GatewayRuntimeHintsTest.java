@@ -0,0 +1,31 @@
+package com.gateway.transaccioneswompi.infrastructure.config;
+
+import com.gateway.transaccioneswompi.domain.TransactionStatus;
+import com.gateway.transaccioneswompi.domain.WompiWebhookEvent;
+import com.gateway.transaccioneswompi.infrastructure.dto.ExternalApiResponseDto;
+import com.gateway.transaccioneswompi.infrastructure.dto.WompiWebhookRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GatewayRuntimeHintsTest {
+
+    @Test
+    public void testJacksonBindingTypesAreRegistered() throws Exception {
+        RuntimeHints hints = new RuntimeHints();
+        new GatewayRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        assertTrue(RuntimeHintsPredicates.reflection().onType(WompiWebhookRequest.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(ExternalApiResponseDto.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(WompiWebhookEvent.class)
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+        // Tipos anidados del record
+        assertTrue(RuntimeHintsPredicates.reflection().onType(WompiWebhookEvent.Transaction.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onMethod(TransactionStatus.class.getMethod("of", String.class)).test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource("log4jdbc.log4j2.properties").test(hints));
+    }
+}
@@ -0,0 +1,64 @@
+package com.gateway.transaccioneswompi.infrastructure.health;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.gateway.transaccioneswompi.domain.ports.DeliveryAuditPort.Destination;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class DestinationHealthTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+    private final RollingOutcomeWindow window = new RollingOutcomeWindow(60_000L, 12, clock::get);
+    private final DestinationHealth health = new DestinationHealth(new SimpleMeterRegistry(), 60_000L, 10, 0.5, 5);
+
+    @Test
+    public void testLowSuccessRateIsDownUntilItLeavesTheWindow() throws Exception {
+        for (int i = 0; i < 12; i++) {
+            window.record(i % 3 == 0);
+        }
+        assertEquals(12, window.snapshot().calls());
+        assertEquals(Status.DOWN, health.health(window.snapshot()).getStatus());
+
+        // Sin tráfico durante una ventana completa: vuelve a UP
+        clock.addAndGet(61_000L);
+        assertEquals(0, window.snapshot().calls());
+        assertEquals(0, window.snapshot().consecutiveFailures());
+        assertEquals(Status.UP, health.health(window.snapshot()).getStatus());
+    }
+
+    @Test
+    public void testConsecutiveFailuresWithFewCalls() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            window.record(false);
+        }
+        // Pocos envíos: la tasa no alcanza min-calls y la racha todavía no llega a 5
+        assertEquals(Status.UP, health.health(window.snapshot()).getStatus());
+
+        window.record(false);
+        assertEquals(Status.DOWN, health.health(window.snapshot()).getStatus());
+
+        // Un éxito corta la racha; la tasa sigue sin alcanzar min-calls
+        clock.addAndGet(5_000L);
+        window.record(true);
+        assertEquals(Status.UP, health.health(window.snapshot()).getStatus());
+    }
+
+    @Test
+    public void testDeliveryIsDownOnlyWhenEveryDestinationIsDown() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            health.record(Destination.RESERVAS, 503);
+        }
+        assertEquals(Status.DOWN, health.indicator(Destination.RESERVAS).health().getStatus());
+        // Aliados todavía entrega: la réplica sigue lista
+        assertEquals(Status.UP, health.deliveryIndicator().health().getStatus());
+
+        for (int i = 0; i < 5; i++) {
+            health.record(Destination.ALIADOS, 0);
+        }
+        assertEquals(Status.DOWN, health.deliveryIndicator().health().getStatus());
+    }
+}
@@ -0,0 +1,85 @@
+package com.gateway.transaccioneswompi.infrastructure.mappers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.gateway.transaccioneswompi.domain.WompiWebhookEvent;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EventBinaryCodecTest {
+
+    private static final String PAYMENT = "{\"event\":\"transaction.updated\",\"data\":{\"transaction\":{"
+            + "\"id\":\"1234-1610641025-49201\",\"created_at\":\"2024-03-01T10:15:30.123Z\","
+            + "\"finalized_at\":\"2024-03-01T10:16:00Z\",\"amount_in_cents\":4490000,"
+            + "\"reference\":\"MZQ3X2DE2SMX\",\"customer_email\":\"juan.perez@example.com\",\"currency\":\"COP\","
+            + "\"payment_method_type\":\"NEQUI\",\"status\":\"APPROVED\",\"shipping_address\":null,"
+            + "\"redirect_url\":\"https://reservas.example.com/pagos\","
+            + "\"billing_data\":{\"legal_id\":\"1020304050\",\"items\":[{\"sku\":\"R-1\",\"price\":1.50}]}}},"
+            + "\"signature\":{\"properties\":[\"transaction.id\",\"transaction.status\"],"
+            + "\"checksum\":\"3476DDA50F64CD7CBD160689640506FEBEA93239BC524FC0469B2C68A3CC8BD0\"},"
+            + "\"timestamp\":1530291411,\"sent_at\":\"2024-03-01T10:16:01Z\",\"environment\":\"prod\"}";
+
+    private static final String PAYOUT = "{\"event\":\"payout.updated\",\"data\":{\"transaction\":{"
+            + "\"id\":\"po-9\",\"amount_in_cents\":-150,\"status\":\"FAILED\",\"payout_id\":\"P-9\","
+            + "\"payee\":{\"name\":\"Ana Gómez\",\"bank\":\"Bancolombia\",\"account_type\":\"SAVINGS\"},"
+            + "\"failure_reason\":{\"code\":\"C02\",\"message\":\"Cuenta inválida ñ\"},"
+            + "\"applied_at\":\"2024-03-02T00:00:00Z\"}},\"timestamp\":0}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .registerModule(new RawJsonModule());
+    private final EventBinaryCodec codec = new EventBinaryCodec(objectMapper);
+
+    @Test
+    public void testRoundTripMatchesJsonForm() throws Exception {
+        for (String json : new String[] {PAYMENT, PAYOUT}) {
+            WompiWebhookEvent event = objectMapper.readValue(json, WompiWebhookEvent.class);
+            byte[] binary = codec.encode(event);
+            WompiWebhookEvent decoded = codec.decode(binary);
+
+            assertEquals(event, decoded);
+            // Lo que se reenvía a Seguru después de leerlo del almacén es idéntico
+            assertArrayEquals(objectMapper.writeValueAsBytes(event), objectMapper.writeValueAsBytes(decoded));
+            assertTrue(binary.length < objectMapper.writeValueAsBytes(event).length);
+        }
+
+        WompiWebhookEvent empty = new WompiWebhookEvent(null, null, null, 0L, null, null);
+        assertEquals(empty, codec.decode(codec.encode(empty)));
+        WompiWebhookEvent noTimestamp = new WompiWebhookEvent(null, null, null, null, null, null);
+        assertNull(codec.decode(codec.encode(noTimestamp)).timestamp());
+    }
+
+    @Test
+    public void testVersionOneRowsAreStillReadable() throws Exception {
+        // v1: sin evento, sin data, sin firma, timestamp 5 (zigzag 10), sin sent_at ni environment
+        byte[] v1 = {EventBinaryCodec.MAGIC, 1, 0, 0, 0, 10, 0, 0};
+        assertEquals(new WompiWebhookEvent(null, null, null, 5L, null, null), codec.decode(v1));
+    }
+
+    @Test
+    public void testLegacyJsonRowsAreStillReadable() throws Exception {
+        WompiWebhookEvent event = codec.decode(PAYMENT.getBytes(StandardCharsets.UTF_8));
+        assertEquals("1234-1610641025-49201", event.transaction().id());
+        assertNull(event.transaction().shippingAddress());
+    }
+
+    @Test
+    public void testTruncatedOrUnknownVersionFails() throws Exception {
+        byte[] binary = codec.encode(objectMapper.readValue(PAYMENT, WompiWebhookEvent.class));
+
+        assertThrows(IOException.class, () -> codec.decode(Arrays.copyOf(binary, binary.length / 2)));
+
+        byte[] future = binary.clone();
+        future[1] = (byte) (EventBinaryCodec.VERSION + 1);
+        assertThrows(IOException.class, () -> codec.decode(future));
+    }
+}
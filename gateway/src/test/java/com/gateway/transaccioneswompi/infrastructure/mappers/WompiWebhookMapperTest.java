@@ -0,0 +1,76 @@
+package com.gateway.transaccioneswompi.infrastructure.mappers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.gateway.transaccioneswompi.domain.CurrencyCode;
+import com.gateway.transaccioneswompi.domain.TransactionStatus;
+import com.gateway.transaccioneswompi.domain.WompiWebhookEvent;
+import com.gateway.transaccioneswompi.infrastructure.dto.WompiWebhookRequest;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Lo que llega de Wompi y lo que sale hacia Seguru (mismo ObjectMapper que la app)
+ */
+public class WompiWebhookMapperTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .registerModule(new RawJsonModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final WompiWebhookMapper mapper = new WompiWebhookMapper();
+
+    @Test
+    public void testPaymentIsMappedWithSharedValues() throws Exception {
+        WompiWebhookEvent event = map("{\"event\":\"transaction.updated\",\"data\":{\"transaction\":{"
+                + "\"id\":\"tx-1\",\"amount_in_cents\":4490000,\"currency\":\"COP\",\"status\":\"APPROVED\","
+                + "\"finalized_at\":\"2024-03-01T10:16:00Z\"}},\"timestamp\":1530291411}");
+
+        assertEquals("tx-1", event.transaction().id());
+        assertEquals(4490000L, event.transaction().amountInCents());
+        assertEquals(1530291411L, event.timestamp());
+        assertEquals(Instant.parse("2024-03-01T10:16:00Z"), event.transaction().finalizedAt());
+        assertSame(TransactionStatus.APPROVED, event.transaction().status());
+        assertSame(CurrencyCode.of("COP"), event.transaction().currency());
+        // Sin payee/failure_reason/firma en el JSON: no se crean objetos vacíos
+        assertNull(event.transaction().payee());
+        assertNull(event.signature());
+    }
+
+    @Test
+    public void testMissingAmountAndTimestampAreForwardedAsNull() throws Exception {
+        WompiWebhookEvent event = map("{\"event\":\"transaction.updated\",\"data\":{\"transaction\":{"
+                + "\"id\":\"tx-2\",\"status\":\"PENDING\"}}}");
+
+        assertNull(event.transaction().amountInCents());
+        assertNull(event.timestamp());
+
+        JsonNode sent = objectMapper.readTree(objectMapper.writeValueAsBytes(event));
+        assertTrue(sent.get("timestamp").isNull());
+        assertTrue(sent.get("data").get("transaction").get("amount_in_cents").isNull());
+    }
+
+    @Test
+    public void testRawJsonFieldsArePassedThroughExactly() throws Exception {
+        String billing = "{\"legal_id\":\"1020304050\",\"items\":[{\"sku\":\"R-1\",\"price\":1.50,\"qty\":1E2}],\"note\":null}";
+        WompiWebhookEvent event = map("{\"event\":\"transaction.updated\",\"data\":{\"transaction\":{"
+                + "\"id\":\"tx-3\",\"shipping_address\":null,\"billing_data\":" + billing + "}},\"timestamp\":1}");
+
+        assertEquals(billing, event.transaction().billingData().json());
+        assertNull(event.transaction().shippingAddress());
+        // Los números no pasan por double: 1.50 y 1E2 salen tal cual
+        assertTrue(new String(objectMapper.writeValueAsBytes(event)).contains("\"billing_data\":" + billing));
+    }
+
+    private WompiWebhookEvent map(String json) throws Exception {
+        return mapper.toDomain(objectMapper.readValue(json, WompiWebhookRequest.class));
+    }
+}
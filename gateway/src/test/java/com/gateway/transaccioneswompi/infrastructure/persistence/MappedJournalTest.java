@@ -0,0 +1,116 @@
+package com.gateway.transaccioneswompi.infrastructure.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MappedJournalTest {
+
+    private static final int SEGMENT = 256;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testSegmentSizeIsValidatedWithoutOverflow() throws Exception {
+        assertEquals(64 * 1024 * 1024, MappedJournal.segmentSizeFromMegabytes(64));
+        assertEquals(2047L * 1024 * 1024, MappedJournal.segmentSizeFromMegabytes(2047));
+        // 2048 MB * 1024 * 1024 en int daba 0; 4096 MB, un valor negativo
+        assertThrows(IllegalArgumentException.class, () -> MappedJournal.segmentSizeFromMegabytes(2048));
+        assertThrows(IllegalArgumentException.class, () -> MappedJournal.segmentSizeFromMegabytes(4096));
+        assertThrows(IllegalArgumentException.class, () -> MappedJournal.segmentSizeFromMegabytes(0));
+    }
+
+    @Test
+    public void testUnackedRecordsAreRecoveredAcrossSegments() throws Exception {
+        long[] offsets = new long[10];
+        try (MappedJournal journal = new MappedJournal(dir, SEGMENT, 1L, 1L, true)) {
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = journal.append(payload(i));
+            }
+            // Se confirman todos menos el 3 y el 8 (entregas fuera de orden)
+            for (int i = 0; i < offsets.length; i++) {
+                if (i != 3 && i != 8) {
+                    journal.ack(offsets[i]);
+                }
+            }
+        }
+
+        try (MappedJournal reopened = new MappedJournal(dir, SEGMENT, 1L, 1L, true)) {
+            List<MappedJournal.Entry> recovered = reopened.getRecovered();
+            // El checkpoint guarda solo el primer pendiente (registro 3): se recupera
+            // desde ahí, incluidos los ya confirmados que vienen después (al-menos-una-vez)
+            assertEquals(offsets[3], recovered.get(0).offset());
+            assertTrue(new String(recovered.get(0).payload(), StandardCharsets.UTF_8).startsWith("evento-3|"));
+            assertEquals(offsets.length - 3, recovered.size());
+
+            // Lo nuevo se agrega después de lo recuperado
+            long next = reopened.append(payload(10));
+            assertTrue(next > offsets[9]);
+        }
+    }
+
+    @Test
+    public void testTornWriteStopsRecovery() throws Exception {
+        long second;
+        try (MappedJournal journal = new MappedJournal(dir, SEGMENT, 1L, 1L, true)) {
+            journal.append(payload(0));
+            second = journal.append(payload(1));
+            journal.append(payload(2));
+        }
+
+        // Simular una escritura cortada: se daña el contenido del segundo registro
+        try (RandomAccessFile file = new RandomAccessFile(dir.resolve(String.format("%020d.journal", 0)).toFile(), "rw")) {
+            file.seek(second + 8);
+            file.write('X');
+        }
+
+        try (MappedJournal reopened = new MappedJournal(dir, SEGMENT, 1L, 1L, true)) {
+            assertEquals(1, reopened.getRecovered().size());
+            assertEquals(second, reopened.append(payload(3)));
+        }
+    }
+
+    @Test
+    public void testEmptyRecordIsRejected() throws Exception {
+        try (MappedJournal journal = new MappedJournal(dir, SEGMENT, 1L, 1L, true)) {
+            journal.append(payload(0));
+            // Un largo 0 se leería como el fin del journal al recuperar
+            assertThrows(IOException.class, () -> journal.append(new byte[0]));
+            journal.append(payload(1));
+        }
+
+        try (MappedJournal reopened = new MappedJournal(dir, SEGMENT, 1L, 1L, true)) {
+            assertEquals(2, reopened.getRecovered().size());
+        }
+    }
+
+    @Test
+    public void testOldestPendingAgeFollowsTheFirstUnackedRecord() throws Exception {
+        try (MappedJournal journal = new MappedJournal(dir, SEGMENT, 1L, 1L, true)) {
+            assertEquals(0L, journal.oldestPendingAgeMillis());
+            long first = journal.append(payload(0));
+            Thread.sleep(50L);
+            long second = journal.append(payload(1));
+
+            assertTrue(journal.oldestPendingAgeMillis() >= 50L);
+            journal.ack(first);
+            assertTrue(journal.oldestPendingAgeMillis() < 50L);
+            journal.ack(second);
+            assertEquals(0L, journal.oldestPendingAgeMillis());
+        }
+    }
+
+    private static byte[] payload(int i) {
+        return ("evento-" + i + "|" + "x".repeat(40)).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,60 @@
+package com.gateway.transaccioneswompi.infrastructure.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TokenBucketTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void testBurstThenPacedWaits() throws Exception {
+        AtomicLong now = new AtomicLong(1_000_000_000L);
+        // 10 por segundo = un token cada 100 ms, ráfaga de 3
+        TokenBucket bucket = new TokenBucket(10, 3, now::get);
+
+        assertEquals(0L, bucket.reserve(0));
+        assertEquals(0L, bucket.reserve(0));
+        assertEquals(0L, bucket.reserve(0));
+        // Los siguientes esperan su turno, en orden
+        assertEquals(100 * MS, bucket.reserve(1000 * MS));
+        assertEquals(200 * MS, bucket.reserve(1000 * MS));
+
+        // Pasa el tiempo y el balde se recarga
+        now.addAndGet(1000 * MS);
+        assertEquals(0L, bucket.reserve(0));
+    }
+
+    @Test
+    public void testWaitBeyondMaxIsNotReserved() throws Exception {
+        AtomicLong now = new AtomicLong(0L);
+        TokenBucket bucket = new TokenBucket(10, 1, now::get);
+
+        assertEquals(0L, bucket.reserve(0));
+        assertEquals(-1L, bucket.reserve(50 * MS));
+        // El rechazo no consumió turno
+        assertEquals(100 * MS, bucket.reserve(150 * MS));
+    }
+
+    @Test
+    public void testReleasedTokenIsReused() throws Exception {
+        AtomicLong now = new AtomicLong(0L);
+        TokenBucket bucket = new TokenBucket(10, 1, now::get);
+
+        assertEquals(0L, bucket.reserve(0));
+        assertEquals(100 * MS, bucket.reserve(1000 * MS));
+        // El segundo no llegó a usar su turno: el siguiente lo ocupa
+        bucket.release();
+        assertEquals(100 * MS, bucket.reserve(1000 * MS));
+
+        // Devolver con el balde lleno no acumula más de burst
+        now.addAndGet(1000 * MS);
+        bucket.release();
+        assertEquals(0L, bucket.reserve(0));
+        assertEquals(-1L, bucket.reserve(0));
+    }
+}
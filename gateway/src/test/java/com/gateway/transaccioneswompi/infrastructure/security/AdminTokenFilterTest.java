@@ -0,0 +1,65 @@
+package com.gateway.transaccioneswompi.infrastructure.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdminTokenFilterTest {
+
+    @Test
+    public void testAdminRequiresBearerToken() throws Exception {
+        AdminTokenFilter filter = new AdminTokenFilter("s3cret");
+
+        MockHttpServletResponse missing = run(filter, "/api-gateway/admin/dead-letters/replay", null);
+        assertEquals(401, missing.getStatus());
+
+        MockHttpServletResponse wrong = run(filter, "/api-gateway/admin/events", "Bearer otro");
+        assertEquals(401, wrong.getStatus());
+
+        MockHttpServletResponse ok = run(filter, "/api-gateway/admin/events", "Bearer s3cret");
+        assertEquals(200, ok.getStatus());
+    }
+
+    @Test
+    public void testAdminDisabledWithoutToken() throws Exception {
+        AdminTokenFilter filter = new AdminTokenFilter("");
+
+        assertEquals(403, run(filter, "/api-gateway/admin/events", "Bearer ").getStatus());
+        // El webhook no pasa por el filtro
+        assertEquals(200, run(filter, "/api-gateway/wompi/update-transaction", null).getStatus());
+    }
+
+    @Test
+    public void testPathVariantsAreStillProtected() throws Exception {
+        assertTrue(AdminTokenFilter.isAdminPath("/api-gateway/admin"));
+        assertTrue(AdminTokenFilter.isAdminPath("/api-gateway//admin/events"));
+        assertTrue(AdminTokenFilter.isAdminPath("/api-gateway/./admin/events"));
+        assertTrue(AdminTokenFilter.isAdminPath("/x/../api-gateway/admin/events"));
+        assertFalse(AdminTokenFilter.isAdminPath("/api-gateway/administracion"));
+        assertFalse(AdminTokenFilter.isAdminPath("/api-gateway/wompi/update-transaction"));
+    }
+
+    private static MockHttpServletResponse run(AdminTokenFilter filter, String uri, String authorization)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        if (authorization != null) {
+            request.addHeader("Authorization", authorization);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+        if (response.getStatus() == 200) {
+            assertNotNull(chain.getRequest());
+        } else {
+            assertNull(chain.getRequest());
+        }
+        return response;
+    }
+}
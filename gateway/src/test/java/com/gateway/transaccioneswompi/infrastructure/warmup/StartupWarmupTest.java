@@ -0,0 +1,57 @@
+package com.gateway.transaccioneswompi.infrastructure.warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.gateway.transaccioneswompi.infrastructure.mappers.EventBinaryCodec;
+import com.gateway.transaccioneswompi.infrastructure.mappers.RawJsonModule;
+import com.gateway.transaccioneswompi.infrastructure.mappers.WompiWebhookMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+public class StartupWarmupTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .registerModule(new RawJsonModule());
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private StartupWarmup warmup(int iterations) {
+        // Puerto 1: nadie escucha, la conexión se rechaza enseguida
+        return new StartupWarmup(objectMapper, new WompiWebhookMapper(), new EventBinaryCodec(objectMapper),
+                new RestTemplate(), meterRegistry, true, iterations, 5000L, 1,
+                "http://127.0.0.1:1/reservas", "http://127.0.0.1:1/aliados");
+    }
+
+    @Test
+    public void testSyntheticEventsGoThroughTheWholePath() throws Exception {
+        // Si el DTO o el mapper cambian y el evento sintético deja de parsear, se corta antes
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        assertEquals(40, warmup(40).exerciseWebhookPath(40, deadline));
+    }
+
+    @Test
+    public void testUnreachableDestinationsDoNotBlockStartup() throws Exception {
+        warmup(10).warmUp();
+
+        double millis = meterRegistry.get("gateway.startup.warmup").timeGauge().value(TimeUnit.MILLISECONDS);
+        assertTrue(millis >= 0 && millis < 5000, "duración: " + millis);
+    }
+
+    @Test
+    public void testConnectionsAreOnlyOpenedWithAWarmupUrl() throws Exception {
+        RestTemplate restTemplate = mock(RestTemplate.class);
+        new StartupWarmup(objectMapper, new WompiWebhookMapper(), new EventBinaryCodec(objectMapper),
+                restTemplate, meterRegistry, true, 10, 5000L, 2, "", "").warmUp();
+
+        // Sin URL de calentamiento no se llama a ningún destino de Seguru
+        verifyNoInteractions(restTemplate);
+    }
+}